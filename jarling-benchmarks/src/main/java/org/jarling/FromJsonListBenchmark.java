@@ -0,0 +1,67 @@
+package org.jarling;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.HttpResponse;
+import org.jarling.models.transactions.Transaction;
+import org.jarling.testkit.SyntheticDataGenerator;
+import org.jarling.testkit.SyntheticRecordType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * Decoding a page of synthetic transactions with {@link StarlingBase#fromJsonList}, straight from an in-memory response
+ * body.
+ * Lives in {@code org.jarling} because the decoder is package-private.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FromJsonListBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    private int transactions;
+
+    private final Decoder decoder = new Decoder();
+    private URL url;
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        url = new URL("https://api-sandbox.starlingbank.com/api/v1/transactions");
+        StringWriter listing = new StringWriter();
+        new SyntheticDataGenerator(1).writeListing(SyntheticRecordType.TRANSACTION, transactions, listing);
+        body = listing.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<Transaction> fromJsonList() throws StarlingBankRequestException {
+        return decoder.fromJsonList(Transaction.class, new HttpResponse(200, url, null, new ByteArrayInputStream(body)), "transactions");
+    }
+
+    private static final class Decoder extends StarlingBase {
+    }
+}
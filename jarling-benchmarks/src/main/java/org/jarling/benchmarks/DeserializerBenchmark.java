@@ -0,0 +1,62 @@
+package org.jarling.benchmarks;
+
+import com.google.gson.Gson;
+import org.jarling.models.budgeting.SavingsGoal;
+import org.jarling.models.common.Addresses;
+import org.jarling.models.gson.AddressesDeserializer;
+import org.jarling.models.gson.ModelGson;
+import org.jarling.models.gson.SavingsGoalDeserialzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * The models with hand written deserializers, decoded both by those deserializers ({@link SavingsGoalDeserialzer} and
+ * {@link AddressesDeserializer}, which a plain {@link Gson} picks up from the models' annotations) and by the
+ * streaming adapters of {@link ModelGson}, which the client uses.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeserializerBenchmark {
+
+    private final Gson deserializerGson = new Gson();
+    private final Gson modelGson = ModelGson.getInstance();
+    private final String savingsGoal = Fixtures.load("savings-goal.json");
+    private final String addresses = Fixtures.load("addresses.json");
+
+    @Benchmark
+    public SavingsGoal savingsGoalDeserializer(){
+        return deserializerGson.fromJson(savingsGoal, SavingsGoal.class);
+    }
+
+    @Benchmark
+    public SavingsGoal savingsGoalStreaming(){
+        return modelGson.fromJson(savingsGoal, SavingsGoal.class);
+    }
+
+    @Benchmark
+    public Addresses addressesDeserializer(){
+        return deserializerGson.fromJson(addresses, Addresses.class);
+    }
+
+    @Benchmark
+    public Addresses addressesStreaming(){
+        return modelGson.fromJson(addresses, Addresses.class);
+    }
+}
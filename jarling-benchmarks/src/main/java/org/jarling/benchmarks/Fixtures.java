@@ -0,0 +1,40 @@
+package org.jarling.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *
+ * Canned Starling responses the benchmarks decode, so that they run offline and always measure the same bytes.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class Fixtures {
+
+    private Fixtures(){
+    }
+
+    /**
+     * @param name a file in the fixtures directory, e.g. {@code addresses.json}
+     */
+    public static String load(String name){
+        try (InputStream is = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (is == null){
+                throw new IllegalArgumentException("No fixture named " + name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = is.read(buffer)) != -1){
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8).trim();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.jarling.benchmarks;
+
+import org.jarling.Starling;
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.HttpClient;
+import org.jarling.http.InterceptingHttpClient;
+import org.jarling.http.PooledHttpClient;
+import org.jarling.models.accounts.AccountBalance;
+import org.jarling.models.transactions.Transaction;
+import org.jarling.testkit.StubConfig;
+import org.jarling.testkit.StubStarlingServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * A whole {@link Starling} call, from building the request to the decoded model, over pooled connections to a
+ * {@link StubStarlingServer} in the same process that lists 100 or 100k transactions. Run {@link #main} to measure
+ * it with the allocation profiler, or pass {@code -prof gc} to the benchmarks jar.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StarlingCallBenchmark {
+
+    @Param({"100", "100000"})
+    private int transactions;
+
+    private StubStarlingServer server;
+    private PooledHttpClient pooledHttpClient;
+    private StarlingBank starling;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new StubStarlingServer(new StubConfig(0, 0, 0, 503, transactions));
+        pooledHttpClient = new PooledHttpClient(null);
+        HttpClient transport = new InterceptingHttpClient(pooledHttpClient, Collections.singletonList(server.interceptor()));
+        starling = new Starling(StarlingBankEnvironment.SANDBOX, "benchmark-access-token", transport);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        pooledHttpClient.close();
+        server.close();
+    }
+
+    @Benchmark
+    public AccountBalance getAccountBalance() throws StarlingBankRequestException {
+        return starling.getAccountBalance();
+    }
+
+    @Benchmark
+    public List<Transaction> listTransactions() throws StarlingBankRequestException {
+        return starling.listTransactions();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StarlingCallBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package org.jarling.testkit;
+
+/**
+ *
+ * How a {@link StubStarlingServer} answers: how long it takes, how often it fails, and how many elements its listings hold.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class StubConfig {
+
+    private final long latencyMillis;
+    private final long latencyJitterMillis;
+    private final double errorRate;
+    private final int errorStatus;
+    private final int listSize;
+    private final long seed;
+
+    /**
+     * Answers at once, never fails, and lists 100 elements.
+     */
+    public StubConfig(){
+        this(0, 0, 0, 503, 100);
+    }
+
+    /**
+     * Makes transactions and payments from seed 0.
+     */
+    public StubConfig(long latencyMillis, long latencyJitterMillis, double errorRate, int errorStatus, int listSize){
+        this(latencyMillis, latencyJitterMillis, errorRate, errorStatus, listSize, 0);
+    }
+
+    /**
+     * @param latencyMillis how long every request is held before it is answered
+     * @param latencyJitterMillis up to how much longer, chosen at random, a request is held
+     * @param errorRate the fraction of requests, from 0 to 1, answered with {@code errorStatus} instead
+     * @param errorStatus the status of failed requests, e.g. 503, or 429 which also asks the client to retry after a second
+     * @param listSize the number of elements in every listing, e.g. 100000 to list 100k transactions
+     * @param seed the seed of the {@link SyntheticDataGenerator} that makes transactions and payments
+     */
+    public StubConfig(long latencyMillis, long latencyJitterMillis, double errorRate, int errorStatus, int listSize, long seed){
+        if (latencyMillis < 0 || latencyJitterMillis < 0){
+            throw new IllegalArgumentException("latencyMillis and latencyJitterMillis must not be negative");
+        }
+        if (errorRate < 0 || errorRate > 1 || errorStatus < 400 || errorStatus > 599){
+            throw new IllegalArgumentException("errorRate must be between 0 and 1 and errorStatus between 400 and 599");
+        }
+        if (listSize < 0){
+            throw new IllegalArgumentException("listSize must not be negative");
+        }
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = latencyJitterMillis;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        this.listSize = listSize;
+        this.seed = seed;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public long getLatencyJitterMillis() {
+        return latencyJitterMillis;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public int getErrorStatus() {
+        return errorStatus;
+    }
+
+    public int getListSize() {
+        return listSize;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
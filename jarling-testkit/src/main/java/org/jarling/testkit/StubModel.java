@@ -0,0 +1,302 @@
+package org.jarling.testkit;
+
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.gson.IsoDateCodec;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * The resources a {@link StubStarlingServer} serves, each written in Starling's wire form. Every field is derived from
+ * the resource's id or its position in a listing, so the same request is always answered with the same body and
+ * nothing is kept between requests, however long the listing.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+enum StubModel {
+
+    ACCOUNT {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            out.name("id").value(id);
+            out.name("name").value("Personal");
+            out.name("number").value(digits(random, 8));
+            out.name("sortCode").value("608371");
+            out.name("currency").value(CURRENCY);
+            out.name("iban").value("GB26SRLG60837100000000");
+            out.name("bic").value("SRLGGB2L");
+            out.name("createdAt").value(timestamp(index + 10000));
+        }
+    },
+    BALANCE {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            BigDecimal balance = money(random, 500000);
+            out.name("clearedBalance").value(balance);
+            out.name("effectiveBalance").value(balance);
+            out.name("pendingTransactions").value(BigDecimal.ZERO);
+            out.name("availableToSpend").value(balance);
+            out.name("acceptedOverdraft").value(BigDecimal.ZERO);
+            out.name("currency").value(CURRENCY);
+            out.name("amount").value(balance);
+        }
+    },
+    ADDRESSES {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            out.name("current");
+            address(out, random);
+            out.name("previous").beginArray();
+            address(out, random);
+            out.endArray();
+        }
+    },
+    CARD {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            out.name("id").value(id);
+            out.name("nameOnCard").value("J SMITH");
+            out.name("type").value("CONTACTLESS_DEBIT_MASTERCARD");
+            out.name("activated").value(true);
+            out.name("activationRequested").value(true);
+            out.name("dispatchDate").value(timestamp(index + 9000));
+        }
+    },
+    CONTACT {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            out.name("id").value(id);
+            out.name("name").value(pick(random, NAMES));
+        }
+    },
+    CONTACT_ACCOUNT {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            out.name("id").value(id);
+            out.name("name").value(pick(random, NAMES));
+            out.name("type").value("UK_ACCOUNT_AND_SORT_CODE");
+            out.name("accountNumber").value(digits(random, 8));
+            out.name("sortCode").value(digits(random, 6));
+        }
+    },
+    CUSTOMER {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            out.name("customerUid").value(id);
+            out.name("firstName").value("Jo");
+            out.name("lastName").value("Smith");
+            out.name("dateOfBirth").value("1985-03-14");
+            out.name("email").value("jo.smith@example.com");
+            out.name("phone").value("+447700900" + digits(random, 3));
+        }
+    },
+    WHO_AM_I {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            out.name("customerUid").value(id);
+            out.name("authenticated").value(true);
+            out.name("expiresInSeconds").value(86400);
+            out.name("scopes").beginArray().value("balance:read").value("transaction:read").endArray();
+        }
+    },
+    DIRECT_DEBIT_MANDATE {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            out.name("uid").value(id);
+            out.name("reference").value("REF" + digits(random, 8));
+            out.name("status").value("LIVE");
+            out.name("source").value("ELECTRONIC");
+            out.name("created").value(timestamp(index * 24));
+            out.name("originatorName").value(pick(random, MERCHANTS));
+            out.name("originatorUid").value(id(MERCHANT, random.nextInt(100)));
+        }
+    },
+    FASTER_PAYMENTS_IN_TRANSACTION {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            out.name("id").value(id);
+            out.name("currency").value(CURRENCY);
+            out.name("amount").value(money(random, 100000));
+            out.name("direction").value("INBOUND");
+            out.name("created").value(timestamp(index));
+            out.name("narrative").value(pick(random, NAMES));
+            out.name("source").value("FASTER_PAYMENTS_IN");
+            out.name("sendingContactId").value(id(CONTACT, random.nextInt(100)));
+            out.name("sendingContactAccountId").value(id(CONTACT_ACCOUNT, random.nextInt(100)));
+        }
+    },
+    FASTER_PAYMENTS_OUT_TRANSACTION {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            out.name("id").value(id);
+            out.name("currency").value(CURRENCY);
+            out.name("amount").value(money(random, 50000).negate());
+            out.name("direction").value("OUTBOUND");
+            out.name("created").value(timestamp(index));
+            out.name("narrative").value(pick(random, NAMES));
+            out.name("source").value("FASTER_PAYMENTS_OUT");
+            out.name("receivingContactId").value(id(CONTACT, random.nextInt(100)));
+            out.name("receivingContactAccountId").value(id(CONTACT_ACCOUNT, random.nextInt(100)));
+        }
+    },
+    MERCHANT {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            String name = pick(random, MERCHANTS);
+            out.name("merchantUid").value(id);
+            out.name("name").value(name);
+            out.name("website").value("https://www." + name.toLowerCase().replace(" ", "") + ".co.uk");
+            out.name("phoneNumber").value("+44207946" + digits(random, 4));
+            out.name("twitterUsername").value(name.replace(" ", ""));
+        }
+    },
+    MERCHANT_LOCATION {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            String name = pick(random, MERCHANTS);
+            out.name("merchantUid").value(id(MERCHANT, random.nextInt(100)));
+            out.name("merchantLocationUid").value(id);
+            out.name("merchantName").value(name);
+            out.name("locationName").value(name + " " + pick(random, CITIES));
+            out.name("address").value(random.nextInt(200) + 1 + " High Street");
+            out.name("phoneNumber").value("+44207946" + digits(random, 4));
+            out.name("googlePlaceId").value("ChIJ" + Long.toHexString(random.nextLong()));
+            out.name("mastercardMerchantCategoryCode").value(5411 + random.nextInt(400));
+        }
+    },
+    SAVINGS_GOAL {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            int target = 1000 * (1 + random.nextInt(1000));
+            int saved = random.nextInt(target + 1);
+            out.name("uid").value(id);
+            out.name("name").value(pick(random, GOALS));
+            out.name("target");
+            currencyAndAmount(out, target);
+            out.name("totalSaved");
+            currencyAndAmount(out, saved);
+            out.name("savedPercentage").value(100L * saved / target);
+            out.name("_links").beginObject().name("photo").beginObject()
+                    .name("href").value("api/v1/savings-goals/" + id + "/photo")
+                    .endObject().endObject();
+        }
+    },
+    PHOTO {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            // A 1x1 transparent PNG
+            out.name("base64EncodedPhoto").value("iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAQAAAC1HAwCAAAAC0lEQVR42mNkYAAAAAYAAjCB0C8AAAAASUVORK5CYII=");
+        }
+    },
+    RECURRING_TRANSFER {
+        @Override
+        void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException {
+            out.name("recurrenceRule");
+            recurrenceRule(out, index);
+            out.name("currencyAndAmount");
+            currencyAndAmount(out, 100 * (1 + random.nextInt(100)));
+        }
+    };
+
+    private static final String CURRENCY = "GBP";
+    // Listings run backwards an hour at a time from here, newest first, wrapping around after 30 years
+    private static final long LATEST = 1514764800000L;
+    private static final long HOURS_KEPT = 30 * 365 * 24;
+    private static final String[] NAMES = {"Alex Jones", "Sam Patel", "Charlie Brown", "Robin Taylor", "Jamie Wilson", "Morgan Evans"};
+    private static final String[] MERCHANTS = {"Pret A Manger", "Tesco", "Sainsburys", "Transport for London", "Amazon", "Costa Coffee", "Uber", "Deliveroo"};
+    private static final String[] CITIES = {"London", "Manchester", "Leeds", "Bristol", "Cardiff", "Edinburgh"};
+    private static final String[] GOALS = {"Holiday", "Rainy day", "New bike", "Wedding", "House deposit"};
+
+    abstract void writeFields(JsonWriter out, String id, int index, SplittableRandom random) throws IOException;
+
+    /**
+     * Writes the resource with the given id, e.g. one asked for by its id in a path.
+     */
+    final void write(JsonWriter out, String id) throws IOException {
+        write(out, id, index(id));
+    }
+
+    /**
+     * Writes the element at {@code index} of a listing of this resource.
+     */
+    final void write(JsonWriter out, int index) throws IOException {
+        write(out, id(this, index), index);
+    }
+
+    private void write(JsonWriter out, String id, int index) throws IOException {
+        out.beginObject();
+        writeFields(out, id, index, new SplittableRandom(((long) ordinal() << 32) ^ id.hashCode()));
+        out.endObject();
+    }
+
+    /**
+     * @return the id of the element at {@code index} of a listing of {@code model}
+     */
+    static String id(StubModel model, int index){
+        return new UUID(0x5ba1e000_0000_4000L | (long) model.ordinal() << 16, 0x8000_0000_0000_0000L | index).toString();
+    }
+
+    // The position of a listed element from its id, so that it is the same when asked for by id
+    private int index(String id){
+        String prefix = id(this, 0).substring(0, 24);
+        if (id.length() == 36 && id.startsWith(prefix)){
+            try {
+                return (int) Long.parseLong(id.substring(24), 16);
+            } catch (NumberFormatException e) {
+                // Not one of ours after all
+            }
+        }
+        return Math.floorMod(id.hashCode(), 100000);
+    }
+
+    private static String timestamp(long hoursAgo){
+        return IsoDateCodec.formatTimestamp(new Date(LATEST - TimeUnit.HOURS.toMillis(Math.floorMod(hoursAgo, HOURS_KEPT))));
+    }
+
+    private static BigDecimal money(SplittableRandom random, int maxMinorUnits){
+        return BigDecimal.valueOf(1 + random.nextInt(maxMinorUnits), 2);
+    }
+
+    private static String digits(SplittableRandom random, int length){
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++){
+            chars[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(chars);
+    }
+
+    private static String pick(SplittableRandom random, String[] values){
+        return values[random.nextInt(values.length)];
+    }
+
+    private static void address(JsonWriter out, SplittableRandom random) throws IOException {
+        out.beginObject();
+        out.name("streetAddress").value(random.nextInt(200) + 1 + " High Street");
+        out.name("city").value(pick(random, CITIES));
+        out.name("country").value("GBR");
+        out.name("postcode").value("SW1A " + (1 + random.nextInt(9)) + "AA");
+        out.endObject();
+    }
+
+    private static void currencyAndAmount(JsonWriter out, long minorUnits) throws IOException {
+        out.beginObject();
+        out.name("currency").value(CURRENCY);
+        out.name("minorUnits").value(minorUnits);
+        out.endObject();
+    }
+
+    private static void recurrenceRule(JsonWriter out, int index) throws IOException {
+        out.beginObject();
+        out.name("startDate").value(timestamp(index * 24));
+        out.name("frequency").value("MONTHLY");
+        out.name("interval").value(1);
+        out.name("monthDay").value(1 + index % 28);
+        out.endObject();
+    }
+}
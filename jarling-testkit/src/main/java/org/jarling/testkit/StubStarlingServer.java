@@ -0,0 +1,468 @@
+package org.jarling.testkit;
+
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.http.HttpInterceptor;
+import org.jarling.http.HttpRequest;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * Stands in for the Starling Bank API in the same process, so that the client can be tested and load tested without a
+ * sandbox token or a network. It answers every path {@link org.jarling.Starling} calls, listings as HAL
+ * {@code _embedded} arrays, with made up but stable data; transactions and payments come from a
+ * {@link SyntheticDataGenerator}. Listings are written element by element as they are sent, so even a listing of 100k
+ * transactions takes no memory to serve.
+ *
+ * Point a client at the stub by adding {@link #interceptor()} to its transport. How long the stub takes, how often it
+ * fails and how long its listings are is set by a {@link StubConfig}, which can be changed while it runs.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class StubStarlingServer implements Closeable {
+
+    private static final String API_VERSION = "/api/v1";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong created = new AtomicLong();
+    private volatile StubConfig config;
+
+    public StubStarlingServer() throws IOException {
+        this(new StubConfig());
+    }
+
+    /**
+     * Starts a stub on a free port of the loopback interface.
+     */
+    public StubStarlingServer(StubConfig config) throws IOException {
+        this(config, 0);
+    }
+
+    /**
+     * Starts a stub on the given port of the loopback interface, or a free one for 0.
+     */
+    public StubStarlingServer(StubConfig config, int port) throws IOException {
+        this.config = config;
+        // Otherwise the separate writes of headers and body wait out the client's delayed acknowledgement
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "jarling-stub-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(API_VERSION + "/", this::handle);
+        server.start();
+    }
+
+    /**
+     * @return the address requests to the stub are sent to, e.g. {@code http://localhost:8080}
+     */
+    public String getBaseUrl(){
+        return "http://localhost:" + getPort();
+    }
+
+    public int getPort(){
+        return server.getAddress().getPort();
+    }
+
+    public StubConfig getConfig(){
+        return config;
+    }
+
+    /**
+     * Changes how the stub answers from the next request on, e.g. to start failing in the middle of a load test.
+     */
+    public void setConfig(StubConfig config){
+        this.config = config;
+    }
+
+    /**
+     * @return an interceptor that sends requests meant for any Starling Bank environment to this stub instead
+     */
+    public HttpInterceptor interceptor(){
+        String baseUrl = getBaseUrl();
+        return (httpRequest, chain) -> {
+            String url = httpRequest.getUrl();
+            for (StarlingBankEnvironment environment : StarlingBankEnvironment.values()){
+                if (url.startsWith(environment.getPath())){
+                    return chain.proceed(new HttpRequest(httpRequest.getRequestMethod(), baseUrl + url.substring(environment.getPath().length()),
+                            httpRequest.getHttpParameters(), httpRequest.getRequestHeaders(), httpRequest.getBody()));
+                }
+            }
+            return chain.proceed(httpRequest);
+        };
+    }
+
+    /**
+     * @return requests received, including those answered with an error
+     */
+    public long getRequestCount(){
+        return requests.sum();
+    }
+
+    /**
+     * @return requests answered with the configured error status, or 404 for a path Starling does not have
+     */
+    public long getErrorCount(){
+        return errors.sum();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        StubConfig config = this.config;
+        try {
+            exchange.getRequestBody().close();
+            delay(config);
+            if (config.getErrorRate() > 0 && ThreadLocalRandom.current().nextDouble() < config.getErrorRate()){
+                if (config.getErrorStatus() == 429){
+                    exchange.getResponseHeaders().add("Retry-After", "1");
+                }
+                sendError(exchange, config.getErrorStatus(), "stub_error", "The stub was configured to fail this request");
+                return;
+            }
+            route(exchange, exchange.getRequestMethod(), segments(exchange.getRequestURI().getPath()), config);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void delay(StubConfig config) throws InterruptedException {
+        long delayMillis = config.getLatencyMillis();
+        if (config.getLatencyJitterMillis() > 0){
+            delayMillis += ThreadLocalRandom.current().nextLong(config.getLatencyJitterMillis() + 1);
+        }
+        if (delayMillis > 0){
+            TimeUnit.MILLISECONDS.sleep(delayMillis);
+        }
+    }
+
+    // The path below the API version, without empty segments, e.g. /api/v1/transactions/fps/in/ is [transactions, fps, in]
+    private static List<String> segments(String path){
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.substring(API_VERSION.length()).split("/")){
+            if (!segment.isEmpty()){
+                segments.add(segment);
+            }
+        }
+        return segments;
+    }
+
+    private void route(HttpExchange exchange, String method, List<String> path, StubConfig config) throws IOException {
+        int listSize = config.getListSize();
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(config.getSeed());
+        String root = path.isEmpty() ? "" : path.get(0);
+        int size = path.size();
+        switch (root){
+            case "accounts":
+                if (size == 1){
+                    sendModel(exchange, method, StubModel.ACCOUNT, StubModel.id(StubModel.ACCOUNT, 0));
+                    return;
+                }
+                if (size == 2 && path.get(1).equals("balance")){
+                    sendModel(exchange, method, StubModel.BALANCE, "balance");
+                    return;
+                }
+                break;
+            case "addresses":
+                if (size == 1){
+                    sendModel(exchange, method, StubModel.ADDRESSES, "addresses");
+                    return;
+                }
+                break;
+            case "cards":
+                if (size == 1){
+                    sendModel(exchange, method, StubModel.CARD, StubModel.id(StubModel.CARD, 0));
+                    return;
+                }
+                break;
+            case "customers":
+                if (size == 1){
+                    sendModel(exchange, method, StubModel.CUSTOMER, StubModel.id(StubModel.CUSTOMER, 0));
+                    return;
+                }
+                break;
+            case "me":
+                if (size == 1){
+                    sendModel(exchange, method, StubModel.WHO_AM_I, StubModel.id(StubModel.CUSTOMER, 0));
+                    return;
+                }
+                break;
+            case "contacts":
+                if (size == 1 && method.equals("POST")){
+                    sendCreated(exchange, "/contacts/" + StubModel.id(StubModel.CONTACT, createdIndex(listSize)));
+                    return;
+                }
+                if (size == 1){
+                    sendList(exchange, method, StubModel.CONTACT, "contacts", listSize);
+                    return;
+                }
+                if (size == 2){
+                    sendModel(exchange, method, StubModel.CONTACT, path.get(1));
+                    return;
+                }
+                if (size == 3 && path.get(2).equals("accounts")){
+                    sendList(exchange, method, StubModel.CONTACT_ACCOUNT, "contactAccounts", listSize);
+                    return;
+                }
+                if (size == 4 && path.get(2).equals("accounts")){
+                    sendModel(exchange, method, StubModel.CONTACT_ACCOUNT, path.get(3));
+                    return;
+                }
+                break;
+            case "direct-debit":
+                if (size == 2 && path.get(1).equals("mandates")){
+                    sendList(exchange, method, StubModel.DIRECT_DEBIT_MANDATE, "mandates", listSize);
+                    return;
+                }
+                if (size == 3 && path.get(1).equals("mandates")){
+                    sendModel(exchange, method, StubModel.DIRECT_DEBIT_MANDATE, path.get(2));
+                    return;
+                }
+                break;
+            case "transactions":
+                if (routeTransactions(exchange, method, path, listSize, generator)){
+                    return;
+                }
+                break;
+            case "merchants":
+                if (size == 2){
+                    sendModel(exchange, method, StubModel.MERCHANT, path.get(1));
+                    return;
+                }
+                if (size == 4 && path.get(2).equals("locations")){
+                    sendModel(exchange, method, StubModel.MERCHANT_LOCATION, path.get(3));
+                    return;
+                }
+                break;
+            case "payments":
+                if (size == 2 && (path.get(1).equals("local") || path.get(1).equals("scheduled")) && method.equals("POST")){
+                    // Pays with a payment order that is in the listing, which is where the client looks for it
+                    sendCreated(exchange, "/payments/" + path.get(1) + "/" + generator.id(SyntheticRecordType.PAYMENT, createdIndex(listSize)));
+                    return;
+                }
+                if (size == 2 && path.get(1).equals("scheduled")){
+                    sendList(exchange, method, generator, SyntheticRecordType.PAYMENT, listSize);
+                    return;
+                }
+                break;
+            case "savings-goals":
+                if (routeSavingsGoals(exchange, method, path, listSize)){
+                    return;
+                }
+                break;
+            default:
+        }
+        sendError(exchange, 404, "not_found", "There is no resource at this path");
+    }
+
+    private boolean routeTransactions(HttpExchange exchange, String method, List<String> path, int listSize, SyntheticDataGenerator generator) throws IOException {
+        int size = path.size();
+        SyntheticRecordType type = SyntheticRecordType.TRANSACTION;
+        int idAt = 1;
+        if (size > 1){
+            switch (path.get(1)){
+                case "direct-debit":
+                    type = SyntheticRecordType.DIRECT_DEBIT_TRANSACTION;
+                    idAt = 2;
+                    break;
+                case "mastercard":
+                    type = SyntheticRecordType.MASTER_CARD_TRANSACTION;
+                    idAt = 2;
+                    break;
+                case "fps":
+                    if (size < 3 || !(path.get(2).equals("in") || path.get(2).equals("out"))){
+                        return false;
+                    }
+                    StubModel model = path.get(2).equals("in") ? StubModel.FASTER_PAYMENTS_IN_TRANSACTION : StubModel.FASTER_PAYMENTS_OUT_TRANSACTION;
+                    if (size == 3){
+                        sendList(exchange, method, model, "transactions", listSize);
+                        return true;
+                    }
+                    if (size == 4){
+                        sendModel(exchange, method, model, path.get(3));
+                        return true;
+                    }
+                    return false;
+                default:
+            }
+        }
+        if (size == idAt){
+            sendList(exchange, method, generator, type, listSize);
+            return true;
+        }
+        if (size == idAt + 1){
+            sendModel(exchange, method, generator, type, path.get(idAt));
+            return true;
+        }
+        return false;
+    }
+
+    private boolean routeSavingsGoals(HttpExchange exchange, String method, List<String> path, int listSize) throws IOException {
+        int size = path.size();
+        if (size == 1){
+            sendList(exchange, method, StubModel.SAVINGS_GOAL, "savingsGoalList", listSize);
+            return true;
+        }
+        String uid = path.get(1);
+        if (size == 2 && method.equals("PUT")){
+            sendJson(exchange, 200, "{\"savingsGoalUid\":\"" + uid + "\",\"success\":true,\"errors\":[]}");
+            return true;
+        }
+        if (size == 2){
+            sendModel(exchange, method, StubModel.SAVINGS_GOAL, uid);
+            return true;
+        }
+        String resource = path.get(2);
+        if (size == 3 && resource.equals("photo")){
+            sendModel(exchange, method, StubModel.PHOTO, uid);
+            return true;
+        }
+        if (size == 3 && resource.equals("recurring-transfer") && method.equals("PUT")){
+            sendTransfer(exchange);
+            return true;
+        }
+        if (size == 3 && resource.equals("recurring-transfer")){
+            sendModel(exchange, method, StubModel.RECURRING_TRANSFER, uid);
+            return true;
+        }
+        if (size == 4 && (resource.equals("add-money") || resource.equals("withdraw-money")) && method.equals("PUT")){
+            sendTransfer(exchange);
+            return true;
+        }
+        return false;
+    }
+
+    private int createdIndex(int listSize){
+        return listSize == 0 ? 0 : (int) (created.getAndIncrement() % listSize);
+    }
+
+    private void sendModel(HttpExchange exchange, String method, StubModel model, String id) throws IOException {
+        sendModel(exchange, method, out -> model.write(out, id));
+    }
+
+    // Only records the generator made exist, as Starling has no transaction or payment for an id it never issued
+    private void sendModel(HttpExchange exchange, String method, SyntheticDataGenerator generator, SyntheticRecordType type, String id) throws IOException {
+        long index = generator.index(type, id);
+        if (index < 0){
+            sendError(exchange, 404, "not_found", "There is no resource with this id");
+            return;
+        }
+        sendModel(exchange, method, out -> generator.writeRecord(type, index, out));
+    }
+
+    // Answers GET with the resource, DELETE with no content, and anything else as not allowed
+    private void sendModel(HttpExchange exchange, String method, BodyWriter bodyWriter) throws IOException {
+        if (method.equals("DELETE")){
+            exchange.sendResponseHeaders(204, -1);
+            return;
+        }
+        if (!method.equals("GET")){
+            sendError(exchange, 405, "method_not_allowed", "The resource does not accept " + method);
+            return;
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+        try (JsonWriter out = new JsonWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8))) {
+            bodyWriter.write(out);
+        }
+        send(exchange, 200, body.toByteArray());
+    }
+
+    private void sendList(HttpExchange exchange, String method, StubModel model, String memberName, int listSize) throws IOException {
+        sendList(exchange, method, memberName, out -> {
+            for (int i = 0; i < listSize; i++){
+                model.write(out, i);
+            }
+        });
+    }
+
+    private void sendList(HttpExchange exchange, String method, SyntheticDataGenerator generator, SyntheticRecordType type, int listSize) throws IOException {
+        sendList(exchange, method, type.getMemberName(), out -> generator.writeRecords(type, listSize, out));
+    }
+
+    private void sendList(HttpExchange exchange, String method, String memberName, BodyWriter elementsWriter) throws IOException {
+        if (!method.equals("GET")){
+            sendError(exchange, 405, "method_not_allowed", "The resource does not accept " + method);
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 8192);
+             JsonWriter out = new JsonWriter(writer)) {
+            out.beginObject();
+            out.name("_links").beginObject().name("self").beginObject()
+                    .name("href").value(exchange.getRequestURI().getPath().substring(1))
+                    .name("templated").value(false)
+                    .endObject().endObject();
+            out.name("_embedded").beginObject().name(memberName).beginArray();
+            elementsWriter.write(out);
+            out.endArray().endObject();
+            out.endObject();
+        }
+    }
+
+    private void sendCreated(HttpExchange exchange, String path) throws IOException {
+        exchange.getResponseHeaders().add("Location", API_VERSION + path);
+        exchange.sendResponseHeaders(202, -1);
+    }
+
+    private void sendTransfer(HttpExchange exchange) throws IOException {
+        sendJson(exchange, 200, "{\"transferUid\":\"" + UUID.randomUUID() + "\",\"success\":true,\"errors\":[]}");
+    }
+
+    private void sendError(HttpExchange exchange, int status, String error, String description) throws IOException {
+        errors.increment();
+        sendJson(exchange, status, "{\"error\":\"" + error + "\",\"error_description\":\"" + description + "\"}");
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        send(exchange, status, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private interface BodyWriter {
+
+        void write(JsonWriter out) throws IOException;
+    }
+}
@@ -0,0 +1,476 @@
+package org.jarling.testkit;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.directDebits.DirectDebitTransaction;
+import org.jarling.models.gson.IsoDateCodec;
+import org.jarling.models.gson.ModelGson;
+import org.jarling.models.payments.Payment;
+import org.jarling.models.transactions.MasterCardTransaction;
+import org.jarling.models.transactions.Transaction;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ *
+ * Makes any number of realistic Starling records from a seed, as models or in Starling's wire form. Card spending is
+ * spread over a fixed set of merchants, a few of them far more popular than the rest, and their locations; amounts
+ * are log-normal around a typical value for their kind; card methods, statuses and transaction sources follow fixed
+ * weights; direct debits are paid to a set of mandates, each for a steady amount.
+ *
+ * Records are numbered from 0, newest first, and every field of a record is made from the seed, its type and its
+ * number alone, so the same seed always gives the same records and any record can be made without the ones before it.
+ * The one exception is the running balance of a transaction, which is carried from record to record. Nothing else is
+ * kept, so memory stays the same however many records are made.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class SyntheticDataGenerator {
+
+    private static final long DEFAULT_LATEST = 1514764800000L;
+    private static final String CURRENCY = "GBP";
+    private static final long OPENING_BALANCE = 250000;
+
+    private static final int MERCHANT_COUNT = 2000;
+    private static final double MERCHANT_SKEW = 1.1;
+    // The chance of a card payment going to each merchant or one more popular, most popular first
+    private static final double[] MERCHANT_CDF = zipfCdf(MERCHANT_COUNT, MERCHANT_SKEW);
+    private static final int MANDATE_COUNT = 25;
+    private static final int CONTACT_COUNT = 50;
+
+    private static final String[] CHAINS = {"Tesco", "Pret A Manger", "Sainsburys", "Transport for London", "Amazon",
+            "Costa Coffee", "Uber", "Deliveroo", "Boots", "Greggs", "Waitrose", "Marks & Spencer"};
+    private static final String[] ADJECTIVES = {"Golden", "Red", "Old", "Royal", "Little", "Green", "Corner", "Kings",
+            "Silver", "Blue", "Northern", "Crown", "Village", "Oak", "Union", "Rose", "Bridge", "Market", "Park", "River"};
+    private static final String[] NOUNS = {"Bakery", "Cafe", "Kitchen", "Grocer", "Books", "Pharmacy", "Arms", "Deli",
+            "Barbers", "Garage", "Florist", "Cycles", "Tavern", "Noodle Bar", "Pizzeria", "Hardware"};
+    private static final String[] CITIES = {"London", "Manchester", "Leeds", "Bristol", "Cardiff", "Edinburgh", "Glasgow", "Belfast"};
+    private static final String[] ORIGINATORS = {"British Gas", "Thames Water", "Council Tax", "Vodafone", "Netflix",
+            "Spotify", "Aviva", "Virgin Media", "PureGym", "TV Licensing"};
+    private static final String[] PEOPLE = {"Alex Jones", "Sam Patel", "Charlie Brown", "Robin Taylor", "Jamie Wilson",
+            "Morgan Evans", "Jordan Smith", "Casey Khan", "Riley Davies", "Avery Thomas"};
+    private static final String[] METHODS = {"CONTACTLESS", "CHIP_AND_PIN", "ONLINE", "APPLE_PAY", "ANDROID_PAY", "ATM", "MAGNETIC_STRIP"};
+    private static final double[] METHOD_WEIGHTS = {0.50, 0.18, 0.17, 0.08, 0.04, 0.02, 0.01};
+    private static final String[] STATUSES = {"SETTLED", "PENDING", "REVERSED", "DECLINED"};
+    private static final double[] STATUS_WEIGHTS = {0.92, 0.05, 0.015, 0.015};
+    private static final String[] SOURCES = {"MASTER_CARD", "FASTER_PAYMENTS_OUT", "DIRECT_DEBIT", "FASTER_PAYMENTS_IN", "INTEREST_PAYMENT"};
+    private static final double[] SOURCE_WEIGHTS = {0.70, 0.10, 0.10, 0.08, 0.02};
+
+    private final long seed;
+    private final long latestMillis;
+
+    /**
+     * Makes records up to the start of 2018.
+     */
+    public SyntheticDataGenerator(long seed){
+        this(seed, new Date(DEFAULT_LATEST));
+    }
+
+    /**
+     * @param seed records made from the same seed are the same
+     * @param latest when the newest record happened; older ones go back in time from here
+     */
+    public SyntheticDataGenerator(long seed, Date latest){
+        this.seed = seed;
+        this.latestMillis = latest.getTime();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Stream<Transaction> transactions(long count){
+        return stream(SyntheticRecordType.TRANSACTION, Transaction.class, count);
+    }
+
+    public Stream<MasterCardTransaction> masterCardTransactions(long count){
+        return stream(SyntheticRecordType.MASTER_CARD_TRANSACTION, MasterCardTransaction.class, count);
+    }
+
+    public Stream<DirectDebitTransaction> directDebitTransactions(long count){
+        return stream(SyntheticRecordType.DIRECT_DEBIT_TRANSACTION, DirectDebitTransaction.class, count);
+    }
+
+    public Stream<Payment> payments(long count){
+        return stream(SyntheticRecordType.PAYMENT, Payment.class, count);
+    }
+
+    /**
+     * Decodes each record from its wire form as it is consumed, so the models are exactly what the client would decode.
+     */
+    private <T> Stream<T> stream(SyntheticRecordType type, Class<T> clazz, long count){
+        Gson gson = ModelGson.getInstance();
+        TypeAdapter<T> adapter = gson.getAdapter(clazz);
+        Cursor cursor = new Cursor(type);
+        StringWriter json = new StringWriter(512);
+        Iterator<T> iterator = new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return cursor.getIndex() < count;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()){
+                    throw new NoSuchElementException();
+                }
+                json.getBuffer().setLength(0);
+                try {
+                    cursor.write(new JsonWriter(json));
+                    return adapter.fromJson(json.toString());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliterator(iterator, count, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Writes {@code count} records as Starling lists them, {@code {"_embedded":{"<member>":[...]}}}, one record at a time.
+     */
+    public void writeListing(SyntheticRecordType type, long count, Writer writer) throws IOException {
+        JsonWriter out = new JsonWriter(writer);
+        out.beginObject();
+        out.name("_embedded").beginObject().name(type.getMemberName()).beginArray();
+        writeRecords(type, count, out);
+        out.endArray().endObject();
+        out.endObject();
+        out.flush();
+    }
+
+    /**
+     * Writes a listing of {@code count} records to {@code file} as UTF-8, replacing it if it exists.
+     */
+    public void writeListing(SyntheticRecordType type, long count, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeListing(type, count, writer);
+        }
+    }
+
+    /**
+     * Writes the first {@code count} records one after the other, e.g. into an array of a listing.
+     */
+    public void writeRecords(SyntheticRecordType type, long count, JsonWriter out) throws IOException {
+        Cursor cursor = new Cursor(type);
+        for (long i = 0; i < count; i++){
+            cursor.write(out);
+        }
+    }
+
+    /**
+     * Writes the record numbered {@code index}, with the balance it would have as the newest of a listing.
+     */
+    public void writeRecord(SyntheticRecordType type, long index, JsonWriter out) throws IOException {
+        new Cursor(type, index).write(out);
+    }
+
+    /**
+     * @return the id of the record numbered {@code index}
+     */
+    public String id(SyntheticRecordType type, long index){
+        return new UUID(idPrefix(type), 0x8000_0000_0000_0000L | index).toString();
+    }
+
+    /**
+     * @return the number of the record with the given id, or -1 if it was not made by a generator with this seed
+     */
+    public long index(SyntheticRecordType type, String id){
+        try {
+            UUID uuid = UUID.fromString(id);
+            if (uuid.getMostSignificantBits() == idPrefix(type) && uuid.getLeastSignificantBits() < 0){
+                return uuid.getLeastSignificantBits() & Long.MAX_VALUE;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a UUID, so not one of ours
+        }
+        return -1;
+    }
+
+    // A version 4 layout, so the ids look like those Starling sends
+    private long idPrefix(SyntheticRecordType type){
+        return mix(seed, type.ordinal(), -1) & 0xFFFF_FFFF_FFFF_0FFFL | 0x4000L;
+    }
+
+    private SplittableRandom random(SyntheticRecordType type, long index){
+        return new SplittableRandom(mix(seed, type.ordinal(), index));
+    }
+
+    /**
+     * Makes records one after the other, carrying the running balance from each to the next.
+     */
+    final class Cursor {
+
+        private final SyntheticRecordType type;
+        private long index;
+        private long balanceMinorUnits;
+
+        Cursor(SyntheticRecordType type){
+            this(type, 0);
+        }
+
+        Cursor(SyntheticRecordType type, long index){
+            this.type = type;
+            this.index = index;
+            this.balanceMinorUnits = OPENING_BALANCE + new SplittableRandom(mix(seed, type.ordinal(), -2)).nextInt(500000);
+        }
+
+        long getIndex(){
+            return index;
+        }
+
+        void write(JsonWriter out) throws IOException {
+            SplittableRandom random = random(type, index);
+            String id = id(type, index);
+            out.beginObject();
+            switch (type){
+                case TRANSACTION:
+                    writeTransaction(out, id, random);
+                    break;
+                case MASTER_CARD_TRANSACTION:
+                    writeMasterCardTransaction(out, id, random);
+                    break;
+                case DIRECT_DEBIT_TRANSACTION:
+                    writeDirectDebitTransaction(out, id, random);
+                    break;
+                default:
+                    writePayment(out, id, random);
+            }
+            out.endObject();
+            index++;
+        }
+
+        private void writeTransaction(JsonWriter out, String id, SplittableRandom random) throws IOException {
+            String source = SOURCES[pick(random, SOURCE_WEIGHTS)];
+            long minorUnits;
+            String narrative;
+            String detail = null;
+            switch (source){
+                case "MASTER_CARD":
+                    minorUnits = -logNormal(random, 600, 1.0, 200000);
+                    narrative = merchantName(merchant(random));
+                    detail = "mastercard";
+                    break;
+                case "FASTER_PAYMENTS_OUT":
+                    minorUnits = -logNormal(random, 4000, 1.0, 500000);
+                    narrative = PEOPLE[random.nextInt(PEOPLE.length)];
+                    detail = "fps/out";
+                    break;
+                case "DIRECT_DEBIT":
+                    int mandate = random.nextInt(MANDATE_COUNT);
+                    minorUnits = -mandateAmount(mandate, random);
+                    narrative = ORIGINATORS[mandate % ORIGINATORS.length];
+                    detail = "direct-debit";
+                    break;
+                case "FASTER_PAYMENTS_IN":
+                    // About once a month a salary, otherwise money from a friend, so that over time money in and out is even
+                    boolean salary = random.nextInt(25) == 0;
+                    minorUnits = salary ? 250000 + random.nextInt(200000) : logNormal(random, 4000, 1.0, 500000);
+                    narrative = salary ? "Salary" : PEOPLE[random.nextInt(PEOPLE.length)];
+                    detail = "fps/in";
+                    break;
+                default:
+                    minorUnits = logNormal(random, 50, 0.5, 10000);
+                    narrative = "Interest";
+            }
+            out.name("id").value(id);
+            out.name("currency").value(CURRENCY);
+            out.name("amount").value(money(minorUnits));
+            out.name("direction").value(minorUnits < 0 ? "OUTBOUND" : "INBOUND");
+            out.name("created").value(created(random, TimeUnit.HOURS.toMillis(2)));
+            out.name("narrative").value(narrative);
+            out.name("source").value(source);
+            out.name("balance").value(money(balanceMinorUnits));
+            if (detail != null){
+                out.name("_links").beginObject().name("detail").beginObject()
+                        .name("href").value("api/v1/transactions/" + detail + "/" + id)
+                        .name("templated").value(false)
+                        .endObject().endObject();
+            }
+            // Going back in time, the balance before this transaction did not include it
+            balanceMinorUnits -= minorUnits;
+        }
+
+        private void writeMasterCardTransaction(JsonWriter out, String id, SplittableRandom random) throws IOException {
+            int merchant = merchant(random);
+            boolean refund = random.nextInt(50) == 0;
+            long minorUnits = logNormal(random, 600, 1.0, 200000);
+            String method = METHODS[pick(random, METHOD_WEIGHTS)];
+            if (method.equals("ATM")){
+                minorUnits = 1000 * (1 + random.nextInt(20));
+            }
+            out.name("id").value(id);
+            out.name("currency").value(CURRENCY);
+            out.name("amount").value(money(refund ? minorUnits : -minorUnits));
+            out.name("direction").value(refund ? "INBOUND" : "OUTBOUND");
+            out.name("created").value(created(random, TimeUnit.HOURS.toMillis(3)));
+            out.name("narrative").value(merchantName(merchant));
+            out.name("source").value("MASTER_CARD");
+            out.name("mastercardTransactionMethod").value(method);
+            out.name("status").value(STATUSES[pick(random, STATUS_WEIGHTS)]);
+            // One in twenty is spent abroad
+            if (random.nextInt(20) == 0){
+                boolean euro = random.nextBoolean();
+                out.name("sourceAmount").value(money(Math.round(minorUnits * (euro ? 1.13 : 1.35))));
+                out.name("sourceCurrency").value(euro ? "EUR" : "USD");
+            } else {
+                out.name("sourceAmount").value(money(minorUnits));
+                out.name("sourceCurrency").value(CURRENCY);
+            }
+            out.name("merchantId").value(merchantId(merchant));
+            out.name("merchantLocationId").value(merchantLocationId(merchant, random.nextInt(locations(merchant))));
+        }
+
+        private void writeDirectDebitTransaction(JsonWriter out, String id, SplittableRandom random) throws IOException {
+            int mandate = random.nextInt(MANDATE_COUNT);
+            long minorUnits = mandateAmount(mandate, random);
+            String originator = ORIGINATORS[mandate % ORIGINATORS.length];
+            out.name("id").value(id);
+            out.name("title").value(originator);
+            out.name("type").value(random.nextInt(20) == 0 ? "FIRST_PAYMENT_OF_DIRECT_DEBIT" : "DIRECT_DEBIT");
+            out.name("currency").value(CURRENCY);
+            out.name("source").value("DIRECT_DEBIT");
+            out.name("direction").value("OUTBOUND");
+            out.name("narrative").value(originator);
+            out.name("created").value(created(random, TimeUnit.DAYS.toMillis(1)));
+            out.name("amount").value(money(-minorUnits));
+            out.name("balance").value(money(balanceMinorUnits));
+            out.name("mandateId").value(new UUID(mix(seed, 'M', -1), mix(seed, 'M', mandate)).toString());
+            balanceMinorUnits += minorUnits;
+        }
+
+        private void writePayment(JsonWriter out, String id, SplittableRandom random) throws IOException {
+            int contact = random.nextInt(CONTACT_COUNT);
+            boolean weekly = random.nextInt(10) < 3;
+            long startMillis = latestMillis - TimeUnit.DAYS.toMillis(index + random.nextInt(30));
+            long periodMillis = TimeUnit.DAYS.toMillis(weekly ? 7 : 30);
+            long nextMillis = latestMillis + TimeUnit.DAYS.toMillis(1 + random.nextInt(weekly ? 7 : 30));
+            out.name("paymentOrderId").value(id);
+            out.name("currency").value(CURRENCY);
+            out.name("amount").value(money(logNormal(random, weekly ? 2500 : 15000, 0.9, 1000000)));
+            out.name("reference").value(weekly ? "Pocket money" : "Rent");
+            out.name("receivingContactAccountId").value(new UUID(mix(seed, 'C', -1), mix(seed, 'C', contact)).toString());
+            out.name("recipientName").value(PEOPLE[contact % PEOPLE.length]);
+            out.name("immediate").value(false);
+            out.name("paymentType").value("STANDING_ORDER");
+            out.name("recurrenceRule").beginObject();
+            out.name("startDate").value(IsoDateCodec.formatTimestamp(new Date(startMillis)));
+            out.name("frequency").value(weekly ? "WEEKLY" : "MONTHLY");
+            out.name("interval").value(1);
+            if (weekly){
+                out.name("weekStart").value("MONDAY");
+                out.name("days").beginArray().value("FRIDAY").endArray();
+            } else {
+                out.name("monthDay").value(1 + random.nextInt(28));
+            }
+            out.endObject();
+            out.name("startDate").value(IsoDateCodec.formatTimestamp(new Date(startMillis)));
+            out.name("lastDate").value(IsoDateCodec.formatTimestamp(new Date(nextMillis - periodMillis)));
+            out.name("nextDate").value(IsoDateCodec.formatTimestamp(new Date(nextMillis)));
+        }
+
+        // Records are spaced about one interval apart, newest first, with no two out of order
+        private String created(SplittableRandom random, long intervalMillis){
+            return IsoDateCodec.formatTimestamp(new Date(latestMillis - (long) ((index + random.nextDouble()) * intervalMillis)));
+        }
+
+        // Each mandate is for much the same amount every time
+        private long mandateAmount(int mandate, SplittableRandom random){
+            long typical = logNormal(new SplittableRandom(mix(seed, 'M', mandate)), 4500, 0.8, 50000);
+            return Math.max(100, typical + (long) (typical * 0.1 * gaussian(random)));
+        }
+    }
+
+    private static int merchant(SplittableRandom random){
+        int rank = Arrays.binarySearch(MERCHANT_CDF, random.nextDouble());
+        return Math.min(MERCHANT_COUNT - 1, rank < 0 ? -rank - 1 : rank);
+    }
+
+    // The most popular merchants are chains with many locations; the rest are local with one or two
+    private static String merchantName(int merchant){
+        if (merchant < CHAINS.length){
+            return CHAINS[merchant];
+        }
+        int local = merchant - CHAINS.length;
+        return ADJECTIVES[local % ADJECTIVES.length] + " " + NOUNS[local / ADJECTIVES.length % NOUNS.length]
+                + " " + CITIES[local / (ADJECTIVES.length * NOUNS.length) % CITIES.length];
+    }
+
+    private static int locations(int merchant){
+        return merchant < CHAINS.length ? 200 : 1 + merchant % 2;
+    }
+
+    private String merchantId(int merchant){
+        return new UUID(mix(seed, 'm', -1), mix(seed, 'm', merchant)).toString();
+    }
+
+    private String merchantLocationId(int merchant, int location){
+        return new UUID(mix(seed, 'l', merchant), mix(seed, 'l', location)).toString();
+    }
+
+    // A log-normal amount in minor units around the given median, at least one penny and at most the cap
+    private static long logNormal(SplittableRandom random, long median, double sigma, long cap){
+        return Math.max(1, Math.min(cap, Math.round(median * Math.exp(sigma * gaussian(random)))));
+    }
+
+    // A standard normal value by the Box-Muller transform, as SplittableRandom has no nextGaussian of its own
+    private static double gaussian(SplittableRandom random){
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static int pick(SplittableRandom random, double[] weights){
+        double value = random.nextDouble();
+        for (int i = 0; i < weights.length - 1; i++){
+            value -= weights[i];
+            if (value < 0){
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    private static BigDecimal money(long minorUnits){
+        return BigDecimal.valueOf(minorUnits, 2);
+    }
+
+    private static double[] zipfCdf(int count, double skew){
+        double[] cdf = new double[count];
+        double total = 0;
+        for (int rank = 0; rank < count; rank++){
+            total += 1 / Math.pow(rank + 1, skew);
+            cdf[rank] = total;
+        }
+        for (int rank = 0; rank < count; rank++){
+            cdf[rank] /= total;
+        }
+        return cdf;
+    }
+
+    // The SplitMix64 finaliser over the seed, a stream and a position in it
+    private static long mix(long seed, long stream, long index){
+        long z = seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + index * 0x94D049BB133111EBL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,41 @@
+package org.jarling.testkit;
+
+import org.jarling.models.directDebits.DirectDebitTransaction;
+import org.jarling.models.payments.Payment;
+import org.jarling.models.transactions.MasterCardTransaction;
+import org.jarling.models.transactions.Transaction;
+
+/**
+ *
+ * The records a {@link SyntheticDataGenerator} makes, with the model each decodes to and the member of a listing that
+ * holds them.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public enum SyntheticRecordType {
+
+    TRANSACTION(Transaction.class, "transactions"),
+    MASTER_CARD_TRANSACTION(MasterCardTransaction.class, "transactions"),
+    DIRECT_DEBIT_TRANSACTION(DirectDebitTransaction.class, "transactions"),
+    PAYMENT(Payment.class, "paymentOrders");
+
+    private final Class<?> modelClass;
+    private final String memberName;
+
+    SyntheticRecordType(Class<?> modelClass, String memberName){
+        this.modelClass = modelClass;
+        this.memberName = memberName;
+    }
+
+    public Class<?> getModelClass() {
+        return modelClass;
+    }
+
+    /**
+     * @return the member of {@code _embedded} that holds a listing of these records
+     */
+    public String getMemberName() {
+        return memberName;
+    }
+}
@@ -0,0 +1,164 @@
+import org.jarling.Starling;
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.InterceptingHttpClient;
+import org.jarling.http.PooledHttpClient;
+import org.jarling.models.common.Amount;
+import org.jarling.models.common.CurrencyAndAmount;
+import org.jarling.models.common.DayOfWeek;
+import org.jarling.models.common.Frequency;
+import org.jarling.models.common.RecurrenceRule;
+import org.jarling.models.contacts.Contact;
+import org.jarling.models.directDebits.DirectDebitTransaction;
+import org.jarling.models.payments.Payment;
+import org.jarling.models.transactions.MasterCardTransaction;
+import org.jarling.models.transactions.Transaction;
+import org.jarling.testkit.StubConfig;
+import org.jarling.testkit.StubStarlingServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class StubStarlingServerTests {
+
+    private StubStarlingServer server;
+    private PooledHttpClient pooledHttpClient;
+    private StarlingBank starling;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubStarlingServer(new StubConfig(0, 0, 0, 503, 10));
+        pooledHttpClient = new PooledHttpClient(null);
+        starling = new Starling(StarlingBankEnvironment.SANDBOX, "stub-access-token",
+                new InterceptingHttpClient(pooledHttpClient, Collections.singletonList(server.interceptor())));
+    }
+
+    @After
+    public void tearDown() {
+        pooledHttpClient.close();
+        server.close();
+    }
+
+    @Test
+    public void testEveryStarlingCallIsAnswered() throws Exception {
+        Date from = new Date(0);
+        Date to = new Date();
+        assertNotNull(starling.getAccount().getId());
+        assertNotNull(starling.getAccountBalance().getAmount());
+        assertNotNull(starling.getAddresses().getPrevious().getCity());
+        assertNotNull(starling.getCard());
+        assertNotNull(starling.getCustomer());
+        assertNotNull(starling.getWhoAmI());
+
+        List<Contact> contacts = starling.listContacts();
+        assertEquals(10, contacts.size());
+        assertEquals(contacts.get(3).getId(), starling.getContact(contacts.get(3).getId()).getId());
+        assertNotNull(starling.createContact("Alex Jones", "608371", "12345678").getId());
+        starling.deleteContact(contacts.get(0).getId());
+        assertEquals(10, starling.listContactAccounts(contacts.get(0).getId()).size());
+        assertNotNull(starling.getContactAccount(contacts.get(0).getId(), "a1"));
+
+        assertEquals(10, starling.listDirectDebitMandates().size());
+        assertNotNull(starling.getDirectDebitMandate("m1"));
+        starling.cancelDirectDebitMandate("m1");
+
+        List<Transaction> transactions = starling.listTransactions();
+        assertEquals(10, transactions.size());
+        assertEquals(10, starling.listTransactions(from, to).size());
+        assertEquals(transactions.get(1).getId(), starling.getTransaction(transactions.get(1).getId()).getId());
+        List<DirectDebitTransaction> directDebitTransactions = starling.listDirectDebitTransactions(from, to);
+        assertEquals(10, directDebitTransactions.size());
+        assertNotNull(starling.getDirectDebitTransaction(directDebitTransactions.get(0).getId()).getMandateId());
+        assertEquals(10, starling.listFasterPaymentsInTransactions().size());
+        assertNotNull(starling.getFasterPaymentsInTransaction("i1"));
+        assertEquals(10, starling.listFasterPaymentsOutTransactions().size());
+        assertNotNull(starling.getFasterPaymentsOutTransaction("o1"));
+        List<MasterCardTransaction> cardTransactions = starling.listMasterCardTransactions();
+        assertEquals(10, cardTransactions.size());
+        MasterCardTransaction cardTransaction = cardTransactions.get(0);
+        assertEquals(cardTransaction.getMerchantId(), starling.getMerchant(cardTransaction.getMerchantId()).getMerchantUid());
+        assertEquals(cardTransaction.getMerchantLocationId(),
+                starling.getMerchantLocation(cardTransaction.getMerchantId(), cardTransaction.getMerchantLocationId()).getMerchantLocationUid());
+        try (Stream<Transaction> stream = starling.streamTransactions(from, to)) {
+            assertEquals(10, stream.count());
+        }
+
+        assertEquals(10, starling.listPayments().size());
+        Payment payment = starling.makeLocalPayment("a1", "Rent", new BigDecimal("10.00"));
+        assertNotNull(payment);
+        assertNotNull(starling.makeScheduledPayment("a1", "Rent", new BigDecimal("10.00"),
+                new RecurrenceRule(from, Frequency.MONTHLY, 1, 12, to, DayOfWeek.MONDAY, Collections.singletonList(DayOfWeek.MONDAY), 1, 1)));
+
+        assertEquals(10, starling.listSavingsGoals().size());
+        String savingsGoalUid = starling.createSavingsGoal("Holiday", "GBP", new BigDecimal("500"));
+        assertEquals(savingsGoalUid, starling.getSavingsGoal(savingsGoalUid).getUid());
+        assertNotNull(starling.getSavingsGoalPhoto(savingsGoalUid).getEncodedPhoto());
+        assertNotNull(starling.getSavingsGoalRecurringTransfer(savingsGoalUid).getRecurrenceRule());
+        CurrencyAndAmount tenPounds = new CurrencyAndAmount("GBP", new BigDecimal(1000));
+        assertNotNull(starling.createSavingsGoalRecurringTransfer(savingsGoalUid,
+                new RecurrenceRule(new Date(), Frequency.WEEKLY, 1, null, null, null, null, null, null), tenPounds));
+        assertNotNull(starling.addMoneyToSavingsGoal(savingsGoalUid, new Amount(tenPounds)));
+        assertNotNull(starling.withdrawMoneyFromSavingsGoal(savingsGoalUid, new Amount(tenPounds)));
+        starling.deleteSavingsGoalRecurringTransfer(savingsGoalUid);
+        starling.deleteSavingsGoal(savingsGoalUid);
+
+        assertEquals(0, server.getErrorCount());
+    }
+
+    @Test
+    public void testListingsAreStableAndLarge() throws Exception {
+        server.setConfig(new StubConfig(0, 0, 0, 503, 100000));
+        List<Transaction> first = starling.listTransactions();
+        assertEquals(100000, first.size());
+        Transaction last = first.get(99999);
+        assertEquals(last.getId(), starling.listTransactions().get(99999).getId());
+        assertEquals(last.getAmount(), starling.getTransaction(last.getId()).getAmount());
+        assertTrue(first.get(0).getCreated().after(last.getCreated()));
+    }
+
+    @Test
+    public void testLatencyAndErrorsAreInjected() throws Exception {
+        server.setConfig(new StubConfig(50, 0, 1, 503, 10));
+        long start = System.nanoTime();
+        try {
+            starling.getAccountBalance();
+            fail("expected the stub to fail the request");
+        } catch (StarlingBankRequestException e) {
+            assertEquals(503, e.getStatusCode());
+        }
+        assertTrue(System.nanoTime() - start >= 50_000_000);
+        assertEquals(1, server.getErrorCount());
+        assertEquals(1, server.getRequestCount());
+
+        server.setConfig(new StubConfig());
+        assertNotNull(starling.getAccountBalance());
+        assertEquals(1, server.getErrorCount());
+    }
+
+    @Test
+    public void testTransactionsNeverListedAreNotFound() throws Exception {
+        try {
+            starling.getTransaction("7d5d0c3a-2b4e-4c51-9f9e-000000000001");
+            fail("expected the stub not to know the transaction");
+        } catch (StarlingBankRequestException e) {
+            assertEquals(404, e.getStatusCode());
+        }
+    }
+}
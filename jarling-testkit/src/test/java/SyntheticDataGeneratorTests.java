@@ -0,0 +1,146 @@
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.payments.Payment;
+import org.jarling.models.transactions.MasterCardTransaction;
+import org.jarling.models.transactions.MasterCardTransactionMethod;
+import org.jarling.models.transactions.Transaction;
+import org.jarling.testkit.SyntheticDataGenerator;
+import org.jarling.testkit.SyntheticRecordType;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class SyntheticDataGeneratorTests {
+
+    @Test
+    public void testSameSeedMakesSameRecords() throws Exception {
+        for (SyntheticRecordType type : SyntheticRecordType.values()){
+            String first = listing(new SyntheticDataGenerator(42), type, 500);
+            assertEquals(first, listing(new SyntheticDataGenerator(42), type, 500));
+            assertFalse(first.equals(listing(new SyntheticDataGenerator(43), type, 500)));
+        }
+    }
+
+    @Test
+    public void testModelsAreDecodedFromTheWireForm() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(7);
+        JsonArray listed = new JsonParser().parse(listing(generator, SyntheticRecordType.TRANSACTION, 2000))
+                .getAsJsonObject().getAsJsonObject("_embedded").getAsJsonArray("transactions");
+        List<Transaction> transactions = generator.transactions(2000).collect(Collectors.toList());
+        assertEquals(2000, transactions.size());
+        for (int i = 0; i < transactions.size(); i++){
+            JsonObject json = listed.get(i).getAsJsonObject();
+            Transaction transaction = transactions.get(i);
+            assertEquals(json.get("id").getAsString(), transaction.getId());
+            assertEquals(json.get("amount").getAsBigDecimal(), transaction.getAmount());
+            assertEquals(json.get("balance").getAsBigDecimal(), transaction.getBalance());
+            if (i > 0){
+                // Newest first, and each balance follows from the one after it
+                Transaction newer = transactions.get(i - 1);
+                assertFalse(transaction.getCreated().after(newer.getCreated()));
+                assertEquals(newer.getBalance().subtract(newer.getAmount()), transaction.getBalance());
+            }
+        }
+    }
+
+    @Test
+    public void testCardSpendingIsPlausible() {
+        Map<String, Integer> byMerchant = new HashMap<>();
+        int contactless = 0;
+        int foreign = 0;
+        int count = 20000;
+        Iterator<MasterCardTransaction> transactions = new SyntheticDataGenerator(1).masterCardTransactions(count).iterator();
+        while (transactions.hasNext()){
+            MasterCardTransaction transaction = transactions.next();
+            assertNotNull(transaction.getMerchantId());
+            assertNotNull(transaction.getMerchantLocationId());
+            assertTrue(transaction.getSourceAmount().signum() > 0);
+            byMerchant.merge(transaction.getMerchantId(), 1, Integer::sum);
+            if (transaction.getMastercardTransactionMethod() == MasterCardTransactionMethod.CONTACTLESS){
+                contactless++;
+            }
+            if (!transaction.getSourceCurrency().equals("GBP")){
+                foreign++;
+            }
+        }
+        assertEquals(0.5, contactless / (double) count, 0.03);
+        assertEquals(0.05, foreign / (double) count, 0.01);
+        // A few merchants take most of the spending, and most merchants are seen rarely
+        List<Integer> counts = byMerchant.values().stream().sorted().collect(Collectors.toList());
+        assertTrue(counts.get(counts.size() - 1) > 20 * counts.get(counts.size() / 2));
+    }
+
+    @Test
+    public void testPaymentsAreStandingOrders() {
+        List<Payment> payments = new SyntheticDataGenerator(3).payments(1000).collect(Collectors.toList());
+        long weekly = payments.stream().filter(payment -> payment.getRecurrenceRule().getFrequency().name().equals("WEEKLY")).count();
+        assertEquals(300, weekly, 60);
+        for (Payment payment : payments){
+            assertNotNull(payment.getPaymentOrderId());
+            assertTrue(payment.getAmount().compareTo(BigDecimal.ZERO) > 0);
+            assertTrue(payment.getNextDate().after(new Date(1514764800000L)));
+        }
+    }
+
+    @Test
+    public void testRecordsCanBeMadeOnTheirOwn() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(11);
+        String id = generator.id(SyntheticRecordType.MASTER_CARD_TRANSACTION, 1234);
+        assertEquals(1234, generator.index(SyntheticRecordType.MASTER_CARD_TRANSACTION, id));
+        assertEquals(-1, generator.index(SyntheticRecordType.TRANSACTION, id));
+        assertEquals(-1, new SyntheticDataGenerator(12).index(SyntheticRecordType.MASTER_CARD_TRANSACTION, id));
+        assertEquals(-1, generator.index(SyntheticRecordType.MASTER_CARD_TRANSACTION, "not-an-id"));
+
+        StringWriter json = new StringWriter();
+        generator.writeRecord(SyntheticRecordType.MASTER_CARD_TRANSACTION, 1234, new JsonWriter(json));
+        MasterCardTransaction listed = generator.masterCardTransactions(1235).skip(1234).findFirst().get();
+        JsonElement record = new JsonParser().parse(json.toString());
+        assertEquals(listed.getId(), record.getAsJsonObject().get("id").getAsString());
+        assertEquals(listed.getAmount(), record.getAsJsonObject().get("amount").getAsBigDecimal());
+    }
+
+    @Test
+    public void testRecordsAreMadeOnlyAsConsumed() throws Exception {
+        assertEquals(3, new SyntheticDataGenerator(5).transactions(Long.MAX_VALUE).limit(3).count());
+
+        Path file = Files.createTempFile("transactions", ".json");
+        try {
+            new SyntheticDataGenerator(5).writeListing(SyntheticRecordType.DIRECT_DEBIT_TRANSACTION, 100000, file);
+            JsonArray listed = new JsonParser().parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8))
+                    .getAsJsonObject().getAsJsonObject("_embedded").getAsJsonArray("transactions");
+            assertEquals(100000, listed.size());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static String listing(SyntheticDataGenerator generator, SyntheticRecordType type, long count) throws IOException {
+        StringWriter writer = new StringWriter();
+        generator.writeListing(type, count, writer);
+        return writer.toString();
+    }
+}
@@ -0,0 +1,409 @@
+package org.jarling;
+
+import com.google.gson.JsonObject;
+import org.jarling.http.AsyncHttpClient;
+import org.jarling.http.ExecutorAsyncHttpClient;
+import org.jarling.http.ExponentialBackoffRetryPolicy;
+import org.jarling.http.HttpParameter;
+import org.jarling.http.HttpResponse;
+import org.jarling.http.PooledHttpClient;
+import org.jarling.http.RetryingHttpClient;
+import org.jarling.models.accounts.Account;
+import org.jarling.models.accounts.AccountBalance;
+import org.jarling.models.budgeting.SavingsGoal;
+import org.jarling.models.cards.Card;
+import org.jarling.models.common.*;
+import org.jarling.models.contacts.Contact;
+import org.jarling.models.contacts.ContactAccount;
+import org.jarling.models.contacts.ContactAccountType;
+import org.jarling.models.customers.Customer;
+import org.jarling.models.customers.WhoAmI;
+import org.jarling.models.directDebits.DirectDebitMandate;
+import org.jarling.models.directDebits.DirectDebitTransaction;
+import org.jarling.models.merchants.Merchant;
+import org.jarling.models.merchants.MerchantLocation;
+import org.jarling.models.payments.Payment;
+import org.jarling.models.transactions.FasterPaymentsInTransaction;
+import org.jarling.models.transactions.FasterPaymentsOutTransaction;
+import org.jarling.models.transactions.MasterCardTransaction;
+import org.jarling.models.transactions.Transaction;
+import org.jarling.services.AsyncApiService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ *
+ * Asynchronous API class to access Starling Bank resources. Requests are sent through an {@link AsyncHttpClient}
+ * and responses are decoded on the executor supplied by the caller.
+ *
+ * Clients made without a transport of their own all share one default transport, whose connections and I/O threads
+ * belong to the library and end on their own once idle, so creating a client costs neither. A transport passed in
+ * belongs to the client, and closing the client closes it.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class AsyncStarling extends StarlingBase implements AsyncStarlingBank, Closeable {
+
+    private final AsyncHttpClient asyncHttpClient;
+    private final boolean ownsTransport;
+    private final AsyncApiService apiService;
+    private final Executor executor;
+
+    /**
+     * Creates a client that sends requests over the pooled connections of the shared default transport and decodes
+     * responses on the given executor. GETs and PUTs that fail for a transient reason are retried.
+     * @param environment the Starling Bank environment to connect to
+     * @param accessToken the customer's access token
+     * @param executor the executor that response bodies are decoded on
+     */
+    public AsyncStarling(StarlingBankEnvironment environment, String accessToken, Executor executor){
+        this(environment, accessToken, DefaultTransport.INSTANCE, false, executor);
+    }
+
+    /**
+     * Creates a client that sends requests through the given transport and decodes responses on the given executor.
+     * @param environment the Starling Bank environment to connect to
+     * @param accessToken the customer's access token
+     * @param asyncHttpClient the transport used to send requests, closed when the client is
+     * @param executor the executor that response bodies are decoded on
+     */
+    public AsyncStarling(StarlingBankEnvironment environment, String accessToken, AsyncHttpClient asyncHttpClient, Executor executor){
+        this(environment, accessToken, asyncHttpClient, true, executor);
+    }
+
+    private AsyncStarling(StarlingBankEnvironment environment, String accessToken, AsyncHttpClient asyncHttpClient, boolean ownsTransport, Executor executor){
+        if (accessToken == null || accessToken.equals("")){
+            throw new IllegalArgumentException("access token cannot be null or blank");
+        }
+        this.asyncHttpClient = asyncHttpClient;
+        this.ownsTransport = ownsTransport;
+        this.apiService = new AsyncApiService(environment, accessToken, asyncHttpClient);
+        this.executor = executor;
+    }
+
+    // Created on first use and shared by every client made without a transport of its own
+    private static final class DefaultTransport {
+        static final AsyncHttpClient INSTANCE = new ExecutorAsyncHttpClient(
+                new RetryingHttpClient(new PooledHttpClient(null), new ExponentialBackoffRetryPolicy()));
+    }
+
+    /**
+     * Closes the transport given to this client if it holds resources, such as the threads and connections of an
+     * {@link ExecutorAsyncHttpClient} over a {@link PooledHttpClient}. The shared default transport is left open.
+     * The executor that responses are decoded on stays the caller's to shut down.
+     */
+    @Override
+    public void close() throws IOException {
+        if (ownsTransport && asyncHttpClient instanceof Closeable){
+            ((Closeable) asyncHttpClient).close();
+        }
+    }
+
+    private <T> CompletableFuture<T> get(String url, Class<T> clazz){
+        return decode(apiService.get(url, null, null), response -> fromJson(response, clazz));
+    }
+
+    private <T> CompletableFuture<List<T>> list(String url, HttpParameter[] httpParameters, Class<T> clazz, String memberName){
+        return decode(apiService.get(url, httpParameters, null), response -> fromJsonList(clazz, response, memberName));
+    }
+
+    private CompletableFuture<Void> delete(String url){
+        return decode(apiService.delete(url, null, null), response -> null);
+    }
+
+    private CompletableFuture<String> location(CompletableFuture<HttpResponse> response){
+        return decode(response, apiService::getLocationHeader);
+    }
+
+    private CompletableFuture<String> transfer(CompletableFuture<HttpResponse> response){
+        return decode(response, this::transferUid);
+    }
+
+    /**
+     * Decodes the response on the executor and closes it on every path, including a returned future cancelled by the
+     * caller and a decode task the executor rejects, so that its connection, and any bulkhead place, are given back.
+     * The request itself is left to finish, as a transport may not be able to hand back a response it was cancelled
+     * for.
+     */
+    private <T> CompletableFuture<T> decode(CompletableFuture<HttpResponse> sent, Function<HttpResponse, T> decoder){
+        CompletableFuture<T> decoded = new CompletableFuture<>();
+        sent.whenComplete((response, failure) -> {
+            if (failure != null){
+                decoded.completeExceptionally(failure);
+            } else if (decoded.isDone()){
+                response.close();
+            } else {
+                try {
+                    executor.execute(() -> {
+                        try (HttpResponse closeable = response) {
+                            if (!decoded.isDone()){
+                                decoded.complete(decoder.apply(closeable));
+                            }
+                        } catch (Throwable e) {
+                            decoded.completeExceptionally(e);
+                        }
+                    });
+                } catch (Throwable e) {
+                    response.close();
+                    decoded.completeExceptionally(e);
+                }
+            }
+        });
+        return decoded;
+    }
+
+    private CompletableFuture<Payment> findPayment(String paymentId){
+        return listPayments().thenApply(payments -> payments.stream()
+                .filter(payment -> payment.getPaymentOrderId().equals(paymentId))
+                .findFirst()
+                .orElse(null));
+    }
+
+    @Override
+    public CompletableFuture<Account> getAccount() {
+        return get("/accounts", Account.class);
+    }
+
+    @Override
+    public CompletableFuture<AccountBalance> getAccountBalance() {
+        return get("/accounts/balance", AccountBalance.class);
+    }
+
+    @Override
+    public CompletableFuture<Addresses> getAddresses() {
+        return get("/addresses", Addresses.class);
+    }
+
+    @Override
+    public CompletableFuture<Card> getCard() {
+        return get("/cards", Card.class);
+    }
+
+    @Override
+    public CompletableFuture<Contact> getContact(String id) {
+        return get("/contacts/" + id, Contact.class);
+    }
+
+    @Override
+    public CompletableFuture<List<Contact>> listContacts() {
+        return list("/contacts", null, Contact.class, "contacts");
+    }
+
+    @Override
+    public CompletableFuture<Contact> createContact(String name, String sortCode, String accountNumber) {
+        ContactAccount contactAccount = new ContactAccount(name, sortCode, accountNumber, ContactAccountType.UK_ACCOUNT_AND_SORT_CODE);
+        return location(apiService.post("/contacts", null, null, gson.toJson(contactAccount)))
+                .thenCompose(newContactUrl -> get(newContactUrl, Contact.class));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteContact(String id) {
+        return delete("/contacts/" + id);
+    }
+
+    @Override
+    public CompletableFuture<ContactAccount> getContactAccount(String contactId, String contactAccountId) {
+        return get("/contacts/" + contactId + "/accounts/" + contactAccountId, ContactAccount.class);
+    }
+
+    @Override
+    public CompletableFuture<List<ContactAccount>> listContactAccounts(String contactId) {
+        return list("/contacts/" + contactId + "/accounts", null, ContactAccount.class, "contactAccounts");
+    }
+
+    @Override
+    public CompletableFuture<Customer> getCustomer() {
+        return get("/customers", Customer.class);
+    }
+
+    @Override
+    public CompletableFuture<DirectDebitMandate> getDirectDebitMandate(String id) {
+        return get("/direct-debit/mandates/" + id, DirectDebitMandate.class);
+    }
+
+    @Override
+    public CompletableFuture<List<DirectDebitMandate>> listDirectDebitMandates() {
+        return list("/direct-debit/mandates", null, DirectDebitMandate.class, "mandates");
+    }
+
+    @Override
+    public CompletableFuture<Void> cancelDirectDebitMandate(String id) {
+        return delete("/direct-debit/mandates/" + id);
+    }
+
+    @Override
+    public CompletableFuture<Merchant> getMerchant(String id) {
+        return get("/merchants/" + id, Merchant.class);
+    }
+
+    @Override
+    public CompletableFuture<MerchantLocation> getMerchantLocation(String merchantId, String locationId) {
+        return get("/merchants/" + merchantId + "/locations/" + locationId, MerchantLocation.class);
+    }
+
+    @Override
+    public CompletableFuture<List<Payment>> listPayments() {
+        return list("/payments/scheduled", null, Payment.class, "paymentOrders");
+    }
+
+    @Override
+    public CompletableFuture<Payment> makeLocalPayment(String destinationAccountUid, String reference, BigDecimal amount) {
+        JsonObject localPayment = localPaymentJson(destinationAccountUid, reference, amount);
+        return location(apiService.post("/payments/local", null, null, localPayment.toString()))
+                .thenCompose(paymentUrl -> findPayment(paymentUrl.replace("/payments/local/", "")));
+    }
+
+    @Override
+    public CompletableFuture<Payment> makeScheduledPayment(String destinationAccountUid, String reference, BigDecimal amount, RecurrenceRule recurrenceRule) {
+        JsonObject scheduledPayment = scheduledPaymentJson(destinationAccountUid, reference, amount, recurrenceRule);
+        return location(apiService.post("/payments/scheduled", null, null, scheduledPayment.toString()))
+                .thenCompose(paymentUrl -> findPayment(paymentUrl.replace("/payments/scheduled/", "")));
+    }
+
+    @Override
+    public CompletableFuture<SavingsGoal> getSavingsGoal(String savingsGoalUid) {
+        return get("/savings-goals/" + savingsGoalUid, SavingsGoal.class);
+    }
+
+    @Override
+    public CompletableFuture<List<SavingsGoal>> listSavingsGoals() {
+        return list("/savings-goals", null, SavingsGoal.class, "savingsGoalList");
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteSavingsGoal(String savingsGoalUid) {
+        return delete("/savings-goals/" + savingsGoalUid);
+    }
+
+    @Override
+    public CompletableFuture<Photo> getSavingsGoalPhoto(String savingsGoalUid) {
+        return get("/savings-goals/" + savingsGoalUid + "/photo", Photo.class);
+    }
+
+    @Override
+    public CompletableFuture<String> createSavingsGoal(String name, String currency, BigDecimal targetAmount) {
+        return createSavingsGoal(name, currency, targetAmount, "");
+    }
+
+    @Override
+    public CompletableFuture<String> createSavingsGoal(String name, String currency, BigDecimal targetAmount, String photo) {
+        JsonObject savingsGoalRequestJson = savingsGoalJson(name, currency, targetAmount, photo);
+        return decode(apiService.put("/savings-goals/" + UUID.randomUUID().toString(), null, null, savingsGoalRequestJson.toString()),
+                this::savingsGoalUid);
+    }
+
+    @Override
+    public CompletableFuture<RecurringTransfer> getSavingsGoalRecurringTransfer(String savingsGoalUid) {
+        return get("/savings-goals/" + savingsGoalUid + "/recurring-transfer", RecurringTransfer.class);
+    }
+
+    @Override
+    public CompletableFuture<String> createSavingsGoalRecurringTransfer(String savingsGoalUid, RecurrenceRule recurrenceRule, CurrencyAndAmount currencyAndAmount) {
+        String jsonString = recurringTransferJson(recurrenceRule, currencyAndAmount);
+        return transfer(apiService.put("/savings-goals/" + savingsGoalUid + "/recurring-transfer", null, null, jsonString));
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteSavingsGoalRecurringTransfer(String savingsGoalUid) {
+        return delete("/savings-goals/" + savingsGoalUid + "/recurring-transfer");
+    }
+
+    @Override
+    public CompletableFuture<String> withdrawMoneyFromSavingsGoal(String savingsGoalUid, Amount amount) {
+        return transfer(apiService.put("/savings-goals/" + savingsGoalUid + "/withdraw-money/" + UUID.randomUUID().toString(), null, null, gson.toJson(amount)));
+    }
+
+    @Override
+    public CompletableFuture<String> addMoneyToSavingsGoal(String savingsGoalUid, Amount amount) {
+        return transfer(apiService.put("/savings-goals/" + savingsGoalUid + "/add-money/" + UUID.randomUUID().toString(), null, null, gson.toJson(amount)));
+    }
+
+    @Override
+    public CompletableFuture<DirectDebitTransaction> getDirectDebitTransaction(String id) {
+        return get("/transactions/direct-debit/" + id, DirectDebitTransaction.class);
+    }
+
+    @Override
+    public CompletableFuture<List<DirectDebitTransaction>> listDirectDebitTransactions() {
+        return list("/transactions/direct-debit", null, DirectDebitTransaction.class, "transactions");
+    }
+
+    @Override
+    public CompletableFuture<List<DirectDebitTransaction>> listDirectDebitTransactions(Date from, Date to) {
+        return list("/transactions/direct-debit", dateRangeParameters(from, to), DirectDebitTransaction.class, "transactions");
+    }
+
+    @Override
+    public CompletableFuture<FasterPaymentsInTransaction> getFasterPaymentsInTransaction(String id) {
+        return get("/transactions/fps/in/" + id, FasterPaymentsInTransaction.class);
+    }
+
+    @Override
+    public CompletableFuture<List<FasterPaymentsInTransaction>> listFasterPaymentsInTransactions() {
+        return list("/transactions/fps/in", null, FasterPaymentsInTransaction.class, "transactions");
+    }
+
+    @Override
+    public CompletableFuture<List<FasterPaymentsInTransaction>> listFasterPaymentsInTransactions(Date from, Date to) {
+        return list("/transactions/fps/in", dateRangeParameters(from, to), FasterPaymentsInTransaction.class, "transactions");
+    }
+
+    @Override
+    public CompletableFuture<FasterPaymentsOutTransaction> getFasterPaymentsOutTransaction(String id) {
+        return get("/transactions/fps/out/" + id, FasterPaymentsOutTransaction.class);
+    }
+
+    @Override
+    public CompletableFuture<List<FasterPaymentsOutTransaction>> listFasterPaymentsOutTransactions() {
+        return list("/transactions/fps/out", null, FasterPaymentsOutTransaction.class, "transactions");
+    }
+
+    @Override
+    public CompletableFuture<List<FasterPaymentsOutTransaction>> listFasterPaymentsOutTransactions(Date from, Date to) {
+        return list("/transactions/fps/out", dateRangeParameters(from, to), FasterPaymentsOutTransaction.class, "transactions");
+    }
+
+    @Override
+    public CompletableFuture<MasterCardTransaction> getMasterCardTransaction(String id) {
+        return get("/transactions/mastercard/" + id, MasterCardTransaction.class);
+    }
+
+    @Override
+    public CompletableFuture<List<MasterCardTransaction>> listMasterCardTransactions() {
+        return list("/transactions/mastercard", null, MasterCardTransaction.class, "transactions");
+    }
+
+    @Override
+    public CompletableFuture<List<MasterCardTransaction>> listMasterCardTransactions(Date from, Date to) {
+        return list("/transactions/mastercard", dateRangeParameters(from, to), MasterCardTransaction.class, "transactions");
+    }
+
+    @Override
+    public CompletableFuture<Transaction> getTransaction(String id) {
+        return get("/transactions/" + id, Transaction.class);
+    }
+
+    @Override
+    public CompletableFuture<List<Transaction>> listTransactions() {
+        return list("/transactions", null, Transaction.class, "transactions");
+    }
+
+    @Override
+    public CompletableFuture<List<Transaction>> listTransactions(Date from, Date to) {
+        return list("/transactions", dateRangeParameters(from, to), Transaction.class, "transactions");
+    }
+
+    @Override
+    public CompletableFuture<WhoAmI> getWhoAmI() {
+        return get("/me", WhoAmI.class);
+    }
+}
@@ -0,0 +1,414 @@
+package org.jarling;
+
+import org.jarling.api.*;
+import org.jarling.models.accounts.Account;
+import org.jarling.models.accounts.AccountBalance;
+import org.jarling.models.budgeting.SavingsGoal;
+import org.jarling.models.cards.Card;
+import org.jarling.models.contacts.Contact;
+import org.jarling.models.contacts.ContactAccount;
+import org.jarling.models.customers.Customer;
+import org.jarling.models.customers.WhoAmI;
+import org.jarling.models.directDebits.DirectDebitMandate;
+import org.jarling.models.directDebits.DirectDebitTransaction;
+import org.jarling.models.merchants.Merchant;
+import org.jarling.models.merchants.MerchantLocation;
+import org.jarling.models.payments.Payment;
+import org.jarling.models.transactions.FasterPaymentsInTransaction;
+import org.jarling.models.transactions.FasterPaymentsOutTransaction;
+import org.jarling.models.transactions.MasterCardTransaction;
+import org.jarling.models.transactions.Transaction;
+import org.jarling.models.common.*;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ *
+ * Asynchronous mirror of {@link StarlingBank}. Every method returns immediately with a {@link CompletableFuture};
+ * failures are reported by completing the future exceptionally with a
+ * {@link org.jarling.exceptions.StarlingBankRequestException}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public interface AsyncStarlingBank {
+
+    /**
+     * <p>Get account</p>
+     * Asynchronous form of {@link AccountResource#getAccount()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Account> getAccount();
+
+    /**
+     * <p>Get balance</p>
+     * Asynchronous form of {@link AccountResource#getAccountBalance()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<AccountBalance> getAccountBalance();
+
+    /**
+     * <p>Get addresses</p>
+     * Asynchronous form of {@link AddressResource#getAddresses()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Addresses> getAddresses();
+
+    /**
+     * <p>Get card</p>
+     * Asynchronous form of {@link CardResource#getCard()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Card> getCard();
+
+    /**
+     * <p>Get contact</p>
+     * Asynchronous form of {@link ContactResource#getContact(String)}.
+     * @param id Unique identifier of the contact
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Contact> getContact(String id);
+
+    /**
+     * <p>Get contacts</p>
+     * Asynchronous form of {@link ContactResource#listContacts()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<Contact>> listContacts();
+
+    /**
+     * <p>Create contact and account</p>
+     * Asynchronous form of {@link ContactResource#createContact(String,String,String)}.
+     * @param name Name of the contact
+     * @param sortCode The contact's sort code
+     * @param accountNumber The contact's account number
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Contact> createContact(String name, String sortCode, String accountNumber);
+
+    /**
+     * <p>Delete contact</p>
+     * Asynchronous form of {@link ContactResource#deleteContact(String)}.
+     * @param id Unique identifier of the contact to be deleted
+     * @return a future completed when the request has succeeded, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Void> deleteContact(String id);
+
+    /**
+     * <p>Get contact account</p>
+     * Asynchronous form of {@link ContactResource#getContactAccount(String,String)}.
+     * @param contactId Unique identifier of the contact
+     * @param contactAccountId Unique identifier of the account at the contact
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<ContactAccount> getContactAccount(String contactId, String contactAccountId);
+
+    /**
+     * <p>Get contact accounts</p>
+     * Asynchronous form of {@link ContactResource#listContactAccounts(String)}.
+     * @param contactId Unique identifier of the contact
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<ContactAccount>> listContactAccounts(String contactId);
+
+    /**
+     * <p>Get customer</p>
+     * Asynchronous form of {@link CustomerResource#getCustomer()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Customer> getCustomer();
+
+    /**
+     * <p>Get direct debit mandate</p>
+     * Asynchronous form of {@link DirectDebitMandateResource#getDirectDebitMandate(String)}.
+     * @param id Unique identifier of the direct debit mandate
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<DirectDebitMandate> getDirectDebitMandate(String id);
+
+    /**
+     * <p>List direct debit mandates</p>
+     * Asynchronous form of {@link DirectDebitMandateResource#listDirectDebitMandates()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<DirectDebitMandate>> listDirectDebitMandates();
+
+    /**
+     * <p>Cancel direct debit mandate</p>
+     * Asynchronous form of {@link DirectDebitMandateResource#cancelDirectDebitMandate(String)}.
+     * @param id Unique identifier of the direct debit mandate to be cancelled
+     * @return a future completed when the request has succeeded, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Void> cancelDirectDebitMandate(String id);
+
+    /**
+     * <p>Get merchant</p>
+     * Asynchronous form of {@link MerchantResource#getMerchant(String)}.
+     * @param id Unique identifier of the merchant
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Merchant> getMerchant(String id);
+
+    /**
+     * <p>Get merchant location</p>
+     * Asynchronous form of {@link MerchantResource#getMerchantLocation(String,String)}.
+     * @param merchantId Unique identifier of the merchant the location belongs to
+     * @param locationId Unique identifier of the location for the merchant
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<MerchantLocation> getMerchantLocation(String merchantId, String locationId);
+
+    /**
+     * <p>List payment orders</p>
+     * Asynchronous form of {@link PaymentResource#listPayments()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<Payment>> listPayments();
+
+    /**
+     * <p>Make local payment</p>
+     * Asynchronous form of {@link PaymentResource#makeLocalPayment(String,String,BigDecimal)}.
+     * @param destinationAccountUid Unique identifier contact account
+     * @param reference Reference for the payment
+     * @param amount Payment amount
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Payment> makeLocalPayment(String destinationAccountUid, String reference, BigDecimal amount);
+
+    /**
+     * <p>Make scheduled payment</p>
+     * Asynchronous form of {@link PaymentResource#makeScheduledPayment(String,String,BigDecimal,RecurrenceRule)}.
+     * @param destinationAccountUid Unique identifier of the contact account
+     * @param reference Reference for the payment
+     * @param amount Payment amount
+     * @param recurrenceRule Frequency of payment
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Payment> makeScheduledPayment(String destinationAccountUid, String reference, BigDecimal amount, RecurrenceRule recurrenceRule);
+
+    /**
+     * <p>Get savings goal</p>
+     * Asynchronous form of {@link SavingsGoalResource#getSavingsGoal(String)}.
+     * @param savingsGoalUid Unique identifier of the savings goal
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<SavingsGoal> getSavingsGoal(String savingsGoalUid);
+
+    /**
+     * <p>List payment orders</p>
+     * Asynchronous form of {@link SavingsGoalResource#listSavingsGoals()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<SavingsGoal>> listSavingsGoals();
+
+    /**
+     * <p>Delete savings goal</p>
+     * Asynchronous form of {@link SavingsGoalResource#deleteSavingsGoal(String)}.
+     * @param savingsGoalUid Unique identifier of the savings goal to be deleted
+     * @return a future completed when the request has succeeded, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Void> deleteSavingsGoal(String savingsGoalUid);
+
+    /**
+     * <p>Get photo of savings goal</p>
+     * Asynchronous form of {@link SavingsGoalResource#getSavingsGoalPhoto(String)}.
+     * @param savingsGoalUid Unique identifier of the savings goal
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Photo> getSavingsGoalPhoto(String savingsGoalUid);
+
+    /**
+     * <p>Create a new savings goal</p>
+     * Asynchronous form of {@link SavingsGoalResource#createSavingsGoal(String,String,BigDecimal)}.
+     * @param name Name of the savings goal
+     * @param currency The currency of the savings goal
+     * @param targetAmount The savings goal target the customer would like to reach
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<String> createSavingsGoal(String name, String currency, BigDecimal targetAmount);
+
+    /**
+     * <p>Create a new savings goal</p>
+     * Asynchronous form of {@link SavingsGoalResource#createSavingsGoal(String,String,BigDecimal,String)}.
+     * @param name Name of the savings goal
+     * @param currency The currency of the savings goal
+     * @param targetAmount The savings goal target the customer would like to reach
+     * @param photo A text (base 64) encoded picture to associate with the savings goal
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<String> createSavingsGoal(String name, String currency, BigDecimal targetAmount, String photo);
+
+    /**
+     * <p>Get recurring transfer information of a savings goal</p>
+     * Asynchronous form of {@link SavingsGoalResource#getSavingsGoalRecurringTransfer(String)}.
+     * @param savingsGoalUid Unique identifier of the savings goal
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<RecurringTransfer> getSavingsGoalRecurringTransfer(String savingsGoalUid);
+
+    /**
+     * <p>Create a new savings goal</p>
+     * Asynchronous form of {@link SavingsGoalResource#createSavingsGoalRecurringTransfer(String,RecurrenceRule,CurrencyAndAmount)}.
+     * @param savingsGoalUid Unique identifier of the savings goal
+     * @param recurrenceRule Recurrence rule to schedule recurring transfers
+     * @param currencyAndAmount The savings goal target the customer would like to reach
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<String> createSavingsGoalRecurringTransfer(String savingsGoalUid, RecurrenceRule recurrenceRule, CurrencyAndAmount currencyAndAmount);
+
+    /**
+     * <p>Deletes a recurrence rule</p>
+     * Asynchronous form of {@link SavingsGoalResource#deleteSavingsGoalRecurringTransfer(String)}.
+     * @param savingsGoalUid Unique identifier of the savings goal
+     * @return a future completed when the request has succeeded, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Void> deleteSavingsGoalRecurringTransfer(String savingsGoalUid);
+
+    /**
+     * <p>Withdraw money from savings goal</p>
+     * Asynchronous form of {@link SavingsGoalResource#withdrawMoneyFromSavingsGoal(String,Amount)}.
+     * @param savingsGoalUid Unique identifier of the savings goal
+     * @param amount Amount to withdraw
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<String> withdrawMoneyFromSavingsGoal(String savingsGoalUid, Amount amount);
+
+    /**
+     * <p>Adds money to a savings goal</p>
+     * Asynchronous form of {@link SavingsGoalResource#addMoneyToSavingsGoal(String,Amount)}.
+     * @param savingsGoalUid Unique identifier of the savings goal
+     * @param amount Amount to add
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<String> addMoneyToSavingsGoal(String savingsGoalUid, Amount amount);
+
+    /**
+     * <p>Get direct debit transaction</p>
+     * Asynchronous form of {@link TransactionDirectDebitResource#getDirectDebitTransaction(String)}.
+     * @param id Unique identifier of the transaction
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<DirectDebitTransaction> getDirectDebitTransaction(String id);
+
+    /**
+     * <p>List direct debit transactions</p>
+     * Asynchronous form of {@link TransactionDirectDebitResource#listDirectDebitTransactions()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<DirectDebitTransaction>> listDirectDebitTransactions();
+
+    /**
+     * <p>List direct debit transactions between</p>
+     * Asynchronous form of {@link TransactionDirectDebitResource#listDirectDebitTransactions(Date,Date)}.
+     * @param from Date from which the transactions should be fetched
+     * @param to Date to which the transactions should be fetched
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<DirectDebitTransaction>> listDirectDebitTransactions(Date from, Date to);
+
+    /**
+     * <p>Get FPS In transaction</p>
+     * Asynchronous form of {@link TransactionFasterPaymentInResource#getFasterPaymentsInTransaction(String)}.
+     * @param id Unique identifier of the transaction
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<FasterPaymentsInTransaction> getFasterPaymentsInTransaction(String id);
+
+    /**
+     * <p>List FPS In transactions</p>
+     * Asynchronous form of {@link TransactionFasterPaymentInResource#listFasterPaymentsInTransactions()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<FasterPaymentsInTransaction>> listFasterPaymentsInTransactions();
+
+    /**
+     * <p>List FPS In transactions between</p>
+     * Asynchronous form of {@link TransactionFasterPaymentInResource#listFasterPaymentsInTransactions(Date,Date)}.
+     * @param from Date from which the transactions should be fetched
+     * @param to Date from which the transactions should be fetched
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<FasterPaymentsInTransaction>> listFasterPaymentsInTransactions(Date from, Date to);
+
+    /**
+     * <p>Get FPS Out transaction</p>
+     * Asynchronous form of {@link TransactionFasterPaymentOutResource#getFasterPaymentsOutTransaction(String)}.
+     * @param id Unique identifier of the transaction
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<FasterPaymentsOutTransaction> getFasterPaymentsOutTransaction(String id);
+
+    /**
+     * <p>List FPS Out transactions</p>
+     * Asynchronous form of {@link TransactionFasterPaymentOutResource#listFasterPaymentsOutTransactions()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<FasterPaymentsOutTransaction>> listFasterPaymentsOutTransactions();
+
+    /**
+     * <p>List FPS Out transactions between</p>
+     * Asynchronous form of {@link TransactionFasterPaymentOutResource#listFasterPaymentsOutTransactions(Date,Date)}.
+     * @param from Date from which the transactions should be fetched
+     * @param to Date from which the transactions should be fetched
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<FasterPaymentsOutTransaction>> listFasterPaymentsOutTransactions(Date from, Date to);
+
+    /**
+     * <p>Get mastercard transaction</p>
+     * Asynchronous form of {@link TransactionMasterCardResource#getMasterCardTransaction(String)}.
+     * @param id Unique identifier of the transaction
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<MasterCardTransaction> getMasterCardTransaction(String id);
+
+    /**
+     * <p>List mastercard transactions</p>
+     * Asynchronous form of {@link TransactionMasterCardResource#listMasterCardTransactions()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<MasterCardTransaction>> listMasterCardTransactions();
+
+    /**
+     * <p>List mastercard transactions between</p>
+     * Asynchronous form of {@link TransactionMasterCardResource#listMasterCardTransactions(Date,Date)}.
+     * @param from Date from which the transactions should be fetched
+     * @param to Date from which the transactions should be fetched
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<MasterCardTransaction>> listMasterCardTransactions(Date from, Date to);
+
+    /**
+     * <p>Get transaction</p>
+     * Asynchronous form of {@link TransactionResource#getTransaction(String)}.
+     * @param id Unique identifier of the transaction
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<Transaction> getTransaction(String id);
+
+    /**
+     * <p>List transactions</p>
+     * Asynchronous form of {@link TransactionResource#listTransactions()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<Transaction>> listTransactions();
+
+    /**
+     * <p>List transactions between</p>
+     * Asynchronous form of {@link TransactionResource#listTransactions(Date,Date)}.
+     * @param from Date from which the transactions should be fetched
+     * @param to Date from which the transactions should be fetched
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<List<Transaction>> listTransactions(Date from, Date to);
+
+    /**
+     * <p>Who am I</p>
+     * Asynchronous form of {@link WhoAmIResource#getWhoAmI()}.
+     * @return a future completed with the result, or exceptionally with a StarlingBankRequestException
+     */
+    CompletableFuture<WhoAmI> getWhoAmI();
+}
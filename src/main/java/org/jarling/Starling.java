@@ -1,12 +1,15 @@
 package org.jarling;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import org.jarling.api.*;
 import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.BasicHttpsClient;
+import org.jarling.http.CallOptions;
+import org.jarling.http.ExponentialBackoffRetryPolicy;
+import org.jarling.http.HttpClient;
 import org.jarling.http.HttpParameter;
 import org.jarling.http.HttpResponse;
+import org.jarling.http.RetryingHttpClient;
 import org.jarling.models.accounts.Account;
 import org.jarling.models.accounts.AccountBalance;
 import org.jarling.models.common.Addresses;
@@ -28,11 +31,16 @@ import org.jarling.models.transactions.MasterCardTransaction;
 import org.jarling.models.transactions.Transaction;
 import org.jarling.models.customers.WhoAmI;
 import org.jarling.services.ApiService;
+import org.jarling.services.RateLimiter;
+import org.jarling.services.RequestCoalescer;
+import org.jarling.services.RequestPolicies;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  *
@@ -43,284 +51,316 @@ import java.util.UUID;
  */
 public final class Starling extends StarlingBase implements StarlingBank{
 
-    private static ApiService apiService;
-    private static Gson gson = new Gson();
+    private final ApiService apiService;
 
     public Starling(StarlingBankEnvironment environment, String accessToken){
+        this(environment, accessToken, new RetryingHttpClient(new BasicHttpsClient(null), new ExponentialBackoffRetryPolicy()));
+    }
+
+    /**
+     * Creates a client that sends its requests through the given transport, for example a
+     * {@link org.jarling.http.PooledHttpClient} to keep connections to Starling open between calls.
+     * @param environment the Starling Bank environment to connect to
+     * @param accessToken the customer's access token
+     * @param httpClient the transport used to send requests
+     */
+    public Starling(StarlingBankEnvironment environment, String accessToken, HttpClient httpClient){
+        this(environment, accessToken, httpClient, RequestPolicies.NONE);
+    }
+
+    /**
+     * Creates a client that applies the given policies to its requests, e.g. a {@link RateLimiter} shared with other
+     * clients to keep their combined traffic under one limit, or the circuit breakers guarding each endpoint.
+     * Unless the policies name a coalescer, the client coalesces identical GETs with one of its own.
+     * @param environment the Starling Bank environment to connect to
+     * @param accessToken the customer's access token
+     * @param httpClient the transport used to send requests
+     * @param policies the rate limiting, circuit breakers, coalescing, hedging and bulkheads to apply
+     */
+    public Starling(StarlingBankEnvironment environment, String accessToken, HttpClient httpClient, RequestPolicies policies){
         if (accessToken == null || accessToken.equals("")){
             throw new IllegalArgumentException("access token cannot be null or blank");
         }
-        else {
-            apiService = new ApiService(environment, accessToken);
+        if (policies.getRequestCoalescer() == null){
+            policies = policies.toBuilder().requestCoalescer(new RequestCoalescer()).build();
         }
+        this.apiService = new ApiService(ApiService.endpoint(environment), accessToken, httpClient, policies);
+    }
+
+    // Used by StarlingClientFactory, which validates the token and shares the endpoint and transport between views
+    Starling(ApiService apiService){
+        this.apiService = apiService;
+    }
+
+    private <T> T get(String url, Class<T> clazz) throws StarlingBankRequestException {
+        return apiService.getAndDecode(url, null, clazz, response -> fromJson(response, clazz));
+    }
+
+    // Concurrent identical calls share the decoded models, but each caller gets a list of its own
+    private <T> List<T> list(String url, HttpParameter[] httpParameters, Class<T> clazz, String memberName) throws StarlingBankRequestException {
+        return new ArrayList<>(apiService.getAndDecode(url, httpParameters, List.class, response -> fromJsonList(clazz, response, memberName)));
     }
 
     @Override
     public Account getAccount() throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/accounts").asString(), Account.class);
+        return get("/accounts", Account.class);
     }
 
     @Override
     public AccountBalance getAccountBalance() throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/accounts/balance").asString(), AccountBalance.class);
+        return get("/accounts/balance", AccountBalance.class);
     }
 
     @Override
     public Addresses getAddresses() throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/addresses").asString(), Addresses.class);
+        return get("/addresses", Addresses.class);
     }
 
     public Card getCard() throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/cards").asString(), Card.class);
+        return get("/cards", Card.class);
     }
 
     @Override
     public Contact getContact(String id) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/contacts/" + id).asString(), Contact.class);
+        return get("/contacts/" + id, Contact.class);
     }
 
     @Override
     public List<Contact> listContacts() throws StarlingBankRequestException {
-        return fromJsonList(Contact[].class, apiService.get("/contacts").asString(), "contacts");
+        return list("/contacts", null, Contact.class, "contacts");
     }
 
     @Override
     public Contact createContact(String name, String sortCode, String accountNumber) throws StarlingBankRequestException {
         ContactAccount contactAccount = new ContactAccount(name, sortCode, accountNumber, ContactAccountType.UK_ACCOUNT_AND_SORT_CODE);
-        HttpResponse newContactResponse = apiService.post("/contacts", null, null, gson.toJson(contactAccount));
-
-        String newCustomerUrl = apiService.getLocationHeader(newContactResponse);
+        String newCustomerUrl;
+        try (HttpResponse newContactResponse = apiService.post("/contacts", null, null, gson.toJson(contactAccount))) {
+            newCustomerUrl = apiService.getLocationHeader(newContactResponse);
+        }
 
-        return gson.fromJson(apiService.get(newCustomerUrl).asString(), Contact.class);
+        return get(newCustomerUrl, Contact.class);
     }
 
     @Override
     public void deleteContact(String id) throws StarlingBankRequestException {
-        apiService.delete("/contacts/" + id);
+        apiService.delete("/contacts/" + id).close();
     }
 
     @Override
     public ContactAccount getContactAccount(String contactId, String contactAccountId) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/contacts/" + contactId + "/accounts/" + contactAccountId)
-                .asString(), ContactAccount.class);
+        return get("/contacts/" + contactId + "/accounts/" + contactAccountId, ContactAccount.class);
     }
 
     @Override
     public List<ContactAccount> listContactAccounts(String contactId) throws StarlingBankRequestException {
-        return fromJsonList(ContactAccount[].class, apiService.get("/contacts/" + contactId + "/accounts").asString(), "contactAccounts");
+        return list("/contacts/" + contactId + "/accounts", null, ContactAccount.class, "contactAccounts");
     }
 
     @Override
     public Customer getCustomer() throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/customers").asString(), Customer.class);
+        return get("/customers", Customer.class);
     }
 
     @Override
     public DirectDebitMandate getDirectDebitMandate(String id) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/direct-debit/mandates/" + id).asString(), DirectDebitMandate.class);
+        return get("/direct-debit/mandates/" + id, DirectDebitMandate.class);
     }
 
     @Override
     public List<DirectDebitMandate> listDirectDebitMandates() throws StarlingBankRequestException {
-        return fromJsonList(DirectDebitMandate[].class, apiService.get("/direct-debit/mandates").asString(), "mandates");
+        return list("/direct-debit/mandates", null, DirectDebitMandate.class, "mandates");
     }
 
     @Override
     public void cancelDirectDebitMandate(String id) throws StarlingBankRequestException {
-        apiService.delete("/direct-debit/mandates/" + id);
+        apiService.delete("/direct-debit/mandates/" + id).close();
     }
 
     @Override
     public DirectDebitTransaction getDirectDebitTransaction(String id) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/transactions/direct-debit" + id).asString(), DirectDebitTransaction.class);
+        return get("/transactions/direct-debit/" + id, DirectDebitTransaction.class);
     }
 
     @Override
     public List<DirectDebitTransaction> listDirectDebitTransactions() throws StarlingBankRequestException {
-        return fromJsonList(DirectDebitTransaction[].class, apiService.get("/transactions/direct-debit").asString(), "transactions");
+        return list("/transactions/direct-debit", null, DirectDebitTransaction.class, "transactions");
     }
 
     @Override
     public List<DirectDebitTransaction> listDirectDebitTransactions(Date from, Date to) throws StarlingBankRequestException {
-        HttpParameter[] httpParameters = new HttpParameter[2];
-        httpParameters[0] = new HttpParameter("from", transactionDateFormat.format(from));
-        httpParameters[1] = new HttpParameter("to",  transactionDateFormat.format(to));
+        HttpParameter[] httpParameters = dateRangeParameters(from, to);
+        return list("/transactions/direct-debit", httpParameters, DirectDebitTransaction.class, "transactions");
+    }
 
-        String result = apiService.get("/transactions/direct-debit", httpParameters, null).asString();
-        return fromJsonList(DirectDebitTransaction[].class, result, "transactions");
+    @Override
+    public Stream<DirectDebitTransaction> streamDirectDebitTransactions(Date from, Date to) throws StarlingBankRequestException {
+        HttpParameter[] httpParameters = dateRangeParameters(from, to);
+        HttpResponse response = apiService.get("/transactions/direct-debit", httpParameters, null);
+        return fromJsonStream(DirectDebitTransaction.class, response, "transactions");
     }
 
     @Override
     public FasterPaymentsInTransaction getFasterPaymentsInTransaction(String id) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/transactions/fps/in/" + id).asString(), FasterPaymentsInTransaction.class);
+        return get("/transactions/fps/in/" + id, FasterPaymentsInTransaction.class);
     }
 
     @Override
     public List<FasterPaymentsInTransaction> listFasterPaymentsInTransactions() throws StarlingBankRequestException {
-        return fromJsonList(FasterPaymentsInTransaction[].class, apiService.get("/transactions/fps/in/").asString(), "transactions");
+        return list("/transactions/fps/in/", null, FasterPaymentsInTransaction.class, "transactions");
     }
 
     @Override
     public List<FasterPaymentsInTransaction> listFasterPaymentsInTransactions(Date from, Date to) throws StarlingBankRequestException {
-        HttpParameter[] httpParameters = new HttpParameter[2];
-        httpParameters[0] = new HttpParameter("from", transactionDateFormat.format(from));
-        httpParameters[1] = new HttpParameter("to",  transactionDateFormat.format(to));
+        HttpParameter[] httpParameters = dateRangeParameters(from, to);
+        return list("/transactions/fps/in", httpParameters, FasterPaymentsInTransaction.class, "transactions");
+    }
 
-        String result = apiService.get("/transactions/fps/in", httpParameters, null).asString();
-        return fromJsonList(FasterPaymentsInTransaction[].class, result, "transactions");
+    @Override
+    public Stream<FasterPaymentsInTransaction> streamFasterPaymentsInTransactions(Date from, Date to) throws StarlingBankRequestException {
+        HttpParameter[] httpParameters = dateRangeParameters(from, to);
+        HttpResponse response = apiService.get("/transactions/fps/in", httpParameters, null);
+        return fromJsonStream(FasterPaymentsInTransaction.class, response, "transactions");
     }
 
     @Override
     public FasterPaymentsOutTransaction getFasterPaymentsOutTransaction(String id) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/transactions/fps/out/" + id).asString(), FasterPaymentsOutTransaction.class);
+        return get("/transactions/fps/out/" + id, FasterPaymentsOutTransaction.class);
     }
 
     @Override
     public List<FasterPaymentsOutTransaction> listFasterPaymentsOutTransactions() throws StarlingBankRequestException {
-        return fromJsonList(FasterPaymentsOutTransaction[].class, apiService.get("/transactions/fps/out").asString(), "transactions");
+        return list("/transactions/fps/out", null, FasterPaymentsOutTransaction.class, "transactions");
     }
 
     @Override
     public List<FasterPaymentsOutTransaction> listFasterPaymentsOutTransactions(Date from, Date to) throws StarlingBankRequestException {
-        HttpParameter[] httpParameters = new HttpParameter[2];
-        httpParameters[0] = new HttpParameter("from", transactionDateFormat.format(from));
-        httpParameters[1] = new HttpParameter("to",  transactionDateFormat.format(to));
+        HttpParameter[] httpParameters = dateRangeParameters(from, to);
+        return list("/transactions/fps/out", httpParameters, FasterPaymentsOutTransaction.class, "transactions");
+    }
 
-        String result = apiService.get("/transactions/fps/out", httpParameters, null).asString();
-        return fromJsonList(FasterPaymentsOutTransaction[].class, result, "transactions");
+    @Override
+    public Stream<FasterPaymentsOutTransaction> streamFasterPaymentsOutTransactions(Date from, Date to) throws StarlingBankRequestException {
+        HttpParameter[] httpParameters = dateRangeParameters(from, to);
+        HttpResponse response = apiService.get("/transactions/fps/out", httpParameters, null);
+        return fromJsonStream(FasterPaymentsOutTransaction.class, response, "transactions");
     }
 
     @Override
     public MasterCardTransaction getMasterCardTransaction(String id) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/transactions/mastercard/" + id).asString(), MasterCardTransaction.class);
+        return get("/transactions/mastercard/" + id, MasterCardTransaction.class);
     }
 
     @Override
     public List<MasterCardTransaction> listMasterCardTransactions() throws StarlingBankRequestException {
-        return fromJsonList(MasterCardTransaction[].class, apiService.get("/transactions/mastercard").asString(), "transactions");
+        return list("/transactions/mastercard", null, MasterCardTransaction.class, "transactions");
     }
 
     @Override
     public List<MasterCardTransaction> listMasterCardTransactions(Date from, Date to) throws StarlingBankRequestException {
-        HttpParameter[] httpParameters = new HttpParameter[2];
-        httpParameters[0] = new HttpParameter("from", transactionDateFormat.format(from));
-        httpParameters[1] = new HttpParameter("to",  transactionDateFormat.format(to));
+        HttpParameter[] httpParameters = dateRangeParameters(from, to);
+        return list("/transactions/mastercard", httpParameters, MasterCardTransaction.class, "transactions");
+    }
 
-        String result = apiService.get("/transactions/mastercard", httpParameters, null).asString();
-        return fromJsonList(MasterCardTransaction[].class, result, "transactions");
+    @Override
+    public Stream<MasterCardTransaction> streamMasterCardTransactions(Date from, Date to) throws StarlingBankRequestException {
+        HttpParameter[] httpParameters = dateRangeParameters(from, to);
+        HttpResponse response = apiService.get("/transactions/mastercard", httpParameters, null);
+        return fromJsonStream(MasterCardTransaction.class, response, "transactions");
     }
 
     @Override
     public Merchant getMerchant(String id) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/merchants/" + id).asString(), Merchant.class);
+        return get("/merchants/" + id, Merchant.class);
     }
 
     @Override
     public MerchantLocation getMerchantLocation(String merchantId, String locationId) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/merchants/" + merchantId + "/locations/" + locationId).asString(), MerchantLocation.class);
+        return get("/merchants/" + merchantId + "/locations/" + locationId, MerchantLocation.class);
     }
 
     @Override
     public List<Payment> listPayments() throws StarlingBankRequestException {
-        return fromJsonList(Payment[].class, apiService.get("/payments/scheduled").asString(), "paymentOrders");
+        return list("/payments/scheduled", null, Payment.class, "paymentOrders");
     }
 
     @Override
     public Payment makeLocalPayment(String destinationAccountUid, String reference, BigDecimal amount) throws StarlingBankRequestException {
-        JsonObject localPayment = new JsonObject();
-        JsonObject paymentDetail = new JsonObject();
-
-        localPayment.addProperty("destinationAccountUid", destinationAccountUid);
-        localPayment.addProperty("reference", reference);
-        localPayment.add("payment", paymentDetail);
+        JsonObject localPayment = localPaymentJson(destinationAccountUid, reference, amount);
 
-        paymentDetail.addProperty("amount", amount);
-        paymentDetail.addProperty("currency", "GBP");
-
-        HttpResponse makePaymentResponse = apiService.post("/payments/local", null, null, localPayment.toString());
-        final String paymentId = apiService.getLocationHeader(makePaymentResponse).replace("/payments/local/", "");
+        final String paymentId;
+        try (HttpResponse makePaymentResponse = apiService.post("/payments/local", null, null, localPayment.toString())) {
+            paymentId = apiService.getLocationHeader(makePaymentResponse).replace("/payments/local/", "");
+        }
 
-        return listPayments().stream().filter(payment -> payment.getPaymentOrderId().equals(paymentId)).findFirst().orElse(null);
+        return findPayment(paymentId);
     }
 
     @Override
     public Payment makeScheduledPayment(String destinationAccountUid, String reference, BigDecimal amount, RecurrenceRule recurrenceRule) throws StarlingBankRequestException {
-        JsonObject scheduledPayment = new JsonObject();
-        JsonObject paymentDetail = new JsonObject();
-        JsonObject recurrenceRuleDetail = new JsonObject();
-        JsonArray recurrenceRuleDays = new JsonArray();
-
-        scheduledPayment.addProperty("destinationAccountUid", destinationAccountUid);
-        scheduledPayment.addProperty("reference", reference);
-        scheduledPayment.add("payment", paymentDetail);
+        JsonObject scheduledPayment = scheduledPaymentJson(destinationAccountUid, reference, amount, recurrenceRule);
 
-        paymentDetail.addProperty("amount", amount);
-        paymentDetail.addProperty("currency", "GBP");
-
-        for (DayOfWeek day : recurrenceRule.getDays()){
-            recurrenceRuleDays.add(day.name());
+        final String paymentId;
+        try (HttpResponse makePaymentResponse = apiService.post("/payments/scheduled", null, null, scheduledPayment.toString())) {
+            paymentId = apiService.getLocationHeader(makePaymentResponse).replace("/payments/scheduled/", "");
         }
-        recurrenceRuleDetail.addProperty("count", recurrenceRule.getCount());
-        recurrenceRuleDetail.add("days", recurrenceRuleDays);
-        recurrenceRuleDetail.addProperty("frequency", recurrenceRule.getFrequency().getValue());
-        recurrenceRuleDetail.addProperty("interval", recurrenceRule.getInterval());
-        recurrenceRuleDetail.addProperty("monthDay", recurrenceRule.getMonthDay());
-        recurrenceRuleDetail.addProperty("monthWeek", recurrenceRule.getMonthWeek());
-        recurrenceRuleDetail.addProperty("startDate", transactionDateFormat.format(recurrenceRule.getStartDate()));
-        recurrenceRuleDetail.addProperty("untilDate", transactionDateFormat.format(recurrenceRule.getUntilDate()));
-        recurrenceRuleDetail.addProperty("weekStart", recurrenceRule.getWeekStart().name());
-        scheduledPayment.add("recurrenceRule", recurrenceRuleDetail);
 
-        HttpResponse makePaymentResponse = apiService.post("/payments/scheduled", null, null, scheduledPayment.toString());
-        final String paymentId = apiService.getLocationHeader(makePaymentResponse).replace("/payments/scheduled/", "");
+        return findPayment(paymentId);
+    }
 
-        return listPayments().stream().filter(payment -> payment.getPaymentOrderId().equals(paymentId)).findFirst().orElse(null);
+    // Read back with a GET of its own, as a coalesced list already in flight may have been answered before the payment
+    private Payment findPayment(String paymentId) throws StarlingBankRequestException {
+        List<Payment> payments = fromJsonList(Payment.class, apiService.get("/payments/scheduled"), "paymentOrders");
+        return payments.stream().filter(payment -> payment.getPaymentOrderId().equals(paymentId)).findFirst().orElse(null);
     }
 
     @Override
     public Transaction getTransaction(String id) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/transactions/" + id).asString(), Transaction.class);
+        return get("/transactions/" + id, Transaction.class);
     }
 
     @Override
     public List<Transaction> listTransactions() throws StarlingBankRequestException {
-        return fromJsonList(Transaction[].class, apiService.get("/transactions").asString(), "transactions");
+        return list("/transactions", null, Transaction.class, "transactions");
     }
 
     @Override
     public List<Transaction> listTransactions(Date from, Date to) throws StarlingBankRequestException {
-        HttpParameter[] httpParameters = new HttpParameter[2];
-        httpParameters[0] = new HttpParameter("from", transactionDateFormat.format(from));
-        httpParameters[1] = new HttpParameter("to",  transactionDateFormat.format(to));
-        String result = apiService.get("/transactions", httpParameters, apiService.getDefaultRequestHeaders()).asString();
-        return fromJsonList(Transaction[].class, result, "transactions");
+        HttpParameter[] httpParameters = dateRangeParameters(from, to);
+        return list("/transactions", httpParameters, Transaction.class, "transactions");
+    }
+
+    @Override
+    public Stream<Transaction> streamTransactions(Date from, Date to) throws StarlingBankRequestException {
+        HttpParameter[] httpParameters = dateRangeParameters(from, to);
+        HttpResponse response = apiService.get("/transactions", httpParameters, null);
+        return fromJsonStream(Transaction.class, response, "transactions");
     }
 
     @Override
     public WhoAmI getWhoAmI() throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/me").asString(), WhoAmI.class);
+        return get("/me", WhoAmI.class);
     }
 
 
     @Override
     public SavingsGoal getSavingsGoal(String savingsGoalUid) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/savings-goals/" + savingsGoalUid).asString(), SavingsGoal.class);
+        return get("/savings-goals/" + savingsGoalUid, SavingsGoal.class);
     }
 
 
     @Override
     public List<SavingsGoal> listSavingsGoals() throws StarlingBankRequestException {
-        return fromJsonList(SavingsGoal[].class, apiService.get("/savings-goals").asString(), "savingsGoalList");
+        return list("/savings-goals", null, SavingsGoal.class, "savingsGoalList");
     }
 
     @Override
     public void deleteSavingsGoal(String savingsGoalUid) throws StarlingBankRequestException {
-        apiService.delete("/savings-goals/" + savingsGoalUid);
+        apiService.delete("/savings-goals/" + savingsGoalUid).close();
     }
 
     @Override
     public Photo getSavingsGoalPhoto(String savingsGoalUid) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/savings-goals/" + savingsGoalUid + "/photo").asString(), Photo.class);
+        return get("/savings-goals/" + savingsGoalUid + "/photo", Photo.class);
     }
 
     @Override
@@ -330,80 +370,50 @@ public final class Starling extends StarlingBase implements StarlingBank{
 
     @Override
     public String createSavingsGoal(String name, String currency, BigDecimal targetAmount, String photo) throws StarlingBankRequestException {
-        JsonObject savingsGoalRequestJson = new JsonObject();
-        JsonObject targetJson = new JsonObject();
-
-        savingsGoalRequestJson.addProperty("name", name);
-        savingsGoalRequestJson.addProperty("currency", currency);
-        savingsGoalRequestJson.addProperty("photo", photo);
-        targetJson.addProperty("currency", currency);
-        targetJson.addProperty("minorUnits", targetAmount.multiply(BigDecimal.TEN.multiply(BigDecimal.TEN)).longValue());
-        savingsGoalRequestJson.add("target", targetJson);
+        JsonObject savingsGoalRequestJson = savingsGoalJson(name, currency, targetAmount, photo);
 
-        HttpResponse savingsGoalResponse = apiService.put("/savings-goals/" + UUID.randomUUID().toString(), null, null, savingsGoalRequestJson.toString());
-
-        JsonObject response = savingsGoalResponse.asJsonObject();
-
-        if (response.get("success").getAsBoolean()){
-            return response.get("savingsGoalUid").getAsString();
+        try (HttpResponse savingsGoalResponse = apiService.put("/savings-goals/" + UUID.randomUUID().toString(), null, null, savingsGoalRequestJson.toString())) {
+            return savingsGoalUid(savingsGoalResponse);
         }
-        return null;
     }
 
     @Override
     public RecurringTransfer getSavingsGoalRecurringTransfer(String savingsGoalUid) throws StarlingBankRequestException {
-        return gson.fromJson(apiService.get("/savings-goals/" + savingsGoalUid + "/recurring-transfer").asString(), RecurringTransfer.class);
+        return get("/savings-goals/" + savingsGoalUid + "/recurring-transfer", RecurringTransfer.class);
     }
 
     @Override
     public String createSavingsGoalRecurringTransfer(String savingsGoalUid, RecurrenceRule recurrenceRule, CurrencyAndAmount currencyAndAmount) throws StarlingBankRequestException {
-        RecurringTransfer recurringTransfer = new RecurringTransfer(recurrenceRule, currencyAndAmount);
-        String jsonString = gson.toJson(recurringTransfer);
-        HttpResponse response = apiService.put("/savings-goals/" + savingsGoalUid + "/recurring-transfer", null, null, jsonString);
-
-        if (200 == response.getStatusCode()){
-            JsonObject json = response.asJsonObject();
-            if (json.get("success").getAsBoolean()){
-                return json.get("transferUid").getAsString();
-            }
+        String jsonString = recurringTransferJson(recurrenceRule, currencyAndAmount);
+        try (HttpResponse response = apiService.put("/savings-goals/" + savingsGoalUid + "/recurring-transfer", null, null, jsonString)) {
+            return transferUid(response);
         }
-
-        return null;
     }
 
     @Override
     public void deleteSavingsGoalRecurringTransfer(String savingsGoalUid) throws StarlingBankRequestException {
-        apiService.delete("/savings-goals/" + savingsGoalUid + "/recurring-transfer");
+        apiService.delete("/savings-goals/" + savingsGoalUid + "/recurring-transfer").close();
     }
 
     @Override
     public String withdrawMoneyFromSavingsGoal(String savingsGoalUid, Amount amount) throws StarlingBankRequestException {
         String jsonString = gson.toJson(amount);
-        HttpResponse response = apiService.put("/savings-goals/" + savingsGoalUid + "/withdraw-money/" + UUID.randomUUID().toString(), null, null, jsonString);
-
-        if (200 == response.getStatusCode()){
-            JsonObject json = response.asJsonObject();
-            if (json.get("success").getAsBoolean()){
-                return json.get("transferUid").getAsString();
-            }
+        try (HttpResponse response = apiService.put("/savings-goals/" + savingsGoalUid + "/withdraw-money/" + UUID.randomUUID().toString(), null, null, jsonString)) {
+            return transferUid(response);
         }
-
-        return null;
     }
 
     @Override
     public String addMoneyToSavingsGoal(String savingsGoalUid, Amount amount) throws StarlingBankRequestException {
         String jsonString = gson.toJson(amount);
-        HttpResponse response = apiService.put("/savings-goals/" + savingsGoalUid + "/add-money/" + UUID.randomUUID().toString(), null, null, jsonString);
-
-        if (200 == response.getStatusCode()){
-            JsonObject json = response.asJsonObject();
-            if (json.get("success").getAsBoolean()){
-                return json.get("transferUid").getAsString();
-            }
+        try (HttpResponse response = apiService.put("/savings-goals/" + savingsGoalUid + "/add-money/" + UUID.randomUUID().toString(), null, null, jsonString)) {
+            return transferUid(response);
         }
+    }
 
-        return null;
+    @Override
+    public StarlingBank withCallOptions(CallOptions callOptions) {
+        return new Starling(apiService.withCallOptions(callOptions));
     }
 
     @Override
@@ -1,6 +1,7 @@
 package org.jarling;
 
 import org.jarling.api.*;
+import org.jarling.http.CallOptions;
 
 /**
  * @author Nav Roudsari (nav@rzari.co.uk)
@@ -21,6 +22,14 @@ public interface StarlingBank extends AccountResource,
         TransactionResource,
         WhoAmIResource {
 
+    /**
+     * Returns a client for the same customer whose calls all run under the given options, e.g.
+     * {@code starling.withCallOptions(new CallOptions(5, TimeUnit.SECONDS)).makeLocalPayment(...)}. Every request made
+     * by a call, such as the payment and the fetch of the payment order that follows it, shares the one deadline.
+     * @param callOptions the deadline and timeouts of the calls
+     * @return a client that uses this client's transport and settings with the given options
+     */
+    StarlingBank withCallOptions(CallOptions callOptions);
 
     AccountResource account();
 
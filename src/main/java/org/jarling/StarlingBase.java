@@ -1,12 +1,37 @@
 package org.jarling;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jarling.http.HttpParameter;
+import org.jarling.http.HttpResponse;
+import org.jarling.metrics.FlightRecorderEvents;
+import org.jarling.metrics.ModelDecodeEvent;
+import org.jarling.models.common.CurrencyAndAmount;
+import org.jarling.models.common.DayOfWeek;
+import org.jarling.models.common.RecurrenceRule;
+import org.jarling.models.gson.IsoDateCodec;
+import org.jarling.models.gson.ModelGson;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  *
@@ -17,30 +42,280 @@ import java.util.List;
  */
 abstract class StarlingBase {
 
-    final Gson gson = new Gson();
-    static final DateFormat transactionDateFormat = new SimpleDateFormat("yyyy-MM-dd");
+    final Gson gson = ModelGson.getInstance();
 
-    private JsonObject toJsonObject(String json){
-        return gson.fromJson(json, JsonObject.class);
+    /**
+     * Decodes the array found at {@code _embedded.<memberName>} (or at the top level {@code <memberName>})
+     * straight from the response body, element by element, and closes the response.
+     */
+    final <T> List<T> fromJsonList(final Class<T> clazz, HttpResponse response, String memberName){
+        List<T> result = new ArrayList<>();
+        ModelDecodeEvent event = beginDecodeEvent(clazz);
+        long start = System.nanoTime();
+        try (HttpResponse closeable = response;
+             JsonReader reader = jsonReader(closeable)) {
+            if (seekMember(reader, memberName)){
+                readArray(reader, gson.getAdapter(clazz), result);
+            }
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        // The body is read as it is decoded, so the time spent waiting for it is taken out of the decoding time
+        recordDecode(response, event, result.size(), Math.max(0, System.nanoTime() - start - response.getBodyReadNanos()));
+        return result;
+    }
+
+    /**
+     * Lazily decodes the array found at {@code _embedded.<memberName>} (or at the top level {@code <memberName>}),
+     * reading one element from the response body at a time. The response is closed when the stream is
+     * exhausted or closed, so callers should consume it in a try-with-resources block.
+     */
+    final <T> Stream<T> fromJsonStream(final Class<T> clazz, HttpResponse response, String memberName){
+        ModelDecodeEvent event = beginDecodeEvent(clazz);
+        long start = System.nanoTime();
+        JsonReader reader = jsonReader(response);
+        try {
+            if (!seekMember(reader, memberName) || reader.peek() == JsonToken.NULL){
+                response.close();
+                return Stream.empty();
+            }
+            reader.beginArray();
+        } catch (IOException e) {
+            response.close();
+            throw new JsonIOException(e);
+        } catch (RuntimeException e) {
+            response.close();
+            throw e;
+        }
+        JsonArrayIterator<T> iterator = new JsonArrayIterator<>(reader, gson.getAdapter(clazz), response, event, System.nanoTime() - start);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::finish);
+    }
+
+    private static JsonReader jsonReader(HttpResponse response){
+        return new JsonReader(new InputStreamReader(response.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    // Leaves the reader positioned on the value of the list member, or returns false when there is none
+    private static boolean seekMember(JsonReader reader, String memberName) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()){
+            String name = reader.nextName();
+            if (name.equals("_embedded") && reader.peek() == JsonToken.BEGIN_OBJECT){
+                reader.beginObject();
+                while (reader.hasNext()){
+                    if (reader.nextName().equals(memberName)){
+                        return true;
+                    }
+                    reader.skipValue();
+                }
+                reader.endObject();
+            } else if (name.equals(memberName)){
+                return true;
+            } else {
+                reader.skipValue();
+            }
+        }
+        return false;
+    }
+
+    private <T> void readArray(JsonReader reader, TypeAdapter<T> adapter, List<T> result) throws IOException {
+        if (reader.peek() == JsonToken.NULL){
+            reader.nextNull();
+            return;
+        }
+        reader.beginArray();
+        while (reader.hasNext()){
+            result.add(adapter.read(reader));
+        }
+        reader.endArray();
     }
 
-    private String getJsonArray(String json, String memberName){
-        JsonObject jsonObject = toJsonObject(json);
-        String result;
-        if (jsonObject.has("_embedded")){
-            result = jsonObject.get("_embedded").getAsJsonObject().get(memberName).toString();
-        } else{
-            result = jsonObject.get(memberName).toString();
+    private static final class JsonArrayIterator<T> implements Iterator<T> {
+
+        private final JsonReader reader;
+        private final TypeAdapter<T> adapter;
+        private final HttpResponse response;
+        private final ModelDecodeEvent event;
+        // Time spent in the reader so far, which the caller's own work between elements does not count towards
+        private long decodeNanos;
+        private int elements;
+        private boolean exhausted;
+
+        JsonArrayIterator(JsonReader reader, TypeAdapter<T> adapter, HttpResponse response, ModelDecodeEvent event, long decodeNanos){
+            this.reader = reader;
+            this.adapter = adapter;
+            this.response = response;
+            this.event = event;
+            this.decodeNanos = decodeNanos;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (exhausted){
+                return false;
+            }
+            long start = System.nanoTime();
+            try {
+                boolean hasNext = reader.hasNext();
+                decodeNanos += System.nanoTime() - start;
+                if (hasNext){
+                    return true;
+                }
+                finish();
+                return false;
+            } catch (IOException e) {
+                finish();
+                throw new JsonIOException(e);
+            }
+        }
+
+        void finish(){
+            if (!exhausted){
+                exhausted = true;
+                response.close();
+                recordDecode(response, event, elements, Math.max(0, decodeNanos - response.getBodyReadNanos()));
+            }
         }
+
+        @Override
+        public T next() {
+            if (!hasNext()){
+                throw new NoSuchElementException();
+            }
+            long start = System.nanoTime();
+            try {
+                T next = adapter.read(reader);
+                decodeNanos += System.nanoTime() - start;
+                elements++;
+                return next;
+            } catch (IOException e) {
+                finish();
+                throw new JsonIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Decodes the whole response body as one model, recording the decoding time if the transport keeps metrics.
+     */
+    final <T> T fromJson(HttpResponse response, final Class<T> clazz){
+        String json = response.asString();
+        ModelDecodeEvent event = beginDecodeEvent(clazz);
+        long start = System.nanoTime();
+        T result = gson.fromJson(json, clazz);
+        recordDecode(response, event, result == null ? 0 : 1, System.nanoTime() - start);
         return result;
     }
 
-    // https://stackoverflow.com/questions/14139437/java-type-generic-as-argument-for-gson
-    final <T> List<T> fromJsonList(final Class<T[]> clazz, String json, String memberName){
-        return Arrays.asList(gson.fromJson(getJsonArray(json, memberName), clazz));
+    // Only creates an event while a Flight Recorder recording has decode events enabled
+    private static ModelDecodeEvent beginDecodeEvent(Class<?> clazz){
+        ModelDecodeEvent event = FlightRecorderEvents.beginModelDecode();
+        if (event != null){
+            event.setModelType(clazz);
+        }
+        return event;
     }
 
-    final <T> T fromJson(String json, final Class<T> clazz){
-        return gson.fromJson(json, clazz);
+    private static void recordDecode(HttpResponse response, ModelDecodeEvent event, int elements, long decodeNanos){
+        response.recordDecodeTime(decodeNanos);
+        if (event != null){
+            event.setElements(elements);
+            event.setDecodeTime(decodeNanos);
+            event.commit();
+        }
+    }
+
+    final HttpParameter[] dateRangeParameters(Date from, Date to){
+        HttpParameter[] httpParameters = new HttpParameter[2];
+        httpParameters[0] = new HttpParameter("from", IsoDateCodec.formatDate(from));
+        httpParameters[1] = new HttpParameter("to",  IsoDateCodec.formatDate(to));
+        return httpParameters;
+    }
+
+    final JsonObject localPaymentJson(String destinationAccountUid, String reference, BigDecimal amount){
+        JsonObject localPayment = new JsonObject();
+        JsonObject paymentDetail = new JsonObject();
+
+        localPayment.addProperty("destinationAccountUid", destinationAccountUid);
+        localPayment.addProperty("reference", reference);
+        localPayment.add("payment", paymentDetail);
+
+        paymentDetail.addProperty("amount", amount);
+        paymentDetail.addProperty("currency", "GBP");
+        return localPayment;
+    }
+
+    final JsonObject scheduledPaymentJson(String destinationAccountUid, String reference, BigDecimal amount, RecurrenceRule recurrenceRule){
+        JsonObject scheduledPayment = localPaymentJson(destinationAccountUid, reference, amount);
+        scheduledPayment.add("recurrenceRule", recurrenceRuleJson(recurrenceRule));
+        return scheduledPayment;
+    }
+
+    final String recurringTransferJson(RecurrenceRule recurrenceRule, CurrencyAndAmount currencyAndAmount){
+        JsonObject recurringTransfer = new JsonObject();
+        recurringTransfer.add("recurrenceRule", recurrenceRuleJson(recurrenceRule));
+        recurringTransfer.add("currencyAndAmount", gson.toJsonTree(currencyAndAmount));
+        return gson.toJson(recurringTransfer);
+    }
+
+    // The start and until dates of a rule are calendar dates, not the timestamps the models are written with
+    private static JsonObject recurrenceRuleJson(RecurrenceRule recurrenceRule){
+        JsonObject recurrenceRuleDetail = new JsonObject();
+        JsonArray recurrenceRuleDays = new JsonArray();
+
+        for (DayOfWeek day : recurrenceRule.getDays()){
+            recurrenceRuleDays.add(day.name());
+        }
+        recurrenceRuleDetail.addProperty("count", recurrenceRule.getCount());
+        recurrenceRuleDetail.add("days", recurrenceRuleDays);
+        recurrenceRuleDetail.addProperty("frequency", recurrenceRule.getFrequency() == null ? null : recurrenceRule.getFrequency().getValue());
+        recurrenceRuleDetail.addProperty("interval", recurrenceRule.getInterval());
+        recurrenceRuleDetail.addProperty("monthDay", recurrenceRule.getMonthDay());
+        recurrenceRuleDetail.addProperty("monthWeek", recurrenceRule.getMonthWeek());
+        recurrenceRuleDetail.addProperty("startDate", recurrenceRule.getStartDate() == null ? null : IsoDateCodec.formatDate(recurrenceRule.getStartDate()));
+        recurrenceRuleDetail.addProperty("untilDate", recurrenceRule.getUntilDate() == null ? null : IsoDateCodec.formatDate(recurrenceRule.getUntilDate()));
+        recurrenceRuleDetail.addProperty("weekStart", recurrenceRule.getWeekStart() == null ? null : recurrenceRule.getWeekStart().name());
+        return recurrenceRuleDetail;
+    }
+
+    final JsonObject savingsGoalJson(String name, String currency, BigDecimal targetAmount, String photo){
+        JsonObject savingsGoalRequestJson = new JsonObject();
+        JsonObject targetJson = new JsonObject();
+
+        savingsGoalRequestJson.addProperty("name", name);
+        savingsGoalRequestJson.addProperty("currency", currency);
+        savingsGoalRequestJson.addProperty("photo", photo);
+        targetJson.addProperty("currency", currency);
+        targetJson.addProperty("minorUnits", targetAmount.multiply(BigDecimal.TEN.multiply(BigDecimal.TEN)).longValue());
+        savingsGoalRequestJson.add("target", targetJson);
+        return savingsGoalRequestJson;
+    }
+
+    // Savings goal transfers answer with {"success": true, "transferUid": "..."}
+    final String transferUid(HttpResponse response){
+        if (200 == response.getStatusCode()){
+            return successfulUid(response, "transferUid");
+        }
+        return null;
+    }
+
+    // A new savings goal is answered with {"success": true, "savingsGoalUid": "..."}
+    final String savingsGoalUid(HttpResponse response){
+        return successfulUid(response, "savingsGoalUid");
+    }
+
+    // Reads the whole body whatever its Content-Type, so that the connection can be reused
+    private static String successfulUid(HttpResponse response, String memberName){
+        JsonElement body = new JsonParser().parse(response.asString());
+        if (body.isJsonObject()){
+            JsonObject json = body.getAsJsonObject();
+            JsonElement success = json.get("success");
+            JsonElement uid = json.get(memberName);
+            if (success != null && success.getAsBoolean() && uid != null && !uid.isJsonNull()){
+                return uid.getAsString();
+            }
+        }
+        return null;
     }
 }
@@ -0,0 +1,121 @@
+package org.jarling;
+
+import org.jarling.http.ExponentialBackoffRetryPolicy;
+import org.jarling.http.HttpClient;
+import org.jarling.http.PooledHttpClient;
+import org.jarling.http.RetryingHttpClient;
+import org.jarling.services.ApiService;
+import org.jarling.services.BulkheadRegistry;
+import org.jarling.services.CircuitBreakerRegistry;
+import org.jarling.services.RateLimiter;
+import org.jarling.services.RequestCoalescer;
+import org.jarling.services.RequestHedger;
+import org.jarling.services.RequestPolicies;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ *
+ * Hands out {@link StarlingBank} views for many customers over one shared transport. The factory owns the
+ * transport, the endpoint, the model codec and the request coalescer; a view holds only its customer's request
+ * headers, so creating one costs no connections and little memory. Views are immutable and can be used from any thread.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class StarlingClientFactory implements Closeable {
+
+    private final String endpoint;
+    private final HttpClient httpClient;
+    private final RequestPolicies policies;
+
+    /**
+     * Creates a factory whose views send requests over pooled connections, retrying GETs and PUTs that fail for a
+     * transient reason.
+     * @param environment the Starling Bank environment to connect to
+     */
+    public StarlingClientFactory(StarlingBankEnvironment environment){
+        this(environment, new RetryingHttpClient(new PooledHttpClient(null), new ExponentialBackoffRetryPolicy()));
+    }
+
+    /**
+     * Creates a factory whose views all send requests through the given transport.
+     * @param environment the Starling Bank environment to connect to
+     * @param httpClient the transport shared by every view
+     */
+    public StarlingClientFactory(StarlingBankEnvironment environment, HttpClient httpClient){
+        this(environment, httpClient, RequestPolicies.NONE);
+    }
+
+    /**
+     * Creates a factory whose views all apply the given policies. Limiters, circuit breakers, the hedger and the
+     * bulkheads are shared by every view, so that for example an endpoint failing for some customers is rejected
+     * quickly for all of them, while each view gets a per token {@link RateLimiter} of its own. Unless the policies
+     * name a coalescer, the views share one created by the factory.
+     * @param environment the Starling Bank environment to connect to
+     * @param httpClient the transport shared by every view
+     * @param policies the rate limiting, circuit breakers, coalescing, hedging and bulkheads to apply
+     */
+    public StarlingClientFactory(StarlingBankEnvironment environment, HttpClient httpClient, RequestPolicies policies){
+        this.endpoint = ApiService.endpoint(environment);
+        this.httpClient = httpClient;
+        this.policies = policies.getRequestCoalescer() != null ? policies : policies.toBuilder().requestCoalescer(new RequestCoalescer()).build();
+    }
+
+    /**
+     * @param accessToken the customer's access token
+     * @return a client that accesses the customer's resources through this factory's transport
+     */
+    public StarlingBank forAccessToken(String accessToken){
+        if (accessToken == null || accessToken.equals("")){
+            throw new IllegalArgumentException("access token cannot be null or blank");
+        }
+        return new Starling(new ApiService(endpoint, accessToken, httpClient, policies));
+    }
+
+    public HttpClient getHttpClient(){
+        return httpClient;
+    }
+
+    /**
+     * @return the policies every view applies, including the coalescer they share
+     */
+    public RequestPolicies getRequestPolicies(){
+        return policies;
+    }
+
+    public RateLimiter getGlobalRateLimiter(){
+        return policies.getGlobalRateLimiter();
+    }
+
+    public CircuitBreakerRegistry getCircuitBreakerRegistry(){
+        return policies.getCircuitBreakerRegistry();
+    }
+
+    public RequestHedger getRequestHedger(){
+        return policies.getRequestHedger();
+    }
+
+    public BulkheadRegistry getBulkheadRegistry(){
+        return policies.getBulkheadRegistry();
+    }
+
+    /**
+     * @return the coalescer shared by every view, which lets concurrent identical GETs of one customer share a request
+     */
+    public RequestCoalescer getRequestCoalescer(){
+        return policies.getRequestCoalescer();
+    }
+
+    /**
+     * Closes the shared transport if it holds resources, such as the connections of a {@link PooledHttpClient}.
+     * Views handed out by this factory must not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        if (httpClient instanceof Closeable){
+            ((Closeable) httpClient).close();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.jarling.models.directDebits.DirectDebitTransaction;
 
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  *
@@ -44,4 +45,15 @@ public interface TransactionDirectDebitResource {
      * @see <a href="https://developer.starlingbank.com/docs">Transaction Direct Debit API - Starling Bank Developer Docs</a>
      */
     List<DirectDebitTransaction> listDirectDebitTransactions(Date from, Date to) throws StarlingBankRequestException;
+
+    /**
+     * <p>Stream direct debit transactions between</p>
+     * Returns the customer's direct debit transactions over the given interval, decoded one at a time as the stream is consumed
+     * @param from Date from which the transactions should be fetched
+     * @param to Date from which the transactions should be fetched
+     * @return a stream of the direct debit transaction details between the specified dates; close it to release the connection
+     * @throws StarlingBankRequestException when there was an issue accessing the resource
+     * @see <a href="https://developer.starlingbank.com/docs">Transaction Direct Debit API - Starling Bank Developer Docs</a>
+     */
+    Stream<DirectDebitTransaction> streamDirectDebitTransactions(Date from, Date to) throws StarlingBankRequestException;
 }
@@ -5,6 +5,7 @@ import org.jarling.models.transactions.FasterPaymentsInTransaction;
 
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  *
@@ -44,4 +45,15 @@ public interface TransactionFasterPaymentInResource {
      * @see <a href="https://developer.starlingbank.com/docs">Transaction Faster Payment In API - Starling Bank Developer Docs</a>
      */
     List<FasterPaymentsInTransaction> listFasterPaymentsInTransactions(Date from, Date to) throws StarlingBankRequestException;
+
+    /**
+     * <p>Stream FPS In transactions between</p>
+     * Returns the customer's inbound FPS transactions over the given interval, decoded one at a time as the stream is consumed
+     * @param from Date from which the transactions should be fetched
+     * @param to Date from which the transactions should be fetched
+     * @return a stream of the FPS inbound transaction details between the specified dates; close it to release the connection
+     * @throws StarlingBankRequestException when there was an issue accessing the resource
+     * @see <a href="https://developer.starlingbank.com/docs">Transaction Faster Payment In API - Starling Bank Developer Docs</a>
+     */
+    Stream<FasterPaymentsInTransaction> streamFasterPaymentsInTransactions(Date from, Date to) throws StarlingBankRequestException;
 }
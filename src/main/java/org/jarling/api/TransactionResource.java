@@ -5,6 +5,7 @@ import org.jarling.models.transactions.Transaction;
 
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  *
@@ -44,4 +45,15 @@ public interface TransactionResource {
      * @see <a href="https://developer.starlingbank.com/docs">Transaction API - Starling Bank Developer Docs</a>
      */
     List<Transaction> listTransactions(Date from, Date to) throws StarlingBankRequestException;
+
+    /**
+     * <p>Stream transactions between</p>
+     * Returns the customer's transactions over the given interval, decoded one at a time as the stream is consumed
+     * @param from Date from which the transactions should be fetched
+     * @param to Date from which the transactions should be fetched
+     * @return a stream of the transaction details between the specified dates; close it to release the connection
+     * @throws StarlingBankRequestException when there was an issue accessing the resource
+     * @see <a href="https://developer.starlingbank.com/docs">Transaction API - Starling Bank Developer Docs</a>
+     */
+    Stream<Transaction> streamTransactions(Date from, Date to) throws StarlingBankRequestException;
 }
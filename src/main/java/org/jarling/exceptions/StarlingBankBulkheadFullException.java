@@ -0,0 +1,23 @@
+package org.jarling.exceptions;
+
+/**
+ *
+ * Thrown instead of sending a request when the bulkhead of its resource group already has as many requests in flight
+ * and waiting as it allows. The status code is reported as -1.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class StarlingBankBulkheadFullException extends StarlingBankRequestException {
+
+    private final String group;
+
+    public StarlingBankBulkheadFullException(String group){
+        super(-1, group, "Bulkhead Full", "Too many requests to " + group + " are in flight or waiting, so this one was rejected without being sent");
+        this.group = group;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+}
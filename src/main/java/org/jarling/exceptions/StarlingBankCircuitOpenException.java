@@ -0,0 +1,23 @@
+package org.jarling.exceptions;
+
+/**
+ *
+ * Thrown instead of sending a request while the circuit breaker of its endpoint is open, because recent requests to
+ * the endpoint failed or were too slow. The status code is reported as -1.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class StarlingBankCircuitOpenException extends StarlingBankRequestException {
+
+    private final String endpointTemplate;
+
+    public StarlingBankCircuitOpenException(String endpointTemplate){
+        super(-1, endpointTemplate, "Circuit Open", "Requests to " + endpointTemplate + " are failing or too slow, so they are rejected for a while without being sent");
+        this.endpointTemplate = endpointTemplate;
+    }
+
+    public String getEndpointTemplate() {
+        return endpointTemplate;
+    }
+}
@@ -0,0 +1,16 @@
+package org.jarling.exceptions;
+
+/**
+ *
+ * Thrown instead of sending a request, or waiting to send it again, once the deadline of the call it belongs to has
+ * passed. The status code is reported as -1.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class StarlingBankDeadlineExceededException extends StarlingBankRequestException {
+
+    public StarlingBankDeadlineExceededException(String url){
+        super(-1, url, "Deadline Exceeded", "The deadline of the call passed before " + url + " could be requested");
+    }
+}
@@ -0,0 +1,25 @@
+package org.jarling.exceptions;
+
+/**
+ *
+ * Thrown when Starling answers 429 Too Many Requests. Carries the delay asked for in the Retry-After header, if any.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class StarlingBankRateLimitException extends StarlingBankRequestException {
+
+    private final long retryAfterMillis;
+
+    public StarlingBankRateLimitException(int statusCode, String reason, long retryAfterMillis){
+        super(statusCode, reason, "Too Many Requests", "Too many requests were made in too short a time, slow down and try again later");
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * @return milliseconds to wait before trying again as asked for by the server, or -1 when it did not say
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
@@ -19,6 +19,18 @@ public class StarlingBankRequestException extends Exception {
         this.errorDescription = errorDescription;
     }
 
+    /**
+     * Creates an exception for a request that failed before a response status could be read,
+     * e.g. because the connection was refused or reset. The status code is reported as -1.
+     */
+    public StarlingBankRequestException(String errorMessage, String errorDescription, Throwable cause){
+        super(cause);
+        this.statusCode = -1;
+        this.reason = cause.getMessage();
+        this.errorMessage = errorMessage;
+        this.errorDescription = errorDescription;
+    }
+
     public int getStatusCode() {
         return statusCode;
     }
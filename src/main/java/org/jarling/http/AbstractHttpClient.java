@@ -0,0 +1,86 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankDeadlineExceededException;
+import org.jarling.exceptions.StarlingBankRequestException;
+
+import java.util.Map;
+
+/**
+ *
+ * Maps the {@link HttpClient} convenience methods onto a single {@link #execute(HttpRequest)} call,
+ * so transports only need to implement the request itself.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+abstract class AbstractHttpClient implements HttpClient {
+
+    abstract HttpResponse execute(HttpRequest httpRequest) throws StarlingBankRequestException;
+
+    // The transport's timeout, overridden or cut short by the options of the call the request belongs to
+    static int connectTimeoutMillis(HttpRequest httpRequest, int transportTimeoutMillis) throws StarlingBankDeadlineExceededException {
+        CallOptions callOptions = CallOptions.current();
+        return callOptions == null ? transportTimeoutMillis : callOptions.connectTimeoutMillis(httpRequest.getUrl(), transportTimeoutMillis);
+    }
+
+    static int readTimeoutMillis(HttpRequest httpRequest, int transportTimeoutMillis) throws StarlingBankDeadlineExceededException {
+        CallOptions callOptions = CallOptions.current();
+        return callOptions == null ? transportTimeoutMillis : callOptions.readTimeoutMillis(httpRequest.getUrl(), transportTimeoutMillis);
+    }
+
+    public HttpResponse get(String url) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.GET, url, null, null, null));
+    }
+
+    public HttpResponse get(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.GET, url, httpParameters, null, null));
+    }
+
+    public HttpResponse get(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.GET, url, httpParameters, requestHeaders, null));
+    }
+
+    public HttpResponse post(String url) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.POST, url, null, null, null));
+    }
+
+    public HttpResponse post(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.POST, url, httpParameters, null, null));
+    }
+
+    public HttpResponse post(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.POST, url, httpParameters, requestHeaders, null));
+    }
+
+    public HttpResponse post(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders, String body) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.POST, url, httpParameters, requestHeaders, body));
+    }
+
+    public HttpResponse put(String url) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.PUT, url, null, null, null));
+    }
+
+    public HttpResponse put(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.PUT, url, httpParameters, null, null));
+    }
+
+    public HttpResponse put(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.PUT, url, httpParameters, requestHeaders, null));
+    }
+
+    public HttpResponse put(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders, String body) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.PUT, url, httpParameters, requestHeaders, body));
+    }
+
+    public HttpResponse delete(String url) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.DELETE, url, null, null, null));
+    }
+
+    public HttpResponse delete(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.DELETE, url, httpParameters, null, null));
+    }
+
+    public HttpResponse delete(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) throws StarlingBankRequestException {
+        return execute(new HttpRequest(RequestMethod.DELETE, url, httpParameters, requestHeaders, null));
+    }
+}
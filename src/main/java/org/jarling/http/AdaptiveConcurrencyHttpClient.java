@@ -0,0 +1,98 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRateLimitException;
+import org.jarling.exceptions.StarlingBankRequestException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ *
+ * {@link HttpClient} that bounds the requests in flight to each endpoint by a limit it learns from their round trip
+ * times, see {@link AdaptiveLimit}. On a good day the limit rises until Starling starts to queue requests; during an
+ * incident it falls as round trips lengthen or requests fail. Requests over the limit wait for their turn.
+ *
+ * The round trip is measured from sending the request to receiving the response headers. A request counts as failed,
+ * and cuts the limit, when it could not be sent or answered, was answered with a server error, or was rate limited.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class AdaptiveConcurrencyHttpClient extends AbstractHttpClient implements Closeable {
+
+    private final HttpClient httpClient;
+    private final AdaptiveLimitConfig config;
+    private final ConcurrentMap<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyHttpClient(HttpClient httpClient) {
+        this(httpClient, new AdaptiveLimitConfig());
+    }
+
+    /**
+     * @param httpClient the transport that sends each request
+     * @param config the bounds and tuning of the limit of every endpoint
+     */
+    public AdaptiveConcurrencyHttpClient(HttpClient httpClient, AdaptiveLimitConfig config) {
+        this.httpClient = httpClient;
+        this.config = config;
+    }
+
+    public HttpClient getHttpClient() {
+        return this.httpClient;
+    }
+
+    public AdaptiveLimitConfig getConfig() {
+        return this.config;
+    }
+
+    HttpResponse execute(HttpRequest httpRequest) throws StarlingBankRequestException {
+        AdaptiveLimit limit = limits.computeIfAbsent(EndpointTemplates.forUrl(httpRequest.getUrl()), template -> new AdaptiveLimit(template, config));
+        int inFlight = limit.acquire(httpRequest.getUrl());
+        long start = System.nanoTime();
+        boolean dropped = true;
+        boolean cancelled = false;
+        try {
+            HttpResponse response = httpRequest.sendTo(httpClient);
+            dropped = false;
+            return response;
+        } catch (StarlingBankRequestException e) {
+            // A request cancelled by the client, e.g. the losing copy of a hedged GET, fails on its closed connection
+            cancelled = CancellationSignal.isCurrentCancelled();
+            dropped = !cancelled && (e instanceof StarlingBankRateLimitException || e.getStatusCode() >= 500
+                    || (e.getStatusCode() == -1 && e.getCause() instanceof IOException));
+            throw e;
+        } finally {
+            if (cancelled) {
+                limit.releaseCancelled();
+            } else {
+                limit.release(System.nanoTime() - start, inFlight, dropped);
+            }
+        }
+    }
+
+    /**
+     * @return a snapshot of the limit of every endpoint requested so far, by endpoint template
+     */
+    public Map<String, AdaptiveLimitStats> getStats() {
+        Map<String, AdaptiveLimitStats> stats = new TreeMap<>();
+        for (AdaptiveLimit limit : limits.values()) {
+            AdaptiveLimitStats limitStats = limit.getStats();
+            stats.put(limitStats.getEndpointTemplate(), limitStats);
+        }
+        return stats;
+    }
+
+    /**
+     * Closes the underlying transport if it holds resources, such as the connections of a {@link PooledHttpClient}.
+     */
+    @Override
+    public void close() throws IOException {
+        if (httpClient instanceof Closeable) {
+            ((Closeable) httpClient).close();
+        }
+    }
+}
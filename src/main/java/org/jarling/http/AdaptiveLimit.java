@@ -0,0 +1,169 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *
+ * The limit on requests in flight to one endpoint, adjusted after every request in the manner of TCP Vegas. The
+ * shortest round trip seen is taken as that of an unloaded server, so a longer round trip at a given limit means that
+ * some of the requests are queued at the server: {@code queued = limit * (1 - noLoadRtt / rtt)}. The limit grows by
+ * one while that estimate is below alpha and shrinks by one once it reaches beta, and is cut multiplicatively when a
+ * request fails, so that it settles just above what the server can serve without queueing.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+final class AdaptiveLimit {
+
+    // The no-load round trip is measured afresh this many times the limit samples, in case the server got faster or slower.
+    // Only round trips of requests sent while few others were in flight are trusted for this, as under sustained load
+    // every request is queued and the round trip would hide the very queueing the limit is meant to detect.
+    private static final int PROBE_SAMPLES_PER_LIMIT = 30;
+
+    private final String endpointTemplate;
+    private final AdaptiveLimitConfig config;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition belowLimit = lock.newCondition();
+    private int limit;
+    private int inFlight;
+    private int queued;
+    private long noLoadRttNanos = -1;
+    private long lastRttNanos = -1;
+    private long lightLoadRttNanos = Long.MAX_VALUE;
+    private long samplesSinceProbe;
+    private long increases;
+    private long decreases;
+    private long drops;
+    private long rejected;
+
+    AdaptiveLimit(String endpointTemplate, AdaptiveLimitConfig config){
+        this.endpointTemplate = endpointTemplate;
+        this.config = config;
+        this.limit = config.getInitialLimit();
+    }
+
+    /**
+     * Waits until fewer requests than the limit are in flight, for at most the configured wait or until the deadline
+     * of the call.
+     * @return the number of requests in flight, including this one
+     */
+    int acquire(String url) throws StarlingBankRequestException {
+        CallOptions callOptions = CallOptions.current();
+        long waitMillis = callOptions == null ? config.getMaxWaitMillis() : Math.min(config.getMaxWaitMillis(), callOptions.remainingMillis());
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        lock.lock();
+        try {
+            if (inFlight >= limit){
+                queued++;
+                try {
+                    while (inFlight >= limit){
+                        if (remainingNanos <= 0){
+                            rejected++;
+                            throw new StarlingBankRequestException(-1, url, "Concurrency Limit Exceeded",
+                                    "No place came free within the limit of " + limit + " requests in flight to " + endpointTemplate);
+                        }
+                        remainingNanos = belowLimit.awaitNanos(remainingNanos);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new StarlingBankRequestException("Interrupted", "The thread was interrupted while waiting to send a request to " + endpointTemplate, e);
+                } finally {
+                    queued--;
+                }
+            }
+            return ++inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param rttNanos the time from sending the request to receiving the response headers
+     * @param inFlightAtStart the number returned by {@link #acquire}
+     * @param dropped whether the request failed in a way that suggests the server is overloaded
+     */
+    void release(long rttNanos, int inFlightAtStart, boolean dropped){
+        lock.lock();
+        try {
+            inFlight--;
+            int previousLimit = limit;
+            if (dropped){
+                drops++;
+                limit = Math.max(config.getMinLimit(), (int) (limit * config.getBackoffRatio()));
+            } else {
+                lastRttNanos = rttNanos;
+                update(rttNanos, inFlightAtStart);
+            }
+            if (limit > previousLimit){
+                increases++;
+            } else if (limit < previousLimit){
+                decreases++;
+            }
+            if (inFlight < limit){
+                belowLimit.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gives back the place of a request that the client cancelled itself, such as the slower copy of a hedged GET.
+     * That says nothing about the server, so neither the limit nor the round trip times change.
+     */
+    void releaseCancelled(){
+        lock.lock();
+        try {
+            inFlight--;
+            if (inFlight < limit){
+                belowLimit.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void update(long rttNanos, int inFlightAtStart){
+        if (noLoadRttNanos < 0 || rttNanos < noLoadRttNanos){
+            noLoadRttNanos = rttNanos;
+            return;
+        }
+        if (++samplesSinceProbe > (long) PROBE_SAMPLES_PER_LIMIT * limit){
+            if (lightLoadRttNanos != Long.MAX_VALUE){
+                noLoadRttNanos = lightLoadRttNanos;
+            }
+            lightLoadRttNanos = Long.MAX_VALUE;
+            samplesSinceProbe = 0;
+        }
+        // A client sending far fewer requests than the limit tells us nothing about whether the server can take more,
+        // but does tell us how fast it answers when it is not busy
+        if (inFlightAtStart * 2 < limit){
+            lightLoadRttNanos = Math.min(lightLoadRttNanos, rttNanos);
+            return;
+        }
+        int queuedAtServer = (int) Math.ceil(limit * (1 - (double) noLoadRttNanos / rttNanos));
+        if (queuedAtServer < config.getAlpha()){
+            limit = Math.min(config.getMaxLimit(), limit + 1);
+        } else if (queuedAtServer >= config.getBeta()){
+            limit = Math.max(config.getMinLimit(), limit - 1);
+        }
+    }
+
+    AdaptiveLimitStats getStats(){
+        lock.lock();
+        try {
+            return new AdaptiveLimitStats(endpointTemplate, limit, inFlight, queued, toMillis(noLoadRttNanos), toMillis(lastRttNanos),
+                    increases, decreases, drops, rejected);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long toMillis(long nanos){
+        return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
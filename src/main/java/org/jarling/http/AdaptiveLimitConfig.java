@@ -0,0 +1,81 @@
+package org.jarling.http;
+
+/**
+ *
+ * Bounds and tuning of the per endpoint limits of an {@link AdaptiveConcurrencyHttpClient}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class AdaptiveLimitConfig {
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int alpha;
+    private final int beta;
+    private final double backoffRatio;
+    private final long maxWaitMillis;
+
+    /**
+     * Starts each endpoint at 20 requests in flight and keeps it between 1 and 200, growing while fewer than 3
+     * requests are estimated to be queued at Starling, shrinking when 6 or more are, and cutting it by 10% on every
+     * failure. Requests wait up to 5 seconds for their turn.
+     */
+    public AdaptiveLimitConfig(){
+        this(20, 1, 200, 3, 6, 0.9, 5000);
+    }
+
+    /**
+     * @param initialLimit the number of requests to an endpoint allowed in flight before any have been measured
+     * @param minLimit the lowest the limit may fall to
+     * @param maxLimit the highest the limit may rise to
+     * @param alpha the limit grows by one while fewer requests than this are estimated to be queued at the server
+     * @param beta the limit shrinks by one while at least this many requests are estimated to be queued at the server
+     * @param backoffRatio the limit is multiplied by this when a request fails, times out or is rate limited
+     * @param maxWaitMillis how long a request may wait for the number in flight to drop below the limit
+     */
+    public AdaptiveLimitConfig(int initialLimit, int minLimit, int maxLimit, int alpha, int beta, double backoffRatio, long maxWaitMillis){
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit){
+            throw new IllegalArgumentException("limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        if (alpha < 0 || beta <= alpha || backoffRatio <= 0 || backoffRatio >= 1 || maxWaitMillis < 0){
+            throw new IllegalArgumentException("alpha must be less than beta, backoffRatio between 0 and 1 and maxWaitMillis not negative");
+        }
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.backoffRatio = backoffRatio;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public int getAlpha() {
+        return alpha;
+    }
+
+    public int getBeta() {
+        return beta;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+}
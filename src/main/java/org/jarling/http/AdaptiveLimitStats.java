@@ -0,0 +1,113 @@
+package org.jarling.http;
+
+/**
+ *
+ * Point in time snapshot of the limit of one endpoint of an {@link AdaptiveConcurrencyHttpClient}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class AdaptiveLimitStats {
+
+    private final String endpointTemplate;
+    private final int limit;
+    private final int inFlight;
+    private final int queued;
+    private final long noLoadRttMillis;
+    private final long lastRttMillis;
+    private final long increases;
+    private final long decreases;
+    private final long drops;
+    private final long rejected;
+
+    AdaptiveLimitStats(String endpointTemplate, int limit, int inFlight, int queued, long noLoadRttMillis, long lastRttMillis, long increases,
+                       long decreases, long drops, long rejected) {
+        this.endpointTemplate = endpointTemplate;
+        this.limit = limit;
+        this.inFlight = inFlight;
+        this.queued = queued;
+        this.noLoadRttMillis = noLoadRttMillis;
+        this.lastRttMillis = lastRttMillis;
+        this.increases = increases;
+        this.decreases = decreases;
+        this.drops = drops;
+        this.rejected = rejected;
+    }
+
+    public String getEndpointTemplate() {
+        return endpointTemplate;
+    }
+
+    /**
+     * @return the number of requests currently allowed in flight
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return requests waiting for the number in flight to drop below the limit
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    /**
+     * @return the shortest round trip seen recently, taken as the round trip of an unloaded server, or -1 if none yet
+     */
+    public long getNoLoadRttMillis() {
+        return noLoadRttMillis;
+    }
+
+    public long getLastRttMillis() {
+        return lastRttMillis;
+    }
+
+    /**
+     * @return times the limit was raised
+     */
+    public long getIncreases() {
+        return increases;
+    }
+
+    /**
+     * @return times the limit was lowered, because of queueing at the server or a failure
+     */
+    public long getDecreases() {
+        return decreases;
+    }
+
+    /**
+     * @return requests that failed, timed out or were rate limited, each of which cut the limit
+     */
+    public long getDrops() {
+        return drops;
+    }
+
+    /**
+     * @return requests that gave up waiting for their turn
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveLimitStats{" +
+                "endpointTemplate='" + endpointTemplate + '\'' +
+                ", limit=" + limit +
+                ", inFlight=" + inFlight +
+                ", queued=" + queued +
+                ", noLoadRttMillis=" + noLoadRttMillis +
+                ", lastRttMillis=" + lastRttMillis +
+                ", increases=" + increases +
+                ", decreases=" + decreases +
+                ", drops=" + drops +
+                ", rejected=" + rejected +
+                '}';
+    }
+}
@@ -0,0 +1,22 @@
+package org.jarling.http;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ *
+ * Non-blocking counterpart of {@link HttpClient}. Each method returns as soon as the request has been
+ * handed to the transport; the future completes with the {@link HttpResponse}, or exceptionally with a
+ * {@link org.jarling.exceptions.StarlingBankRequestException} if the request failed.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public interface AsyncHttpClient {
+
+    CompletableFuture<HttpResponse> get(String url, HttpParameter[] httpParameters, Map<String,String> requestHeaders);
+    CompletableFuture<HttpResponse> post(String url, HttpParameter[] httpParameters, Map<String,String> requestHeaders, String body);
+    CompletableFuture<HttpResponse> put(String url, HttpParameter[] httpParameters, Map<String,String> requestHeaders, String body);
+    CompletableFuture<HttpResponse> delete(String url, HttpParameter[] httpParameters, Map<String,String> requestHeaders);
+
+}
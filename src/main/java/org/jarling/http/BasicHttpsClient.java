@@ -1,64 +1,148 @@
 package org.jarling.http;
 
 import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.metrics.MetricsRegistry;
 
 import javax.net.ssl.HttpsURLConnection;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
+ *
+ * {@link HttpClient} that opens a new {@link HttpsURLConnection} for every request. Connecting and waiting for data
+ * each time out, after 10 and 30 seconds unless configured otherwise, so that a stalled socket cannot hold a thread
+ * forever. Responses are asked for gzip or deflate compressed, unless the headers given say otherwise, and
+ * decompressed as they are read. Given a {@link MetricsRegistry}, it records how long each request spent connecting,
+ * waiting for Starling and reading the response, by endpoint.
  *
  * @author Nav Roudsari (nav@rzari.co.uk)
  *
  */
-public class BasicHttpsClient implements HttpClient{
+public class BasicHttpsClient extends AbstractHttpClient {
+
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10000;
+    public static final int DEFAULT_READ_TIMEOUT_MILLIS = 30000;
 
     private final Map<String,String> requestHeaders;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final MetricsRegistry metricsRegistry;
 
     public BasicHttpsClient(Map<String, String> defaultRequestHeaders){
-        if (defaultRequestHeaders != null) {
-            this.requestHeaders = defaultRequestHeaders;
-        }
-        else{
-            this.requestHeaders = new HashMap<>();
+        this(defaultRequestHeaders, DEFAULT_CONNECT_TIMEOUT_MILLIS, DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param defaultRequestHeaders headers sent with every request, or null for none
+     * @param connectTimeoutMillis how long to wait for a connection to be established, or 0 to wait forever
+     * @param readTimeoutMillis how long to wait for data from an established connection, or 0 to wait forever
+     */
+    public BasicHttpsClient(Map<String, String> defaultRequestHeaders, int connectTimeoutMillis, int readTimeoutMillis){
+        this(defaultRequestHeaders, connectTimeoutMillis, readTimeoutMillis, null);
+    }
+
+    /**
+     * @param defaultRequestHeaders headers sent with every request, or null for none
+     * @param connectTimeoutMillis how long to wait for a connection to be established, or 0 to wait forever
+     * @param readTimeoutMillis how long to wait for data from an established connection, or 0 to wait forever
+     * @param metricsRegistry the registry every request is measured into, or null for none
+     */
+    public BasicHttpsClient(Map<String, String> defaultRequestHeaders, int connectTimeoutMillis, int readTimeoutMillis, MetricsRegistry metricsRegistry){
+        if (connectTimeoutMillis < 0 || readTimeoutMillis < 0){
+            throw new IllegalArgumentException("timeouts must not be negative");
         }
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.metricsRegistry = metricsRegistry;
+        this.requestHeaders = defaultRequestHeaders == null
+                ? Collections.<String, String>emptyMap()
+                : Collections.unmodifiableMap(new HashMap<>(defaultRequestHeaders));
     }
 
     public Map<String, String> getDefaultRequestHeaders() {
         return this.requestHeaders;
     }
 
-    private HttpResponse request(HttpRequest httpRequest) throws StarlingBankRequestException {
-        HttpsURLConnection httpsURLConnection = null;
-        URL requestUrl = null;
-        HttpResponse httpResponse;
+    public int getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return readTimeoutMillis;
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    HttpResponse execute(HttpRequest httpRequest) throws StarlingBankRequestException {
+        ExchangeMetrics metrics = ExchangeMetrics.start(metricsRegistry, httpRequest);
+        try {
+            return metrics.received(execute(httpRequest, metrics));
+        } catch (StarlingBankRequestException e) {
+            metrics.failed(e);
+            throw e;
+        }
+    }
+
+    private HttpResponse execute(HttpRequest httpRequest, ExchangeMetrics metrics) throws StarlingBankRequestException {
+        URL requestUrl;
         try {
             requestUrl = new URL(httpRequest.getUrl());
         } catch (MalformedURLException e) {
-            e.printStackTrace();
+            throw new StarlingBankRequestException("Malformed URL", "The request URL could not be parsed: " + httpRequest.getUrl(), e);
         }
 
+        int connectTimeout = connectTimeoutMillis(httpRequest, connectTimeoutMillis);
+        int readTimeout = readTimeoutMillis(httpRequest, readTimeoutMillis);
+        CancellationSignal cancellation = CancellationSignal.current();
+        HttpsURLConnection httpsURLConnection;
         try {
-            httpsURLConnection = (HttpsURLConnection) (requestUrl != null ? requestUrl.openConnection() : null);
-            assert httpsURLConnection != null;
+            httpsURLConnection = (HttpsURLConnection) requestUrl.openConnection();
+        } catch (IOException e) {
+            throw new StarlingBankRequestException("Connection Error", "The request to " + requestUrl.getHost() + " failed before a response was received", e);
+        }
+        if (cancellation != null) {
+            cancellation.register(httpsURLConnection::disconnect);
+        }
+        try {
+            return send(httpsURLConnection, httpRequest, requestUrl, connectTimeout, readTimeout, metrics);
+        } finally {
+            if (cancellation != null) {
+                cancellation.unregister();
+            }
+        }
+    }
+
+    private HttpResponse send(HttpsURLConnection httpsURLConnection, HttpRequest httpRequest, URL requestUrl, int connectTimeout, int readTimeout,
+                              ExchangeMetrics metrics) throws StarlingBankRequestException {
+        try {
+            httpsURLConnection.setConnectTimeout(connectTimeout);
+            httpsURLConnection.setReadTimeout(readTimeout);
             httpsURLConnection.setRequestMethod(httpRequest.getRequestMethod().getValue());
+            httpsURLConnection.setRequestProperty("Accept-Encoding", DecodingInputStream.ACCEPT_ENCODING);
             setRequestHeaders(httpsURLConnection, this.getDefaultRequestHeaders());
             setRequestHeaders(httpsURLConnection, httpRequest.getRequestHeaders());
-            if (httpRequest.getBody() != null){
-                this.requestHeaders.put("Content-Type", "application/json; charset=utf-8");
-                setRequestHeaders(httpsURLConnection, this.getDefaultRequestHeaders());
+            byte[] body = httpRequest.getBody() != null ? httpRequest.getBody().getBytes("UTF-8") : null;
+            if (body != null){
+                httpsURLConnection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
                 httpsURLConnection.setDoOutput(true);
-                httpsURLConnection.getOutputStream().write(httpRequest.getBody().getBytes("UTF-8"));
             }
+            long connectStart = System.nanoTime();
+            httpsURLConnection.connect();
+            metrics.connected(System.nanoTime() - connectStart, -1);
+            if (body != null){
+                httpsURLConnection.getOutputStream().write(body);
+            }
+            metrics.sent(body != null ? body.length : 0);
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new StarlingBankRequestException("Connection Error", "The request to " + requestUrl.getHost() + " failed before a response was received", e);
         }
-        httpResponse = new HttpResponse(httpsURLConnection);
-
-        return httpResponse;
+        return new HttpResponse(httpsURLConnection);
     }
 
     private void setRequestHeaders(HttpsURLConnection httpsURLConnection, Map<String, String> requestHeaders){
@@ -68,60 +152,4 @@ public class BasicHttpsClient implements HttpClient{
             }
         }
     }
-
-    public HttpResponse get(String url) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.GET, url, null, this.requestHeaders, null));
-    }
-
-    public HttpResponse get(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.GET, url, httpParameters, this.requestHeaders, null));
-    }
-
-    public HttpResponse get(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.GET, url, httpParameters, requestHeaders, null));
-    }
-
-    public HttpResponse post(String url) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.POST, url, null, null, null));
-    }
-
-    public HttpResponse post(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.POST, url, httpParameters, null, null));
-    }
-
-    public HttpResponse post(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.POST, url, httpParameters, requestHeaders, null));
-    }
-
-    public HttpResponse post(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders, String body) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.POST, url, httpParameters, requestHeaders, body));
-    }
-
-    public HttpResponse put(String url) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.PUT, url, null, null, null));
-    }
-
-    public HttpResponse put(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.PUT, url, httpParameters, null, null));
-    }
-
-    public HttpResponse put(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.PUT, url, httpParameters, requestHeaders, null));
-    }
-
-    public HttpResponse put(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders, String body) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.PUT, url, httpParameters, requestHeaders, body));
-    }
-
-    public HttpResponse delete(String url) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.DELETE, url, null, null, null));
-    }
-
-    public HttpResponse delete(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.DELETE, url, httpParameters, null, null));
-    }
-
-    public HttpResponse delete(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) throws StarlingBankRequestException {
-        return request(new HttpRequest(RequestMethod.DELETE, url, httpParameters, requestHeaders, null));
-    }
 }
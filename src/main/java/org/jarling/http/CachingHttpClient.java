@@ -0,0 +1,508 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * {@link HttpClient} that keeps the responses to GETs in memory and reuses them as RFC 7234 allows a private cache to.
+ * A response is reused without the network for as long as its {@code Cache-Control: max-age} or {@code Expires}
+ * header says it is fresh, or for a tenth of the time since it was last modified when it has neither. Once stale,
+ * the request is sent again with {@code If-None-Match} and {@code If-Modified-Since}, and a 304 Not Modified answer
+ * refreshes the cached response instead of sending the body again. A successful POST, PUT or DELETE drops what is
+ * cached for its URL and the URL in its {@code Location} header.
+ *
+ * Responses are cached per access token, so one customer never sees another's. The cache holds at most a given
+ * number of bytes of response, dropping the least recently used responses to make room.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class CachingHttpClient extends AbstractHttpClient implements Closeable {
+
+    public static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+    // Rough cost of an entry beyond its body and headers, so that many tiny responses still count against the bound
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final HttpClient httpClient;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param httpClient the transport that sends requests the cache cannot answer
+     */
+    public CachingHttpClient(HttpClient httpClient) {
+        this(httpClient, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param httpClient the transport that sends requests the cache cannot answer
+     * @param maxBytes the most response bytes, bodies and headers, to keep
+     */
+    public CachingHttpClient(HttpClient httpClient, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.httpClient = httpClient;
+        this.maxBytes = maxBytes;
+    }
+
+    public HttpClient getHttpClient() {
+        return this.httpClient;
+    }
+
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    /**
+     * @return response bytes held at present
+     */
+    public long getBytes() {
+        synchronized (entries) {
+            return this.bytes;
+        }
+    }
+
+    /**
+     * @return responses held at present
+     */
+    public int getEntryCount() {
+        synchronized (entries) {
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * @return responses dropped to keep the cache within its bound, since this client was created
+     */
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @return a snapshot of the counters of every endpoint seen so far, by endpoint template
+     */
+    public Map<String, ResponseCacheStats> getStats() {
+        Map<String, ResponseCacheStats> stats = new TreeMap<>();
+        for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+            Counters c = entry.getValue();
+            stats.put(entry.getKey(), new ResponseCacheStats(entry.getKey(), c.hits.sum(), c.misses.sum(), c.revalidations.sum(), c.notModified.sum()));
+        }
+        return stats;
+    }
+
+    /**
+     * Drops every cached response.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    HttpResponse execute(HttpRequest httpRequest) throws StarlingBankRequestException {
+        if (httpRequest.getRequestMethod() != RequestMethod.GET) {
+            HttpResponse response = httpRequest.sendTo(httpClient);
+            invalidate(httpRequest.getUrl());
+            String location = response.getResponseHeader("Location");
+            if (location != null) {
+                invalidate(resolve(httpRequest.getUrl(), location));
+            }
+            return response;
+        }
+        Counters counters = this.counters.computeIfAbsent(EndpointTemplates.forUrl(httpRequest.getUrl()), key -> new Counters());
+        CacheControl requestCacheControl = CacheControl.parse(requestHeader(httpRequest, "Cache-Control"));
+        if (requestCacheControl.noStore) {
+            counters.misses.increment();
+            return httpRequest.sendTo(httpClient);
+        }
+        String key = key(httpRequest);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry != null && !entry.matchesVary(httpRequest)) {
+            entry = null;
+        }
+        long requestMillis = System.currentTimeMillis();
+        if (entry != null && !requestCacheControl.noCache && entry.isFresh(requestMillis, requestCacheControl.maxAgeSeconds)) {
+            counters.hits.increment();
+            return entry.toResponse();
+        }
+        if (entry == null || !entry.hasValidator()) {
+            counters.misses.increment();
+            return store(key, httpRequest, httpRequest.sendTo(httpClient), requestMillis);
+        }
+
+        counters.revalidations.increment();
+        Map<String, String> headers = httpRequest.getRequestHeaders() == null ? new HashMap<>() : new HashMap<>(httpRequest.getRequestHeaders());
+        if (entry.etag != null) {
+            headers.put("If-None-Match", entry.etag);
+        }
+        if (entry.lastModified != null) {
+            headers.put("If-Modified-Since", entry.lastModified);
+        }
+        HttpResponse response = new HttpRequest(RequestMethod.GET, httpRequest.getUrl(), httpRequest.getHttpParameters(), headers, null).sendTo(httpClient);
+        if (response.getStatusCode() != 304) {
+            return store(key, httpRequest, response, requestMillis);
+        }
+        response.close();
+        counters.notModified.increment();
+        Entry refreshed = entry.refresh(response.getHeaders(), requestMillis, System.currentTimeMillis());
+        put(key, refreshed);
+        return refreshed.toResponse();
+    }
+
+    // Caches the response if it may be reused later, and returns it to the caller either way
+    private HttpResponse store(String key, HttpRequest httpRequest, HttpResponse response, long requestMillis) throws StarlingBankRequestException {
+        if (response.getStatusCode() != 200) {
+            remove(key);
+            return response;
+        }
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (response.getHeaders() != null) {
+            for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+                if (header.getKey() != null && !describesBody(header.getKey())) {
+                    headers.put(header.getKey(), new ArrayList<>(header.getValue()));
+                }
+            }
+        }
+        String vary = lastValue(headers, "Vary");
+        if (CacheControl.parse(allValues(headers, "Cache-Control")).noStore || (vary != null && vary.trim().equals("*"))) {
+            remove(key);
+            return response;
+        }
+        byte[] body;
+        try {
+            body = readFully(response.getInputStream());
+        } catch (IOException e) {
+            throw new StarlingBankRequestException("Connection Error", "The response from " + httpRequest.getUrl() + " could not be read", e);
+        } finally {
+            response.close();
+        }
+        Entry entry = new Entry(url(response, httpRequest), Collections.unmodifiableMap(headers), body, varyValues(vary, httpRequest),
+                requestMillis, System.currentTimeMillis());
+        if (entry.isWorthKeeping()) {
+            put(key, entry);
+        } else {
+            remove(key);
+        }
+        return entry.toResponse();
+    }
+
+    private void put(String key, Entry entry) {
+        if (entry.size > maxBytes) {
+            remove(key);
+            return;
+        }
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                bytes -= previous.size;
+            }
+            bytes += entry.size;
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                bytes -= eldest.next().size;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (entries) {
+            Entry removed = entries.remove(key);
+            if (removed != null) {
+                bytes -= removed.size;
+            }
+        }
+    }
+
+    private void invalidate(String url) {
+        String prefix = url + "\n";
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Entry>> cached = entries.entrySet().iterator();
+            while (cached.hasNext()) {
+                Map.Entry<String, Entry> entry = cached.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    bytes -= entry.getValue().size;
+                    cached.remove();
+                }
+            }
+        }
+    }
+
+    // Cached responses are private to the access token they were fetched with
+    private static String key(HttpRequest httpRequest) {
+        String authorization = requestHeader(httpRequest, "Authorization");
+        return httpRequest.getUrl() + "\n" + (authorization == null ? "" : authorization);
+    }
+
+    private static Map<String, String> varyValues(String vary, HttpRequest httpRequest) {
+        if (vary == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> values = new HashMap<>();
+        for (String name : vary.split(",")) {
+            name = name.trim();
+            if (!name.isEmpty()) {
+                values.put(name, requestHeader(httpRequest, name));
+            }
+        }
+        return values;
+    }
+
+    private static String requestHeader(HttpRequest httpRequest, String name) {
+        if (httpRequest.getRequestHeaders() != null) {
+            for (Map.Entry<String, String> header : httpRequest.getRequestHeaders().entrySet()) {
+                if (name.equalsIgnoreCase(header.getKey())) {
+                    return header.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    // Bodies are kept as read, i.e. whole and decompressed, so the headers describing how they were sent do not apply
+    private static boolean describesBody(String name) {
+        return name.equalsIgnoreCase("Content-Length") || name.equalsIgnoreCase("Transfer-Encoding") || name.equalsIgnoreCase("Content-Encoding");
+    }
+
+    private static String lastValue(Map<String, List<String>> headers, String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(values.size() - 1);
+    }
+
+    private static String allValues(Map<String, List<String>> headers, String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : String.join(",", values);
+    }
+
+    private static String resolve(String url, String location) {
+        try {
+            return new URL(new URL(url), location).toString();
+        } catch (MalformedURLException e) {
+            return location;
+        }
+    }
+
+    private static URL url(HttpResponse response, HttpRequest httpRequest) throws StarlingBankRequestException {
+        if (response.getRequest() != null) {
+            return response.getRequest();
+        }
+        try {
+            return new URL(httpRequest.getUrl());
+        } catch (MalformedURLException e) {
+            throw new StarlingBankRequestException("Bad Request", "The URL " + httpRequest.getUrl() + " could not be parsed", e);
+        }
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        if (is == null) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Closes the underlying transport if it holds resources, such as the connections of a {@link PooledHttpClient}.
+     */
+    @Override
+    public void close() throws IOException {
+        if (httpClient instanceof Closeable) {
+            ((Closeable) httpClient).close();
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder revalidations = new LongAdder();
+        private final LongAdder notModified = new LongAdder();
+    }
+
+    // The Cache-Control directives this cache acts on
+    private static final class CacheControl {
+
+        private static final CacheControl NONE = new CacheControl(false, false, -1);
+
+        private final boolean noStore;
+        private final boolean noCache;
+        private final long maxAgeSeconds;
+
+        private CacheControl(boolean noStore, boolean noCache, long maxAgeSeconds) {
+            this.noStore = noStore;
+            this.noCache = noCache;
+            this.maxAgeSeconds = maxAgeSeconds;
+        }
+
+        static CacheControl parse(String value) {
+            if (value == null) {
+                return NONE;
+            }
+            boolean noStore = false;
+            boolean noCache = false;
+            long maxAgeSeconds = -1;
+            for (String directive : value.split(",")) {
+                String[] parts = directive.trim().split("=", 2);
+                String name = parts[0].trim().toLowerCase();
+                if (name.equals("no-store")) {
+                    noStore = true;
+                } else if (name.equals("no-cache")) {
+                    noCache = true;
+                } else if (name.equals("max-age") && parts.length == 2) {
+                    try {
+                        maxAgeSeconds = Math.max(0, Long.parseLong(parts[1].trim().replace("\"", "")));
+                    } catch (NumberFormatException e) {
+                        // RFC 7234 4.2.1: a max-age that cannot be read makes the response stale
+                        maxAgeSeconds = 0;
+                    }
+                }
+            }
+            return new CacheControl(noStore, noCache, maxAgeSeconds);
+        }
+    }
+
+    private static final class Entry {
+
+        private final URL url;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+        private final Map<String, String> varyValues;
+        private final long responseMillis;
+        private final String etag;
+        private final String lastModified;
+        private final long freshnessMillis;
+        private final long initialAgeMillis;
+        private final long size;
+
+        Entry(URL url, Map<String, List<String>> headers, byte[] body, Map<String, String> varyValues, long requestMillis, long responseMillis) {
+            this.url = url;
+            this.headers = headers;
+            this.body = body;
+            this.varyValues = varyValues;
+            this.responseMillis = responseMillis;
+            this.etag = lastValue(headers, "ETag");
+            this.lastModified = lastValue(headers, "Last-Modified");
+            long date = HttpResponse.parseHttpDate(lastValue(headers, "Date"));
+            if (date == 0) {
+                date = responseMillis;
+            }
+            this.freshnessMillis = freshnessMillis(headers, date);
+            this.initialAgeMillis = initialAgeMillis(headers, date, requestMillis, responseMillis);
+            long size = ENTRY_OVERHEAD_BYTES + body.length;
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                for (String value : header.getValue()) {
+                    size += 2 * (header.getKey().length() + value.length());
+                }
+            }
+            this.size = size;
+        }
+
+        // RFC 7234 4.2.1, with the heuristic of 4.2.2 when the server gave no explicit lifetime
+        private static long freshnessMillis(Map<String, List<String>> headers, long date) {
+            CacheControl cacheControl = CacheControl.parse(allValues(headers, "Cache-Control"));
+            if (cacheControl.noCache) {
+                return 0;
+            }
+            if (cacheControl.maxAgeSeconds >= 0) {
+                return cacheControl.maxAgeSeconds * 1000;
+            }
+            String expires = lastValue(headers, "Expires");
+            if (expires != null) {
+                return Math.max(0, HttpResponse.parseHttpDate(expires) - date);
+            }
+            long lastModified = HttpResponse.parseHttpDate(lastValue(headers, "Last-Modified"));
+            return lastModified == 0 ? 0 : Math.max(0, (date - lastModified) / 10);
+        }
+
+        // RFC 7234 4.2.3
+        private static long initialAgeMillis(Map<String, List<String>> headers, long date, long requestMillis, long responseMillis) {
+            long apparentAge = Math.max(0, responseMillis - date);
+            long ageValue = 0;
+            String age = lastValue(headers, "Age");
+            if (age != null) {
+                try {
+                    ageValue = Math.max(0, Long.parseLong(age.trim())) * 1000;
+                } catch (NumberFormatException e) {
+                    ageValue = 0;
+                }
+            }
+            return Math.max(apparentAge, ageValue + (responseMillis - requestMillis));
+        }
+
+        boolean isFresh(long now, long maxAgeSeconds) {
+            long age = initialAgeMillis + Math.max(0, now - responseMillis);
+            return age < freshnessMillis && (maxAgeSeconds < 0 || age <= maxAgeSeconds * 1000);
+        }
+
+        boolean hasValidator() {
+            return etag != null || lastModified != null;
+        }
+
+        // A response that is never fresh and cannot be revalidated would only take up room
+        boolean isWorthKeeping() {
+            return freshnessMillis > 0 || hasValidator();
+        }
+
+        boolean matchesVary(HttpRequest httpRequest) {
+            for (Map.Entry<String, String> vary : varyValues.entrySet()) {
+                String value = requestHeader(httpRequest, vary.getKey());
+                if (value == null ? vary.getValue() != null : !value.equals(vary.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // RFC 7234 4.3.4: the headers of a 304 replace those stored, apart from the ones describing the body as sent
+        Entry refresh(Map<String, List<String>> notModifiedHeaders, long requestMillis, long responseMillis) {
+            Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            headers.putAll(this.headers);
+            if (notModifiedHeaders != null) {
+                for (Map.Entry<String, List<String>> header : notModifiedHeaders.entrySet()) {
+                    String name = header.getKey();
+                    if (name != null && !describesBody(name)) {
+                        headers.put(name, new ArrayList<>(header.getValue()));
+                    }
+                }
+            }
+            return new Entry(url, Collections.unmodifiableMap(headers), body, varyValues, requestMillis, responseMillis);
+        }
+
+        HttpResponse toResponse() throws StarlingBankRequestException {
+            return new HttpResponse(200, url, headers, new ByteArrayInputStream(body));
+        }
+    }
+}
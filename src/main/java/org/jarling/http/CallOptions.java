@@ -0,0 +1,135 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankDeadlineExceededException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * Deadline and timeouts for one call to Starling, which may take several requests, such as making a payment and then
+ * fetching it. The deadline is fixed when the options are created and shared by every request made with them, and
+ * each request's connect and read timeouts are cut short so that it cannot run past the deadline.
+ *
+ * Transports pick up the options of the request being sent from the thread sending it, see {@link #enter()}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class CallOptions {
+
+    private static final ThreadLocal<CallOptions> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final boolean hasDeadline;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+
+    /**
+     * @param timeout how long from now the call may take, or 0 for no deadline
+     * @param unit the unit of {@code timeout}
+     */
+    public CallOptions(long timeout, TimeUnit unit){
+        this(timeout, unit, 0, 0);
+    }
+
+    /**
+     * @param timeout how long from now the call may take, or 0 for no deadline
+     * @param unit the unit of {@code timeout}
+     * @param connectTimeoutMillis the connect timeout of each request in place of the transport's, or 0 to keep it
+     * @param readTimeoutMillis the read timeout of each request in place of the transport's, or 0 to keep it
+     */
+    public CallOptions(long timeout, TimeUnit unit, int connectTimeoutMillis, int readTimeoutMillis){
+        if (timeout < 0 || connectTimeoutMillis < 0 || readTimeoutMillis < 0){
+            throw new IllegalArgumentException("timeouts must not be negative");
+        }
+        this.hasDeadline = timeout > 0;
+        this.deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    /**
+     * @return the options of the request being sent by this thread, or null if there are none
+     */
+    static CallOptions current(){
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes these the options of every request this thread sends until the returned scope is closed.
+     */
+    public Scope enter(){
+        CallOptions previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null){
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    public boolean hasDeadline(){
+        return hasDeadline;
+    }
+
+    /**
+     * @return milliseconds left until the deadline, rounded up, 0 once it has passed, or {@link Long#MAX_VALUE} if there is none
+     */
+    public long remainingMillis(){
+        if (!hasDeadline){
+            return Long.MAX_VALUE;
+        }
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        return remainingNanos <= 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(remainingNanos + 999999);
+    }
+
+    /**
+     * @throws StarlingBankDeadlineExceededException if the deadline has passed
+     */
+    public void checkDeadline(String url) throws StarlingBankDeadlineExceededException {
+        if (remainingMillis() == 0){
+            throw new StarlingBankDeadlineExceededException(url);
+        }
+    }
+
+    public int getConnectTimeoutMillis(){
+        return connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis(){
+        return readTimeoutMillis;
+    }
+
+    /**
+     * @return the connect timeout to use for a request, where 0 means none
+     */
+    int connectTimeoutMillis(String url, int transportTimeoutMillis) throws StarlingBankDeadlineExceededException {
+        return timeoutMillis(url, connectTimeoutMillis > 0 ? connectTimeoutMillis : transportTimeoutMillis);
+    }
+
+    /**
+     * @return the read timeout to use for a request, where 0 means none
+     */
+    int readTimeoutMillis(String url, int transportTimeoutMillis) throws StarlingBankDeadlineExceededException {
+        return timeoutMillis(url, readTimeoutMillis > 0 ? readTimeoutMillis : transportTimeoutMillis);
+    }
+
+    private int timeoutMillis(String url, int timeoutMillis) throws StarlingBankDeadlineExceededException {
+        if (!hasDeadline){
+            return timeoutMillis;
+        }
+        checkDeadline(url);
+        int remaining = (int) Math.min(Integer.MAX_VALUE, remainingMillis());
+        return timeoutMillis == 0 ? remaining : Math.min(timeoutMillis, remaining);
+    }
+
+    /**
+     * Restores the options the thread had before {@link #enter()}.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
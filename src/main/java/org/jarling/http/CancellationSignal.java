@@ -0,0 +1,111 @@
+package org.jarling.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ *
+ * Lets one thread abandon a request that another thread is waiting on, such as the slower copy of a hedged GET.
+ * While a signal is entered on the thread sending a request, the transport registers the connection of the request
+ * with it, and {@link #cancel()} closes that connection so that the sending thread stops waiting and fails with a
+ * {@link org.jarling.exceptions.StarlingBankRequestException}. Interrupting the thread instead would not stop a
+ * blocking socket read, and would leave the interrupt behind on a pooled thread.
+ *
+ * A cancelled request is never sent again by the transport or a {@link RetryingHttpClient}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class CancellationSignal {
+
+    private static final ThreadLocal<CancellationSignal> CURRENT = new ThreadLocal<>();
+
+    private Closeable connection;
+    private boolean cancelled;
+
+    /**
+     * @return the signal of the request being sent by this thread, or null if there is none
+     */
+    static CancellationSignal current(){
+        return CURRENT.get();
+    }
+
+    static boolean isCurrentCancelled(){
+        CancellationSignal signal = CURRENT.get();
+        return signal != null && signal.isCancelled();
+    }
+
+    /**
+     * Makes this the signal of every request this thread sends until the returned scope is closed.
+     */
+    public Scope enter(){
+        CancellationSignal previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null){
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Marks the request as no longer wanted and closes the connection it is waiting on, if it has one yet.
+     */
+    public void cancel(){
+        Closeable registered;
+        synchronized (this){
+            if (cancelled){
+                return;
+            }
+            cancelled = true;
+            registered = connection;
+            connection = null;
+        }
+        closeQuietly(registered);
+    }
+
+    public synchronized boolean isCancelled(){
+        return cancelled;
+    }
+
+    /**
+     * Called by a transport with the connection a request is about to use, which is closed straight away if the
+     * request has already been cancelled.
+     */
+    void register(Closeable connection){
+        synchronized (this){
+            if (!cancelled){
+                this.connection = connection;
+                return;
+            }
+        }
+        closeQuietly(connection);
+    }
+
+    /**
+     * Called by a transport once the response has arrived, after which cancelling leaves the connection alone.
+     */
+    synchronized void unregister(){
+        connection = null;
+    }
+
+    private static void closeQuietly(Closeable connection){
+        if (connection != null){
+            try {
+                connection.close();
+            } catch (IOException | RuntimeException ignored) {
+                // the request fails either way, which is all cancelling asks for
+            }
+        }
+    }
+
+    /**
+     * Restores the signal the thread had before {@link #enter()}.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,249 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankDeadlineExceededException;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * Keeps a bounded number of keep-alive connections per host. Idle connections are reused most recently
+ * used first and closed once they have been idle for longer than the keep-alive time. All TLS connections
+ * share one {@link SSLSocketFactory}, so new connections to a host resume the cached TLS session rather
+ * than performing a full handshake.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class ConnectionPool implements Closeable {
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = 60000;
+    public static final long DEFAULT_ACQUIRE_TIMEOUT_MILLIS = 30000;
+
+    private final int maxConnectionsPerHost;
+    private final long keepAliveMillis;
+    private final long acquireTimeoutMillis;
+    private final SSLSocketFactory sslSocketFactory;
+    private final ConcurrentMap<String, HostPool> hostPools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor;
+    private final LongAdder created = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder acquireTimeouts = new LongAdder();
+    private final LongAdder tlsHandshakes = new LongAdder();
+    private final LongAdder tlsSessionsResumed = new LongAdder();
+    private volatile boolean closed;
+
+    public ConnectionPool() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_HOST, DEFAULT_KEEP_ALIVE_MILLIS, DEFAULT_ACQUIRE_TIMEOUT_MILLIS);
+    }
+
+    public ConnectionPool(int maxConnectionsPerHost, long keepAliveMillis, long acquireTimeoutMillis) {
+        this(maxConnectionsPerHost, keepAliveMillis, acquireTimeoutMillis, defaultSslContext());
+    }
+
+    public ConnectionPool(int maxConnectionsPerHost, long keepAliveMillis, long acquireTimeoutMillis, SSLContext sslContext) {
+        if (maxConnectionsPerHost < 1) {
+            throw new IllegalArgumentException("maxConnectionsPerHost must be at least 1");
+        }
+        if (keepAliveMillis < 1) {
+            throw new IllegalArgumentException("keepAliveMillis must be positive");
+        }
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.keepAliveMillis = keepAliveMillis;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.sslSocketFactory = sslContext.getSocketFactory();
+        this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jarling-connection-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictionPeriod = Math.max(1000, keepAliveMillis / 2);
+        this.evictor.scheduleWithFixedDelay(this::evictIdleConnections, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    private static SSLContext defaultSslContext() {
+        try {
+            return SSLContext.getDefault();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No default TLS implementation available", e);
+        }
+    }
+
+    static String route(String scheme, String host, int port) {
+        return scheme + "://" + host + ":" + port;
+    }
+
+    /**
+     * @param connectTimeoutMillis how long a new connection may take to establish, including its TLS handshake, or 0 for ever
+     * @throws StarlingBankDeadlineExceededException if the deadline of the call ran out, before the acquire timeout,
+     *         while waiting for a free connection
+     */
+    PooledConnection acquire(String scheme, String host, int port, int connectTimeoutMillis) throws IOException, StarlingBankDeadlineExceededException {
+        if (closed) {
+            throw new IOException("Connection pool has been closed");
+        }
+        String route = route(scheme, host, port);
+        HostPool hostPool = hostPools.computeIfAbsent(route, key -> new HostPool(maxConnectionsPerHost));
+        // Waiting for a free connection must not outlast the deadline of the call, if it has one
+        CallOptions callOptions = CallOptions.current();
+        long waitMillis = callOptions == null ? acquireTimeoutMillis : Math.min(acquireTimeoutMillis, callOptions.remainingMillis());
+        try {
+            if (!hostPool.permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) {
+                acquireTimeouts.increment();
+                if (waitMillis < acquireTimeoutMillis) {
+                    throw new StarlingBankDeadlineExceededException(route);
+                }
+                throw new IOException("Timed out after " + waitMillis + "ms waiting for a connection to " + route);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a connection to " + route);
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            PooledConnection connection;
+            while ((connection = hostPool.idle.pollFirst()) != null) {
+                if (!connection.isExpired(now, keepAliveMillis)) {
+                    connection.lease();
+                    reused.increment();
+                    return connection;
+                }
+                evicted.increment();
+                connection.close();
+            }
+            connection = connect(route, scheme, host, port, connectTimeoutMillis);
+            connection.lease();
+            created.increment();
+            return connection;
+        } catch (IOException | RuntimeException e) {
+            hostPool.permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection connect(String route, String scheme, String host, int port, int connectTimeoutMillis) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            long connectStart = System.nanoTime();
+            socket.connect(new InetSocketAddress(host, port), connectTimeoutMillis);
+            long connectNanos = System.nanoTime() - connectStart;
+            long handshakeNanos = -1;
+            // The handshake counts towards the connect timeout; the client sets the read timeout once it has the socket
+            socket.setSoTimeout(connectTimeoutMillis);
+            if ("https".equalsIgnoreCase(scheme)) {
+                SSLSocket sslSocket = (SSLSocket) sslSocketFactory.createSocket(socket, host, port, true);
+                SSLParameters sslParameters = sslSocket.getSSLParameters();
+                sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
+                sslSocket.setSSLParameters(sslParameters);
+                long handshakeStart = System.currentTimeMillis();
+                long handshakeStartNanos = System.nanoTime();
+                sslSocket.startHandshake();
+                handshakeNanos = System.nanoTime() - handshakeStartNanos;
+                tlsHandshakes.increment();
+                // A resumed session keeps the creation time of the handshake that first negotiated it
+                if (sslSocket.getSession().getCreationTime() < handshakeStart) {
+                    tlsSessionsResumed.increment();
+                }
+                socket = sslSocket;
+            }
+            return new PooledConnection(route, socket, connectNanos, handshakeNanos);
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    void release(PooledConnection connection, boolean reusable) {
+        if (!connection.unlease(System.currentTimeMillis())) {
+            return;
+        }
+        HostPool hostPool = hostPools.get(connection.getRoute());
+        if (reusable && !closed) {
+            hostPool.idle.offerFirst(connection);
+        } else {
+            connection.close();
+        }
+        hostPool.permits.release();
+    }
+
+    /**
+     * Closes every idle connection that has passed its keep-alive time or has been closed by the server.
+     * This runs periodically in the background and may also be called directly.
+     * @return the number of connections closed
+     */
+    public int evictIdleConnections() {
+        long now = System.currentTimeMillis();
+        int count = 0;
+        for (HostPool hostPool : hostPools.values()) {
+            for (PooledConnection connection : hostPool.idle) {
+                // remove() only succeeds for one thread, so a connection being leased concurrently is never closed
+                if ((closed || connection.isExpired(now, keepAliveMillis)) && hostPool.idle.remove(connection)) {
+                    connection.close();
+                    count++;
+                }
+            }
+        }
+        evicted.add(count);
+        return count;
+    }
+
+    public ConnectionPoolStats getStats() {
+        int leased = 0;
+        int idle = 0;
+        for (HostPool hostPool : hostPools.values()) {
+            leased += maxConnectionsPerHost - hostPool.permits.availablePermits();
+            idle += hostPool.idle.size();
+        }
+        return new ConnectionPoolStats(leased, idle, created.sum(), reused.sum(), evicted.sum(),
+                acquireTimeouts.sum(), tlsHandshakes.sum(), tlsSessionsResumed.sum());
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    public long getKeepAliveMillis() {
+        return keepAliveMillis;
+    }
+
+    /**
+     * Closes all idle connections and stops the background eviction. Connections still leased are closed
+     * when their response is released.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        evictor.shutdownNow();
+        evictIdleConnections();
+    }
+
+    private static final class HostPool {
+        private final Semaphore permits;
+        private final ConcurrentLinkedDeque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+
+        private HostPool(int maxConnections) {
+            this.permits = new Semaphore(maxConnections, true);
+        }
+    }
+}
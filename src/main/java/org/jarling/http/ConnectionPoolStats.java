@@ -0,0 +1,101 @@
+package org.jarling.http;
+
+/**
+ *
+ * Point in time snapshot of the counters kept by a {@link ConnectionPool}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class ConnectionPoolStats {
+
+    private final int leased;
+    private final int idle;
+    private final long created;
+    private final long reused;
+    private final long evicted;
+    private final long acquireTimeouts;
+    private final long tlsHandshakes;
+    private final long tlsSessionsResumed;
+
+    ConnectionPoolStats(int leased, int idle, long created, long reused, long evicted, long acquireTimeouts, long tlsHandshakes, long tlsSessionsResumed) {
+        this.leased = leased;
+        this.idle = idle;
+        this.created = created;
+        this.reused = reused;
+        this.evicted = evicted;
+        this.acquireTimeouts = acquireTimeouts;
+        this.tlsHandshakes = tlsHandshakes;
+        this.tlsSessionsResumed = tlsSessionsResumed;
+    }
+
+    /**
+     * @return connections currently carrying a request
+     */
+    public int getLeased() {
+        return leased;
+    }
+
+    /**
+     * @return open connections waiting to be reused
+     */
+    public int getIdle() {
+        return idle;
+    }
+
+    /**
+     * @return connections opened since the pool was created
+     */
+    public long getCreated() {
+        return created;
+    }
+
+    /**
+     * @return requests served on a connection taken from the idle pool
+     */
+    public long getReused() {
+        return reused;
+    }
+
+    /**
+     * @return idle connections closed because they expired or were found to be closed by the server
+     */
+    public long getEvicted() {
+        return evicted;
+    }
+
+    /**
+     * @return requests that gave up waiting for a free connection
+     */
+    public long getAcquireTimeouts() {
+        return acquireTimeouts;
+    }
+
+    /**
+     * @return TLS handshakes performed
+     */
+    public long getTlsHandshakes() {
+        return tlsHandshakes;
+    }
+
+    /**
+     * @return TLS handshakes that resumed a cached session instead of negotiating a new one
+     */
+    public long getTlsSessionsResumed() {
+        return tlsSessionsResumed;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStats{" +
+                "leased=" + leased +
+                ", idle=" + idle +
+                ", created=" + created +
+                ", reused=" + reused +
+                ", evicted=" + evicted +
+                ", acquireTimeouts=" + acquireTimeouts +
+                ", tlsHandshakes=" + tlsHandshakes +
+                ", tlsSessionsResumed=" + tlsSessionsResumed +
+                '}';
+    }
+}
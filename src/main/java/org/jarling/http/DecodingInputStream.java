@@ -0,0 +1,134 @@
+package org.jarling.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ *
+ * Response body that undoes a gzip or deflate {@code Content-Encoding} as it is read, so that JSON decoders read
+ * straight from the inflater without the whole body being decompressed first. Nothing is read from the network until
+ * the body itself is, and once the compressed data ends whatever is left of the body is read too, so that a pooled
+ * connection goes back to its pool as it would for an uncompressed body.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+final class DecodingInputStream extends InputStream {
+
+    /**
+     * The {@code Accept-Encoding} the transports send unless the caller sets their own.
+     */
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream in;
+    private final boolean gzip;
+    private InputStream decoded;
+    private Inflater inflater;
+
+    private DecodingInputStream(InputStream in, boolean gzip) {
+        this.in = in;
+        this.gzip = gzip;
+    }
+
+    /**
+     * @param in the body as received
+     * @param contentEncoding the {@code Content-Encoding} of the response, or null for none
+     * @return the body with its content encoding undone, or {@code in} itself if it has none or one not understood
+     */
+    static InputStream decode(InputStream in, String contentEncoding) {
+        if (in == null || contentEncoding == null) {
+            return in;
+        }
+        String encoding = contentEncoding.trim().toLowerCase();
+        if (encoding.equals("gzip") || encoding.equals("x-gzip")) {
+            return new DecodingInputStream(in, true);
+        }
+        if (encoding.equals("deflate")) {
+            return new DecodingInputStream(in, false);
+        }
+        return in;
+    }
+
+    // Opened on the first read, as reading the gzip header would otherwise wait for the body when the response arrives
+    private InputStream decoded() throws IOException {
+        if (decoded == null) {
+            PushbackInputStream body = new PushbackInputStream(in, 2);
+            byte[] header = new byte[2];
+            int n = body.read(header, 0, 2);
+            if (n == 1) {
+                int second = body.read();
+                if (second != -1) {
+                    header[1] = (byte) second;
+                    n = 2;
+                }
+            }
+            if (n <= 0) {
+                // An empty body, e.g. of a 204, is empty whatever its encoding says
+                decoded = body;
+                return decoded;
+            }
+            body.unread(header, 0, n);
+            if (gzip) {
+                decoded = new GZIPInputStream(body, BUFFER_SIZE);
+            } else {
+                // RFC 7230 defines deflate as zlib wrapped, but some servers send the raw deflate stream instead
+                boolean zlib = n == 2 && (header[0] & 0x0f) == 8 && (((header[0] & 0xff) << 8) | (header[1] & 0xff)) % 31 == 0;
+                inflater = new Inflater(!zlib);
+                decoded = new InflaterInputStream(body, inflater, BUFFER_SIZE);
+            }
+        }
+        return decoded;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = decoded().read();
+        if (b == -1) {
+            drain();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = decoded().read(b, off, len);
+        if (n == -1) {
+            drain();
+        }
+        return n;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return decoded == null ? 0 : decoded.available();
+    }
+
+    // Reads the body as received to its end, which for a well formed body is just the end itself
+    private void drain() throws IOException {
+        byte[] buffer = new byte[256];
+        while (in.read(buffer, 0, buffer.length) != -1) {
+            // Nothing follows the compressed data in a well formed body
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (decoded != null) {
+                decoded.close();
+            } else {
+                in.close();
+            }
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.jarling.http;
+
+/**
+ *
+ * Reduces request paths to the endpoint they address, e.g. {@code /transactions/mastercard/{id}} for
+ * {@code /transactions/mastercard/8e3d8a0c-61bc-4f55-bf0d-5d0b3ff7d2d1}, so that state kept per endpoint (circuit
+ * breakers, metrics) does not grow with every resource id.
+ *
+ * A path segment is taken to be an id when it contains a digit: Starling ids are UUIDs, and none of the fixed
+ * segments of its API do.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class EndpointTemplates {
+
+    private static final String ID = "{id}";
+    private static final String API_PREFIX = "/api/";
+
+    private EndpointTemplates(){}
+
+    /**
+     * @param path a request path relative to the API version, optionally with a query string
+     * @return the path with its query string removed and every id segment replaced by {@code {id}}
+     */
+    public static String template(String path){
+        int end = path.indexOf('?');
+        if (end < 0){
+            end = path.length();
+        }
+        StringBuilder template = null;
+        int segmentStart = 0;
+        for (int i = 0; i <= end; i++){
+            if (i == end || path.charAt(i) == '/'){
+                if (isId(path, segmentStart, i)){
+                    if (template == null){
+                        template = new StringBuilder(end).append(path, 0, segmentStart);
+                    }
+                    template.append(ID);
+                } else if (template != null){
+                    template.append(path, segmentStart, i);
+                }
+                if (template != null && i < end){
+                    template.append('/');
+                }
+                segmentStart = i + 1;
+            }
+        }
+        return template != null ? template.toString() : path.substring(0, end);
+    }
+
+    /**
+     * @param url an absolute request URL, e.g. {@code https://api.starlingbank.com/api/v1/contacts/8e3d8a0c-61bc-4f55-bf0d-5d0b3ff7d2d1?x=1}
+     * @return the template of its path relative to the API version, e.g. {@code /contacts/{id}}, as for {@link #template}
+     */
+    public static String forUrl(String url){
+        return template(path(url));
+    }
+
+    private static String path(String url){
+        int scheme = url.indexOf("://");
+        int start = url.indexOf('/', scheme < 0 ? 0 : scheme + 3);
+        if (start < 0){
+            return "/";
+        }
+        if (url.startsWith(API_PREFIX, start)){
+            int version = url.indexOf('/', start + API_PREFIX.length());
+            return version < 0 ? "/" : url.substring(version);
+        }
+        return url.substring(start);
+    }
+
+    private static boolean isId(String path, int start, int end){
+        for (int i = start; i < end; i++){
+            char c = path.charAt(i);
+            if (c >= '0' && c <= '9'){
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,143 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.metrics.FlightRecorderEvents;
+import org.jarling.metrics.HttpCallEvent;
+import org.jarling.metrics.MetricsRegistry;
+import org.jarling.metrics.Timing;
+
+/**
+ *
+ * Times one request as a transport sends it, recording into the transport's {@link MetricsRegistry} and, while a
+ * Flight Recorder recording wants it, an {@link HttpCallEvent}. When there is neither, transports get an instance
+ * that records nothing, so that they need not check.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+final class ExchangeMetrics {
+
+    private static final ExchangeMetrics DISABLED = new ExchangeMetrics(null, null, null, 0);
+
+    private final MetricsRegistry metricsRegistry;
+    private final HttpCallEvent event;
+    private final String endpointTemplate;
+    private final long start;
+    private long sent;
+    private boolean isSent;
+
+    private ExchangeMetrics(MetricsRegistry metricsRegistry, HttpCallEvent event, String endpointTemplate, long start) {
+        this.metricsRegistry = metricsRegistry;
+        this.event = event;
+        this.endpointTemplate = endpointTemplate;
+        this.start = start;
+    }
+
+    static ExchangeMetrics start(MetricsRegistry metricsRegistry, HttpRequest httpRequest) {
+        HttpCallEvent event = FlightRecorderEvents.beginHttpCall();
+        if (event != null) {
+            event.setMethod(httpRequest.getRequestMethod().getValue());
+        } else if (metricsRegistry == null) {
+            return DISABLED;
+        }
+        String endpointTemplate = EndpointTemplates.forUrl(httpRequest.getUrl());
+        if (event != null) {
+            event.setEndpointTemplate(endpointTemplate);
+        }
+        return new ExchangeMetrics(metricsRegistry, event, endpointTemplate, System.nanoTime());
+    }
+
+    /**
+     * @param handshakeNanos how long the TLS handshake took, or -1 if it is included in {@code connectNanos} or there was none
+     */
+    void connected(long connectNanos, long handshakeNanos) {
+        if (metricsRegistry != null) {
+            metricsRegistry.recordTiming(endpointTemplate, Timing.CONNECT, connectNanos);
+            if (handshakeNanos >= 0) {
+                metricsRegistry.recordTiming(endpointTemplate, Timing.TLS_HANDSHAKE, handshakeNanos);
+            }
+        }
+        if (event != null) {
+            event.setConnectTime(connectNanos);
+            event.setTlsHandshakeTime(Math.max(0, handshakeNanos));
+        }
+    }
+
+    void sent(int bodyBytes) {
+        if (this == DISABLED) {
+            return;
+        }
+        sent = System.nanoTime();
+        isSent = true;
+        if (metricsRegistry != null && bodyBytes > 0) {
+            metricsRegistry.recordBytesSent(endpointTemplate, bodyBytes);
+        }
+        if (event != null) {
+            event.setBytesSent(bodyBytes);
+        }
+    }
+
+    HttpResponse received(HttpResponse httpResponse) {
+        if (this != DISABLED) {
+            answered(httpResponse.getStatusCode());
+            // The call is over once its body has been read, which is when the event is committed
+            if (!httpResponse.meter(this) && event != null) {
+                event.commit();
+            }
+        }
+        return httpResponse;
+    }
+
+    void failed(StarlingBankRequestException e) {
+        if (this != DISABLED) {
+            answered(e.getStatusCode());
+            if (event != null) {
+                event.commit();
+            }
+        }
+    }
+
+    private void answered(int statusCode) {
+        long now = System.nanoTime();
+        // Without a status there was no response, so there is no round trip or server time to speak of
+        if (statusCode > 0) {
+            if (metricsRegistry != null) {
+                if (isSent) {
+                    metricsRegistry.recordTiming(endpointTemplate, Timing.SERVER, now - sent);
+                }
+                metricsRegistry.recordTiming(endpointTemplate, Timing.ROUND_TRIP, now - start);
+            }
+            if (event != null && isSent) {
+                event.setServerTime(now - sent);
+            }
+        }
+        if (metricsRegistry != null) {
+            metricsRegistry.recordStatus(endpointTemplate, statusCode > 0 ? statusCode : -1);
+        }
+        if (event != null) {
+            event.setStatusCode(statusCode > 0 ? statusCode : -1);
+        }
+    }
+
+    // Called once by the metered body when it has been read to the end or closed. The two counts differ only when
+    // the body was compressed
+    void bodyRead(long bytes, long decompressedBytes, long readNanos) {
+        if (metricsRegistry != null && (bytes > 0 || readNanos > 0)) {
+            metricsRegistry.recordTiming(endpointTemplate, Timing.BODY_READ, readNanos);
+            metricsRegistry.recordBytesReceived(endpointTemplate, bytes);
+            metricsRegistry.recordBytesDecompressed(endpointTemplate, decompressedBytes);
+        }
+        if (event != null) {
+            event.setBytesReceived(bytes);
+            event.setBytesDecompressed(decompressedBytes);
+            event.setBodyReadTime(readNanos);
+            event.commit();
+        }
+    }
+
+    void decoded(long decodeNanos) {
+        if (metricsRegistry != null) {
+            metricsRegistry.recordTiming(endpointTemplate, Timing.DECODE, decodeNanos);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * {@link AsyncHttpClient} that runs the exchanges of a blocking {@link HttpClient} on a dedicated I/O
+ * executor. The number of threads blocked on the network is bounded by that executor rather than by the
+ * number of callers; by default it matches the per-host limit of a {@link ConnectionPool}, and its threads end
+ * once they have been idle for a minute. Closing the client shuts down the default executor, but not one passed in.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class ExecutorAsyncHttpClient implements AsyncHttpClient, Closeable {
+
+    private final HttpClient httpClient;
+    private final Executor ioExecutor;
+    private final boolean ownsIoExecutor;
+
+    public ExecutorAsyncHttpClient(HttpClient httpClient) {
+        this(httpClient, defaultIoExecutor(), true);
+    }
+
+    /**
+     * @param httpClient the transport that sends the requests
+     * @param ioExecutor the executor the exchanges run on, which stays the caller's to shut down
+     */
+    public ExecutorAsyncHttpClient(HttpClient httpClient, Executor ioExecutor) {
+        this(httpClient, ioExecutor, false);
+    }
+
+    private ExecutorAsyncHttpClient(HttpClient httpClient, Executor ioExecutor, boolean ownsIoExecutor) {
+        this.httpClient = httpClient;
+        this.ioExecutor = ioExecutor;
+        this.ownsIoExecutor = ownsIoExecutor;
+    }
+
+    private static ExecutorService defaultIoExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(ConnectionPool.DEFAULT_MAX_CONNECTIONS_PER_HOST, ConnectionPool.DEFAULT_MAX_CONNECTIONS_PER_HOST,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "jarling-io-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public CompletableFuture<HttpResponse> get(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) {
+        return submit(() -> httpClient.get(url, httpParameters, requestHeaders));
+    }
+
+    public CompletableFuture<HttpResponse> post(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders, String body) {
+        return submit(() -> httpClient.post(url, httpParameters, requestHeaders, body));
+    }
+
+    public CompletableFuture<HttpResponse> put(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders, String body) {
+        return submit(() -> httpClient.put(url, httpParameters, requestHeaders, body));
+    }
+
+    public CompletableFuture<HttpResponse> delete(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) {
+        return submit(() -> httpClient.delete(url, httpParameters, requestHeaders));
+    }
+
+    private CompletableFuture<HttpResponse> submit(Exchange exchange) {
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+        try {
+            ioExecutor.execute(() -> {
+                try {
+                    future.complete(exchange.execute());
+                } catch (StarlingBankRequestException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Shuts down the default I/O executor, letting exchanges already handed to it finish, and closes the underlying
+     * transport if it holds resources, such as the connections of a {@link PooledHttpClient}. Requests made
+     * afterwards complete exceptionally.
+     */
+    @Override
+    public void close() throws IOException {
+        if (ownsIoExecutor) {
+            ((ExecutorService) ioExecutor).shutdown();
+        }
+        if (httpClient instanceof Closeable) {
+            ((Closeable) httpClient).close();
+        }
+    }
+
+    private interface Exchange {
+        HttpResponse execute() throws StarlingBankRequestException;
+    }
+}
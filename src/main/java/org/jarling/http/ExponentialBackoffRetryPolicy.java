@@ -0,0 +1,80 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ *
+ * Retries GETs and PUTs that failed for a transient reason, waiting a random time of up to an exponentially growing
+ * limit between attempts ("full jitter"), so that many clients failing at once do not retry in step.
+ *
+ * Only requests that can safely be sent twice are retried. GETs read, and every PUT made by this library carries the
+ * id of what it creates or moves in its path (e.g. the transfer UUID of {@code /savings-goals/{uid}/add-money/{transferUid}}),
+ * so a retry sends the same id and Starling applies it once. POSTs and DELETEs are never retried.
+ *
+ * A failure is transient when the connection failed before a response was read, or Starling answered 500, 502, 503
+ * or 504.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    /**
+     * Creates a policy that sends a request at most 3 times, waiting up to 100ms and then up to 200ms.
+     */
+    public ExponentialBackoffRetryPolicy(){
+        this(3, 100, 2000);
+    }
+
+    /**
+     * @param maxAttempts the number of times a request is sent at most, including the first
+     * @param baseDelayMillis the limit on the wait before the first retry, doubled for each later retry
+     * @param maxDelayMillis the limit on any single wait
+     */
+    public ExponentialBackoffRetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis){
+        if (maxAttempts < 1 || baseDelayMillis < 0 || maxDelayMillis < baseDelayMillis){
+            throw new IllegalArgumentException("maxAttempts must be at least 1 and 0 <= baseDelayMillis <= maxDelayMillis");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    @Override
+    public long retryDelayMillis(RequestMethod requestMethod, int attempt, StarlingBankRequestException failure) {
+        if (attempt >= maxAttempts || !isIdempotent(requestMethod) || !isTransient(failure)){
+            return -1;
+        }
+        long limit = maxDelayMillis;
+        if (attempt - 1 < Long.numberOfLeadingZeros(baseDelayMillis) - 1){
+            limit = Math.min(maxDelayMillis, baseDelayMillis << (attempt - 1));
+        }
+        return ThreadLocalRandom.current().nextLong(limit + 1);
+    }
+
+    private static boolean isIdempotent(RequestMethod requestMethod){
+        return requestMethod == RequestMethod.GET || requestMethod == RequestMethod.PUT;
+    }
+
+    private static boolean isTransient(StarlingBankRequestException failure){
+        switch (failure.getStatusCode()){
+            case -1:
+                return failure.getCause() instanceof IOException && !(failure.getCause() instanceof MalformedURLException);
+            case 500:
+            case 502:
+            case 503:
+            case 504:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
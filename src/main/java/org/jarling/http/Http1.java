@@ -0,0 +1,152 @@
+package org.jarling.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ProtocolException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ *
+ * Minimal HTTP/1.1 message framing used by {@link PooledHttpClient}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+final class Http1 {
+
+    private static final int MAX_LINE_LENGTH = 65536;
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private Http1() {}
+
+    /**
+     * Reads a CRLF (or bare LF) terminated line.
+     * @return the line without its terminator, or null if the stream ended before any byte was read
+     */
+    static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return line.toString();
+            }
+            if (line.length() == MAX_LINE_LENGTH) {
+                throw new ProtocolException("HTTP header line exceeds " + MAX_LINE_LENGTH + " characters");
+            }
+            line.append((char) c);
+        }
+        if (line.length() == 0) {
+            return null;
+        }
+        throw new ProtocolException("Connection closed in the middle of an HTTP header line");
+    }
+
+    /**
+     * Reads header lines up to and including the blank line that ends the header block.
+     */
+    static Map<String, List<String>> readHeaders(InputStream in) throws IOException {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int separator = line.indexOf(':');
+            if (separator <= 0) {
+                throw new ProtocolException("Malformed HTTP header: " + line);
+            }
+            headers.computeIfAbsent(line.substring(0, separator).trim(), name -> new ArrayList<>(1))
+                    .add(line.substring(separator + 1).trim());
+        }
+        return headers;
+    }
+
+    static int parseStatusCode(String statusLine) throws ProtocolException {
+        // HTTP/1.1 200 OK
+        if (statusLine.length() < 12 || !statusLine.startsWith("HTTP/1.")) {
+            throw new ProtocolException("Malformed HTTP status line: " + statusLine);
+        }
+        try {
+            return Integer.parseInt(statusLine.substring(9, 12));
+        } catch (NumberFormatException e) {
+            throw new ProtocolException("Malformed HTTP status line: " + statusLine);
+        }
+    }
+
+    /**
+     * Parses the {@code Content-Length} of a response. Repeated values, in separate headers or one comma separated
+     * list, are accepted when they agree, as RFC 7230 section 3.3.2 allows.
+     * @return the length, or -1 if the response has none
+     * @throws ProtocolException if a value is not a length or the values disagree
+     */
+    static long parseContentLength(List<String> values) throws ProtocolException {
+        long contentLength = -1;
+        if (values != null) {
+            for (String value : values) {
+                for (String length : value.split(",", -1)) {
+                    long parsed = parseLength(length.trim(), values);
+                    if (contentLength != -1 && parsed != contentLength) {
+                        throw new ProtocolException("Conflicting Content-Length headers: " + values);
+                    }
+                    contentLength = parsed;
+                }
+            }
+        }
+        return contentLength;
+    }
+
+    private static long parseLength(String length, List<String> values) throws ProtocolException {
+        if (length.isEmpty() || length.length() > 18) {
+            throw new ProtocolException("Malformed Content-Length header: " + values);
+        }
+        for (int i = 0; i < length.length(); i++) {
+            if (length.charAt(i) < '0' || length.charAt(i) > '9') {
+                throw new ProtocolException("Malformed Content-Length header: " + values);
+            }
+        }
+        return Long.parseLong(length);
+    }
+
+    /**
+     * Parses the size at the start of a chunk-size line, ignoring any chunk extensions after it.
+     * @throws ProtocolException if the line does not start with a hexadecimal size
+     */
+    static long parseChunkSize(String sizeLine) throws ProtocolException {
+        int extension = sizeLine.indexOf(';');
+        String size = (extension == -1 ? sizeLine : sizeLine.substring(0, extension)).trim();
+        if (size.isEmpty() || size.length() > 15 || size.charAt(0) == '-' || size.charAt(0) == '+') {
+            throw new ProtocolException("Malformed chunk size: " + sizeLine);
+        }
+        try {
+            return Long.parseLong(size, 16);
+        } catch (NumberFormatException e) {
+            throw new ProtocolException("Malformed chunk size: " + sizeLine);
+        }
+    }
+
+    static void writeRequestLine(OutputStream out, String method, String target) throws IOException {
+        out.write(method.getBytes(StandardCharsets.US_ASCII));
+        out.write(' ');
+        out.write(target.getBytes(StandardCharsets.US_ASCII));
+        out.write(" HTTP/1.1".getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+    }
+
+    static void writeHeader(OutputStream out, String name, String value) throws IOException {
+        out.write(name.getBytes(StandardCharsets.ISO_8859_1));
+        out.write(':');
+        out.write(' ');
+        out.write(value.getBytes(StandardCharsets.ISO_8859_1));
+        out.write(CRLF);
+    }
+
+    static void endHeaders(OutputStream out) throws IOException {
+        out.write(CRLF);
+    }
+}
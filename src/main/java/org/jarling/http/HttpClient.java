@@ -17,9 +17,11 @@ public interface HttpClient {
     HttpResponse post(String url) throws StarlingBankRequestException;
     HttpResponse post(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException;
     HttpResponse post(String url, HttpParameter[] httpParameters, Map<String,String> requestHeaders) throws StarlingBankRequestException;
+    HttpResponse post(String url, HttpParameter[] httpParameters, Map<String,String> requestHeaders, String body) throws StarlingBankRequestException;
     HttpResponse put(String url) throws StarlingBankRequestException;
     HttpResponse put(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException;
     HttpResponse put(String url, HttpParameter[] httpParameters, Map<String,String> requestHeaders) throws StarlingBankRequestException;
+    HttpResponse put(String url, HttpParameter[] httpParameters, Map<String,String> requestHeaders, String body) throws StarlingBankRequestException;
     HttpResponse delete(String url) throws StarlingBankRequestException;
     HttpResponse delete(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException;
     HttpResponse delete(String url, HttpParameter[] httpParameters, Map<String,String> requestHeaders) throws StarlingBankRequestException;
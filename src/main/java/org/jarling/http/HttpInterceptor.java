@@ -0,0 +1,28 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+
+/**
+ *
+ * A step in the chain of an {@link InterceptingHttpClient}, which sees every request on its way to the transport and
+ * every response on its way back. An interceptor usually hands the request, or a changed copy of it, on to the rest
+ * of the chain and returns what comes back, but it may also answer a request itself, e.g. from a cache or a stub,
+ * without it ever reaching the network, or send it on more than once, e.g. after refreshing an expired token.
+ *
+ * Interceptors are shared by every request through the client, so they must be thread safe.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public interface HttpInterceptor {
+
+    HttpResponse intercept(HttpRequest httpRequest, Chain chain) throws StarlingBankRequestException;
+
+    /**
+     * The interceptors after this one, ending with the transport.
+     */
+    interface Chain {
+
+        HttpResponse proceed(HttpRequest httpRequest) throws StarlingBankRequestException;
+    }
+}
@@ -1,14 +1,19 @@
 package org.jarling.http;
 
+import org.jarling.exceptions.StarlingBankRequestException;
+
 import java.util.Arrays;
 import java.util.Map;
 
 /**
+ *
+ * A request as handed to a transport. Requests are equal when their method, URL, parameters and headers are,
+ * so they can be used as keys to recognise identical requests.
  *
  * @author Nav Roudsari (nav@rzari.co.uk)
  *
  */
-class HttpRequest {
+public class HttpRequest {
 
     private final RequestMethod requestMethod;
     private final String url;
@@ -51,6 +56,28 @@ class HttpRequest {
         return body;
     }
 
+    /**
+     * Sends this request through {@code httpClient}, e.g. to hand it on from a transport that wraps another one.
+     * A transport of this package is handed this request itself rather than a copy built from its parts.
+     */
+    HttpResponse sendTo(HttpClient httpClient) throws StarlingBankRequestException {
+        if (httpClient instanceof AbstractHttpClient){
+            return ((AbstractHttpClient) httpClient).execute(this);
+        }
+        switch (requestMethod){
+            case GET:
+                return httpClient.get(url, httpParameters, requestHeaders);
+            case POST:
+                return httpClient.post(url, httpParameters, requestHeaders, body);
+            case PUT:
+                return httpClient.put(url, httpParameters, requestHeaders, body);
+            case DELETE:
+                return httpClient.delete(url, httpParameters, requestHeaders);
+            default:
+                throw new IllegalStateException("Unsupported request method " + requestMethod);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -2,11 +2,15 @@ package org.jarling.http;
 
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import org.jarling.exceptions.StarlingBankRateLimitException;
 import org.jarling.exceptions.StarlingBankRequestException;
 
 import javax.net.ssl.HttpsURLConnection;
 import java.io.*;
 import java.net.URL;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 
@@ -15,58 +19,169 @@ import java.util.Map;
  * @author Nav Roudsari (nav@rzari.co.uk)
  *
  */
-public class HttpResponse {
+public class HttpResponse implements Closeable {
 
-    private final HttpsURLConnection httpsURLConnection;
+    private final Closeable connection;
     private int statusCode;
     private InputStream is;
+    private InputStream receivedIs;
     private URL request;
     private Long expiration;
     private Long lastModified;
     private Map<String, List<String>> responseHeaders;
     private String contentType;
     private String contentEncoding;
+    private ExchangeMetrics exchangeMetrics;
+    private MeteredInputStream meteredInputStream;
 
     public HttpResponse(HttpsURLConnection httpsURLConnection) throws StarlingBankRequestException {
-        this.httpsURLConnection = httpsURLConnection;
+        this.connection = httpsURLConnection::disconnect;
         try {
+            this.responseHeaders = httpsURLConnection.getHeaderFields();
+            this.contentEncoding = httpsURLConnection.getContentEncoding();
             if (httpsURLConnection.getResponseCode() < HttpsURLConnection.HTTP_BAD_REQUEST){
-                this.is = httpsURLConnection.getInputStream();
+                setBody(httpsURLConnection.getInputStream());
             }else {
-                this.is = httpsURLConnection.getErrorStream();
-                processStatusCode(httpsURLConnection);
+                setBody(httpsURLConnection.getErrorStream());
+                processStatusCode(httpsURLConnection.getResponseCode());
             }
             this.statusCode = httpsURLConnection.getResponseCode();
             this.expiration = httpsURLConnection.getExpiration();
             this.request = httpsURLConnection.getURL();
             this.expiration = httpsURLConnection.getExpiration();
             this.lastModified = httpsURLConnection.getLastModified();
-            this.responseHeaders = httpsURLConnection.getHeaderFields();
             this.contentType = httpsURLConnection.getContentType();
-            this.contentEncoding = httpsURLConnection.getContentEncoding();
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new StarlingBankRequestException("Connection Error", "The response from " + httpsURLConnection.getURL().getHost() + " could not be read", e);
         }
     }
 
-    private void processStatusCode(HttpsURLConnection httpsURLConnection) throws StarlingBankRequestException {
+    /**
+     * Creates a response that holds no connection, e.g. one answered by an {@link HttpInterceptor} from a cache or a
+     * stub. Like a response from the network, an error status is thrown as a {@link StarlingBankRequestException}.
+     * @param statusCode the status of the response
+     * @param request the URL that was requested
+     * @param responseHeaders the response headers, or null for none
+     * @param is the response body
+     */
+    public HttpResponse(int statusCode, URL request, Map<String, List<String>> responseHeaders, InputStream is) throws StarlingBankRequestException {
+        this(statusCode, request, responseHeaders, is, () -> {});
+    }
+
+    /**
+     * Creates a response from an already parsed status line and header block, for transports that
+     * do not use {@link HttpsURLConnection}. Closing the connection must release it back to its owner.
+     */
+    HttpResponse(int statusCode, URL request, Map<String, List<String>> responseHeaders, InputStream is, Closeable connection) throws StarlingBankRequestException {
+        this.connection = connection;
+        this.responseHeaders = responseHeaders;
+        this.contentEncoding = getResponseHeader("Content-Encoding");
+        setBody(is);
+        if (statusCode >= HttpsURLConnection.HTTP_BAD_REQUEST){
+            processStatusCode(statusCode);
+        }
+        this.statusCode = statusCode;
+        this.request = request;
+        this.expiration = parseDateHeader("Expires");
+        this.lastModified = parseDateHeader("Last-Modified");
+        this.contentType = getResponseHeader("Content-Type");
+    }
+
+    // Bodies sent with a gzip or deflate Content-Encoding are decompressed as they are read
+    private void setBody(InputStream is) {
+        this.receivedIs = is;
+        this.is = DecodingInputStream.decode(is, this.contentEncoding);
+    }
+
+    private void processStatusCode(int statusCode) throws StarlingBankRequestException {
+        switch (statusCode){
+            case 400:
+                throw new StarlingBankRequestException(statusCode, toString(this.is), "Bad Request", "Something was wrong with the request made, check the request to address the error included in the response");
+            case 401:
+                throw new StarlingBankRequestException(statusCode, toString(this.is), "Unauthorized", "You are not authorised to access the requested data");
+            case 403:
+                throw new StarlingBankRequestException(statusCode, toString(this.is), "Forbidden", "Your authentication failed, usually due to the access token being expired or an attempt to access a resource beyond the scope of the token");
+            case 404:
+                throw new StarlingBankRequestException(statusCode, toString(this.is), "Not Found", "The requested resource does not exist");
+            case 429:
+                throw new StarlingBankRateLimitException(statusCode, toString(this.is), retryAfterMillis());
+            case 500:
+                throw new StarlingBankRequestException(statusCode, toString(this.is), "Internal Server Error", "Something went wrong on our side - get in touch so we can look into it!");
+            default:
+                throw new StarlingBankRequestException(statusCode, toString(this.is), "Unknown Error", "Looks like something might be wrong jarling");
+        }
+    }
+
+    // Retry-After is either a number of seconds or an HTTP date
+    private long retryAfterMillis() {
+        String value = getResponseHeader("Retry-After");
+        if (value == null) {
+            return -1;
+        }
         try {
-            switch (httpsURLConnection.getResponseCode()){
-                case 400:
-                    throw new StarlingBankRequestException(httpsURLConnection.getResponseCode(), toString(this.is), "Bad Request", "Something was wrong with the request made, check the request to address the error included in the response");
-                case 401:
-                    throw new StarlingBankRequestException(httpsURLConnection.getResponseCode(), toString(this.is), "Unauthorized", "You are not authorised to access the requested data");
-                case 403:
-                    throw new StarlingBankRequestException(httpsURLConnection.getResponseCode(), toString(this.is), "Forbidden", "Your authentication failed, usually due to the access token being expired or an attempt to access a resource beyond the scope of the token");
-                case 404:
-                    throw new StarlingBankRequestException(httpsURLConnection.getResponseCode(), toString(this.is), "Not Found", "The requested resource does not exist");
-                case 500:
-                    throw new StarlingBankRequestException(httpsURLConnection.getResponseCode(), toString(this.is), "Internal Server Error", "Something went wrong on our side - get in touch so we can look into it!");
-                default:
-                    throw new StarlingBankRequestException(httpsURLConnection.getResponseCode(), toString(this.is), "Unknown Error", "Looks like something might be wrong jarling");
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            long retryAt = parseDateHeader("Retry-After");
+            return retryAt == 0 ? -1 : Math.max(0, retryAt - System.currentTimeMillis());
+        }
+    }
+
+    private long parseDateHeader(String name) {
+        return parseHttpDate(getResponseHeader(name));
+    }
+
+    // An HTTP date in milliseconds since the epoch, or 0 if there is none or it cannot be read
+    static long parseHttpDate(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    // Called by a transport that keeps metrics, so that reading and decoding the body are recorded too. Returns
+    // false if there is no body, in which case nothing more will be recorded.
+    boolean meter(ExchangeMetrics exchangeMetrics) {
+        this.exchangeMetrics = exchangeMetrics;
+        if (this.is == null) {
+            return false;
+        }
+        // Nothing has been read yet, so the body is decompressed above the meter instead, which then sees both sizes
+        this.meteredInputStream = new MeteredInputStream(this.receivedIs, this.contentEncoding, exchangeMetrics);
+        this.is = this.meteredInputStream;
+        return true;
+    }
+
+    /**
+     * Runs the given action once, when the body of this response is closed, either by {@link #close()} or by closing
+     * its stream, e.g. to give back a place that is held for a request until its response has been read. A response
+     * without a body runs the action straight away.
+     */
+    public void whenClosed(Runnable action) {
+        if (this.is == null) {
+            action.run();
+            return;
+        }
+        this.is = new ClosingInputStream(this.is, action);
+    }
+
+    /**
+     * @return the time spent so far waiting for the body to be read, or 0 if the transport keeps no metrics
+     */
+    public long getBodyReadNanos() {
+        return this.meteredInputStream == null ? 0 : this.meteredInputStream.getReadNanos();
+    }
+
+    /**
+     * Records the time spent decoding this response into models, if the transport that received it keeps metrics.
+     * @param nanos the decoding time, not counting {@link #getBodyReadNanos() reading the body}
+     */
+    public void recordDecodeTime(long nanos) {
+        if (this.exchangeMetrics != null) {
+            this.exchangeMetrics.decoded(nanos);
         }
     }
 
@@ -91,7 +206,15 @@ public class HttpResponse {
     }
 
     public String getResponseHeader(String name) {
-        return this.httpsURLConnection.getHeaderField(name);
+        String value = null;
+        if (this.responseHeaders != null) {
+            for (Map.Entry<String, List<String>> header : this.responseHeaders.entrySet()) {
+                if (name.equalsIgnoreCase(header.getKey()) && !header.getValue().isEmpty()) {
+                    value = header.getValue().get(header.getValue().size() - 1);
+                }
+            }
+        }
+        return value;
     }
 
     public InputStream getInputStream() {
@@ -102,9 +225,9 @@ public class HttpResponse {
         JsonObject json = null;
         if (this.contentType.equals("application/json")) {
             JsonParser jsonParser = new JsonParser();
-            try {
-                json = (JsonObject) jsonParser.parse(new InputStreamReader(this.is, "UTF-8"));
-            } catch (UnsupportedEncodingException e) {
+            try (Reader reader = new InputStreamReader(this.is, "UTF-8")) {
+                json = (JsonObject) jsonParser.parse(reader);
+            } catch (IOException e) {
                 e.printStackTrace();
             }
         }
@@ -114,10 +237,8 @@ public class HttpResponse {
     private String toString(InputStream is){
         final StringBuilder stringBuilder = new StringBuilder();
         String responseString;
-        if (this.is != null){
-            BufferedReader reader;
-            try {
-                reader = new BufferedReader(new InputStreamReader(is, "UTF-8"));
+        if (is != null){
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, "UTF-8"))) {
                 while (null != (responseString = reader.readLine())){
                     stringBuilder.append(responseString).append('\n');
                 }
@@ -133,8 +254,27 @@ public class HttpResponse {
         return toString(this.is);
     }
 
+    /**
+     * Releases the response body. Fully read bodies leave the underlying connection free for reuse
+     * by the transport; unread bodies may cause the connection to be discarded.
+     */
+    @Override
+    public void close() {
+        try {
+            if (this.is != null) {
+                this.is.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     public void disconnect() {
-        this.httpsURLConnection.disconnect();
+        try {
+            this.connection.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     public String getContentEncoding() {
@@ -144,4 +284,31 @@ public class HttpResponse {
     public Map<String, List<String>> getHeaders() {
         return this.responseHeaders;
     }
+
+    // A body that runs an action the first time it is closed
+    private static final class ClosingInputStream extends FilterInputStream {
+
+        private Runnable action;
+
+        ClosingInputStream(InputStream in, Runnable action) {
+            super(in);
+            this.action = action;
+        }
+
+        @Override
+        public void close() throws IOException {
+            Runnable action;
+            synchronized (this) {
+                action = this.action;
+                this.action = null;
+            }
+            try {
+                super.close();
+            } finally {
+                if (action != null) {
+                    action.run();
+                }
+            }
+        }
+    }
 }
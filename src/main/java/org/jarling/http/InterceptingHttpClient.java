@@ -0,0 +1,67 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * {@link HttpClient} that passes each request through an ordered chain of {@link HttpInterceptor}s before sending it
+ * through another transport. The first interceptor sees the request first and the response last. The chain is linked
+ * up once when the client is created, and the request is handed on as it is to a transport of this package, so with
+ * no interceptors the client allocates nothing beyond the {@link HttpRequest} that any transport builds for a call.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class InterceptingHttpClient extends AbstractHttpClient implements Closeable {
+
+    private final HttpClient httpClient;
+    private final List<HttpInterceptor> interceptors;
+    private final HttpInterceptor.Chain chain;
+
+    /**
+     * @param httpClient the transport that sends the requests the interceptors hand on
+     * @param interceptors the interceptors, outermost first
+     */
+    public InterceptingHttpClient(HttpClient httpClient, List<HttpInterceptor> interceptors) {
+        this.httpClient = httpClient;
+        this.interceptors = Collections.unmodifiableList(new ArrayList<>(interceptors));
+        HttpInterceptor.Chain next = httpRequest -> httpRequest.sendTo(httpClient);
+        for (int i = this.interceptors.size() - 1; i >= 0; i--) {
+            HttpInterceptor interceptor = this.interceptors.get(i);
+            HttpInterceptor.Chain rest = next;
+            next = httpRequest -> interceptor.intercept(httpRequest, rest);
+        }
+        this.chain = next;
+    }
+
+    public HttpClient getHttpClient() {
+        return this.httpClient;
+    }
+
+    public List<HttpInterceptor> getInterceptors() {
+        return this.interceptors;
+    }
+
+    HttpResponse execute(HttpRequest httpRequest) throws StarlingBankRequestException {
+        if (interceptors.isEmpty()) {
+            return httpRequest.sendTo(httpClient);
+        }
+        return chain.proceed(httpRequest);
+    }
+
+    /**
+     * Closes the underlying transport if it holds resources, such as the connections of a {@link PooledHttpClient}.
+     */
+    @Override
+    public void close() throws IOException {
+        if (httpClient instanceof Closeable) {
+            ((Closeable) httpClient).close();
+        }
+    }
+}
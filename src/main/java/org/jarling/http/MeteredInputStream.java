@@ -0,0 +1,111 @@
+package org.jarling.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ *
+ * Response body that counts the bytes read from it and the time spent waiting for them, and hands both to the
+ * {@link ExchangeMetrics} of its request once the body has been read to the end or closed. A compressed body is
+ * counted twice: as received from the network, and as read after decompressing it.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+final class MeteredInputStream extends FilterInputStream {
+
+    private final ExchangeMetrics metrics;
+    private final Received received;
+    private long bytes;
+    private long readNanos;
+    private boolean recorded;
+
+    /**
+     * @param in the body as received
+     * @param contentEncoding the {@code Content-Encoding} of the response, or null for none
+     */
+    MeteredInputStream(InputStream in, String contentEncoding, ExchangeMetrics metrics) {
+        this(new Received(in), contentEncoding, metrics);
+    }
+
+    private MeteredInputStream(Received received, String contentEncoding, ExchangeMetrics metrics) {
+        super(DecodingInputStream.decode(received, contentEncoding));
+        this.received = received;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public int read() throws IOException {
+        long start = System.nanoTime();
+        int b = super.read();
+        readNanos += System.nanoTime() - start;
+        if (b == -1) {
+            record();
+        } else {
+            bytes++;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        int n = super.read(b, off, len);
+        readNanos += System.nanoTime() - start;
+        if (n == -1) {
+            record();
+        } else {
+            bytes += n;
+        }
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            record();
+        }
+    }
+
+    long getReadNanos() {
+        return readNanos;
+    }
+
+    private void record() {
+        if (!recorded) {
+            recorded = true;
+            metrics.bodyRead(received.bytes, bytes, readNanos);
+        }
+    }
+
+    // Counts the bytes of the body as they arrive, before any decompression
+    private static final class Received extends FilterInputStream {
+
+        private long bytes;
+
+        Received(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                bytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                bytes += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.jarling.http;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ *
+ * A socket owned by a {@link ConnectionPool}, either leased to a single exchange or waiting idle for reuse.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+final class PooledConnection implements Closeable {
+
+    private final String route;
+    private final Socket socket;
+    private final InputStream inputStream;
+    private final OutputStream outputStream;
+    private final long connectNanos;
+    private final long handshakeNanos;
+    private final AtomicBoolean leased = new AtomicBoolean(true);
+    private volatile long idleSince;
+    private int exchanges;
+
+    /**
+     * @param connectNanos how long the TCP connection took to establish
+     * @param handshakeNanos how long the TLS handshake took, or -1 for a plain connection
+     */
+    PooledConnection(String route, Socket socket, long connectNanos, long handshakeNanos) throws IOException {
+        this.route = route;
+        this.socket = socket;
+        this.connectNanos = connectNanos;
+        this.handshakeNanos = handshakeNanos;
+        this.inputStream = new BufferedInputStream(socket.getInputStream());
+        this.outputStream = new BufferedOutputStream(socket.getOutputStream());
+    }
+
+    String getRoute() {
+        return route;
+    }
+
+    Socket getSocket() {
+        return socket;
+    }
+
+    InputStream getInputStream() {
+        return inputStream;
+    }
+
+    OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    long getConnectNanos() {
+        return connectNanos;
+    }
+
+    long getHandshakeNanos() {
+        return handshakeNanos;
+    }
+
+    // True when this connection has already carried an exchange, so the server may have closed it while idle.
+    boolean isReused() {
+        return exchanges > 1;
+    }
+
+    void lease() {
+        leased.set(true);
+        exchanges++;
+    }
+
+    boolean unlease(long now) {
+        if (leased.compareAndSet(true, false)) {
+            idleSince = now;
+            return true;
+        }
+        return false;
+    }
+
+    boolean isExpired(long now, long keepAliveMillis) {
+        return now - idleSince >= keepAliveMillis || socket.isClosed() || socket.isInputShutdown() || socket.isOutputShutdown();
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // nothing useful can be done with a failure to close a discarded socket
+        }
+    }
+}
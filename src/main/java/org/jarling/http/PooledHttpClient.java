@@ -0,0 +1,267 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.metrics.MetricsRegistry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * {@link HttpClient} that speaks HTTP/1.1 over sockets kept in a {@link ConnectionPool}, so consecutive
+ * requests to Starling reuse an open TLS connection instead of paying for a new handshake each time.
+ * A connection goes back to the pool once its response body has been read to the end or the
+ * {@link HttpResponse} has been closed. Connecting and waiting for data time out as for {@link BasicHttpsClient}.
+ * Responses are asked for gzip or deflate compressed, unless the headers given say otherwise, and decompressed as
+ * they are read. Given a {@link MetricsRegistry}, it records the TCP connect and TLS handshake of each new
+ * connection, the time waiting for Starling and reading the response, and the bytes sent and received, by endpoint.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class PooledHttpClient extends AbstractHttpClient implements Closeable {
+
+    private final Map<String, String> requestHeaders;
+    private final ConnectionPool connectionPool;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final MetricsRegistry metricsRegistry;
+
+    public PooledHttpClient(Map<String, String> defaultRequestHeaders) {
+        this(defaultRequestHeaders, new ConnectionPool());
+    }
+
+    public PooledHttpClient(Map<String, String> defaultRequestHeaders, ConnectionPool connectionPool) {
+        this(defaultRequestHeaders, connectionPool, BasicHttpsClient.DEFAULT_CONNECT_TIMEOUT_MILLIS, BasicHttpsClient.DEFAULT_READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param defaultRequestHeaders headers sent with every request, or null for none
+     * @param connectionPool the pool connections are taken from and returned to
+     * @param connectTimeoutMillis how long to wait for a new connection, including its TLS handshake, or 0 to wait forever
+     * @param readTimeoutMillis how long to wait for data from a connection, or 0 to wait forever
+     */
+    public PooledHttpClient(Map<String, String> defaultRequestHeaders, ConnectionPool connectionPool, int connectTimeoutMillis, int readTimeoutMillis) {
+        this(defaultRequestHeaders, connectionPool, connectTimeoutMillis, readTimeoutMillis, null);
+    }
+
+    /**
+     * @param defaultRequestHeaders headers sent with every request, or null for none
+     * @param connectionPool the pool connections are taken from and returned to
+     * @param connectTimeoutMillis how long to wait for a new connection, including its TLS handshake, or 0 to wait forever
+     * @param readTimeoutMillis how long to wait for data from a connection, or 0 to wait forever
+     * @param metricsRegistry the registry every request is measured into, or null for none
+     */
+    public PooledHttpClient(Map<String, String> defaultRequestHeaders, ConnectionPool connectionPool, int connectTimeoutMillis, int readTimeoutMillis,
+                            MetricsRegistry metricsRegistry) {
+        if (connectTimeoutMillis < 0 || readTimeoutMillis < 0) {
+            throw new IllegalArgumentException("timeouts must not be negative");
+        }
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.metricsRegistry = metricsRegistry;
+        this.requestHeaders = defaultRequestHeaders == null
+                ? Collections.<String, String>emptyMap()
+                : Collections.unmodifiableMap(new HashMap<>(defaultRequestHeaders));
+        this.connectionPool = connectionPool;
+    }
+
+    public Map<String, String> getDefaultRequestHeaders() {
+        return this.requestHeaders;
+    }
+
+    public ConnectionPool getConnectionPool() {
+        return this.connectionPool;
+    }
+
+    public int getConnectTimeoutMillis() {
+        return this.connectTimeoutMillis;
+    }
+
+    public int getReadTimeoutMillis() {
+        return this.readTimeoutMillis;
+    }
+
+    public MetricsRegistry getMetricsRegistry() {
+        return this.metricsRegistry;
+    }
+
+    public ConnectionPoolStats getPoolStats() {
+        return this.connectionPool.getStats();
+    }
+
+    HttpResponse execute(HttpRequest httpRequest) throws StarlingBankRequestException {
+        ExchangeMetrics metrics = ExchangeMetrics.start(metricsRegistry, httpRequest);
+        try {
+            return metrics.received(execute(httpRequest, metrics));
+        } catch (StarlingBankRequestException e) {
+            metrics.failed(e);
+            throw e;
+        }
+    }
+
+    private HttpResponse execute(HttpRequest httpRequest, ExchangeMetrics metrics) throws StarlingBankRequestException {
+        URL requestUrl;
+        try {
+            requestUrl = new URL(httpRequest.getUrl());
+        } catch (MalformedURLException e) {
+            throw new StarlingBankRequestException("Malformed URL", "The request URL could not be parsed: " + httpRequest.getUrl(), e);
+        }
+        byte[] body = httpRequest.getBody() != null ? httpRequest.getBody().getBytes(StandardCharsets.UTF_8) : null;
+        int port = requestUrl.getPort() != -1 ? requestUrl.getPort() : requestUrl.getDefaultPort();
+        CancellationSignal cancellation = CancellationSignal.current();
+
+        while (true) {
+            int connectTimeout = connectTimeoutMillis(httpRequest, connectTimeoutMillis);
+            int readTimeout = readTimeoutMillis(httpRequest, readTimeoutMillis);
+            PooledConnection connection;
+            try {
+                connection = connectionPool.acquire(requestUrl.getProtocol(), requestUrl.getHost(), port, connectTimeout);
+                connection.getSocket().setSoTimeout(readTimeout);
+            } catch (IOException e) {
+                throw new StarlingBankRequestException("Connection Error", "Unable to obtain a connection to " + requestUrl.getHost(), e);
+            }
+            if (!connection.isReused()) {
+                metrics.connected(connection.getConnectNanos(), connection.getHandshakeNanos());
+            }
+            if (cancellation != null) {
+                cancellation.register(connection);
+            }
+            try {
+                String statusLine;
+                try {
+                    writeRequest(connection, httpRequest, requestUrl, port, body);
+                    metrics.sent(body != null ? body.length : 0);
+                    statusLine = Http1.readLine(connection.getInputStream());
+                    if (statusLine == null) {
+                        throw new IOException("Connection closed by server before a response was received");
+                    }
+                } catch (IOException e) {
+                    connectionPool.release(connection, false);
+                    // A kept-alive connection may have been closed by the server while it sat idle; nothing was
+                    // processed, so anything other than a POST is sent again on a fresh connection. A timeout means the
+                    // server is slow rather than gone, and a cancelled request is not wanted, so neither is sent again.
+                    if (connection.isReused() && httpRequest.getRequestMethod() != RequestMethod.POST && !(e instanceof SocketTimeoutException)
+                            && (cancellation == null || !cancellation.isCancelled())) {
+                        continue;
+                    }
+                    throw new StarlingBankRequestException("Connection Error", "The request to " + requestUrl.getHost() + " failed before a response was received", e);
+                }
+                return readResponse(connection, requestUrl, statusLine);
+            } finally {
+                if (cancellation != null) {
+                    cancellation.unregister();
+                }
+            }
+        }
+    }
+
+    private void writeRequest(PooledConnection connection, HttpRequest httpRequest, URL requestUrl, int port, byte[] body) throws IOException {
+        OutputStream out = connection.getOutputStream();
+        String target = requestUrl.getFile().isEmpty() ? "/" : requestUrl.getFile();
+        Http1.writeRequestLine(out, httpRequest.getRequestMethod().getValue(), target);
+        Http1.writeHeader(out, "Host", port == requestUrl.getDefaultPort() ? requestUrl.getHost() : requestUrl.getHost() + ":" + port);
+        writeHeaders(out, this.requestHeaders, httpRequest.getRequestHeaders(), body != null);
+        writeHeaders(out, httpRequest.getRequestHeaders(), null, body != null);
+        if (!containsHeader(this.requestHeaders, "Accept-Encoding") && !containsHeader(httpRequest.getRequestHeaders(), "Accept-Encoding")) {
+            Http1.writeHeader(out, "Accept-Encoding", DecodingInputStream.ACCEPT_ENCODING);
+        }
+        if (body != null) {
+            Http1.writeHeader(out, "Content-Type", "application/json; charset=utf-8");
+            Http1.writeHeader(out, "Content-Length", String.valueOf(body.length));
+        } else if (httpRequest.getRequestMethod() == RequestMethod.POST || httpRequest.getRequestMethod() == RequestMethod.PUT) {
+            Http1.writeHeader(out, "Content-Length", "0");
+        }
+        Http1.endHeaders(out);
+        if (body != null) {
+            out.write(body);
+        }
+        out.flush();
+    }
+
+    // Writes headers, skipping any that are framed by the client itself or overridden by a more specific set
+    private static void writeHeaders(OutputStream out, Map<String, String> headers, Map<String, String> overrides, boolean hasBody) throws IOException {
+        if (headers != null) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                String name = header.getKey();
+                if (name.equalsIgnoreCase("Host") || name.equalsIgnoreCase("Content-Length")
+                        || (hasBody && name.equalsIgnoreCase("Content-Type")) || containsHeader(overrides, name)) {
+                    continue;
+                }
+                Http1.writeHeader(out, name, header.getValue());
+            }
+        }
+    }
+
+    private static boolean containsHeader(Map<String, String> headers, String name) {
+        if (headers != null) {
+            for (String header : headers.keySet()) {
+                if (header.equalsIgnoreCase(name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private HttpResponse readResponse(PooledConnection connection, URL requestUrl, String statusLine) throws StarlingBankRequestException {
+        InputStream in = connection.getInputStream();
+        int statusCode;
+        Map<String, List<String>> headers;
+        long contentLength;
+        try {
+            statusCode = Http1.parseStatusCode(statusLine);
+            headers = Http1.readHeaders(in);
+            while (statusCode >= 100 && statusCode < 200) {
+                statusLine = Http1.readLine(in);
+                if (statusLine == null) {
+                    throw new IOException("Connection closed by server after an interim response");
+                }
+                statusCode = Http1.parseStatusCode(statusLine);
+                headers = Http1.readHeaders(in);
+            }
+            contentLength = Http1.parseContentLength(headers.get("Content-Length"));
+        } catch (IOException e) {
+            // The end of a body that cannot be framed is unknown, so the connection is not used again
+            connectionPool.release(connection, false);
+            throw new StarlingBankRequestException("Connection Error", "The response from " + requestUrl.getHost() + " could not be read", e);
+        }
+
+        boolean keepAlive = !statusLine.startsWith("HTTP/1.0") && !"close".equalsIgnoreCase(firstHeader(headers, "Connection"));
+        String transferEncoding = firstHeader(headers, "Transfer-Encoding");
+        PooledResponseBody body;
+        if (statusCode == 204 || statusCode == 304) {
+            body = new PooledResponseBody.FixedLength(connectionPool, connection, keepAlive, 0);
+        } else if (transferEncoding != null && transferEncoding.toLowerCase().endsWith("chunked")) {
+            body = new PooledResponseBody.Chunked(connectionPool, connection, keepAlive);
+        } else if (contentLength != -1) {
+            body = new PooledResponseBody.FixedLength(connectionPool, connection, keepAlive, contentLength);
+        } else {
+            body = new PooledResponseBody.UntilClose(connectionPool, connection);
+        }
+        return new HttpResponse(statusCode, requestUrl, headers, body, () -> body.complete(false));
+    }
+
+    private static String firstHeader(Map<String, List<String>> headers, String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * Closes the connection pool. Requests made after closing fail with a {@link StarlingBankRequestException}.
+     */
+    @Override
+    public void close() {
+        connectionPool.close();
+    }
+}
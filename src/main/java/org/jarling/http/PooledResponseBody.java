@@ -0,0 +1,182 @@
+package org.jarling.http;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ *
+ * HTTP/1.1 response body read straight from a pooled connection. The connection is handed back to its
+ * pool as soon as the body has been read to the end, or discarded if the body is abandoned part way.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+abstract class PooledResponseBody extends InputStream {
+
+    // Bodies closed with at most this much left unread are drained so the connection can still be reused
+    private static final int MAX_DRAIN_BYTES = 8192;
+
+    protected final InputStream in;
+    private final ConnectionPool connectionPool;
+    private final PooledConnection connection;
+    private final boolean keepAlive;
+    private boolean complete;
+    private boolean closed;
+
+    PooledResponseBody(ConnectionPool connectionPool, PooledConnection connection, boolean keepAlive) {
+        this.in = connection.getInputStream();
+        this.connectionPool = connectionPool;
+        this.connection = connection;
+        this.keepAlive = keepAlive;
+    }
+
+    /**
+     * Reads from the body, returning -1 once the end of the body has been reached.
+     */
+    protected abstract int readBody(byte[] b, int off, int len) throws IOException;
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Response body has been closed");
+        }
+        if (complete) {
+            return -1;
+        }
+        if (len == 0) {
+            return 0;
+        }
+        int n;
+        try {
+            n = readBody(b, off, len);
+        } catch (IOException e) {
+            complete(false);
+            throw e;
+        }
+        if (n == -1) {
+            complete(keepAlive);
+        }
+        return n;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (!complete) {
+            drain();
+        }
+        closed = true;
+    }
+
+    private void drain() {
+        byte[] buffer = new byte[1024];
+        int drained = 0;
+        try {
+            while (!complete && drained <= MAX_DRAIN_BYTES) {
+                int n = read(buffer, 0, buffer.length);
+                if (n > 0) {
+                    drained += n;
+                }
+            }
+        } catch (IOException ignored) {
+            // read() has already discarded the connection
+        }
+        if (!complete) {
+            complete(false);
+        }
+    }
+
+    protected final void complete(boolean reusable) {
+        if (!complete) {
+            complete = true;
+            connectionPool.release(connection, reusable);
+        }
+    }
+
+    static final class FixedLength extends PooledResponseBody {
+
+        private long remaining;
+
+        FixedLength(ConnectionPool connectionPool, PooledConnection connection, boolean keepAlive, long contentLength) {
+            super(connectionPool, connection, keepAlive);
+            this.remaining = contentLength;
+            if (contentLength == 0) {
+                complete(keepAlive);
+            }
+        }
+
+        @Override
+        protected int readBody(byte[] b, int off, int len) throws IOException {
+            if (remaining == 0) {
+                return -1;
+            }
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n == -1) {
+                throw new EOFException("Connection closed with " + remaining + " bytes of the response body unread");
+            }
+            remaining -= n;
+            return n;
+        }
+    }
+
+    static final class Chunked extends PooledResponseBody {
+
+        private long chunkRemaining;
+        private boolean lastChunk;
+
+        Chunked(ConnectionPool connectionPool, PooledConnection connection, boolean keepAlive) {
+            super(connectionPool, connection, keepAlive);
+        }
+
+        @Override
+        protected int readBody(byte[] b, int off, int len) throws IOException {
+            if (lastChunk) {
+                return -1;
+            }
+            if (chunkRemaining == 0) {
+                String sizeLine = Http1.readLine(in);
+                if (sizeLine == null) {
+                    throw new EOFException("Connection closed before the final chunk of the response body");
+                }
+                chunkRemaining = Http1.parseChunkSize(sizeLine);
+                if (chunkRemaining == 0) {
+                    // Skip any trailer headers up to the blank line that ends the body
+                    Http1.readHeaders(in);
+                    lastChunk = true;
+                    return -1;
+                }
+            }
+            int n = in.read(b, off, (int) Math.min(len, chunkRemaining));
+            if (n == -1) {
+                throw new EOFException("Connection closed in the middle of a response chunk");
+            }
+            chunkRemaining -= n;
+            if (chunkRemaining == 0) {
+                Http1.readLine(in);
+            }
+            return n;
+        }
+    }
+
+    static final class UntilClose extends PooledResponseBody {
+
+        UntilClose(ConnectionPool connectionPool, PooledConnection connection) {
+            super(connectionPool, connection, false);
+        }
+
+        @Override
+        protected int readBody(byte[] b, int off, int len) throws IOException {
+            return in.read(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package org.jarling.http;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * A request and the response it got, as written by a {@link RecordingHttpClient} and served again by a
+ * {@link ReplayingHttpClient}. Request headers are not kept, so recordings never hold access tokens.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class RecordedExchange {
+
+    // A failure before any status was read, e.g. a refused connection, as reported by StarlingBankRequestException
+    static final int NO_STATUS = -1;
+
+    private final long startMillis;
+    private final long durationNanos;
+    private final RequestMethod requestMethod;
+    private final String url;
+    private final String template;
+    private final String requestBody;
+    private final int statusCode;
+    private final Map<String, List<String>> responseHeaders;
+    private final byte[] responseBody;
+
+    RecordedExchange(long startMillis, long durationNanos, RequestMethod requestMethod, String url, String requestBody,
+                     int statusCode, Map<String, List<String>> responseHeaders, byte[] responseBody){
+        this.startMillis = startMillis;
+        this.durationNanos = durationNanos;
+        this.requestMethod = requestMethod;
+        this.url = url;
+        this.template = EndpointTemplates.forUrl(url);
+        this.requestBody = requestBody;
+        this.statusCode = statusCode;
+        this.responseHeaders = responseHeaders;
+        this.responseBody = responseBody;
+    }
+
+    /**
+     * @return when the request was sent, in milliseconds since the epoch
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * @return the time from sending the request to having read the whole response
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public RequestMethod getRequestMethod() {
+        return requestMethod;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * @return the endpoint of the request, as given by {@link EndpointTemplates#forUrl(String)}
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    public String getRequestBody() {
+        return requestBody;
+    }
+
+    /**
+     * @return the status of the response, or -1 if the request failed before a response was read
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public Map<String, List<String>> getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    /**
+     * @return the response body, the body of an error response, or the reason a request without a response failed
+     */
+    public byte[] getResponseBody() {
+        return responseBody;
+    }
+
+    /**
+     * Reads every exchange of a recording, in the order they were written. A last exchange cut short, e.g. by the
+     * recording process being killed, is left out.
+     * @param file a recording written by a {@link RecordingHttpClient}
+     * @throws IOException if the file cannot be read, or is not a recording
+     */
+    public static List<RecordedExchange> readAll(Path file) throws IOException {
+        List<RecordedExchange> exchanges = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            RecordingHttpClient.readHeader(in, file);
+            while (true){
+                try {
+                    exchanges.add(read(in));
+                } catch (EOFException e) {
+                    return exchanges;
+                }
+            }
+        }
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeLong(startMillis);
+        out.writeLong(durationNanos);
+        out.writeByte(requestMethod.ordinal());
+        writeString(out, url);
+        writeString(out, requestBody);
+        out.writeShort(statusCode);
+        int headers = 0;
+        for (List<String> values : responseHeaders.values()){
+            headers += values.size();
+        }
+        out.writeShort(headers);
+        for (Map.Entry<String, List<String>> header : responseHeaders.entrySet()){
+            for (String value : header.getValue()){
+                writeString(out, header.getKey());
+                writeString(out, value);
+            }
+        }
+        writeBytes(out, responseBody);
+    }
+
+    static RecordedExchange read(DataInputStream in) throws IOException {
+        long startMillis = in.readLong();
+        long durationNanos = in.readLong();
+        RequestMethod requestMethod = RequestMethod.values()[in.readUnsignedByte()];
+        String url = readString(in);
+        String requestBody = readString(in);
+        int statusCode = in.readShort();
+        Map<String, List<String>> responseHeaders = new LinkedHashMap<>();
+        for (int i = in.readUnsignedShort(); i > 0; i--){
+            String name = readString(in);
+            responseHeaders.computeIfAbsent(name, key -> new ArrayList<>(1)).add(readString(in));
+        }
+        byte[] responseBody = readBytes(in);
+        return new RecordedExchange(startMillis, durationNanos, requestMethod, url, requestBody, statusCode,
+                Collections.unmodifiableMap(responseHeaders), responseBody);
+    }
+
+    // Strings and bodies are written as a length, -1 for null, and that many bytes, so none is limited to 64KB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null){
+            out.writeInt(-1);
+        } else {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0){
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
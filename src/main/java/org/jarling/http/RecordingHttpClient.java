@@ -0,0 +1,225 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRateLimitException;
+import org.jarling.exceptions.StarlingBankRequestException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * {@link HttpClient} that sends each request through another transport and appends the request and its response,
+ * or its failure, to a file that a {@link ReplayingHttpClient} can serve again later. Each exchange is written with a
+ * single append once its response has been read in full, so any number of threads can record into the same file at
+ * once without their exchanges interleaving, and a recording cut short by a crash loses at most its last exchange.
+ *
+ * The response body is read into memory before it is handed back, so responses are no longer streamed while
+ * recording.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class RecordingHttpClient extends AbstractHttpClient implements Closeable {
+
+    static final byte[] MAGIC = "JRLG".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+
+    private final HttpClient httpClient;
+    private final Path file;
+    private final FileChannel channel;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder failedWrites = new LongAdder();
+
+    /**
+     * @param httpClient the transport that sends the requests
+     * @param file the recording to append to, created if it does not exist
+     * @throws IOException if the file cannot be opened, or already holds something other than a recording
+     */
+    public RecordingHttpClient(HttpClient httpClient, Path file) throws IOException {
+        this.httpClient = httpClient;
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        try {
+            if (channel.size() == 0){
+                ByteArrayOutputStream header = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(header);
+                out.write(MAGIC);
+                out.writeByte(VERSION);
+                append(header.toByteArray());
+            } else {
+                try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                    readHeader(in, file);
+                }
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    static void readHeader(DataInputStream in, Path file) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.readFully(magic);
+        int version = in.readUnsignedByte();
+        if (!Arrays.equals(magic, MAGIC) || version != VERSION){
+            throw new IOException(file + " is not a recording of Starling exchanges");
+        }
+    }
+
+    public HttpClient getHttpClient() {
+        return this.httpClient;
+    }
+
+    public Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * @return exchanges appended to the file by this client
+     */
+    public long getRecorded() {
+        return this.recorded.sum();
+    }
+
+    /**
+     * @return exchanges that could not be appended to the file. The calls themselves are not failed
+     */
+    public long getFailedWrites() {
+        return this.failedWrites.sum();
+    }
+
+    HttpResponse execute(HttpRequest httpRequest) throws StarlingBankRequestException {
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        HttpResponse response;
+        byte[] body;
+        try {
+            response = httpRequest.sendTo(httpClient);
+            try {
+                body = readFully(response.getInputStream());
+            } finally {
+                response.close();
+            }
+        } catch (IOException e) {
+            StarlingBankRequestException failure = new StarlingBankRequestException("Connection Error",
+                    "The response from " + httpRequest.getUrl() + " could not be read", e);
+            recordFailure(httpRequest, startMillis, start, failure);
+            throw failure;
+        } catch (StarlingBankRequestException e) {
+            recordFailure(httpRequest, startMillis, start, e);
+            throw e;
+        }
+        Map<String, List<String>> headers = recordableHeaders(response.getHeaders());
+        record(new RecordedExchange(startMillis, System.nanoTime() - start, httpRequest.getRequestMethod(), httpRequest.getUrl(),
+                httpRequest.getBody(), response.getStatusCode(), headers, body));
+        return new HttpResponse(response.getStatusCode(), requestUrl(response, httpRequest), headers, body == null ? null : new ByteArrayInputStream(body));
+    }
+
+    private void recordFailure(HttpRequest httpRequest, long startMillis, long start, StarlingBankRequestException e) {
+        String reason = e.getReason();
+        record(new RecordedExchange(startMillis, System.nanoTime() - start, httpRequest.getRequestMethod(), httpRequest.getUrl(),
+                httpRequest.getBody(), e.getStatusCode(), failureHeaders(e), reason == null ? null : reason.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // The header map of HttpsURLConnection holds the status line under a null name, which is left out. The body is
+    // recorded decompressed, so the headers describing it as sent are left out too
+    private static Map<String, List<String>> recordableHeaders(Map<String, List<String>> headers) {
+        Map<String, List<String>> recordable = new LinkedHashMap<>();
+        if (headers != null) {
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                String name = header.getKey();
+                if (name != null && !name.equalsIgnoreCase("Content-Encoding") && !name.equalsIgnoreCase("Content-Length")
+                        && !name.equalsIgnoreCase("Transfer-Encoding")) {
+                    recordable.put(name, new ArrayList<>(header.getValue()));
+                }
+            }
+        }
+        return recordable;
+    }
+
+    // An error response is only seen as an exception, so the one header that changes how it is handled is kept from it
+    private static Map<String, List<String>> failureHeaders(StarlingBankRequestException e) {
+        if (e instanceof StarlingBankRateLimitException && ((StarlingBankRateLimitException) e).getRetryAfterMillis() >= 0) {
+            long seconds = (((StarlingBankRateLimitException) e).getRetryAfterMillis() + 999) / 1000;
+            return Collections.singletonMap("Retry-After", Collections.singletonList(String.valueOf(seconds)));
+        }
+        return Collections.emptyMap();
+    }
+
+    private static URL requestUrl(HttpResponse response, HttpRequest httpRequest) throws StarlingBankRequestException {
+        if (response.getRequest() != null) {
+            return response.getRequest();
+        }
+        try {
+            return new URL(httpRequest.getUrl());
+        } catch (MalformedURLException e) {
+            throw new StarlingBankRequestException("Bad Request", "The URL " + httpRequest.getUrl() + " could not be parsed", e);
+        }
+    }
+
+    private static byte[] readFully(InputStream is) throws IOException {
+        if (is == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private void record(RecordedExchange exchange) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            exchange.write(new DataOutputStream(bytes));
+            append(bytes.toByteArray());
+            recorded.increment();
+        } catch (IOException e) {
+            failedWrites.increment();
+        }
+    }
+
+    private synchronized void append(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Closes the recording, and the underlying transport if it holds resources, such as the connections of a
+     * {@link PooledHttpClient}.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            if (httpClient instanceof Closeable) {
+                ((Closeable) httpClient).close();
+            }
+        }
+    }
+}
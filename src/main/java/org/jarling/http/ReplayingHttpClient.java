@@ -0,0 +1,172 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * {@link HttpClient} that answers requests from a recording made by a {@link RecordingHttpClient}, without a network.
+ * A request is answered by the exchanges recorded for the same method, URL and body or, failing that, for the same
+ * method and endpoint, e.g. a top up of a savings goal with a new transfer id. Each request takes the next of its
+ * exchanges in recorded order, starting again from the first once all have been served, and recorded failures are
+ * thrown again as they were.
+ *
+ * Requests are answered without any locking, and with {@link Timing#ORIGINAL} each waits on its own thread for as
+ * long as its exchange took, so the concurrency of the code under test, and the throughput it reaches, are the same
+ * as against the network.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class ReplayingHttpClient extends AbstractHttpClient {
+
+    /**
+     * How long a replayed request takes.
+     */
+    public enum Timing {
+        /**
+         * Each response is held back for as long as the recorded exchange took.
+         */
+        ORIGINAL,
+        /**
+         * Each response is handed back at once.
+         */
+        AS_FAST_AS_POSSIBLE
+    }
+
+    private final List<RecordedExchange> exchanges;
+    private final Timing timing;
+    private final Map<String, Replies> byRequest = new HashMap<>();
+    private final Map<String, Replies> byEndpoint = new HashMap<>();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder unmatched = new LongAdder();
+
+    /**
+     * @param file a recording written by a {@link RecordingHttpClient}
+     * @param timing how long each replayed request takes
+     * @throws IOException if the file cannot be read, or is not a recording
+     */
+    public ReplayingHttpClient(Path file, Timing timing) throws IOException {
+        this(RecordedExchange.readAll(file), timing);
+    }
+
+    /**
+     * @param exchanges the exchanges to answer from, in recorded order
+     * @param timing how long each replayed request takes
+     */
+    public ReplayingHttpClient(List<RecordedExchange> exchanges, Timing timing) {
+        this.exchanges = Collections.unmodifiableList(new ArrayList<>(exchanges));
+        this.timing = timing;
+        Map<String, List<RecordedExchange>> byRequest = new HashMap<>();
+        Map<String, List<RecordedExchange>> byEndpoint = new HashMap<>();
+        for (RecordedExchange exchange : this.exchanges) {
+            byRequest.computeIfAbsent(requestKey(exchange.getRequestMethod(), exchange.getUrl(), exchange.getRequestBody()),
+                    key -> new ArrayList<>()).add(exchange);
+            byEndpoint.computeIfAbsent(endpointKey(exchange.getRequestMethod(), exchange.getTemplate()),
+                    key -> new ArrayList<>()).add(exchange);
+        }
+        byRequest.forEach((key, recorded) -> this.byRequest.put(key, new Replies(recorded)));
+        byEndpoint.forEach((key, recorded) -> this.byEndpoint.put(key, new Replies(recorded)));
+    }
+
+    public List<RecordedExchange> getExchanges() {
+        return this.exchanges;
+    }
+
+    public Timing getTiming() {
+        return this.timing;
+    }
+
+    /**
+     * @return requests answered from the recording
+     */
+    public long getReplayed() {
+        return this.replayed.sum();
+    }
+
+    /**
+     * @return requests for an endpoint that was never recorded, which fail with status 404
+     */
+    public long getUnmatched() {
+        return this.unmatched.sum();
+    }
+
+    HttpResponse execute(HttpRequest httpRequest) throws StarlingBankRequestException {
+        Replies replies = byRequest.get(requestKey(httpRequest.getRequestMethod(), httpRequest.getUrl(), httpRequest.getBody()));
+        if (replies == null) {
+            replies = byEndpoint.get(endpointKey(httpRequest.getRequestMethod(), EndpointTemplates.forUrl(httpRequest.getUrl())));
+        }
+        if (replies == null) {
+            unmatched.increment();
+            throw new StarlingBankRequestException(404, "", "Not Recorded",
+                    "No exchange was recorded for " + httpRequest.getRequestMethod() + " " + EndpointTemplates.forUrl(httpRequest.getUrl()));
+        }
+        RecordedExchange exchange = replies.next();
+        if (timing == Timing.ORIGINAL) {
+            sleep(exchange.getDurationNanos());
+        }
+        replayed.increment();
+        return respond(httpRequest, exchange);
+    }
+
+    private static HttpResponse respond(HttpRequest httpRequest, RecordedExchange exchange) throws StarlingBankRequestException {
+        byte[] body = exchange.getResponseBody();
+        if (exchange.getStatusCode() == RecordedExchange.NO_STATUS) {
+            throw new StarlingBankRequestException("Connection Error", "The recorded request to " + exchange.getTemplate() + " failed",
+                    new IOException(body == null ? null : new String(body, StandardCharsets.UTF_8)));
+        }
+        URL url;
+        try {
+            url = new URL(httpRequest.getUrl());
+        } catch (MalformedURLException e) {
+            throw new StarlingBankRequestException("Bad Request", "The URL " + httpRequest.getUrl() + " could not be parsed", e);
+        }
+        return new HttpResponse(exchange.getStatusCode(), url, exchange.getResponseHeaders(), body == null ? null : new ByteArrayInputStream(body));
+    }
+
+    private static void sleep(long nanos) throws StarlingBankRequestException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StarlingBankRequestException("Interrupted", "The thread was interrupted while replaying a request", e);
+        }
+    }
+
+    private static String requestKey(RequestMethod requestMethod, String url, String body) {
+        return body == null ? requestMethod + " " + url : requestMethod + " " + url + "\n" + body;
+    }
+
+    private static String endpointKey(RequestMethod requestMethod, String template) {
+        return requestMethod + " " + template;
+    }
+
+    // The exchanges recorded for one key, handed out in turn
+    private static final class Replies {
+
+        private final RecordedExchange[] exchanges;
+        private final AtomicInteger next = new AtomicInteger();
+
+        Replies(List<RecordedExchange> exchanges) {
+            this.exchanges = exchanges.toArray(new RecordedExchange[0]);
+        }
+
+        RecordedExchange next() {
+            return exchanges[Math.floorMod(next.getAndIncrement(), exchanges.length)];
+        }
+    }
+}
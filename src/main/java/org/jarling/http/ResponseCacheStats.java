@@ -0,0 +1,81 @@
+package org.jarling.http;
+
+/**
+ *
+ * Point in time snapshot of the counters kept by a {@link CachingHttpClient} for one endpoint.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class ResponseCacheStats {
+
+    private final String endpointTemplate;
+    private final long hits;
+    private final long misses;
+    private final long revalidations;
+    private final long notModified;
+
+    ResponseCacheStats(String endpointTemplate, long hits, long misses, long revalidations, long notModified) {
+        this.endpointTemplate = endpointTemplate;
+        this.hits = hits;
+        this.misses = misses;
+        this.revalidations = revalidations;
+        this.notModified = notModified;
+    }
+
+    public String getEndpointTemplate() {
+        return endpointTemplate;
+    }
+
+    /**
+     * @return GETs answered from a fresh cached response, without the network
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return GETs sent unconditionally, because nothing usable was cached
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return GETs for a stale cached response that were sent with {@code If-None-Match} or {@code If-Modified-Since}
+     */
+    public long getRevalidations() {
+        return revalidations;
+    }
+
+    /**
+     * @return revalidations answered 304 Not Modified, whose cached body was used
+     */
+    public long getNotModified() {
+        return notModified;
+    }
+
+    public long getRequests() {
+        return hits + misses + revalidations;
+    }
+
+    /**
+     * @return the share of GETs whose body came from the cache, whether fresh or revalidated, between 0 and 1
+     */
+    public double getHitRate() {
+        long requests = getRequests();
+        return requests == 0 ? 0 : (double) (hits + notModified) / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCacheStats{" +
+                "endpointTemplate='" + endpointTemplate + '\'' +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", revalidations=" + revalidations +
+                ", notModified=" + notModified +
+                ", hitRate=" + getHitRate() +
+                '}';
+    }
+}
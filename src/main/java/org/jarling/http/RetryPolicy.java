@@ -0,0 +1,21 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+
+/**
+ *
+ * Decides whether a failed request is sent again by a {@link RetryingHttpClient}, and after how long.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public interface RetryPolicy {
+
+    /**
+     * @param requestMethod the method of the failed request
+     * @param attempt the number of times the request has been sent so far, starting at 1
+     * @param failure why the last attempt failed
+     * @return milliseconds to wait before sending the request again, or a negative number to give up
+     */
+    long retryDelayMillis(RequestMethod requestMethod, int attempt, StarlingBankRequestException failure);
+}
@@ -0,0 +1,84 @@
+package org.jarling.http;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * {@link HttpClient} that sends each request through another transport and, when it fails, asks a
+ * {@link RetryPolicy} whether and when to send the exact same request again. The URL, headers and body are reused
+ * unchanged, so ids carried in the path (such as the transfer UUID of a savings goal top up) are the same on every
+ * attempt. A request is not retried if waiting for the retry would take it past the deadline of its call.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class RetryingHttpClient extends AbstractHttpClient implements Closeable {
+
+    private final HttpClient httpClient;
+    private final RetryPolicy retryPolicy;
+    private final LongAdder retries = new LongAdder();
+
+    /**
+     * @param httpClient the transport that sends each attempt
+     * @param retryPolicy decides which failures are retried and how long to wait first
+     */
+    public RetryingHttpClient(HttpClient httpClient, RetryPolicy retryPolicy) {
+        this.httpClient = httpClient;
+        this.retryPolicy = retryPolicy;
+    }
+
+    public HttpClient getHttpClient() {
+        return this.httpClient;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return this.retryPolicy;
+    }
+
+    /**
+     * @return requests sent again after a failed attempt, since this client was created
+     */
+    public long getRetries() {
+        return this.retries.sum();
+    }
+
+    HttpResponse execute(HttpRequest httpRequest) throws StarlingBankRequestException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return httpRequest.sendTo(httpClient);
+            } catch (StarlingBankRequestException e) {
+                long delayMillis = retryPolicy.retryDelayMillis(httpRequest.getRequestMethod(), attempt, e);
+                CallOptions callOptions = CallOptions.current();
+                if (delayMillis < 0 || (callOptions != null && delayMillis >= callOptions.remainingMillis()) || CancellationSignal.isCurrentCancelled()) {
+                    throw e;
+                }
+                sleep(delayMillis, e);
+                retries.increment();
+            }
+        }
+    }
+
+    private static void sleep(long delayMillis, StarlingBankRequestException failure) throws StarlingBankRequestException {
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.addSuppressed(e);
+            throw failure;
+        }
+    }
+
+    /**
+     * Closes the underlying transport if it holds resources, such as the connections of a {@link PooledHttpClient}.
+     */
+    @Override
+    public void close() throws IOException {
+        if (httpClient instanceof Closeable) {
+            ((Closeable) httpClient).close();
+        }
+    }
+}
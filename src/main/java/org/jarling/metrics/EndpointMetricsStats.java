@@ -0,0 +1,114 @@
+package org.jarling.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ *
+ * Point in time snapshot of the metrics kept by a {@link HistogramMetricsRegistry} for one endpoint.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class EndpointMetricsStats {
+
+    private final String endpointTemplate;
+    private final Map<Timing, LatencyStats> timings;
+    private final long bytesSent;
+    private final long bytesReceived;
+    private final long bytesDecompressed;
+    private final Map<Integer, Long> statusCodes;
+
+    EndpointMetricsStats(String endpointTemplate, Map<Timing, LatencyStats> timings, long bytesSent, long bytesReceived,
+                         long bytesDecompressed, Map<Integer, Long> statusCodes) {
+        this.endpointTemplate = endpointTemplate;
+        this.timings = Collections.unmodifiableMap(timings);
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.bytesDecompressed = bytesDecompressed;
+        this.statusCodes = Collections.unmodifiableMap(statusCodes);
+    }
+
+    public String getEndpointTemplate() {
+        return endpointTemplate;
+    }
+
+    /**
+     * @return the recorded durations of a part of the requests, or null if it has never been recorded
+     */
+    public LatencyStats getTiming(Timing timing) {
+        return timings.get(timing);
+    }
+
+    public Map<Timing, LatencyStats> getTimings() {
+        return timings;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * @return response body bytes as received from the network, compressed or not
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * @return response body bytes once decompressed, which counts uncompressed bodies as they were received
+     */
+    public long getBytesDecompressed() {
+        return bytesDecompressed;
+    }
+
+    /**
+     * @return the bytes compression kept off the network
+     */
+    public long getBytesSaved() {
+        return Math.max(0, bytesDecompressed - bytesReceived);
+    }
+
+    /**
+     * @return the number of responses by status, with -1 for requests that failed before a response was received
+     */
+    public Map<Integer, Long> getStatusCodes() {
+        return statusCodes;
+    }
+
+    /**
+     * @return the number of requests that failed with an error status or without a response
+     */
+    public long getErrors() {
+        long errors = 0;
+        for (Map.Entry<Integer, Long> statusCode : statusCodes.entrySet()){
+            if (statusCode.getKey() < 0 || statusCode.getKey() >= 400){
+                errors += statusCode.getValue();
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * @return the number of requests, whether or not they were answered
+     */
+    public long getRequests() {
+        long requests = 0;
+        for (long count : statusCodes.values()){
+            requests += count;
+        }
+        return requests;
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointMetricsStats{" +
+                "endpointTemplate='" + endpointTemplate + '\'' +
+                ", timings=" + timings +
+                ", bytesSent=" + bytesSent +
+                ", bytesReceived=" + bytesReceived +
+                ", bytesDecompressed=" + bytesDecompressed +
+                ", statusCodes=" + statusCodes +
+                '}';
+    }
+}
@@ -0,0 +1,64 @@
+package org.jarling.metrics;
+
+/**
+ *
+ * Whether jarling's Flight Recorder events, {@link HttpCallEvent} and {@link ModelDecodeEvent}, are enabled in a
+ * running recording. The answer is kept in a field that is updated whenever a recording starts or stops, so that
+ * while no recording wants the events they cost a single branch and are never created.
+ *
+ * Nothing here links against the {@code jdk.jfr} API. The events are only ever enabled on a JVM that has it, where
+ * its side is loaded by reflection, and elsewhere they are never created.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class FlightRecorderEvents {
+
+    static volatile boolean httpCallEnabled;
+    static volatile boolean modelDecodeEnabled;
+
+    private static final Events EVENTS = load();
+
+    private FlightRecorderEvents(){}
+
+    private static Events load(){
+        try {
+            Class.forName("jdk.jfr.FlightRecorderListener");
+            return (Events) Class.forName("org.jarling.metrics.JfrEvents").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    public static boolean isHttpCallEnabled(){
+        return httpCallEnabled;
+    }
+
+    public static boolean isModelDecodeEnabled(){
+        return modelDecodeEnabled;
+    }
+
+    /**
+     * @return a begun event for a request, or null if no recording has it enabled
+     */
+    public static HttpCallEvent beginHttpCall(){
+        return httpCallEnabled ? EVENTS.beginHttpCall() : null;
+    }
+
+    /**
+     * @return a begun event for decoding a response, or null if no recording has it enabled
+     */
+    public static ModelDecodeEvent beginModelDecode(){
+        return modelDecodeEnabled ? EVENTS.beginModelDecode() : null;
+    }
+
+    /**
+     * Creates the events, implemented by the class loaded where the Flight Recorder API is available.
+     */
+    interface Events {
+
+        HttpCallEvent beginHttpCall();
+
+        ModelDecodeEvent beginModelDecode();
+    }
+}
@@ -0,0 +1,121 @@
+package org.jarling.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * {@link MetricsRegistry} that keeps a {@link LatencyHistogram} for each {@link Timing} of each endpoint, along with
+ * byte counts, before and after decompression, and response counts by status. Nothing is locked when recording, so
+ * one registry can be shared by every transport in an application.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class HistogramMetricsRegistry implements MetricsRegistry {
+
+    private static final Timing[] TIMINGS = Timing.values();
+    // Every three digit code an HTTP/1.1 status line can carry
+    private static final int STATUS_CODES = 1000;
+
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private Endpoint endpoint(String endpointTemplate){
+        Endpoint endpoint = endpoints.get(endpointTemplate);
+        return endpoint != null ? endpoint : endpoints.computeIfAbsent(endpointTemplate, template -> new Endpoint());
+    }
+
+    @Override
+    public void recordTiming(String endpointTemplate, Timing timing, long nanos) {
+        endpoint(endpointTemplate).histogram(timing).record(nanos);
+    }
+
+    @Override
+    public void recordBytesSent(String endpointTemplate, long bytes) {
+        endpoint(endpointTemplate).bytesSent.add(bytes);
+    }
+
+    @Override
+    public void recordBytesReceived(String endpointTemplate, long bytes) {
+        endpoint(endpointTemplate).bytesReceived.add(bytes);
+    }
+
+    @Override
+    public void recordBytesDecompressed(String endpointTemplate, long bytes) {
+        endpoint(endpointTemplate).bytesDecompressed.add(bytes);
+    }
+
+    @Override
+    public void recordStatus(String endpointTemplate, int statusCode) {
+        endpoint(endpointTemplate).statusCount(statusCode).increment();
+    }
+
+    /**
+     * @return a snapshot of the metrics of every endpoint requested so far, by endpoint template
+     */
+    public Map<String, EndpointMetricsStats> getStats(){
+        Map<String, EndpointMetricsStats> stats = new TreeMap<>();
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()){
+            Endpoint endpoint = entry.getValue();
+            Map<Timing, LatencyStats> timings = new EnumMap<>(Timing.class);
+            for (Timing timing : TIMINGS){
+                LatencyHistogram histogram = endpoint.histograms.get(timing.ordinal());
+                if (histogram != null){
+                    timings.put(timing, histogram.snapshot());
+                }
+            }
+            Map<Integer, Long> statusCodes = new TreeMap<>();
+            long noResponse = endpoint.noResponse.sum();
+            if (noResponse > 0){
+                statusCodes.put(-1, noResponse);
+            }
+            for (int statusCode = 0; statusCode < STATUS_CODES; statusCode++){
+                LongAdder count = endpoint.statusCodes.get(statusCode);
+                if (count != null){
+                    statusCodes.put(statusCode, count.sum());
+                }
+            }
+            stats.put(entry.getKey(), new EndpointMetricsStats(entry.getKey(), timings, endpoint.bytesSent.sum(), endpoint.bytesReceived.sum(),
+                    endpoint.bytesDecompressed.sum(), statusCodes));
+        }
+        return stats;
+    }
+
+    private static final class Endpoint {
+
+        // Histograms are created on first use, as most endpoints never see some timings, e.g. a TLS handshake
+        private final AtomicReferenceArray<LatencyHistogram> histograms = new AtomicReferenceArray<>(TIMINGS.length);
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LongAdder bytesDecompressed = new LongAdder();
+        // Indexed by the status code itself, so that counting a response boxes nothing
+        private final AtomicReferenceArray<LongAdder> statusCodes = new AtomicReferenceArray<>(STATUS_CODES);
+        private final LongAdder noResponse = new LongAdder();
+
+        LatencyHistogram histogram(Timing timing){
+            LatencyHistogram histogram = histograms.get(timing.ordinal());
+            if (histogram == null){
+                histograms.compareAndSet(timing.ordinal(), null, new LatencyHistogram());
+                histogram = histograms.get(timing.ordinal());
+            }
+            return histogram;
+        }
+
+        LongAdder statusCount(int statusCode){
+            if (statusCode < 0 || statusCode >= STATUS_CODES){
+                return noResponse;
+            }
+            LongAdder count = statusCodes.get(statusCode);
+            if (count == null){
+                statusCodes.compareAndSet(statusCode, null, new LongAdder());
+                count = statusCodes.get(statusCode);
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.jarling.metrics;
+
+/**
+ *
+ * Flight Recorder event for one request to Starling, from the start of the request until its response body has been
+ * read or the request has failed. Begun by the transports with {@link FlightRecorderEvents#beginHttpCall()} only while
+ * a recording has the event enabled, and recorded as {@code org.jarling.HttpCall}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public interface HttpCallEvent {
+
+    void setEndpointTemplate(String endpointTemplate);
+
+    void setMethod(String method);
+
+    /**
+     * @param statusCode the response status, or -1 if the request failed before a response was received
+     */
+    void setStatusCode(int statusCode);
+
+    void setBytesSent(long bytesSent);
+
+    void setBytesReceived(long bytesReceived);
+
+    /**
+     * @param bytesDecompressed the response body once decompressed, the same as the bytes received when it was not
+     */
+    void setBytesDecompressed(long bytesDecompressed);
+
+    void setConnectTime(long connectNanos);
+
+    void setTlsHandshakeTime(long tlsHandshakeNanos);
+
+    void setServerTime(long serverNanos);
+
+    void setBodyReadTime(long bodyReadNanos);
+
+    /**
+     * Ends the event and writes it to the recordings that have it enabled.
+     */
+    void commit();
+}
@@ -0,0 +1,52 @@
+package org.jarling.metrics;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+
+/**
+ *
+ * The Flight Recorder side of {@link FlightRecorderEvents}. This and the {@code Jfr} events are the only classes
+ * that link against the {@code jdk.jfr} API. They are compiled apart from the rest of the library and only loaded,
+ * by reflection, on a JVM that has the API, so the library itself runs on any Java 8 runtime.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+final class JfrEvents implements FlightRecorderEvents.Events, FlightRecorderListener {
+
+    JfrEvents(){
+        FlightRecorder.addListener(this);
+    }
+
+    @Override
+    public HttpCallEvent beginHttpCall() {
+        JfrHttpCallEvent event = new JfrHttpCallEvent();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public ModelDecodeEvent beginModelDecode() {
+        JfrModelDecodeEvent event = new JfrModelDecodeEvent();
+        event.begin();
+        return event;
+    }
+
+    // Called when the listener is added if the recorder is already running, e.g. with -XX:StartFlightRecording
+    @Override
+    public void recorderInitialized(FlightRecorder recorder) {
+        refresh();
+    }
+
+    @Override
+    public void recordingStateChanged(Recording recording) {
+        refresh();
+    }
+
+    private static void refresh(){
+        FlightRecorderEvents.httpCallEnabled = EventType.getEventType(JfrHttpCallEvent.class).isEnabled();
+        FlightRecorderEvents.modelDecodeEnabled = EventType.getEventType(JfrModelDecodeEvent.class).isEnabled();
+    }
+}
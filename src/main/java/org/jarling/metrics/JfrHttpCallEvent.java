@@ -0,0 +1,116 @@
+package org.jarling.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ *
+ * The Flight Recorder event behind {@link HttpCallEvent}. Like everything that links against the Flight Recorder API
+ * it is only loaded by {@link JfrEvents}, once the API is known to be there.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+@Name("org.jarling.HttpCall")
+@Label("Starling API Call")
+@Category({"Jarling"})
+@Description("A request to the Starling Bank API, up to its response body having been read")
+final class JfrHttpCallEvent extends Event implements HttpCallEvent {
+
+    @Label("Endpoint")
+    private String endpointTemplate;
+
+    @Label("Method")
+    private String method;
+
+    @Label("Status")
+    @Description("The response status, or -1 if the request failed before a response was received")
+    private int statusCode;
+
+    @Label("Bytes Sent")
+    @DataAmount
+    private long bytesSent;
+
+    @Label("Bytes Received")
+    @DataAmount
+    private long bytesReceived;
+
+    @Label("Bytes Decompressed")
+    @Description("The response body once decompressed, the same as the bytes received when it was not compressed")
+    @DataAmount
+    private long bytesDecompressed;
+
+    @Label("Connect")
+    @Description("Opening a new TCP connection, if one was opened")
+    @Timespan
+    private long connectTime;
+
+    @Label("TLS Handshake")
+    @Timespan
+    private long tlsHandshakeTime;
+
+    @Label("Server")
+    @Description("From the request having been sent to its response headers having been received")
+    @Timespan
+    private long serverTime;
+
+    @Label("Body Read")
+    @Description("Time spent waiting for the response body to be read")
+    @Timespan
+    private long bodyReadTime;
+
+    @Override
+    public void setEndpointTemplate(String endpointTemplate) {
+        this.endpointTemplate = endpointTemplate;
+    }
+
+    @Override
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    @Override
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    @Override
+    public void setBytesSent(long bytesSent) {
+        this.bytesSent = bytesSent;
+    }
+
+    @Override
+    public void setBytesReceived(long bytesReceived) {
+        this.bytesReceived = bytesReceived;
+    }
+
+    @Override
+    public void setBytesDecompressed(long bytesDecompressed) {
+        this.bytesDecompressed = bytesDecompressed;
+    }
+
+    @Override
+    public void setConnectTime(long connectNanos) {
+        this.connectTime = connectNanos;
+    }
+
+    @Override
+    public void setTlsHandshakeTime(long tlsHandshakeNanos) {
+        this.tlsHandshakeTime = tlsHandshakeNanos;
+    }
+
+    @Override
+    public void setServerTime(long serverNanos) {
+        this.serverTime = serverNanos;
+    }
+
+    @Override
+    public void setBodyReadTime(long bodyReadNanos) {
+        this.bodyReadTime = bodyReadNanos;
+    }
+}
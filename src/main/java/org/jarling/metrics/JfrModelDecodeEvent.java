@@ -0,0 +1,49 @@
+package org.jarling.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ *
+ * The Flight Recorder event behind {@link ModelDecodeEvent}, only loaded by {@link JfrEvents}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+@Name("org.jarling.ModelDecode")
+@Label("Model Decode")
+@Category({"Jarling"})
+@Description("Decoding a Starling Bank API response into models")
+final class JfrModelDecodeEvent extends Event implements ModelDecodeEvent {
+
+    @Label("Model Type")
+    private Class<?> modelType;
+
+    @Label("Elements")
+    @Description("The number of models decoded")
+    private int elements;
+
+    @Label("Decode Time")
+    @Description("The duration, not counting time spent waiting for the response body to be read")
+    @Timespan
+    private long decodeTime;
+
+    @Override
+    public void setModelType(Class<?> modelType) {
+        this.modelType = modelType;
+    }
+
+    @Override
+    public void setElements(int elements) {
+        this.elements = elements;
+    }
+
+    @Override
+    public void setDecodeTime(long decodeNanos) {
+        this.decodeTime = decodeNanos;
+    }
+}
@@ -0,0 +1,68 @@
+package org.jarling.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * Histogram of durations that can be recorded into from many threads without locking. Like an HdrHistogram, it
+ * counts microseconds in buckets whose width grows with the value, in steps of 32 per power of two: values below
+ * 64µs are counted exactly and larger ones to within about 3%. Recording is an increment of one array slot, so a
+ * histogram costs a fixed 7KB however many values it holds.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Durations of 2^32µs (over an hour) and longer are counted in the last bucket
+    private static final long MAX_MICROS = (1L << 32) - 1;
+    private static final int BUCKETS = index(MAX_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalMicros = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos){
+        long micros = Math.min(MAX_MICROS, Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        counts.incrementAndGet(index(micros));
+        totalMicros.add(micros);
+        maxMicros.accumulate(micros);
+    }
+
+    /**
+     * @return a copy of the counts recorded so far; values recorded while it is taken may or may not be included
+     */
+    public LatencyStats snapshot(){
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++){
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new LatencyStats(copy, count, totalMicros.sum(), maxMicros.get());
+    }
+
+    // Values below 2 * SUB_BUCKETS have a bucket each; above that each power of two is split into SUB_BUCKETS buckets
+    static int index(long micros){
+        if (micros < 2 * SUB_BUCKETS){
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (micros >>> shift);
+    }
+
+    // The largest value counted in a bucket
+    static long highestValue(int index){
+        if (index < 2 * SUB_BUCKETS){
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (index & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
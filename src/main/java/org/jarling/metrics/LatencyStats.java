@@ -0,0 +1,69 @@
+package org.jarling.metrics;
+
+/**
+ *
+ * Point in time snapshot of a {@link LatencyHistogram}. Durations are in microseconds.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class LatencyStats {
+
+    private final long[] counts;
+    private final long count;
+    private final long totalMicros;
+    private final long maxMicros;
+
+    LatencyStats(long[] counts, long count, long totalMicros, long maxMicros) {
+        this.counts = counts;
+        this.count = count;
+        this.totalMicros = totalMicros;
+        this.maxMicros = maxMicros;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMeanMicros() {
+        return count == 0 ? 0 : totalMicros / count;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    /**
+     * @param percentile e.g. 99.9
+     * @return the duration that the given percentage of recorded durations did not exceed, to within about 3%, or 0
+     *         if none have been recorded
+     */
+    public long getPercentileMicros(double percentile){
+        if (percentile < 0 || percentile > 100){
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        if (count == 0){
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++){
+            seen += counts[i];
+            if (seen >= rank){
+                return Math.min(maxMicros, LatencyHistogram.highestValue(i));
+            }
+        }
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyStats{" +
+                "count=" + count +
+                ", meanMicros=" + getMeanMicros() +
+                ", p50Micros=" + getPercentileMicros(50) +
+                ", p99Micros=" + getPercentileMicros(99) +
+                ", maxMicros=" + maxMicros +
+                '}';
+    }
+}
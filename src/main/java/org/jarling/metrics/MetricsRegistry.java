@@ -0,0 +1,47 @@
+package org.jarling.metrics;
+
+/**
+ *
+ * Receives the measurements jarling takes of each request, keyed by endpoint template, e.g.
+ * {@code /transactions/mastercard/{id}}. {@link HistogramMetricsRegistry} keeps them in histograms and counters;
+ * implement this interface to pass them on to a monitoring system instead, or as well.
+ *
+ * Methods are called on the threads making requests, often concurrently, so implementations must be thread safe and
+ * should return quickly.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public interface MetricsRegistry {
+
+    /**
+     * @param endpointTemplate the endpoint the request was sent to
+     * @param timing the part of the request that was timed
+     * @param nanos how long that part took
+     */
+    void recordTiming(String endpointTemplate, Timing timing, long nanos);
+
+    /**
+     * @param bytes the size of a request body that was sent
+     */
+    void recordBytesSent(String endpointTemplate, long bytes);
+
+    /**
+     * @param bytes the number of response body bytes that were read
+     */
+    void recordBytesReceived(String endpointTemplate, long bytes);
+
+    /**
+     * Recorded along with {@link #recordBytesReceived}, so that the two can be compared to see the bandwidth saved by
+     * compression. Does nothing unless implemented, so registries written before it was added still work.
+     * @param bytes the number of response body bytes read after decompressing them, the same as the bytes received
+     *              when the body was not compressed
+     */
+    default void recordBytesDecompressed(String endpointTemplate, long bytes) {
+    }
+
+    /**
+     * @param statusCode the status of a response, or -1 when the request failed before a response was received
+     */
+    void recordStatus(String endpointTemplate, int statusCode);
+}
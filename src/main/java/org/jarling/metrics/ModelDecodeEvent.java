@@ -0,0 +1,30 @@
+package org.jarling.metrics;
+
+/**
+ *
+ * Flight Recorder event for decoding one response into models. Begun with
+ * {@link FlightRecorderEvents#beginModelDecode()} only while a recording has the event enabled, and recorded as
+ * {@code org.jarling.ModelDecode}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public interface ModelDecodeEvent {
+
+    void setModelType(Class<?> modelType);
+
+    /**
+     * @param elements the number of models decoded
+     */
+    void setElements(int elements);
+
+    /**
+     * @param decodeNanos the duration, not counting time spent waiting for the response body to be read
+     */
+    void setDecodeTime(long decodeNanos);
+
+    /**
+     * Ends the event and writes it to the recordings that have it enabled.
+     */
+    void commit();
+}
@@ -0,0 +1,45 @@
+package org.jarling.metrics;
+
+/**
+ *
+ * The parts of a request that are timed, so that slow calls can be put down to the network, Starling or jarling.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public enum Timing {
+
+    /**
+     * Opening a TCP connection, recorded only for requests that open one. With a
+     * {@link org.jarling.http.BasicHttpsClient} this includes the TLS handshake, and is close to nothing when the JDK
+     * reuses one of its own kept-alive connections.
+     */
+    CONNECT,
+
+    /**
+     * The TLS handshake of a new {@link org.jarling.http.PooledHttpClient} connection.
+     */
+    TLS_HANDSHAKE,
+
+    /**
+     * From the request having been sent to its response headers having been received: time spent by Starling and on
+     * the network.
+     */
+    SERVER,
+
+    /**
+     * From the start of the request to its response headers having been received, including any wait for a
+     * connection.
+     */
+    ROUND_TRIP,
+
+    /**
+     * Time spent waiting for the response body to be read.
+     */
+    BODY_READ,
+
+    /**
+     * Time spent decoding the response body into models, not counting {@link #BODY_READ}.
+     */
+    DECODE
+}
@@ -11,14 +11,14 @@ import java.util.Date;
  */
 public class Account {
 
-    private String bic;
-    private Date createdAt;
-    private String currency;
-    private String iban;
-    private String id;
-    private String name;
-    private String number;
-    private String sortCode;
+    String bic;
+    Date createdAt;
+    String currency;
+    String iban;
+    String id;
+    String name;
+    String number;
+    String sortCode;
 
     public String getBic() {
         return bic;
@@ -11,13 +11,13 @@ import java.math.BigDecimal;
  */
 public class AccountBalance{
 
-    private BigDecimal  acceptedOverdraft;
-    private BigDecimal  amount;
-    private BigDecimal  availableToSpend;
-    private BigDecimal  clearedBalance;
-    private String      currency;
-    private BigDecimal  effectiveBalance;
-    private BigDecimal  pendingTransactions;
+    BigDecimal  acceptedOverdraft;
+    BigDecimal  amount;
+    BigDecimal  availableToSpend;
+    BigDecimal  clearedBalance;
+    String      currency;
+    BigDecimal  effectiveBalance;
+    BigDecimal  pendingTransactions;
 
     public BigDecimal getAcceptedOverdraft() {
         return acceptedOverdraft;
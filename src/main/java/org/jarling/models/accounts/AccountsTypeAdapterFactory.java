@@ -0,0 +1,181 @@
+package org.jarling.models.accounts;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.gson.JsonValues;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ *
+ * Reflection-free Gson type adapters for the models in this package.
+ * Generated by ModelTypeAdapterGenerator, do not edit by hand.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class AccountsTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Account.class){
+            return (TypeAdapter<T>) new AccountAdapter(gson);
+        }
+        if (rawType == AccountBalance.class){
+            return (TypeAdapter<T>) new AccountBalanceAdapter();
+        }
+        return null;
+    }
+
+    static final class AccountAdapter extends TypeAdapter<Account> {
+
+        private final TypeAdapter<Date> dateAdapter;
+
+        AccountAdapter(Gson gson){
+            this.dateAdapter = gson.getAdapter(Date.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Account value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("bic");
+            out.value(value.bic);
+            out.name("createdAt");
+            dateAdapter.write(out, value.createdAt);
+            out.name("currency");
+            out.value(value.currency);
+            out.name("iban");
+            out.value(value.iban);
+            out.name("id");
+            out.value(value.id);
+            out.name("name");
+            out.value(value.name);
+            out.name("number");
+            out.value(value.number);
+            out.name("sortCode");
+            out.value(value.sortCode);
+            out.endObject();
+        }
+
+        @Override
+        public Account read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            Account value = new Account();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "bic":
+                        value.bic = JsonValues.readString(in);
+                        break;
+                    case "createdAt":
+                        value.createdAt = dateAdapter.read(in);
+                        break;
+                    case "currency":
+                        value.currency = JsonValues.readString(in);
+                        break;
+                    case "iban":
+                        value.iban = JsonValues.readString(in);
+                        break;
+                    case "id":
+                        value.id = JsonValues.readString(in);
+                        break;
+                    case "name":
+                        value.name = JsonValues.readString(in);
+                        break;
+                    case "number":
+                        value.number = JsonValues.readString(in);
+                        break;
+                    case "sortCode":
+                        value.sortCode = JsonValues.readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class AccountBalanceAdapter extends TypeAdapter<AccountBalance> {
+
+        @Override
+        public void write(JsonWriter out, AccountBalance value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("acceptedOverdraft");
+            out.value(value.acceptedOverdraft);
+            out.name("amount");
+            out.value(value.amount);
+            out.name("availableToSpend");
+            out.value(value.availableToSpend);
+            out.name("clearedBalance");
+            out.value(value.clearedBalance);
+            out.name("currency");
+            out.value(value.currency);
+            out.name("effectiveBalance");
+            out.value(value.effectiveBalance);
+            out.name("pendingTransactions");
+            out.value(value.pendingTransactions);
+            out.endObject();
+        }
+
+        @Override
+        public AccountBalance read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            AccountBalance value = new AccountBalance();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "acceptedOverdraft":
+                        value.acceptedOverdraft = JsonValues.readBigDecimal(in);
+                        break;
+                    case "amount":
+                        value.amount = JsonValues.readBigDecimal(in);
+                        break;
+                    case "availableToSpend":
+                        value.availableToSpend = JsonValues.readBigDecimal(in);
+                        break;
+                    case "clearedBalance":
+                        value.clearedBalance = JsonValues.readBigDecimal(in);
+                        break;
+                    case "currency":
+                        value.currency = JsonValues.readString(in);
+                        break;
+                    case "effectiveBalance":
+                        value.effectiveBalance = JsonValues.readBigDecimal(in);
+                        break;
+                    case "pendingTransactions":
+                        value.pendingTransactions = JsonValues.readBigDecimal(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+}
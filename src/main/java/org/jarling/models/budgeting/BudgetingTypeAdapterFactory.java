@@ -0,0 +1,27 @@
+package org.jarling.models.budgeting;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+/**
+ *
+ * Reflection-free Gson type adapters for the models in this package.
+ * Generated by ModelTypeAdapterGenerator, do not edit by hand.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class BudgetingTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == SavingsGoal.class){
+            return (TypeAdapter<T>) new SavingsGoalTypeAdapter(gson);
+        }
+        return null;
+    }
+}
@@ -12,11 +12,11 @@ import org.jarling.models.gson.SavingsGoalDeserialzer;
 @JsonAdapter(SavingsGoalDeserialzer.class)
 public class SavingsGoal {
 
-    private String uid;
-    private String name;
-    private CurrencyAndAmount target;
-    private CurrencyAndAmount totalSaved;
-    private Integer savedPercentage;
+    String uid;
+    String name;
+    CurrencyAndAmount target;
+    CurrencyAndAmount totalSaved;
+    Integer savedPercentage;
 
     public String getUid() {
         return uid;
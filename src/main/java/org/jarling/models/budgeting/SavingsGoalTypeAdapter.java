@@ -0,0 +1,135 @@
+package org.jarling.models.budgeting;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.common.CurrencyAndAmount;
+import org.jarling.models.gson.JsonValues;
+
+import java.io.IOException;
+
+/**
+ *
+ * Streaming replacement for {@link org.jarling.models.gson.SavingsGoalDeserialzer}, filling in the same defaults
+ * for members missing from the response.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+final class SavingsGoalTypeAdapter extends TypeAdapter<SavingsGoal> {
+
+    private final TypeAdapter<CurrencyAndAmount> currencyAndAmount;
+
+    SavingsGoalTypeAdapter(Gson gson){
+        this.currencyAndAmount = gson.getAdapter(CurrencyAndAmount.class);
+    }
+
+    @Override
+    public void write(JsonWriter out, SavingsGoal value) throws IOException {
+        if (value == null){
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("uid");
+        out.value(value.uid);
+        out.name("name");
+        out.value(value.name);
+        out.name("target");
+        currencyAndAmount.write(out, value.target);
+        out.name("totalSaved");
+        currencyAndAmount.write(out, value.totalSaved);
+        out.name("savedPercentage");
+        out.value(value.savedPercentage);
+        out.endObject();
+    }
+
+    @Override
+    public SavingsGoal read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL){
+            in.nextNull();
+            return null;
+        }
+        SavingsGoal value = new SavingsGoal();
+        boolean hasUid = false;
+        boolean hasName = false;
+        boolean hasSavedPercentage = false;
+        String photoHref = null;
+        in.beginObject();
+        while (in.hasNext()){
+            switch (in.nextName()){
+                case "uid":
+                    value.uid = JsonValues.readString(in);
+                    hasUid = true;
+                    break;
+                case "name":
+                    value.name = JsonValues.readString(in);
+                    hasName = true;
+                    break;
+                case "savedPercentage":
+                    value.savedPercentage = JsonValues.readInteger(in);
+                    hasSavedPercentage = true;
+                    break;
+                case "totalSaved":
+                    value.totalSaved = currencyAndAmount.read(in);
+                    break;
+                case "target":
+                    value.target = currencyAndAmount.read(in);
+                    break;
+                case "_links":
+                    photoHref = readPhotoHref(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        //Not sure if this is Starling API design, but if the UID is null, attempt to get it from the photo link.
+        if (!hasUid && photoHref != null){
+            value.uid = photoHref.replace("api/v1/savings-goals/", "").replace("/photo", "");
+        }
+        if (!hasName){
+            value.name = "";
+        }
+        if (!hasSavedPercentage){
+            value.savedPercentage = 0;
+        }
+        if (value.totalSaved == null){
+            value.totalSaved = new CurrencyAndAmount();
+        }
+        if (value.target == null){
+            value.target = new CurrencyAndAmount();
+        }
+        return value;
+    }
+
+    // Reads _links.photo.href, skipping every other link
+    private static String readPhotoHref(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_OBJECT){
+            in.skipValue();
+            return null;
+        }
+        String href = null;
+        in.beginObject();
+        while (in.hasNext()){
+            if (in.nextName().equals("photo") && in.peek() == JsonToken.BEGIN_OBJECT){
+                in.beginObject();
+                while (in.hasNext()){
+                    if (in.nextName().equals("href")){
+                        href = JsonValues.readString(in);
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                in.endObject();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return href;
+    }
+}
@@ -11,12 +11,12 @@ import java.util.Date;
  */
 public class Card {
 
-    private Boolean activated;
-    private Boolean activationRequested;
-    private Date dispatchDate;
-    private String id;
-    private String nameOnCard;
-    private CardType type;
+    Boolean activated;
+    Boolean activationRequested;
+    Date dispatchDate;
+    String id;
+    String nameOnCard;
+    CardType type;
 
     public Boolean getActivated() {
         return activated;
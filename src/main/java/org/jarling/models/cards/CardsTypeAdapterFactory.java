@@ -0,0 +1,130 @@
+package org.jarling.models.cards;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.gson.JsonValues;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ *
+ * Reflection-free Gson type adapters for the models in this package.
+ * Generated by ModelTypeAdapterGenerator, do not edit by hand.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class CardsTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Card.class){
+            return (TypeAdapter<T>) new CardAdapter(gson);
+        }
+        if (rawType == CardType.class){
+            return (TypeAdapter<T>) new CardTypeAdapter();
+        }
+        return null;
+    }
+
+    static final class CardAdapter extends TypeAdapter<Card> {
+
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<CardType> cardTypeAdapter;
+
+        CardAdapter(Gson gson){
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.cardTypeAdapter = gson.getAdapter(CardType.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Card value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("activated");
+            out.value(value.activated);
+            out.name("activationRequested");
+            out.value(value.activationRequested);
+            out.name("dispatchDate");
+            dateAdapter.write(out, value.dispatchDate);
+            out.name("id");
+            out.value(value.id);
+            out.name("nameOnCard");
+            out.value(value.nameOnCard);
+            out.name("type");
+            cardTypeAdapter.write(out, value.type);
+            out.endObject();
+        }
+
+        @Override
+        public Card read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            Card value = new Card();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "activated":
+                        value.activated = JsonValues.readBoolean(in);
+                        break;
+                    case "activationRequested":
+                        value.activationRequested = JsonValues.readBoolean(in);
+                        break;
+                    case "dispatchDate":
+                        value.dispatchDate = dateAdapter.read(in);
+                        break;
+                    case "id":
+                        value.id = JsonValues.readString(in);
+                        break;
+                    case "nameOnCard":
+                        value.nameOnCard = JsonValues.readString(in);
+                        break;
+                    case "type":
+                        value.type = cardTypeAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class CardTypeAdapter extends TypeAdapter<CardType> {
+
+        @Override
+        public void write(JsonWriter out, CardType value) throws IOException {
+            out.value(value == null ? null : value.name());
+        }
+
+        @Override
+        public CardType read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            switch (in.nextString()){
+                case "CONTACTLESS_DEBIT_MASTERCARD":
+                    return CardType.CONTACTLESS_DEBIT_MASTERCARD;
+                case "NONE":
+                    return CardType.NONE;
+                default:
+                    return null;
+            }
+        }
+    }
+}
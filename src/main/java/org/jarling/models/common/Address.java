@@ -9,10 +9,10 @@ package org.jarling.models.common;
  */
 public class Address {
 
-    private String city;
-    private String country;
-    private String postcode;
-    private String streetAddress;
+    String city;
+    String country;
+    String postcode;
+    String streetAddress;
 
     public String getCity() {
         return city;
@@ -13,8 +13,8 @@ import org.jarling.models.gson.AddressesDeserializer;
 @JsonAdapter(AddressesDeserializer.class)
 public class Addresses {
 
-    private Address current;
-    private Address previous;
+    Address current;
+    Address previous;
 
     public Address getCurrent() {
         return current;
@@ -0,0 +1,88 @@
+package org.jarling.models.common;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ *
+ * Streaming replacement for {@link org.jarling.models.gson.AddressesDeserializer}. The previous address is sent
+ * as an array of previous addresses that may be blank, of which only the first is kept.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+final class AddressesTypeAdapter extends TypeAdapter<Addresses> {
+
+    private final TypeAdapter<Address> address;
+
+    AddressesTypeAdapter(Gson gson){
+        this.address = gson.getAdapter(Address.class);
+    }
+
+    @Override
+    public void write(JsonWriter out, Addresses value) throws IOException {
+        if (value == null){
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("current");
+        address.write(out, value.current);
+        out.name("previous");
+        address.write(out, value.previous);
+        out.endObject();
+    }
+
+    @Override
+    public Addresses read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL){
+            in.nextNull();
+            return null;
+        }
+        Addresses value = new Addresses();
+        in.beginObject();
+        while (in.hasNext()){
+            switch (in.nextName()){
+                case "current":
+                    value.current = address.read(in);
+                    break;
+                case "previous":
+                    value.previous = readFirst(in);
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (value.current == null){
+            value.current = new Address();
+        }
+        if (value.previous == null){
+            value.previous = new Address();
+        }
+        return value;
+    }
+
+    private Address readFirst(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY){
+            return address.read(in);
+        }
+        Address first = null;
+        in.beginArray();
+        while (in.hasNext()){
+            if (first == null){
+                first = address.read(in);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endArray();
+        return first;
+    }
+}
@@ -7,7 +7,9 @@ package org.jarling.models.common;
  */
 public class Amount {
 
-    private CurrencyAndAmount amount;
+    CurrencyAndAmount amount;
+
+    Amount(){}
 
     public Amount(CurrencyAndAmount amount){
         this.amount = amount;
@@ -0,0 +1,458 @@
+package org.jarling.models.common;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.gson.JsonValues;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.List;
+
+/**
+ *
+ * Reflection-free Gson type adapters for the models in this package.
+ * Generated by ModelTypeAdapterGenerator, do not edit by hand.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class CommonTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Address.class){
+            return (TypeAdapter<T>) new AddressAdapter();
+        }
+        if (rawType == Addresses.class){
+            return (TypeAdapter<T>) new AddressesTypeAdapter(gson);
+        }
+        if (rawType == Amount.class){
+            return (TypeAdapter<T>) new AmountAdapter(gson);
+        }
+        if (rawType == CurrencyAndAmount.class){
+            return (TypeAdapter<T>) new CurrencyAndAmountAdapter();
+        }
+        if (rawType == DayOfWeek.class){
+            return (TypeAdapter<T>) new DayOfWeekAdapter();
+        }
+        if (rawType == Direction.class){
+            return (TypeAdapter<T>) new DirectionAdapter();
+        }
+        if (rawType == Frequency.class){
+            return (TypeAdapter<T>) new FrequencyAdapter();
+        }
+        if (rawType == Photo.class){
+            return (TypeAdapter<T>) new PhotoAdapter();
+        }
+        if (rawType == RecurrenceRule.class){
+            return (TypeAdapter<T>) new RecurrenceRuleAdapter(gson);
+        }
+        if (rawType == RecurringTransfer.class){
+            return (TypeAdapter<T>) new RecurringTransferAdapter(gson);
+        }
+        return null;
+    }
+
+    static final class AddressAdapter extends TypeAdapter<Address> {
+
+        @Override
+        public void write(JsonWriter out, Address value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("city");
+            out.value(value.city);
+            out.name("country");
+            out.value(value.country);
+            out.name("postcode");
+            out.value(value.postcode);
+            out.name("streetAddress");
+            out.value(value.streetAddress);
+            out.endObject();
+        }
+
+        @Override
+        public Address read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            Address value = new Address();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "city":
+                        value.city = JsonValues.readString(in);
+                        break;
+                    case "country":
+                        value.country = JsonValues.readString(in);
+                        break;
+                    case "postcode":
+                        value.postcode = JsonValues.readString(in);
+                        break;
+                    case "streetAddress":
+                        value.streetAddress = JsonValues.readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class AmountAdapter extends TypeAdapter<Amount> {
+
+        private final TypeAdapter<CurrencyAndAmount> currencyAndAmountAdapter;
+
+        AmountAdapter(Gson gson){
+            this.currencyAndAmountAdapter = gson.getAdapter(CurrencyAndAmount.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Amount value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("amount");
+            currencyAndAmountAdapter.write(out, value.amount);
+            out.endObject();
+        }
+
+        @Override
+        public Amount read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            Amount value = new Amount();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "amount":
+                        value.amount = currencyAndAmountAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class CurrencyAndAmountAdapter extends TypeAdapter<CurrencyAndAmount> {
+
+        @Override
+        public void write(JsonWriter out, CurrencyAndAmount value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("currency");
+            out.value(value.currency);
+            out.name("minorUnits");
+            out.value(value.minorUnits);
+            out.endObject();
+        }
+
+        @Override
+        public CurrencyAndAmount read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            CurrencyAndAmount value = new CurrencyAndAmount();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "currency":
+                        value.currency = JsonValues.readString(in);
+                        break;
+                    case "minorUnits":
+                        value.minorUnits = JsonValues.readBigDecimal(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class DayOfWeekAdapter extends TypeAdapter<DayOfWeek> {
+
+        @Override
+        public void write(JsonWriter out, DayOfWeek value) throws IOException {
+            out.value(value == null ? null : value.name());
+        }
+
+        @Override
+        public DayOfWeek read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            switch (in.nextString()){
+                case "MONDAY":
+                    return DayOfWeek.MONDAY;
+                case "TUESDAY":
+                    return DayOfWeek.TUESDAY;
+                case "WEDNESDAY":
+                    return DayOfWeek.WEDNESDAY;
+                case "THURSDAY":
+                    return DayOfWeek.THURSDAY;
+                case "FRIDAY":
+                    return DayOfWeek.FRIDAY;
+                case "SATURDAY":
+                    return DayOfWeek.SATURDAY;
+                case "SUNDAY":
+                    return DayOfWeek.SUNDAY;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    static final class DirectionAdapter extends TypeAdapter<Direction> {
+
+        @Override
+        public void write(JsonWriter out, Direction value) throws IOException {
+            out.value(value == null ? null : value.name());
+        }
+
+        @Override
+        public Direction read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            switch (in.nextString()){
+                case "INBOUND":
+                    return Direction.INBOUND;
+                case "OUTBOUND":
+                    return Direction.OUTBOUND;
+                case "NONE":
+                    return Direction.NONE;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    static final class FrequencyAdapter extends TypeAdapter<Frequency> {
+
+        @Override
+        public void write(JsonWriter out, Frequency value) throws IOException {
+            out.value(value == null ? null : value.name());
+        }
+
+        @Override
+        public Frequency read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            switch (in.nextString()){
+                case "DAILY":
+                    return Frequency.DAILY;
+                case "WEEKLY":
+                    return Frequency.WEEKLY;
+                case "MONTHLY":
+                    return Frequency.MONTHLY;
+                case "YEARLY":
+                    return Frequency.YEARLY;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    static final class PhotoAdapter extends TypeAdapter<Photo> {
+
+        @Override
+        public void write(JsonWriter out, Photo value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("base64EncodedPhoto");
+            out.value(value.base64EncodedPhoto);
+            out.endObject();
+        }
+
+        @Override
+        public Photo read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            Photo value = new Photo();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "base64EncodedPhoto":
+                        value.base64EncodedPhoto = JsonValues.readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class RecurrenceRuleAdapter extends TypeAdapter<RecurrenceRule> {
+
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<Frequency> frequencyAdapter;
+        private final TypeAdapter<DayOfWeek> dayOfWeekAdapter;
+        private final TypeAdapter<List<DayOfWeek>> dayOfWeekListAdapter;
+
+        RecurrenceRuleAdapter(Gson gson){
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.frequencyAdapter = gson.getAdapter(Frequency.class);
+            this.dayOfWeekAdapter = gson.getAdapter(DayOfWeek.class);
+            this.dayOfWeekListAdapter = gson.getAdapter(new TypeToken<List<DayOfWeek>>(){});
+        }
+
+        @Override
+        public void write(JsonWriter out, RecurrenceRule value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("startDate");
+            dateAdapter.write(out, value.startDate);
+            out.name("frequency");
+            frequencyAdapter.write(out, value.frequency);
+            out.name("interval");
+            out.value(value.interval);
+            out.name("count");
+            out.value(value.count);
+            out.name("untilDate");
+            dateAdapter.write(out, value.untilDate);
+            out.name("weekStart");
+            dayOfWeekAdapter.write(out, value.weekStart);
+            out.name("days");
+            dayOfWeekListAdapter.write(out, value.days);
+            out.name("monthDay");
+            out.value(value.monthDay);
+            out.name("monthWeek");
+            out.value(value.monthWeek);
+            out.endObject();
+        }
+
+        @Override
+        public RecurrenceRule read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            RecurrenceRule value = new RecurrenceRule();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "startDate":
+                        value.startDate = dateAdapter.read(in);
+                        break;
+                    case "frequency":
+                        value.frequency = frequencyAdapter.read(in);
+                        break;
+                    case "interval":
+                        value.interval = JsonValues.readInteger(in);
+                        break;
+                    case "count":
+                        value.count = JsonValues.readInteger(in);
+                        break;
+                    case "untilDate":
+                        value.untilDate = dateAdapter.read(in);
+                        break;
+                    case "weekStart":
+                        value.weekStart = dayOfWeekAdapter.read(in);
+                        break;
+                    case "days":
+                        value.days = dayOfWeekListAdapter.read(in);
+                        break;
+                    case "monthDay":
+                        value.monthDay = JsonValues.readInteger(in);
+                        break;
+                    case "monthWeek":
+                        value.monthWeek = JsonValues.readInteger(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class RecurringTransferAdapter extends TypeAdapter<RecurringTransfer> {
+
+        private final TypeAdapter<RecurrenceRule> recurrenceRuleAdapter;
+        private final TypeAdapter<CurrencyAndAmount> currencyAndAmountAdapter;
+
+        RecurringTransferAdapter(Gson gson){
+            this.recurrenceRuleAdapter = gson.getAdapter(RecurrenceRule.class);
+            this.currencyAndAmountAdapter = gson.getAdapter(CurrencyAndAmount.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, RecurringTransfer value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("recurrenceRule");
+            recurrenceRuleAdapter.write(out, value.recurrenceRule);
+            out.name("currencyAndAmount");
+            currencyAndAmountAdapter.write(out, value.currencyAndAmount);
+            out.endObject();
+        }
+
+        @Override
+        public RecurringTransfer read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            RecurringTransfer value = new RecurringTransfer();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "recurrenceRule":
+                        value.recurrenceRule = recurrenceRuleAdapter.read(in);
+                        break;
+                    case "currencyAndAmount":
+                        value.currencyAndAmount = currencyAndAmountAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+}
@@ -9,8 +9,8 @@ import java.math.BigDecimal;
  */
 public class CurrencyAndAmount {
 
-    private String currency = "";
-    private BigDecimal minorUnits = new BigDecimal(0);
+    String currency = "";
+    BigDecimal minorUnits = new BigDecimal(0);
 
     public CurrencyAndAmount(){}
 
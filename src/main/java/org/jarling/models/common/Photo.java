@@ -10,7 +10,9 @@ import javax.xml.bind.DatatypeConverter;
  *
  */
 public class Photo {
-    private String base64EncodedPhoto = "";
+    String base64EncodedPhoto = "";
+
+    Photo(){}
 
     public Photo(String encodedPhoto) {
         assert base64EncodedPhoto != null;
@@ -10,15 +10,17 @@ import java.util.List;
  *
  */
 public class RecurrenceRule {
-    private final Date startDate;
-    private final Frequency frequency;
-    private final Integer interval;
-    private final Integer count;
-    private final Date untilDate;
-    private final DayOfWeek weekStart;
-    private final List<DayOfWeek> days;
-    private final Integer monthDay;
-    private final Integer monthWeek;
+    Date startDate;
+    Frequency frequency;
+    Integer interval;
+    Integer count;
+    Date untilDate;
+    DayOfWeek weekStart;
+    List<DayOfWeek> days;
+    Integer monthDay;
+    Integer monthWeek;
+
+    RecurrenceRule(){}
 
     public RecurrenceRule(Date startDate, Frequency frequency, Integer interval, Integer count, Date untilDate, DayOfWeek weekStart, List<DayOfWeek> days, Integer monthDay, Integer monthWeek) {
         this.startDate = startDate;
@@ -8,8 +8,8 @@ package org.jarling.models.common;
  */
 public class RecurringTransfer {
 
-    private RecurrenceRule recurrenceRule;
-    private CurrencyAndAmount currencyAndAmount;
+    RecurrenceRule recurrenceRule;
+    CurrencyAndAmount currencyAndAmount;
 
     public RecurringTransfer(){}
 
@@ -8,8 +8,8 @@ package org.jarling.models.contacts;
  *
  */
 public class Contact {
-    private String id;
-    private String name;
+    String id;
+    String name;
 
     public String getId() {
         return id;
@@ -8,11 +8,13 @@ package org.jarling.models.contacts;
  *
  */
 public class ContactAccount {
-    private final String accountNumber;
-    private String id;
-    private final String name;
-    private final String sortCode;
-    private final ContactAccountType type;
+    String accountNumber;
+    String id;
+    String name;
+    String sortCode;
+    ContactAccountType type;
+
+    ContactAccount(){}
 
     public ContactAccount(String name, String sortCode, String accountNumber, ContactAccountType contactAccountType){
         this.name = name;
@@ -0,0 +1,164 @@
+package org.jarling.models.contacts;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.gson.JsonValues;
+
+import java.io.IOException;
+
+/**
+ *
+ * Reflection-free Gson type adapters for the models in this package.
+ * Generated by ModelTypeAdapterGenerator, do not edit by hand.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class ContactsTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Contact.class){
+            return (TypeAdapter<T>) new ContactAdapter();
+        }
+        if (rawType == ContactAccount.class){
+            return (TypeAdapter<T>) new ContactAccountAdapter(gson);
+        }
+        if (rawType == ContactAccountType.class){
+            return (TypeAdapter<T>) new ContactAccountTypeAdapter();
+        }
+        return null;
+    }
+
+    static final class ContactAdapter extends TypeAdapter<Contact> {
+
+        @Override
+        public void write(JsonWriter out, Contact value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id");
+            out.value(value.id);
+            out.name("name");
+            out.value(value.name);
+            out.endObject();
+        }
+
+        @Override
+        public Contact read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            Contact value = new Contact();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "id":
+                        value.id = JsonValues.readString(in);
+                        break;
+                    case "name":
+                        value.name = JsonValues.readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class ContactAccountAdapter extends TypeAdapter<ContactAccount> {
+
+        private final TypeAdapter<ContactAccountType> contactAccountTypeAdapter;
+
+        ContactAccountAdapter(Gson gson){
+            this.contactAccountTypeAdapter = gson.getAdapter(ContactAccountType.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, ContactAccount value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("accountNumber");
+            out.value(value.accountNumber);
+            out.name("id");
+            out.value(value.id);
+            out.name("name");
+            out.value(value.name);
+            out.name("sortCode");
+            out.value(value.sortCode);
+            out.name("type");
+            contactAccountTypeAdapter.write(out, value.type);
+            out.endObject();
+        }
+
+        @Override
+        public ContactAccount read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            ContactAccount value = new ContactAccount();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "accountNumber":
+                        value.accountNumber = JsonValues.readString(in);
+                        break;
+                    case "id":
+                        value.id = JsonValues.readString(in);
+                        break;
+                    case "name":
+                        value.name = JsonValues.readString(in);
+                        break;
+                    case "sortCode":
+                        value.sortCode = JsonValues.readString(in);
+                        break;
+                    case "type":
+                        value.type = contactAccountTypeAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class ContactAccountTypeAdapter extends TypeAdapter<ContactAccountType> {
+
+        @Override
+        public void write(JsonWriter out, ContactAccountType value) throws IOException {
+            out.value(value == null ? null : value.name());
+        }
+
+        @Override
+        public ContactAccountType read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            switch (in.nextString()){
+                case "UK_ACCOUNT_AND_SORT_CODE":
+                    return ContactAccountType.UK_ACCOUNT_AND_SORT_CODE;
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -8,12 +8,12 @@ package org.jarling.models.customers;
  *
  */
 public class Customer {
-    private String customerUid;
-    private String dateOfBirth;
-    private String email;
-    private String firstName;
-    private String lastName;
-    private String phone;
+    String customerUid;
+    String dateOfBirth;
+    String email;
+    String firstName;
+    String lastName;
+    String phone;
 
     public String getCustomerUid() {
         return customerUid;
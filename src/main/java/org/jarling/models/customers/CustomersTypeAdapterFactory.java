@@ -0,0 +1,162 @@
+package org.jarling.models.customers;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.gson.JsonValues;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ *
+ * Reflection-free Gson type adapters for the models in this package.
+ * Generated by ModelTypeAdapterGenerator, do not edit by hand.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class CustomersTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Customer.class){
+            return (TypeAdapter<T>) new CustomerAdapter();
+        }
+        if (rawType == WhoAmI.class){
+            return (TypeAdapter<T>) new WhoAmIAdapter(gson);
+        }
+        return null;
+    }
+
+    static final class CustomerAdapter extends TypeAdapter<Customer> {
+
+        @Override
+        public void write(JsonWriter out, Customer value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("customerUid");
+            out.value(value.customerUid);
+            out.name("dateOfBirth");
+            out.value(value.dateOfBirth);
+            out.name("email");
+            out.value(value.email);
+            out.name("firstName");
+            out.value(value.firstName);
+            out.name("lastName");
+            out.value(value.lastName);
+            out.name("phone");
+            out.value(value.phone);
+            out.endObject();
+        }
+
+        @Override
+        public Customer read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            Customer value = new Customer();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "customerUid":
+                        value.customerUid = JsonValues.readString(in);
+                        break;
+                    case "dateOfBirth":
+                        value.dateOfBirth = JsonValues.readString(in);
+                        break;
+                    case "email":
+                        value.email = JsonValues.readString(in);
+                        break;
+                    case "firstName":
+                        value.firstName = JsonValues.readString(in);
+                        break;
+                    case "lastName":
+                        value.lastName = JsonValues.readString(in);
+                        break;
+                    case "phone":
+                        value.phone = JsonValues.readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class WhoAmIAdapter extends TypeAdapter<WhoAmI> {
+
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<String[]> stringArrayAdapter;
+
+        WhoAmIAdapter(Gson gson){
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.stringArrayAdapter = gson.getAdapter(String[].class);
+        }
+
+        @Override
+        public void write(JsonWriter out, WhoAmI value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("customerUid");
+            out.value(value.customerUid);
+            out.name("expiresAt");
+            dateAdapter.write(out, value.expiresAt);
+            out.name("expiresInSeconds");
+            out.value(value.expiresInSeconds);
+            out.name("scopes");
+            stringArrayAdapter.write(out, value.scopes);
+            out.name("authenticated");
+            out.value(value.authenticated);
+            out.endObject();
+        }
+
+        @Override
+        public WhoAmI read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            WhoAmI value = new WhoAmI();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "customerUid":
+                        value.customerUid = JsonValues.readString(in);
+                        break;
+                    case "expiresAt":
+                        value.expiresAt = dateAdapter.read(in);
+                        break;
+                    case "expiresInSeconds":
+                        value.expiresInSeconds = JsonValues.readInteger(in);
+                        break;
+                    case "scopes":
+                        value.scopes = stringArrayAdapter.read(in);
+                        break;
+                    case "authenticated":
+                        value.authenticated = JsonValues.readBoolean(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+}
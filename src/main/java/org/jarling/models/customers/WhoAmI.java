@@ -11,11 +11,11 @@ import java.util.Date;
  *
  */
 public class WhoAmI {
-    private String customerUid;
-    private Date expiresAt;
-    private Integer expiresInSeconds;
-    private String[] scopes;
-    private Boolean authenticated;
+    String customerUid;
+    Date expiresAt;
+    Integer expiresInSeconds;
+    String[] scopes;
+    Boolean authenticated;
 
     public String getCustomerUid() {
         return customerUid;
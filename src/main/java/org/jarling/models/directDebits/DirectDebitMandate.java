@@ -10,14 +10,14 @@ import java.util.Date;
  *
  */
 public class DirectDebitMandate {
-    private Date cancelled;
-    private Date created;
-    private String originatorName;
-    private String originatorUid;
-    private String reference;
-    private DirectDebitMandateSource source;
-    private DirectDebitMandateStatus status;
-    private String uid;
+    Date cancelled;
+    Date created;
+    String originatorName;
+    String originatorUid;
+    String reference;
+    DirectDebitMandateSource source;
+    DirectDebitMandateStatus status;
+    String uid;
 
     public Date getCancelled() {
         return cancelled;
@@ -16,17 +16,17 @@ import java.util.Date;
  */
 public class DirectDebitTransaction {
 
-    private String id;
-    private String title;
-    private TransactionType type;
-    private String currency;
-    private TransactionSource source;
-    private Direction direction;
-    private String narrative;
-    private Date created;
-    private BigDecimal amount;
-    private BigDecimal balance;
-    private String mandateId;
+    String id;
+    String title;
+    TransactionType type;
+    String currency;
+    TransactionSource source;
+    Direction direction;
+    String narrative;
+    Date created;
+    BigDecimal amount;
+    BigDecimal balance;
+    String mandateId;
 
     public String getId() {
         return id;
@@ -0,0 +1,274 @@
+package org.jarling.models.directDebits;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.common.Direction;
+import org.jarling.models.gson.JsonValues;
+import org.jarling.models.transactions.TransactionSource;
+import org.jarling.models.transactions.TransactionType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ *
+ * Reflection-free Gson type adapters for the models in this package.
+ * Generated by ModelTypeAdapterGenerator, do not edit by hand.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class DirectDebitsTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == DirectDebitMandate.class){
+            return (TypeAdapter<T>) new DirectDebitMandateAdapter(gson);
+        }
+        if (rawType == DirectDebitMandateSource.class){
+            return (TypeAdapter<T>) new DirectDebitMandateSourceAdapter();
+        }
+        if (rawType == DirectDebitMandateStatus.class){
+            return (TypeAdapter<T>) new DirectDebitMandateStatusAdapter();
+        }
+        if (rawType == DirectDebitTransaction.class){
+            return (TypeAdapter<T>) new DirectDebitTransactionAdapter(gson);
+        }
+        return null;
+    }
+
+    static final class DirectDebitMandateAdapter extends TypeAdapter<DirectDebitMandate> {
+
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<DirectDebitMandateSource> directDebitMandateSourceAdapter;
+        private final TypeAdapter<DirectDebitMandateStatus> directDebitMandateStatusAdapter;
+
+        DirectDebitMandateAdapter(Gson gson){
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.directDebitMandateSourceAdapter = gson.getAdapter(DirectDebitMandateSource.class);
+            this.directDebitMandateStatusAdapter = gson.getAdapter(DirectDebitMandateStatus.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, DirectDebitMandate value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("cancelled");
+            dateAdapter.write(out, value.cancelled);
+            out.name("created");
+            dateAdapter.write(out, value.created);
+            out.name("originatorName");
+            out.value(value.originatorName);
+            out.name("originatorUid");
+            out.value(value.originatorUid);
+            out.name("reference");
+            out.value(value.reference);
+            out.name("source");
+            directDebitMandateSourceAdapter.write(out, value.source);
+            out.name("status");
+            directDebitMandateStatusAdapter.write(out, value.status);
+            out.name("uid");
+            out.value(value.uid);
+            out.endObject();
+        }
+
+        @Override
+        public DirectDebitMandate read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            DirectDebitMandate value = new DirectDebitMandate();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "cancelled":
+                        value.cancelled = dateAdapter.read(in);
+                        break;
+                    case "created":
+                        value.created = dateAdapter.read(in);
+                        break;
+                    case "originatorName":
+                        value.originatorName = JsonValues.readString(in);
+                        break;
+                    case "originatorUid":
+                        value.originatorUid = JsonValues.readString(in);
+                        break;
+                    case "reference":
+                        value.reference = JsonValues.readString(in);
+                        break;
+                    case "source":
+                        value.source = directDebitMandateSourceAdapter.read(in);
+                        break;
+                    case "status":
+                        value.status = directDebitMandateStatusAdapter.read(in);
+                        break;
+                    case "uid":
+                        value.uid = JsonValues.readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class DirectDebitMandateSourceAdapter extends TypeAdapter<DirectDebitMandateSource> {
+
+        @Override
+        public void write(JsonWriter out, DirectDebitMandateSource value) throws IOException {
+            out.value(value == null ? null : value.name());
+        }
+
+        @Override
+        public DirectDebitMandateSource read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            switch (in.nextString()){
+                case "ELECTRONIC":
+                    return DirectDebitMandateSource.ELECTRONIC;
+                case "PAPER":
+                    return DirectDebitMandateSource.PAPER;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    static final class DirectDebitMandateStatusAdapter extends TypeAdapter<DirectDebitMandateStatus> {
+
+        @Override
+        public void write(JsonWriter out, DirectDebitMandateStatus value) throws IOException {
+            out.value(value == null ? null : value.name());
+        }
+
+        @Override
+        public DirectDebitMandateStatus read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            switch (in.nextString()){
+                case "CANCELLED":
+                    return DirectDebitMandateStatus.CANCELLED;
+                case "LIVE":
+                    return DirectDebitMandateStatus.LIVE;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    static final class DirectDebitTransactionAdapter extends TypeAdapter<DirectDebitTransaction> {
+
+        private final TypeAdapter<TransactionType> transactionTypeAdapter;
+        private final TypeAdapter<TransactionSource> transactionSourceAdapter;
+        private final TypeAdapter<Direction> directionAdapter;
+        private final TypeAdapter<Date> dateAdapter;
+
+        DirectDebitTransactionAdapter(Gson gson){
+            this.transactionTypeAdapter = gson.getAdapter(TransactionType.class);
+            this.transactionSourceAdapter = gson.getAdapter(TransactionSource.class);
+            this.directionAdapter = gson.getAdapter(Direction.class);
+            this.dateAdapter = gson.getAdapter(Date.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, DirectDebitTransaction value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id");
+            out.value(value.id);
+            out.name("title");
+            out.value(value.title);
+            out.name("type");
+            transactionTypeAdapter.write(out, value.type);
+            out.name("currency");
+            out.value(value.currency);
+            out.name("source");
+            transactionSourceAdapter.write(out, value.source);
+            out.name("direction");
+            directionAdapter.write(out, value.direction);
+            out.name("narrative");
+            out.value(value.narrative);
+            out.name("created");
+            dateAdapter.write(out, value.created);
+            out.name("amount");
+            out.value(value.amount);
+            out.name("balance");
+            out.value(value.balance);
+            out.name("mandateId");
+            out.value(value.mandateId);
+            out.endObject();
+        }
+
+        @Override
+        public DirectDebitTransaction read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            DirectDebitTransaction value = new DirectDebitTransaction();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "id":
+                        value.id = JsonValues.readString(in);
+                        break;
+                    case "title":
+                        value.title = JsonValues.readString(in);
+                        break;
+                    case "type":
+                        value.type = transactionTypeAdapter.read(in);
+                        break;
+                    case "currency":
+                        value.currency = JsonValues.readString(in);
+                        break;
+                    case "source":
+                        value.source = transactionSourceAdapter.read(in);
+                        break;
+                    case "direction":
+                        value.direction = directionAdapter.read(in);
+                        break;
+                    case "narrative":
+                        value.narrative = JsonValues.readString(in);
+                        break;
+                    case "created":
+                        value.created = dateAdapter.read(in);
+                        break;
+                    case "amount":
+                        value.amount = JsonValues.readBigDecimal(in);
+                        break;
+                    case "balance":
+                        value.balance = JsonValues.readBigDecimal(in);
+                        break;
+                    case "mandateId":
+                        value.mandateId = JsonValues.readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.jarling.models.gson;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ *
+ * ISO-8601 codec for the dates sent to and received from the Starling Bank API. Formats calendar dates
+ * ({@code 2017-05-04}) for query parameters and request bodies, and timestamps ({@code 2017-05-04T12:01:02.345Z}) for
+ * models. Holds no mutable state, so it is safe for concurrent use, and reads and writes the digits directly instead of
+ * allocating a formatter or parse context per call.
+ *
+ * Calendar dates, and timestamps without an offset, are in the JVM's default time zone as it was when this class was
+ * loaded, which is what the shared {@code SimpleDateFormat} it replaces used.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class IsoDateCodec {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final int SECONDS_PER_DAY = 86400;
+
+    private IsoDateCodec(){}
+
+    /**
+     * @return the calendar date of {@code date} in the default time zone, as {@code yyyy-MM-dd}
+     */
+    public static String formatDate(Date date){
+        long millis = date.getTime();
+        int offsetSeconds = ZONE.getRules().getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds();
+        long epochDay = Math.floorDiv(Math.floorDiv(millis, 1000) + offsetSeconds, SECONDS_PER_DAY);
+        LocalDate localDate = LocalDate.ofEpochDay(epochDay);
+        if (localDate.getYear() < 0 || localDate.getYear() > 9999){
+            return localDate.toString();
+        }
+        char[] chars = new char[10];
+        writeDate(chars, localDate);
+        return new String(chars);
+    }
+
+    /**
+     * @return {@code date} as a UTC timestamp with millisecond precision, e.g. {@code 2017-05-04T12:01:02.345Z}
+     */
+    public static String formatTimestamp(Date date){
+        long millis = date.getTime();
+        long epochSecond = Math.floorDiv(millis, 1000);
+        LocalDate localDate = LocalDate.ofEpochDay(Math.floorDiv(epochSecond, SECONDS_PER_DAY));
+        if (localDate.getYear() < 0 || localDate.getYear() > 9999){
+            return DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(millis));
+        }
+        int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+        char[] chars = new char[24];
+        writeDate(chars, localDate);
+        chars[10] = 'T';
+        writeDigits(chars, 11, secondOfDay / 3600, 2);
+        chars[13] = ':';
+        writeDigits(chars, 14, secondOfDay / 60 % 60, 2);
+        chars[16] = ':';
+        writeDigits(chars, 17, secondOfDay % 60, 2);
+        chars[19] = '.';
+        writeDigits(chars, 20, (int) Math.floorMod(millis, 1000), 3);
+        chars[23] = 'Z';
+        return new String(chars);
+    }
+
+    /**
+     * Parses a calendar date ({@code yyyy-MM-dd}) or a date and time with optional seconds, fraction and offset
+     * ({@code yyyy-MM-ddTHH:mm[:ss[.SSS...]][Z|±hh[:]mm]}). Fractions beyond milliseconds are truncated.
+     * @throws DateTimeParseException when {@code text} is not one of those forms
+     */
+    public static Date parse(String text){
+        int length = text.length();
+        if (length < 10 || text.charAt(4) != '-' || text.charAt(7) != '-'){
+            throw new DateTimeParseException("Expected an ISO-8601 date", text, 0);
+        }
+        LocalDate localDate;
+        try {
+            localDate = LocalDate.of(readDigits(text, 0, 4), readDigits(text, 5, 2), readDigits(text, 8, 2));
+        } catch (DateTimeException e) {
+            throw new DateTimeParseException(e.getMessage(), text, 0, e);
+        }
+        if (length == 10){
+            return Date.from(localDate.atStartOfDay(ZONE).toInstant());
+        }
+
+        char separator = text.charAt(10);
+        if ((separator != 'T' && separator != 't' && separator != ' ') || length < 16 || text.charAt(13) != ':'){
+            throw new DateTimeParseException("Expected a time after the date", text, 10);
+        }
+        int hour = readDigits(text, 11, 2);
+        int minute = readDigits(text, 14, 2);
+        int second = 0;
+        int millisOfSecond = 0;
+        int index = 16;
+        if (index < length && text.charAt(index) == ':'){
+            second = readDigits(text, index + 1, 2);
+            index += 3;
+            if (index < length && (text.charAt(index) == '.' || text.charAt(index) == ',')){
+                int fractionStart = ++index;
+                while (index < length && text.charAt(index) >= '0' && text.charAt(index) <= '9'){
+                    if (index - fractionStart < 3){
+                        millisOfSecond = millisOfSecond * 10 + (text.charAt(index) - '0');
+                    }
+                    index++;
+                }
+                int fractionDigits = index - fractionStart;
+                if (fractionDigits == 0){
+                    throw new DateTimeParseException("Expected digits after the decimal point", text, index);
+                }
+                for (int i = fractionDigits; i < 3; i++){
+                    millisOfSecond *= 10;
+                }
+            }
+        }
+        if (hour > 23 || minute > 59 || second > 59){
+            throw new DateTimeParseException("Time of day out of range", text, 11);
+        }
+
+        long localSeconds = localDate.toEpochDay() * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second;
+        long offsetSeconds;
+        if (index == length){
+            LocalDateTime localDateTime = LocalDateTime.of(localDate, LocalTime.of(hour, minute, second));
+            offsetSeconds = ZONE.getRules().getOffset(localDateTime).getTotalSeconds();
+        } else {
+            offsetSeconds = readOffset(text, index);
+        }
+        return new Date((localSeconds - offsetSeconds) * 1000 + millisOfSecond);
+    }
+
+    private static int readOffset(String text, int index){
+        char sign = text.charAt(index);
+        int length = text.length();
+        if ((sign == 'Z' || sign == 'z') && index + 1 == length){
+            return 0;
+        }
+        if (sign != '+' && sign != '-'){
+            throw new DateTimeParseException("Expected an offset", text, index);
+        }
+        int hours = readDigits(text, index + 1, 2);
+        int minutes = 0;
+        int end = index + 3;
+        if (end < length){
+            if (text.charAt(end) == ':'){
+                end++;
+            }
+            minutes = readDigits(text, end, 2);
+            end += 2;
+        }
+        if (end != length || hours > 18 || minutes > 59){
+            throw new DateTimeParseException("Invalid offset", text, index);
+        }
+        int offsetSeconds = hours * 3600 + minutes * 60;
+        return sign == '-' ? -offsetSeconds : offsetSeconds;
+    }
+
+    private static int readDigits(String text, int index, int count){
+        if (index + count > text.length()){
+            throw new DateTimeParseException("Text ended early", text, text.length());
+        }
+        int value = 0;
+        for (int i = index; i < index + count; i++){
+            char digit = text.charAt(i);
+            if (digit < '0' || digit > '9'){
+                throw new DateTimeParseException("Expected a digit", text, i);
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return value;
+    }
+
+    private static void writeDate(char[] chars, LocalDate localDate){
+        writeDigits(chars, 0, localDate.getYear(), 4);
+        chars[4] = '-';
+        writeDigits(chars, 5, localDate.getMonthValue(), 2);
+        chars[7] = '-';
+        writeDigits(chars, 8, localDate.getDayOfMonth(), 2);
+    }
+
+    private static void writeDigits(char[] chars, int index, int value, int count){
+        for (int i = index + count - 1; i >= index; i--){
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package org.jarling.models.gson;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+/**
+ *
+ * Reads and writes model {@link Date} fields as ISO-8601 timestamps through {@link IsoDateCodec}, in place of Gson's
+ * synchronized, locale-sensitive default date adapter.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class IsoDateTypeAdapter extends TypeAdapter<Date> {
+
+    @Override
+    public void write(JsonWriter out, Date value) throws IOException {
+        out.value(value == null ? null : IsoDateCodec.formatTimestamp(value));
+    }
+
+    @Override
+    public Date read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL){
+            in.nextNull();
+            return null;
+        }
+        String text = in.nextString();
+        try {
+            return IsoDateCodec.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new JsonSyntaxException(text, e);
+        }
+    }
+}
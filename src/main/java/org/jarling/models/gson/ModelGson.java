@@ -0,0 +1,48 @@
+package org.jarling.models.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.jarling.models.accounts.AccountsTypeAdapterFactory;
+import org.jarling.models.budgeting.BudgetingTypeAdapterFactory;
+import org.jarling.models.cards.CardsTypeAdapterFactory;
+import org.jarling.models.common.CommonTypeAdapterFactory;
+import org.jarling.models.contacts.ContactsTypeAdapterFactory;
+import org.jarling.models.customers.CustomersTypeAdapterFactory;
+import org.jarling.models.directDebits.DirectDebitsTypeAdapterFactory;
+import org.jarling.models.merchants.MerchantsTypeAdapterFactory;
+import org.jarling.models.payments.PaymentsTypeAdapterFactory;
+import org.jarling.models.transactions.TransactionsTypeAdapterFactory;
+
+import java.util.Date;
+
+/**
+ *
+ * Holds the one {@link Gson} instance used to encode and decode the Starling Bank models. Every model class is
+ * handled by a generated type adapter, so no model is ever decoded by reflection, and dates go through
+ * {@link IsoDateCodec}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class ModelGson {
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new AccountsTypeAdapterFactory())
+            .registerTypeAdapterFactory(new BudgetingTypeAdapterFactory())
+            .registerTypeAdapterFactory(new CardsTypeAdapterFactory())
+            .registerTypeAdapterFactory(new CommonTypeAdapterFactory())
+            .registerTypeAdapterFactory(new ContactsTypeAdapterFactory())
+            .registerTypeAdapterFactory(new CustomersTypeAdapterFactory())
+            .registerTypeAdapterFactory(new DirectDebitsTypeAdapterFactory())
+            .registerTypeAdapterFactory(new MerchantsTypeAdapterFactory())
+            .registerTypeAdapterFactory(new PaymentsTypeAdapterFactory())
+            .registerTypeAdapterFactory(new TransactionsTypeAdapterFactory())
+            .registerTypeAdapter(Date.class, new IsoDateTypeAdapter())
+            .create();
+
+    private ModelGson(){}
+
+    public static Gson getInstance(){
+        return GSON;
+    }
+}
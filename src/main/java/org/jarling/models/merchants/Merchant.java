@@ -8,11 +8,11 @@ package org.jarling.models.merchants;
  *
  */
 public class Merchant {
-    private String merchantUid;
-    private String name;
-    private String phoneNumber;
-    private String twitterUsername;
-    private String website;
+    String merchantUid;
+    String name;
+    String phoneNumber;
+    String twitterUsername;
+    String website;
 
     public String getMerchantUid() {
         return merchantUid;
@@ -9,14 +9,14 @@ package org.jarling.models.merchants;
  */
 public class MerchantLocation {
 
-    private String  merchantUid;
-    private String  merchantName;
-    private String  phoneNumber;
-    private String  merchantLocationUid;
-    private String  locationName;
-    private String  address;
-    private String  googlePlaceId;
-    private Integer mastercardMerchantCategoryCode;
+    String  merchantUid;
+    String  merchantName;
+    String  phoneNumber;
+    String  merchantLocationUid;
+    String  locationName;
+    String  address;
+    String  googlePlaceId;
+    Integer mastercardMerchantCategoryCode;
 
     public String getMerchantUid() {
         return merchantUid;
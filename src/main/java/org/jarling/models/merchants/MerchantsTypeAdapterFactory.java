@@ -0,0 +1,163 @@
+package org.jarling.models.merchants;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.gson.JsonValues;
+
+import java.io.IOException;
+
+/**
+ *
+ * Reflection-free Gson type adapters for the models in this package.
+ * Generated by ModelTypeAdapterGenerator, do not edit by hand.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class MerchantsTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Merchant.class){
+            return (TypeAdapter<T>) new MerchantAdapter();
+        }
+        if (rawType == MerchantLocation.class){
+            return (TypeAdapter<T>) new MerchantLocationAdapter();
+        }
+        return null;
+    }
+
+    static final class MerchantAdapter extends TypeAdapter<Merchant> {
+
+        @Override
+        public void write(JsonWriter out, Merchant value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("merchantUid");
+            out.value(value.merchantUid);
+            out.name("name");
+            out.value(value.name);
+            out.name("phoneNumber");
+            out.value(value.phoneNumber);
+            out.name("twitterUsername");
+            out.value(value.twitterUsername);
+            out.name("website");
+            out.value(value.website);
+            out.endObject();
+        }
+
+        @Override
+        public Merchant read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            Merchant value = new Merchant();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "merchantUid":
+                        value.merchantUid = JsonValues.readString(in);
+                        break;
+                    case "name":
+                        value.name = JsonValues.readString(in);
+                        break;
+                    case "phoneNumber":
+                        value.phoneNumber = JsonValues.readString(in);
+                        break;
+                    case "twitterUsername":
+                        value.twitterUsername = JsonValues.readString(in);
+                        break;
+                    case "website":
+                        value.website = JsonValues.readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class MerchantLocationAdapter extends TypeAdapter<MerchantLocation> {
+
+        @Override
+        public void write(JsonWriter out, MerchantLocation value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("merchantUid");
+            out.value(value.merchantUid);
+            out.name("merchantName");
+            out.value(value.merchantName);
+            out.name("phoneNumber");
+            out.value(value.phoneNumber);
+            out.name("merchantLocationUid");
+            out.value(value.merchantLocationUid);
+            out.name("locationName");
+            out.value(value.locationName);
+            out.name("address");
+            out.value(value.address);
+            out.name("googlePlaceId");
+            out.value(value.googlePlaceId);
+            out.name("mastercardMerchantCategoryCode");
+            out.value(value.mastercardMerchantCategoryCode);
+            out.endObject();
+        }
+
+        @Override
+        public MerchantLocation read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            MerchantLocation value = new MerchantLocation();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "merchantUid":
+                        value.merchantUid = JsonValues.readString(in);
+                        break;
+                    case "merchantName":
+                        value.merchantName = JsonValues.readString(in);
+                        break;
+                    case "phoneNumber":
+                        value.phoneNumber = JsonValues.readString(in);
+                        break;
+                    case "merchantLocationUid":
+                        value.merchantLocationUid = JsonValues.readString(in);
+                        break;
+                    case "locationName":
+                        value.locationName = JsonValues.readString(in);
+                        break;
+                    case "address":
+                        value.address = JsonValues.readString(in);
+                        break;
+                    case "googlePlaceId":
+                        value.googlePlaceId = JsonValues.readString(in);
+                        break;
+                    case "mastercardMerchantCategoryCode":
+                        value.mastercardMerchantCategoryCode = JsonValues.readInteger(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+}
@@ -14,21 +14,21 @@ import java.util.Date;
  */
 public class Payment {
 
-    private BigDecimal amount;
-    private Date cancelledAt;
-    private String currency;
-    private Date endDate;
-    private Date lastDate;
-    private String mandateId;
-    private Date nextDate;
-    private String paymentOrderId;
-    private PaymentType paymentType;
-    private String receivingContactAccountId;
-    private String recipientName;
-    private Boolean immediate;
-    private RecurrenceRule recurrenceRule;
-    private String reference;
-    private Date startDate;
+    BigDecimal amount;
+    Date cancelledAt;
+    String currency;
+    Date endDate;
+    Date lastDate;
+    String mandateId;
+    Date nextDate;
+    String paymentOrderId;
+    PaymentType paymentType;
+    String receivingContactAccountId;
+    String recipientName;
+    Boolean immediate;
+    RecurrenceRule recurrenceRule;
+    String reference;
+    Date startDate;
 
     public BigDecimal getAmount() {
         return amount;
@@ -0,0 +1,179 @@
+package org.jarling.models.payments;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.common.RecurrenceRule;
+import org.jarling.models.gson.JsonValues;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ *
+ * Reflection-free Gson type adapters for the models in this package.
+ * Generated by ModelTypeAdapterGenerator, do not edit by hand.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class PaymentsTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == Payment.class){
+            return (TypeAdapter<T>) new PaymentAdapter(gson);
+        }
+        if (rawType == PaymentType.class){
+            return (TypeAdapter<T>) new PaymentTypeAdapter();
+        }
+        return null;
+    }
+
+    static final class PaymentAdapter extends TypeAdapter<Payment> {
+
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<PaymentType> paymentTypeAdapter;
+        private final TypeAdapter<RecurrenceRule> recurrenceRuleAdapter;
+
+        PaymentAdapter(Gson gson){
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.paymentTypeAdapter = gson.getAdapter(PaymentType.class);
+            this.recurrenceRuleAdapter = gson.getAdapter(RecurrenceRule.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Payment value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("amount");
+            out.value(value.amount);
+            out.name("cancelledAt");
+            dateAdapter.write(out, value.cancelledAt);
+            out.name("currency");
+            out.value(value.currency);
+            out.name("endDate");
+            dateAdapter.write(out, value.endDate);
+            out.name("lastDate");
+            dateAdapter.write(out, value.lastDate);
+            out.name("mandateId");
+            out.value(value.mandateId);
+            out.name("nextDate");
+            dateAdapter.write(out, value.nextDate);
+            out.name("paymentOrderId");
+            out.value(value.paymentOrderId);
+            out.name("paymentType");
+            paymentTypeAdapter.write(out, value.paymentType);
+            out.name("receivingContactAccountId");
+            out.value(value.receivingContactAccountId);
+            out.name("recipientName");
+            out.value(value.recipientName);
+            out.name("immediate");
+            out.value(value.immediate);
+            out.name("recurrenceRule");
+            recurrenceRuleAdapter.write(out, value.recurrenceRule);
+            out.name("reference");
+            out.value(value.reference);
+            out.name("startDate");
+            dateAdapter.write(out, value.startDate);
+            out.endObject();
+        }
+
+        @Override
+        public Payment read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            Payment value = new Payment();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "amount":
+                        value.amount = JsonValues.readBigDecimal(in);
+                        break;
+                    case "cancelledAt":
+                        value.cancelledAt = dateAdapter.read(in);
+                        break;
+                    case "currency":
+                        value.currency = JsonValues.readString(in);
+                        break;
+                    case "endDate":
+                        value.endDate = dateAdapter.read(in);
+                        break;
+                    case "lastDate":
+                        value.lastDate = dateAdapter.read(in);
+                        break;
+                    case "mandateId":
+                        value.mandateId = JsonValues.readString(in);
+                        break;
+                    case "nextDate":
+                        value.nextDate = dateAdapter.read(in);
+                        break;
+                    case "paymentOrderId":
+                        value.paymentOrderId = JsonValues.readString(in);
+                        break;
+                    case "paymentType":
+                        value.paymentType = paymentTypeAdapter.read(in);
+                        break;
+                    case "receivingContactAccountId":
+                        value.receivingContactAccountId = JsonValues.readString(in);
+                        break;
+                    case "recipientName":
+                        value.recipientName = JsonValues.readString(in);
+                        break;
+                    case "immediate":
+                        value.immediate = JsonValues.readBoolean(in);
+                        break;
+                    case "recurrenceRule":
+                        value.recurrenceRule = recurrenceRuleAdapter.read(in);
+                        break;
+                    case "reference":
+                        value.reference = JsonValues.readString(in);
+                        break;
+                    case "startDate":
+                        value.startDate = dateAdapter.read(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class PaymentTypeAdapter extends TypeAdapter<PaymentType> {
+
+        @Override
+        public void write(JsonWriter out, PaymentType value) throws IOException {
+            out.value(value == null ? null : value.name());
+        }
+
+        @Override
+        public PaymentType read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            switch (in.nextString()){
+                case "DIRECT_DEBIT":
+                    return PaymentType.DIRECT_DEBIT;
+                case "STANDING_ORDER":
+                    return PaymentType.STANDING_ORDER;
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -14,15 +14,15 @@ import java.util.Date;
  */
 public class FasterPaymentsInTransaction {
 
-    private String id;
-    private String currency;
-    private BigDecimal amount;
-    private Direction direction;
-    private Date created;
-    private String narrative;
-    private TransactionSource source;
-    private String sendingContactAccountId;
-    private String sendingContactId;
+    String id;
+    String currency;
+    BigDecimal amount;
+    Direction direction;
+    Date created;
+    String narrative;
+    TransactionSource source;
+    String sendingContactAccountId;
+    String sendingContactId;
 
     public String getId() {
         return id;
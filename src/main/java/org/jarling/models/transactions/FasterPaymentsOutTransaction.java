@@ -14,15 +14,15 @@ import java.util.Date;
  */
 public class FasterPaymentsOutTransaction {
 
-    private String id;
-    private String currency;
-    private BigDecimal amount;
-    private Direction direction;
-    private Date created;
-    private String narrative;
-    private TransactionSource source;
-    private String receivingContactAccountId;
-    private String receivingContactId;
+    String id;
+    String currency;
+    BigDecimal amount;
+    Direction direction;
+    Date created;
+    String narrative;
+    TransactionSource source;
+    String receivingContactAccountId;
+    String receivingContactId;
 
     public String getId() {
         return id;
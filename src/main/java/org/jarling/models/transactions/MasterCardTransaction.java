@@ -14,19 +14,19 @@ import java.util.Date;
  */
 public class MasterCardTransaction {
 
-    private String id;
-    private String currency;
-    private BigDecimal amount;
-    private Direction direction;
-    private Date created;
-    private String narrative;
-    private TransactionSource source;
-    private MasterCardTransactionMethod mastercardTransactionMethod;
-    private TransactionStatus status;
-    private BigDecimal sourceAmount;
-    private String sourceCurrency;
-    private String merchantId;
-    private String merchantLocationId;
+    String id;
+    String currency;
+    BigDecimal amount;
+    Direction direction;
+    Date created;
+    String narrative;
+    TransactionSource source;
+    MasterCardTransactionMethod mastercardTransactionMethod;
+    TransactionStatus status;
+    BigDecimal sourceAmount;
+    String sourceCurrency;
+    String merchantId;
+    String merchantLocationId;
 
     public String getId() {
         return id;
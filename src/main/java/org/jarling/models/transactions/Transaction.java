@@ -14,14 +14,14 @@ import java.util.Date;
  */
 public class Transaction {
 
-    private String id;
-    private String currency;
-    private BigDecimal amount;
-    private Direction direction;
-    private Date created;
-    private String narrative;
-    private TransactionSource source;
-    private BigDecimal balance;
+    String id;
+    String currency;
+    BigDecimal amount;
+    Direction direction;
+    Date created;
+    String narrative;
+    TransactionSource source;
+    BigDecimal balance;
 
     public String getId() {
         return id;
@@ -0,0 +1,588 @@
+package org.jarling.models.transactions;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.jarling.models.common.Direction;
+import org.jarling.models.gson.JsonValues;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ *
+ * Reflection-free Gson type adapters for the models in this package.
+ * Generated by ModelTypeAdapterGenerator, do not edit by hand.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class TransactionsTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == FasterPaymentsInTransaction.class){
+            return (TypeAdapter<T>) new FasterPaymentsInTransactionAdapter(gson);
+        }
+        if (rawType == FasterPaymentsOutTransaction.class){
+            return (TypeAdapter<T>) new FasterPaymentsOutTransactionAdapter(gson);
+        }
+        if (rawType == MasterCardTransaction.class){
+            return (TypeAdapter<T>) new MasterCardTransactionAdapter(gson);
+        }
+        if (rawType == MasterCardTransactionMethod.class){
+            return (TypeAdapter<T>) new MasterCardTransactionMethodAdapter();
+        }
+        if (rawType == Transaction.class){
+            return (TypeAdapter<T>) new TransactionAdapter(gson);
+        }
+        if (rawType == TransactionSource.class){
+            return (TypeAdapter<T>) new TransactionSourceAdapter();
+        }
+        if (rawType == TransactionStatus.class){
+            return (TypeAdapter<T>) new TransactionStatusAdapter();
+        }
+        if (rawType == TransactionType.class){
+            return (TypeAdapter<T>) new TransactionTypeAdapter();
+        }
+        return null;
+    }
+
+    static final class FasterPaymentsInTransactionAdapter extends TypeAdapter<FasterPaymentsInTransaction> {
+
+        private final TypeAdapter<Direction> directionAdapter;
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<TransactionSource> transactionSourceAdapter;
+
+        FasterPaymentsInTransactionAdapter(Gson gson){
+            this.directionAdapter = gson.getAdapter(Direction.class);
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.transactionSourceAdapter = gson.getAdapter(TransactionSource.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, FasterPaymentsInTransaction value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id");
+            out.value(value.id);
+            out.name("currency");
+            out.value(value.currency);
+            out.name("amount");
+            out.value(value.amount);
+            out.name("direction");
+            directionAdapter.write(out, value.direction);
+            out.name("created");
+            dateAdapter.write(out, value.created);
+            out.name("narrative");
+            out.value(value.narrative);
+            out.name("source");
+            transactionSourceAdapter.write(out, value.source);
+            out.name("sendingContactAccountId");
+            out.value(value.sendingContactAccountId);
+            out.name("sendingContactId");
+            out.value(value.sendingContactId);
+            out.endObject();
+        }
+
+        @Override
+        public FasterPaymentsInTransaction read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            FasterPaymentsInTransaction value = new FasterPaymentsInTransaction();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "id":
+                        value.id = JsonValues.readString(in);
+                        break;
+                    case "currency":
+                        value.currency = JsonValues.readString(in);
+                        break;
+                    case "amount":
+                        value.amount = JsonValues.readBigDecimal(in);
+                        break;
+                    case "direction":
+                        value.direction = directionAdapter.read(in);
+                        break;
+                    case "created":
+                        value.created = dateAdapter.read(in);
+                        break;
+                    case "narrative":
+                        value.narrative = JsonValues.readString(in);
+                        break;
+                    case "source":
+                        value.source = transactionSourceAdapter.read(in);
+                        break;
+                    case "sendingContactAccountId":
+                        value.sendingContactAccountId = JsonValues.readString(in);
+                        break;
+                    case "sendingContactId":
+                        value.sendingContactId = JsonValues.readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class FasterPaymentsOutTransactionAdapter extends TypeAdapter<FasterPaymentsOutTransaction> {
+
+        private final TypeAdapter<Direction> directionAdapter;
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<TransactionSource> transactionSourceAdapter;
+
+        FasterPaymentsOutTransactionAdapter(Gson gson){
+            this.directionAdapter = gson.getAdapter(Direction.class);
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.transactionSourceAdapter = gson.getAdapter(TransactionSource.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, FasterPaymentsOutTransaction value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id");
+            out.value(value.id);
+            out.name("currency");
+            out.value(value.currency);
+            out.name("amount");
+            out.value(value.amount);
+            out.name("direction");
+            directionAdapter.write(out, value.direction);
+            out.name("created");
+            dateAdapter.write(out, value.created);
+            out.name("narrative");
+            out.value(value.narrative);
+            out.name("source");
+            transactionSourceAdapter.write(out, value.source);
+            out.name("receivingContactAccountId");
+            out.value(value.receivingContactAccountId);
+            out.name("receivingContactId");
+            out.value(value.receivingContactId);
+            out.endObject();
+        }
+
+        @Override
+        public FasterPaymentsOutTransaction read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            FasterPaymentsOutTransaction value = new FasterPaymentsOutTransaction();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "id":
+                        value.id = JsonValues.readString(in);
+                        break;
+                    case "currency":
+                        value.currency = JsonValues.readString(in);
+                        break;
+                    case "amount":
+                        value.amount = JsonValues.readBigDecimal(in);
+                        break;
+                    case "direction":
+                        value.direction = directionAdapter.read(in);
+                        break;
+                    case "created":
+                        value.created = dateAdapter.read(in);
+                        break;
+                    case "narrative":
+                        value.narrative = JsonValues.readString(in);
+                        break;
+                    case "source":
+                        value.source = transactionSourceAdapter.read(in);
+                        break;
+                    case "receivingContactAccountId":
+                        value.receivingContactAccountId = JsonValues.readString(in);
+                        break;
+                    case "receivingContactId":
+                        value.receivingContactId = JsonValues.readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class MasterCardTransactionAdapter extends TypeAdapter<MasterCardTransaction> {
+
+        private final TypeAdapter<Direction> directionAdapter;
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<TransactionSource> transactionSourceAdapter;
+        private final TypeAdapter<MasterCardTransactionMethod> masterCardTransactionMethodAdapter;
+        private final TypeAdapter<TransactionStatus> transactionStatusAdapter;
+
+        MasterCardTransactionAdapter(Gson gson){
+            this.directionAdapter = gson.getAdapter(Direction.class);
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.transactionSourceAdapter = gson.getAdapter(TransactionSource.class);
+            this.masterCardTransactionMethodAdapter = gson.getAdapter(MasterCardTransactionMethod.class);
+            this.transactionStatusAdapter = gson.getAdapter(TransactionStatus.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, MasterCardTransaction value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id");
+            out.value(value.id);
+            out.name("currency");
+            out.value(value.currency);
+            out.name("amount");
+            out.value(value.amount);
+            out.name("direction");
+            directionAdapter.write(out, value.direction);
+            out.name("created");
+            dateAdapter.write(out, value.created);
+            out.name("narrative");
+            out.value(value.narrative);
+            out.name("source");
+            transactionSourceAdapter.write(out, value.source);
+            out.name("mastercardTransactionMethod");
+            masterCardTransactionMethodAdapter.write(out, value.mastercardTransactionMethod);
+            out.name("status");
+            transactionStatusAdapter.write(out, value.status);
+            out.name("sourceAmount");
+            out.value(value.sourceAmount);
+            out.name("sourceCurrency");
+            out.value(value.sourceCurrency);
+            out.name("merchantId");
+            out.value(value.merchantId);
+            out.name("merchantLocationId");
+            out.value(value.merchantLocationId);
+            out.endObject();
+        }
+
+        @Override
+        public MasterCardTransaction read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            MasterCardTransaction value = new MasterCardTransaction();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "id":
+                        value.id = JsonValues.readString(in);
+                        break;
+                    case "currency":
+                        value.currency = JsonValues.readString(in);
+                        break;
+                    case "amount":
+                        value.amount = JsonValues.readBigDecimal(in);
+                        break;
+                    case "direction":
+                        value.direction = directionAdapter.read(in);
+                        break;
+                    case "created":
+                        value.created = dateAdapter.read(in);
+                        break;
+                    case "narrative":
+                        value.narrative = JsonValues.readString(in);
+                        break;
+                    case "source":
+                        value.source = transactionSourceAdapter.read(in);
+                        break;
+                    case "mastercardTransactionMethod":
+                        value.mastercardTransactionMethod = masterCardTransactionMethodAdapter.read(in);
+                        break;
+                    case "status":
+                        value.status = transactionStatusAdapter.read(in);
+                        break;
+                    case "sourceAmount":
+                        value.sourceAmount = JsonValues.readBigDecimal(in);
+                        break;
+                    case "sourceCurrency":
+                        value.sourceCurrency = JsonValues.readString(in);
+                        break;
+                    case "merchantId":
+                        value.merchantId = JsonValues.readString(in);
+                        break;
+                    case "merchantLocationId":
+                        value.merchantLocationId = JsonValues.readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class MasterCardTransactionMethodAdapter extends TypeAdapter<MasterCardTransactionMethod> {
+
+        @Override
+        public void write(JsonWriter out, MasterCardTransactionMethod value) throws IOException {
+            out.value(value == null ? null : value.name());
+        }
+
+        @Override
+        public MasterCardTransactionMethod read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            switch (in.nextString()){
+                case "CONTACTLESS":
+                    return MasterCardTransactionMethod.CONTACTLESS;
+                case "MAGNETIC_STRIP":
+                    return MasterCardTransactionMethod.MAGNETIC_STRIP;
+                case "MANUAL_KEY_ENTRY":
+                    return MasterCardTransactionMethod.MANUAL_KEY_ENTRY;
+                case "CHIP_AND_PIN":
+                    return MasterCardTransactionMethod.CHIP_AND_PIN;
+                case "ONLINE":
+                    return MasterCardTransactionMethod.ONLINE;
+                case "ATM":
+                    return MasterCardTransactionMethod.ATM;
+                case "APPLE_PAY":
+                    return MasterCardTransactionMethod.APPLE_PAY;
+                case "ANDROID_PAY":
+                    return MasterCardTransactionMethod.ANDROID_PAY;
+                case "NOT_APPLICABLE":
+                    return MasterCardTransactionMethod.NOT_APPLICABLE;
+                case "UNKNOWN":
+                    return MasterCardTransactionMethod.UNKNOWN;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    static final class TransactionAdapter extends TypeAdapter<Transaction> {
+
+        private final TypeAdapter<Direction> directionAdapter;
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<TransactionSource> transactionSourceAdapter;
+
+        TransactionAdapter(Gson gson){
+            this.directionAdapter = gson.getAdapter(Direction.class);
+            this.dateAdapter = gson.getAdapter(Date.class);
+            this.transactionSourceAdapter = gson.getAdapter(TransactionSource.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, Transaction value) throws IOException {
+            if (value == null){
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id");
+            out.value(value.id);
+            out.name("currency");
+            out.value(value.currency);
+            out.name("amount");
+            out.value(value.amount);
+            out.name("direction");
+            directionAdapter.write(out, value.direction);
+            out.name("created");
+            dateAdapter.write(out, value.created);
+            out.name("narrative");
+            out.value(value.narrative);
+            out.name("source");
+            transactionSourceAdapter.write(out, value.source);
+            out.name("balance");
+            out.value(value.balance);
+            out.endObject();
+        }
+
+        @Override
+        public Transaction read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            Transaction value = new Transaction();
+            in.beginObject();
+            while (in.hasNext()){
+                switch (in.nextName()){
+                    case "id":
+                        value.id = JsonValues.readString(in);
+                        break;
+                    case "currency":
+                        value.currency = JsonValues.readString(in);
+                        break;
+                    case "amount":
+                        value.amount = JsonValues.readBigDecimal(in);
+                        break;
+                    case "direction":
+                        value.direction = directionAdapter.read(in);
+                        break;
+                    case "created":
+                        value.created = dateAdapter.read(in);
+                        break;
+                    case "narrative":
+                        value.narrative = JsonValues.readString(in);
+                        break;
+                    case "source":
+                        value.source = transactionSourceAdapter.read(in);
+                        break;
+                    case "balance":
+                        value.balance = JsonValues.readBigDecimal(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static final class TransactionSourceAdapter extends TypeAdapter<TransactionSource> {
+
+        @Override
+        public void write(JsonWriter out, TransactionSource value) throws IOException {
+            out.value(value == null ? null : value.name());
+        }
+
+        @Override
+        public TransactionSource read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            switch (in.nextString()){
+                case "DIRECT_CREDIT":
+                    return TransactionSource.DIRECT_CREDIT;
+                case "DIRECT_DEBIT":
+                    return TransactionSource.DIRECT_DEBIT;
+                case "DIRECT_DEBIT_DISPUTE":
+                    return TransactionSource.DIRECT_DEBIT_DISPUTE;
+                case "INTERNAL_TRANSFER":
+                    return TransactionSource.INTERNAL_TRANSFER;
+                case "MASTER_CARD":
+                    return TransactionSource.MASTER_CARD;
+                case "FASTER_PAYMENTS_IN":
+                    return TransactionSource.FASTER_PAYMENTS_IN;
+                case "FASTER_PAYMENTS_OUT":
+                    return TransactionSource.FASTER_PAYMENTS_OUT;
+                case "FASTER_PAYMENTS_REVERSAL":
+                    return TransactionSource.FASTER_PAYMENTS_REVERSAL;
+                case "STRIPE_FUNDING":
+                    return TransactionSource.STRIPE_FUNDING;
+                case "INTEREST_PAYMENT":
+                    return TransactionSource.INTEREST_PAYMENT;
+                case "NOSTRO_DEPOSIT":
+                    return TransactionSource.NOSTRO_DEPOSIT;
+                case "OVERDRAFT":
+                    return TransactionSource.OVERDRAFT;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    static final class TransactionStatusAdapter extends TypeAdapter<TransactionStatus> {
+
+        @Override
+        public void write(JsonWriter out, TransactionStatus value) throws IOException {
+            out.value(value == null ? null : value.name());
+        }
+
+        @Override
+        public TransactionStatus read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            switch (in.nextString()){
+                case "PENDING":
+                    return TransactionStatus.PENDING;
+                case "REVERSED":
+                    return TransactionStatus.REVERSED;
+                case "SETTLED":
+                    return TransactionStatus.SETTLED;
+                case "DECLINED":
+                    return TransactionStatus.DECLINED;
+                case "CANCELLED":
+                    return TransactionStatus.CANCELLED;
+                default:
+                    return null;
+            }
+        }
+    }
+
+    static final class TransactionTypeAdapter extends TypeAdapter<TransactionType> {
+
+        @Override
+        public void write(JsonWriter out, TransactionType value) throws IOException {
+            out.value(value == null ? null : value.name());
+        }
+
+        @Override
+        public TransactionType read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL){
+                in.nextNull();
+                return null;
+            }
+            switch (in.nextString()){
+                case "FIRST_PAYMENT_OF_DIRECT_DEBIT":
+                    return TransactionType.FIRST_PAYMENT_OF_DIRECT_DEBIT;
+                case "DEBIT_ROUTING_DATA_MACHINE_READ_FROM_MAGNETIC_STRIP":
+                    return TransactionType.DEBIT_ROUTING_DATA_MACHINE_READ_FROM_MAGNETIC_STRIP;
+                case "CLAIM_FOR_UNPAID_CHEQUE":
+                    return TransactionType.CLAIM_FOR_UNPAID_CHEQUE;
+                case "DIRECT_DEBIT":
+                    return TransactionType.DIRECT_DEBIT;
+                case "DIRECT_DEBIT_REPRESENTATION":
+                    return TransactionType.DIRECT_DEBIT_REPRESENTATION;
+                case "DIRECT_DEBIT_FINAL_PAYMENT":
+                    return TransactionType.DIRECT_DEBIT_FINAL_PAYMENT;
+                case "INTER_BANK_SETTLEMENT":
+                    return TransactionType.INTER_BANK_SETTLEMENT;
+                case "BACS_CREDIT":
+                    return TransactionType.BACS_CREDIT;
+                case "CHARGE_TO_CREDIT_CARD":
+                    return TransactionType.CHARGE_TO_CREDIT_CARD;
+                case "REFUND_TO_CREDIT_CARD":
+                    return TransactionType.REFUND_TO_CREDIT_CARD;
+                case "UNPAID_DIRECT_DEBIT_FIRST_PAYMENT":
+                    return TransactionType.UNPAID_DIRECT_DEBIT_FIRST_PAYMENT;
+                case "UNPAID_DIRECT_DEBIT":
+                    return TransactionType.UNPAID_DIRECT_DEBIT;
+                case "UNPAID_DIRECT_DEBIT_REPRESENTATION":
+                    return TransactionType.UNPAID_DIRECT_DEBIT_REPRESENTATION;
+                case "UNPAID_DIRECT_DEBIT_FINAL_PAYMENT":
+                    return TransactionType.UNPAID_DIRECT_DEBIT_FINAL_PAYMENT;
+                case "BUILDING_SOCIETY_INTEREST_CREDIT":
+                    return TransactionType.BUILDING_SOCIETY_INTEREST_CREDIT;
+                case "DIVIDENDS_INTEREST":
+                    return TransactionType.DIVIDENDS_INTEREST;
+                case "CREDIT_RETURNED_UN_APPLIED":
+                    return TransactionType.CREDIT_RETURNED_UN_APPLIED;
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -1,40 +1,301 @@
 package org.jarling.services;
 
 import org.jarling.StarlingBankEnvironment;
+import org.jarling.exceptions.StarlingBankRateLimitException;
 import org.jarling.exceptions.StarlingBankRequestException;
 import org.jarling.http.BasicHttpsClient;
+import org.jarling.http.CallOptions;
+import org.jarling.http.EndpointTemplates;
+import org.jarling.http.ExponentialBackoffRetryPolicy;
 import org.jarling.http.HttpClient;
 import org.jarling.http.HttpParameter;
+import org.jarling.http.HttpRequest;
 import org.jarling.http.HttpResponse;
+import org.jarling.http.RequestMethod;
+import org.jarling.http.RetryingHttpClient;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  *
  * Service to manage the API requests to Starling Bank API Endpoints
  *
+ * Requests can be spaced out by a global and a per token {@link RateLimiter}. A request rejected with 429 Too Many
+ * Requests is sent again once the delay asked for by Retry-After has passed, a few times at most, before the
+ * {@link StarlingBankRateLimitException} is passed on to the caller.
+ *
+ * Requests can also go through the {@link CircuitBreaker} of their endpoint, which rejects them straight away with a
+ * {@link org.jarling.exceptions.StarlingBankCircuitOpenException} while the endpoint is failing.
+ *
+ * GETs made through {@link #getAndDecode} are coalesced by a {@link RequestCoalescer}, if there is one, so that
+ * concurrent identical GETs send one request and share its decoded result. GETs can also be hedged by a
+ * {@link RequestHedger}, which sends a second copy of a GET that is slow to answer. A {@link BulkheadRegistry} bounds
+ * the requests in flight to each group of resources, so that one busy group cannot starve the others. These policies
+ * are given to the service together as one {@link RequestPolicies}.
+ *
+ * A service made by {@link #withCallOptions} sends every request under the same {@link CallOptions}, so that a call
+ * made of several requests has one deadline. Nothing is sent, and no 429 is waited out, past that deadline.
+ *
  * @author Nav Roudsari (nav@rzari.co.uk)
  *
  */
 public final class ApiService implements HttpClient{
 
-    private final Map<String, String> defaultRequestHeaders = new HashMap<>();
-    private final BasicHttpsClient request;
-    private final String STARLING_BANK_API_VERSION = "/api/v1";
+    private final Map<String, String> defaultRequestHeaders;
+    private final HttpClient request;
+    private static final String STARLING_BANK_API_VERSION = "/api/v1";
     private final String STARLING_BANK_ENDPOINT;
-    private final String ACCESS_TOKEN;
+    private final RateLimiter globalRateLimiter;
+    private final RateLimiter tokenRateLimiter;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RequestCoalescer requestCoalescer;
+    private final RequestHedger requestHedger;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final CallOptions callOptions;
+
+    private static final int MAX_RATE_LIMITED_ATTEMPTS = 3;
+    private static final long DEFAULT_RETRY_AFTER_MILLIS = 1000;
+    private static final long MAX_RETRY_AFTER_MILLIS = 60000;
 
     public ApiService(StarlingBankEnvironment starlingBankEnvironment, String accessToken){
-        this.STARLING_BANK_ENDPOINT = starlingBankEnvironment.getPath() + STARLING_BANK_API_VERSION;
-        this.ACCESS_TOKEN = accessToken;
-        setDefaultRequestHeaders();
-        this.request = new BasicHttpsClient(getDefaultRequestHeaders());
+        this(starlingBankEnvironment, accessToken, new RetryingHttpClient(new BasicHttpsClient(null), new ExponentialBackoffRetryPolicy()));
+    }
+
+    /**
+     * Creates a service that sends its requests through the given transport, e.g. a
+     * {@link org.jarling.http.PooledHttpClient} in place of the default {@link BasicHttpsClient}.
+     * The user agent and authorization headers are added to every request made through the transport.
+     * @param starlingBankEnvironment the environment to send requests to
+     * @param accessToken the customer's access token
+     * @param httpClient the transport used to send requests
+     */
+    public ApiService(StarlingBankEnvironment starlingBankEnvironment, String accessToken, HttpClient httpClient){
+        this(endpoint(starlingBankEnvironment), accessToken, httpClient);
+    }
+
+    /**
+     * Creates a service for an endpoint computed once with {@link #endpoint(StarlingBankEnvironment)}, so that
+     * many services sharing a transport hold the same endpoint string and only their own headers.
+     * @param endpoint the versioned API endpoint to send requests to
+     * @param accessToken the customer's access token
+     * @param httpClient the transport used to send requests
+     */
+    public ApiService(String endpoint, String accessToken, HttpClient httpClient){
+        this(endpoint, accessToken, httpClient, RequestPolicies.NONE);
+    }
+
+    /**
+     * Creates a service that applies the given policies to its requests. The service gets a per token
+     * {@link RateLimiter} of its own if the policies set a per token rate; everything else is shared.
+     * @param endpoint the versioned API endpoint to send requests to
+     * @param accessToken the customer's access token
+     * @param httpClient the transport used to send requests
+     * @param policies the rate limiting, circuit breakers, coalescing, hedging and bulkheads to apply
+     */
+    public ApiService(String endpoint, String accessToken, HttpClient httpClient, RequestPolicies policies){
+        this.STARLING_BANK_ENDPOINT = endpoint;
+        this.defaultRequestHeaders = new DefaultRequestHeaders(accessToken);
+        this.request = httpClient;
+        this.globalRateLimiter = policies.getGlobalRateLimiter();
+        this.tokenRateLimiter = policies.newTokenRateLimiter();
+        this.circuitBreakerRegistry = policies.getCircuitBreakerRegistry();
+        this.requestCoalescer = policies.getRequestCoalescer();
+        this.requestHedger = policies.getRequestHedger();
+        this.bulkheadRegistry = policies.getBulkheadRegistry();
+        this.callOptions = null;
+    }
+
+    private ApiService(ApiService apiService, CallOptions callOptions){
+        this.STARLING_BANK_ENDPOINT = apiService.STARLING_BANK_ENDPOINT;
+        this.defaultRequestHeaders = apiService.defaultRequestHeaders;
+        this.request = apiService.request;
+        this.globalRateLimiter = apiService.globalRateLimiter;
+        this.tokenRateLimiter = apiService.tokenRateLimiter;
+        this.circuitBreakerRegistry = apiService.circuitBreakerRegistry;
+        this.requestCoalescer = apiService.requestCoalescer;
+        this.requestHedger = apiService.requestHedger;
+        this.bulkheadRegistry = apiService.bulkheadRegistry;
+        this.callOptions = callOptions;
     }
 
-    private void setDefaultRequestHeaders(){
-        defaultRequestHeaders.put("User-Agent", "Jarling/0.1 (Starling Bank Java Client Library)");
-        defaultRequestHeaders.put("Authorization", "Bearer " + this.ACCESS_TOKEN);
+    /**
+     * @return a service sharing everything with this one, that sends its requests under the given options
+     */
+    public ApiService withCallOptions(CallOptions callOptions){
+        return new ApiService(this, callOptions);
+    }
+
+    public CallOptions getCallOptions(){
+        return callOptions;
+    }
+
+    /**
+     * @return the versioned API endpoint of the given environment
+     */
+    public static String endpoint(StarlingBankEnvironment starlingBankEnvironment){
+        return starlingBankEnvironment.getPath() + STARLING_BANK_API_VERSION;
+    }
+
+    interface Request {
+        HttpResponse send() throws StarlingBankRequestException;
+    }
+
+    // Enters the call options on whichever thread ends up sending the request, which is not the caller's when hedging
+    private Request bounded(Request call){
+        if (callOptions == null){
+            return call;
+        }
+        return () -> {
+            try (CallOptions.Scope scope = callOptions.enter()) {
+                return call.send();
+            }
+        };
+    }
+
+    private HttpResponse send(RequestMethod requestMethod, String url, Request call) throws StarlingBankRequestException {
+        if (bulkheadRegistry == null){
+            return send(url, call);
+        }
+        // The place is held while rate limited or backing off from a 429 too, as those requests are still in flight,
+        // and then until the response is closed, as its body is still coming down the connection
+        Bulkhead bulkhead = bulkheadRegistry.forRequest(requestMethod, url);
+        bulkhead.acquirePermission(url, callOptions);
+        HttpResponse response;
+        try {
+            response = send(url, call);
+        } catch (Throwable e) {
+            bulkhead.release();
+            throw e;
+        }
+        response.whenClosed(bulkhead::release);
+        return response;
+    }
+
+    private HttpResponse send(String url, Request call) throws StarlingBankRequestException {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry != null ? circuitBreakerRegistry.forPath(url) : null;
+        for (int attempt = 1; ; attempt++){
+            if (callOptions != null){
+                callOptions.checkDeadline(url);
+            }
+            if (circuitBreaker != null){
+                circuitBreaker.acquirePermission();
+            }
+            try {
+                acquireRateLimiters();
+            } catch (StarlingBankRequestException e) {
+                if (circuitBreaker != null){
+                    circuitBreaker.release();
+                }
+                throw e;
+            }
+            try {
+                return send(circuitBreaker, bounded(call));
+            } catch (StarlingBankRateLimitException e) {
+                long retryAfterMillis = e.getRetryAfterMillis() < 0 ? DEFAULT_RETRY_AFTER_MILLIS : e.getRetryAfterMillis();
+                if (attempt == MAX_RATE_LIMITED_ATTEMPTS || retryAfterMillis > MAX_RETRY_AFTER_MILLIS
+                        || (callOptions != null && retryAfterMillis >= callOptions.remainingMillis())){
+                    throw e;
+                }
+                backOff(retryAfterMillis);
+            }
+        }
+    }
+
+    // Hedging happens inside the rate limiting and the circuit breaker, which see the pair as a single request
+    private HttpResponse sendGet(String url, Request call) throws StarlingBankRequestException {
+        if (requestHedger == null){
+            return send(RequestMethod.GET, url, call);
+        }
+        Request bounded = bounded(call);
+        return send(RequestMethod.GET, url, () -> requestHedger.execute(url, bounded, this::tryAcquireRateLimiters));
+    }
+
+    private boolean tryAcquireRateLimiters(){
+        return (tokenRateLimiter == null || tokenRateLimiter.tryAcquire()) && (globalRateLimiter == null || globalRateLimiter.tryAcquire());
+    }
+
+    private void acquireRateLimiters() throws StarlingBankRequestException {
+        if (tokenRateLimiter != null){
+            tokenRateLimiter.acquire();
+        }
+        if (globalRateLimiter != null){
+            globalRateLimiter.acquire();
+        }
+    }
+
+    private static HttpResponse send(CircuitBreaker circuitBreaker, Request call) throws StarlingBankRequestException {
+        if (circuitBreaker == null){
+            return call.send();
+        }
+        long start = System.nanoTime();
+        try {
+            HttpResponse response = call.send();
+            circuitBreaker.onResult(System.nanoTime() - start, null);
+            return response;
+        } catch (StarlingBankRequestException e) {
+            circuitBreaker.onResult(System.nanoTime() - start, e);
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.release();
+            throw e;
+        }
+    }
+
+    private void backOff(long retryAfterMillis) throws StarlingBankRequestException {
+        RateLimiter rateLimiter = tokenRateLimiter != null ? tokenRateLimiter : globalRateLimiter;
+        if (rateLimiter != null){
+            rateLimiter.pause(retryAfterMillis, TimeUnit.MILLISECONDS);
+            return;
+        }
+        try {
+            Thread.sleep(retryAfterMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StarlingBankRequestException("Interrupted", "The thread was interrupted while waiting to retry a rate limited request", e);
+        }
+    }
+
+    public RateLimiter getGlobalRateLimiter(){
+        return globalRateLimiter;
+    }
+
+    public RateLimiter getTokenRateLimiter(){
+        return tokenRateLimiter;
+    }
+
+    public CircuitBreakerRegistry getCircuitBreakerRegistry(){
+        return circuitBreakerRegistry;
+    }
+
+    public RequestCoalescer getRequestCoalescer(){
+        return requestCoalescer;
+    }
+
+    public RequestHedger getRequestHedger(){
+        return requestHedger;
+    }
+
+    public BulkheadRegistry getBulkheadRegistry(){
+        return bulkheadRegistry;
+    }
+
+    /**
+     * Sends a GET and decodes the response, or joins an identical GET already in flight and shares its result.
+     * @param url the path to request, relative to the API version
+     * @param httpParameters the query parameters, or null for none
+     * @param resultType the type {@code decoder} produces; GETs are only coalesced when they decode to the same type
+     * @param decoder reads and closes the response
+     * @return the decoded response
+     */
+    public <T> T getAndDecode(String url, HttpParameter[] httpParameters, Class<?> resultType, ResponseDecoder<T> decoder) throws StarlingBankRequestException {
+        // A call with a deadline cannot wait on a request sent without one
+        if (requestCoalescer == null || (callOptions != null && callOptions.hasDeadline())){
+            return decoder.decode(get(url, httpParameters));
+        }
+        HttpRequest httpRequest = new HttpRequest(RequestMethod.GET, this.STARLING_BANK_ENDPOINT + url, httpParameters, defaultRequestHeaders, null);
+        return requestCoalescer.execute(EndpointTemplates.template(url), httpRequest, resultType, () -> decoder.decode(get(url, httpParameters)));
     }
 
     private String removeApiVersionFromUrl(String url){
@@ -49,59 +310,68 @@ public final class ApiService implements HttpClient{
         return defaultRequestHeaders;
     }
 
+    private Map<String, String> withDefaultRequestHeaders(Map<String, String> requestHeaders){
+        if (requestHeaders == null || requestHeaders == defaultRequestHeaders){
+            return defaultRequestHeaders;
+        }
+        Map<String, String> headers = new HashMap<>(defaultRequestHeaders);
+        headers.putAll(requestHeaders);
+        return headers;
+    }
+
     public HttpResponse get(String url) throws StarlingBankRequestException {
-        return request.get(this.STARLING_BANK_ENDPOINT + url);
+        return sendGet(url, () -> request.get(this.STARLING_BANK_ENDPOINT + url, null, defaultRequestHeaders));
     }
 
     public HttpResponse get(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException {
-        return request.get(this.STARLING_BANK_ENDPOINT + url, httpParameters);
+        return sendGet(url, () -> request.get(this.STARLING_BANK_ENDPOINT + url, httpParameters, defaultRequestHeaders));
     }
 
     public HttpResponse get(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) throws StarlingBankRequestException {
-        return request.get(this.STARLING_BANK_ENDPOINT + url, httpParameters, requestHeaders);
+        return sendGet(url, () -> request.get(this.STARLING_BANK_ENDPOINT + url, httpParameters, withDefaultRequestHeaders(requestHeaders)));
     }
 
     public HttpResponse post(String url) throws StarlingBankRequestException {
-        return request.post(this.STARLING_BANK_ENDPOINT + url);
+        return send(RequestMethod.POST, url, () -> request.post(this.STARLING_BANK_ENDPOINT + url, null, defaultRequestHeaders));
     }
 
     public HttpResponse post(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException {
-        return request.post(this.STARLING_BANK_ENDPOINT + url, httpParameters);
+        return send(RequestMethod.POST, url, () -> request.post(this.STARLING_BANK_ENDPOINT + url, httpParameters, defaultRequestHeaders));
     }
 
     public HttpResponse post(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) throws StarlingBankRequestException {
-        return request.post(this.STARLING_BANK_ENDPOINT + url, httpParameters, requestHeaders);
+        return send(RequestMethod.POST, url, () -> request.post(this.STARLING_BANK_ENDPOINT + url, httpParameters, withDefaultRequestHeaders(requestHeaders)));
     }
 
     public HttpResponse post(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders, String body) throws StarlingBankRequestException {
-        return request.post(this.STARLING_BANK_ENDPOINT + url, httpParameters, requestHeaders, body);
+        return send(RequestMethod.POST, url, () -> request.post(this.STARLING_BANK_ENDPOINT + url, httpParameters, withDefaultRequestHeaders(requestHeaders), body));
     }
 
     public HttpResponse put(String url) throws StarlingBankRequestException {
-        return request.put(this.STARLING_BANK_ENDPOINT + url);
+        return send(RequestMethod.PUT, url, () -> request.put(this.STARLING_BANK_ENDPOINT + url, null, defaultRequestHeaders));
     }
 
     public HttpResponse put(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException {
-        return request.put(this.STARLING_BANK_ENDPOINT + url, httpParameters);
+        return send(RequestMethod.PUT, url, () -> request.put(this.STARLING_BANK_ENDPOINT + url, httpParameters, defaultRequestHeaders));
     }
 
     public HttpResponse put(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) throws StarlingBankRequestException {
-        return request.put(this.STARLING_BANK_ENDPOINT + url, httpParameters, requestHeaders);
+        return send(RequestMethod.PUT, url, () -> request.put(this.STARLING_BANK_ENDPOINT + url, httpParameters, withDefaultRequestHeaders(requestHeaders)));
     }
 
     public HttpResponse put(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders, String body) throws StarlingBankRequestException {
-        return request.put(this.STARLING_BANK_ENDPOINT + url, httpParameters, requestHeaders, body);
+        return send(RequestMethod.PUT, url, () -> request.put(this.STARLING_BANK_ENDPOINT + url, httpParameters, withDefaultRequestHeaders(requestHeaders), body));
     }
 
     public HttpResponse delete(String url) throws StarlingBankRequestException {
-        return request.delete(this.STARLING_BANK_ENDPOINT + url);
+        return send(RequestMethod.DELETE, url, () -> request.delete(this.STARLING_BANK_ENDPOINT + url, null, defaultRequestHeaders));
     }
 
     public HttpResponse delete(String url, HttpParameter[] httpParameters) throws StarlingBankRequestException {
-        return request.delete(this.STARLING_BANK_ENDPOINT + url, httpParameters);
+        return send(RequestMethod.DELETE, url, () -> request.delete(this.STARLING_BANK_ENDPOINT + url, httpParameters, defaultRequestHeaders));
     }
 
     public HttpResponse delete(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) throws StarlingBankRequestException {
-        return request.delete(this.STARLING_BANK_ENDPOINT + url, httpParameters, requestHeaders);
+        return send(RequestMethod.DELETE, url, () -> request.delete(this.STARLING_BANK_ENDPOINT + url, httpParameters, withDefaultRequestHeaders(requestHeaders)));
     }
 }
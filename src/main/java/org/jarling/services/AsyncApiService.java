@@ -0,0 +1,61 @@
+package org.jarling.services;
+
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.http.AsyncHttpClient;
+import org.jarling.http.HttpParameter;
+import org.jarling.http.HttpResponse;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ *
+ * Asynchronous counterpart of {@link ApiService}, sending requests to the Starling Bank API endpoints
+ * through an {@link AsyncHttpClient}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class AsyncApiService implements AsyncHttpClient {
+
+    private final Map<String, String> defaultRequestHeaders;
+    private final AsyncHttpClient request;
+    private final String STARLING_BANK_API_VERSION = "/api/v1";
+    private final String STARLING_BANK_ENDPOINT;
+
+    public AsyncApiService(StarlingBankEnvironment starlingBankEnvironment, String accessToken, AsyncHttpClient asyncHttpClient){
+        this.STARLING_BANK_ENDPOINT = starlingBankEnvironment.getPath() + STARLING_BANK_API_VERSION;
+        this.defaultRequestHeaders = new DefaultRequestHeaders(accessToken);
+        this.request = asyncHttpClient;
+    }
+
+    private Map<String, String> withDefaultRequestHeaders(Map<String, String> requestHeaders){
+        if (requestHeaders == null){
+            return defaultRequestHeaders;
+        }
+        Map<String, String> headers = new HashMap<>(defaultRequestHeaders);
+        headers.putAll(requestHeaders);
+        return headers;
+    }
+
+    public String getLocationHeader(HttpResponse httpResponse){
+        return httpResponse.getHeaders().get("Location").get(0).replace(STARLING_BANK_API_VERSION, "");
+    }
+
+    public CompletableFuture<HttpResponse> get(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) {
+        return request.get(this.STARLING_BANK_ENDPOINT + url, httpParameters, withDefaultRequestHeaders(requestHeaders));
+    }
+
+    public CompletableFuture<HttpResponse> post(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders, String body) {
+        return request.post(this.STARLING_BANK_ENDPOINT + url, httpParameters, withDefaultRequestHeaders(requestHeaders), body);
+    }
+
+    public CompletableFuture<HttpResponse> put(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders, String body) {
+        return request.put(this.STARLING_BANK_ENDPOINT + url, httpParameters, withDefaultRequestHeaders(requestHeaders), body);
+    }
+
+    public CompletableFuture<HttpResponse> delete(String url, HttpParameter[] httpParameters, Map<String, String> requestHeaders) {
+        return request.delete(this.STARLING_BANK_ENDPOINT + url, httpParameters, withDefaultRequestHeaders(requestHeaders));
+    }
+}
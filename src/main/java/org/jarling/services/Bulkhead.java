@@ -0,0 +1,101 @@
+package org.jarling.services;
+
+import org.jarling.exceptions.StarlingBankBulkheadFullException;
+import org.jarling.exceptions.StarlingBankDeadlineExceededException;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.CallOptions;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * Bounds the requests in flight to one group of resources, so that a burst of requests to one group (say a backfill
+ * of transactions) cannot take every thread and connection from another (say payments). A request that finds the
+ * bulkhead full waits in a bounded queue; once the queue is full too, requests are rejected straight away with a
+ * {@link StarlingBankBulkheadFullException}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class Bulkhead {
+
+    private final String group;
+    private final BulkheadConfig config;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAccumulator peakConcurrentCalls = new LongAccumulator(Math::max, 0);
+
+    Bulkhead(String group, BulkheadConfig config){
+        this.group = group;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxConcurrentCalls(), true);
+    }
+
+    /**
+     * Takes a place in the bulkhead, waiting for one if the queue has room. Every successful call must be followed
+     * by exactly one {@link #release()}.
+     * @param url the URL of the request, to report a passed deadline with
+     * @param callOptions the options of the call, whose deadline cuts the wait short, or null for none
+     * @throws StarlingBankDeadlineExceededException if the deadline of the call passed before a place came free
+     * @throws StarlingBankBulkheadFullException if the queue is full, or no place came free in time
+     */
+    public void acquirePermission(String url, CallOptions callOptions) throws StarlingBankRequestException {
+        if (callOptions != null){
+            callOptions.checkDeadline(url);
+        }
+        try {
+            // Unlike tryAcquire(), a timed tryAcquire honours fairness, so a new request cannot barge ahead of queued ones
+            if (!permits.tryAcquire(0, TimeUnit.MILLISECONDS)){
+                await(url, callOptions);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StarlingBankRequestException("Interrupted", "The thread was interrupted while waiting for the bulkhead of " + group, e);
+        }
+        accepted.increment();
+        peakConcurrentCalls.accumulate(config.getMaxConcurrentCalls() - permits.availablePermits());
+    }
+
+    private void await(String url, CallOptions callOptions) throws StarlingBankRequestException, InterruptedException {
+        if (queued.incrementAndGet() > config.getMaxQueuedCalls()){
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new StarlingBankBulkheadFullException(group);
+        }
+        long waitMillis = callOptions == null ? config.getMaxWaitMillis() : Math.min(config.getMaxWaitMillis(), callOptions.remainingMillis());
+        try {
+            if (!permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)){
+                if (callOptions != null){
+                    callOptions.checkDeadline(url);
+                }
+                rejected.increment();
+                throw new StarlingBankBulkheadFullException(group);
+            }
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public void release(){
+        permits.release();
+    }
+
+    public String getGroup(){
+        return group;
+    }
+
+    public BulkheadConfig getConfig(){
+        return config;
+    }
+
+    public BulkheadStats getStats(){
+        return new BulkheadStats(group, config.getMaxConcurrentCalls(), config.getMaxQueuedCalls(),
+                config.getMaxConcurrentCalls() - permits.availablePermits(), queued.get(), accepted.sum(), rejected.sum(), peakConcurrentCalls.get());
+    }
+}
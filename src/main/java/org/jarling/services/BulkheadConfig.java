@@ -0,0 +1,49 @@
+package org.jarling.services;
+
+/**
+ *
+ * Limits of a {@link Bulkhead}: how many requests may be in flight at once and how many may wait for one of them.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class BulkheadConfig {
+
+    private final int maxConcurrentCalls;
+    private final int maxQueuedCalls;
+    private final long maxWaitMillis;
+
+    /**
+     * Lets 10 requests be in flight at once, and 20 more wait up to 5 seconds for their turn.
+     */
+    public BulkheadConfig(){
+        this(10, 20, 5000);
+    }
+
+    /**
+     * @param maxConcurrentCalls the number of requests that may be in flight at once
+     * @param maxQueuedCalls the number of requests that may wait for a request in flight to finish; further
+     *                       requests are rejected straight away
+     * @param maxWaitMillis how long a request may wait before it is rejected
+     */
+    public BulkheadConfig(int maxConcurrentCalls, int maxQueuedCalls, long maxWaitMillis){
+        if (maxConcurrentCalls < 1 || maxQueuedCalls < 0 || maxWaitMillis < 0){
+            throw new IllegalArgumentException("maxConcurrentCalls must be at least 1, and maxQueuedCalls and maxWaitMillis must not be negative");
+        }
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxQueuedCalls = maxQueuedCalls;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int getMaxQueuedCalls() {
+        return maxQueuedCalls;
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+}
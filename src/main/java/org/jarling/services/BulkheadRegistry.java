@@ -0,0 +1,94 @@
+package org.jarling.services;
+
+import org.jarling.http.RequestMethod;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ *
+ * Holds one {@link Bulkhead} per group of resources, created on first use. Requests are grouped by the first segment
+ * of their path, e.g. {@code payments}, {@code transactions} or {@code savings-goals}. A group configured with a
+ * {@code :read} or {@code :write} suffix, e.g. {@code payments:write}, is split so that GETs and the other methods
+ * each get their own bulkhead. Groups without a config of their own share nothing, but each uses the default config.
+ *
+ * Share one registry between every {@link ApiService} talking to Starling, so that the limits hold across customers.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class BulkheadRegistry {
+
+    private static final String READ = ":read";
+    private static final String WRITE = ":write";
+
+    private final BulkheadConfig defaultConfig;
+    private final Map<String, BulkheadConfig> groupConfigs;
+    private final ConcurrentMap<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+    // The bulkheads of reads and of writes by resource, which are the same one unless the resource is split
+    private final ConcurrentMap<String, Bulkhead> readBulkheads = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Bulkhead> writeBulkheads = new ConcurrentHashMap<>();
+
+    public BulkheadRegistry(){
+        this(new BulkheadConfig(), null);
+    }
+
+    /**
+     * @param defaultConfig the limits of groups without a config of their own
+     * @param groupConfigs limits by group, e.g. {@code transactions} or {@code payments:write}, or null for none
+     */
+    public BulkheadRegistry(BulkheadConfig defaultConfig, Map<String, BulkheadConfig> groupConfigs){
+        this.defaultConfig = defaultConfig;
+        this.groupConfigs = groupConfigs == null ? Collections.<String, BulkheadConfig>emptyMap() : Collections.unmodifiableMap(new HashMap<>(groupConfigs));
+    }
+
+    /**
+     * @param requestMethod the method of the request
+     * @param path a request path relative to the API version
+     * @return the bulkhead of the group the request belongs to
+     */
+    public Bulkhead forRequest(RequestMethod requestMethod, String path){
+        String resource = resource(path);
+        boolean read = requestMethod == RequestMethod.GET;
+        Bulkhead bulkhead = (read ? readBulkheads : writeBulkheads).get(resource);
+        if (bulkhead == null){
+            bulkhead = (read ? readBulkheads : writeBulkheads).computeIfAbsent(resource, key -> bulkhead(key, read ? READ : WRITE));
+        }
+        return bulkhead;
+    }
+
+    private Bulkhead bulkhead(String resource, String kind){
+        String group = groupConfigs.containsKey(resource + kind) ? resource + kind : resource;
+        BulkheadConfig config = groupConfigs.getOrDefault(group, defaultConfig);
+        return bulkheads.computeIfAbsent(group, key -> new Bulkhead(key, config));
+    }
+
+    // The first segment of the path, e.g. "payments" for "/payments/local"
+    private static String resource(String path){
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = start;
+        while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '?'){
+            end++;
+        }
+        return path.substring(start, end);
+    }
+
+    public BulkheadConfig getDefaultConfig(){
+        return defaultConfig;
+    }
+
+    /**
+     * @return a snapshot of every bulkhead created so far, by group
+     */
+    public Map<String, BulkheadStats> getStats(){
+        Map<String, BulkheadStats> stats = new TreeMap<>();
+        for (Bulkhead bulkhead : bulkheads.values()){
+            stats.put(bulkhead.getGroup(), bulkhead.getStats());
+        }
+        return stats;
+    }
+}
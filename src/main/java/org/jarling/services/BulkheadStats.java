@@ -0,0 +1,100 @@
+package org.jarling.services;
+
+/**
+ *
+ * Point in time snapshot of the occupancy and counters of a {@link Bulkhead}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class BulkheadStats {
+
+    private final String group;
+    private final int maxConcurrentCalls;
+    private final int maxQueuedCalls;
+    private final int concurrentCalls;
+    private final int queuedCalls;
+    private final long accepted;
+    private final long rejected;
+    private final long peakConcurrentCalls;
+
+    BulkheadStats(String group, int maxConcurrentCalls, int maxQueuedCalls, int concurrentCalls, int queuedCalls, long accepted, long rejected,
+                  long peakConcurrentCalls) {
+        this.group = group;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxQueuedCalls = maxQueuedCalls;
+        this.concurrentCalls = concurrentCalls;
+        this.queuedCalls = queuedCalls;
+        this.accepted = accepted;
+        this.rejected = rejected;
+        this.peakConcurrentCalls = peakConcurrentCalls;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public int getMaxQueuedCalls() {
+        return maxQueuedCalls;
+    }
+
+    /**
+     * @return requests in flight
+     */
+    public int getConcurrentCalls() {
+        return concurrentCalls;
+    }
+
+    /**
+     * @return requests waiting for a request in flight to finish
+     */
+    public int getQueuedCalls() {
+        return queuedCalls;
+    }
+
+    /**
+     * @return the share of places for requests in flight that are taken, between 0 and 1
+     */
+    public double getOccupancy() {
+        return (double) concurrentCalls / maxConcurrentCalls;
+    }
+
+    /**
+     * @return requests let through, straight away or after waiting
+     */
+    public long getAccepted() {
+        return accepted;
+    }
+
+    /**
+     * @return requests rejected because the queue was full or no place came free in time
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * @return the most requests that have been in flight at once
+     */
+    public long getPeakConcurrentCalls() {
+        return peakConcurrentCalls;
+    }
+
+    @Override
+    public String toString() {
+        return "BulkheadStats{" +
+                "group='" + group + '\'' +
+                ", maxConcurrentCalls=" + maxConcurrentCalls +
+                ", maxQueuedCalls=" + maxQueuedCalls +
+                ", concurrentCalls=" + concurrentCalls +
+                ", queuedCalls=" + queuedCalls +
+                ", accepted=" + accepted +
+                ", rejected=" + rejected +
+                ", peakConcurrentCalls=" + peakConcurrentCalls +
+                '}';
+    }
+}
@@ -0,0 +1,198 @@
+package org.jarling.services;
+
+import org.jarling.exceptions.StarlingBankCircuitOpenException;
+import org.jarling.exceptions.StarlingBankRequestException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * Circuit breaker for one endpoint template. While closed it records whether each of the most recent requests
+ * failed or was slow; once too many did, it opens and rejects requests without sending them. After the open period
+ * it lets a few trial requests through (half open) and closes again if they do well, or opens again if not.
+ *
+ * A request fails when the connection failed or Starling answered with a 5xx status. Other error statuses, such as
+ * 404, say nothing about the health of the endpoint and count as successes.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class CircuitBreaker {
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final String endpointTemplate;
+    private final CircuitBreakerConfig config;
+    private final long slowCallDurationNanos;
+    private final List<CircuitBreakerListener> listeners;
+
+    // Guarded by this
+    private CircuitBreakerState state = CircuitBreakerState.CLOSED;
+    private final byte[] outcomes;
+    private int nextOutcome;
+    private int bufferedCalls;
+    private int failedCalls;
+    private int slowCalls;
+    private long openedAtNanos;
+    private int halfOpenCallsStarted;
+    private int halfOpenCallsFinished;
+    private long notPermittedCalls;
+    private long transitions;
+
+    CircuitBreaker(String endpointTemplate, CircuitBreakerConfig config, List<CircuitBreakerListener> listeners){
+        this.endpointTemplate = endpointTemplate;
+        this.config = config;
+        this.slowCallDurationNanos = TimeUnit.MILLISECONDS.toNanos(config.getSlowCallDurationMillis());
+        this.listeners = listeners;
+        this.outcomes = new byte[config.getSlidingWindowSize()];
+    }
+
+    public String getEndpointTemplate() {
+        return endpointTemplate;
+    }
+
+    /**
+     * Lets a request through, or rejects it while the breaker is open or its half open trials are all taken.
+     * Every request let through must be followed by {@link #onResult} or {@link #release()}.
+     * @throws StarlingBankCircuitOpenException if the request must not be sent
+     */
+    public void acquirePermission() throws StarlingBankCircuitOpenException {
+        CircuitBreakerState previous = null;
+        boolean permitted;
+        synchronized (this){
+            if (state == CircuitBreakerState.OPEN && System.nanoTime() - openedAtNanos >= TimeUnit.MILLISECONDS.toNanos(config.getOpenDurationMillis())){
+                previous = transitionTo(CircuitBreakerState.HALF_OPEN);
+            }
+            switch (state){
+                case CLOSED:
+                    permitted = true;
+                    break;
+                case HALF_OPEN:
+                    permitted = halfOpenCallsStarted < config.getHalfOpenCalls();
+                    if (permitted){
+                        halfOpenCallsStarted++;
+                    }
+                    break;
+                default:
+                    permitted = false;
+            }
+            if (!permitted){
+                notPermittedCalls++;
+            }
+        }
+        notify(previous, CircuitBreakerState.HALF_OPEN);
+        if (!permitted){
+            throw new StarlingBankCircuitOpenException(endpointTemplate);
+        }
+    }
+
+    /**
+     * Records the outcome of a request let through by {@link #acquirePermission()}.
+     * @param durationNanos how long the request took
+     * @param failure why the request failed, or null if it succeeded
+     */
+    public void onResult(long durationNanos, StarlingBankRequestException failure){
+        byte outcome = 0;
+        if (failure != null && isFailure(failure)){
+            outcome |= FAILED;
+        }
+        if (durationNanos >= slowCallDurationNanos){
+            outcome |= SLOW;
+        }
+        CircuitBreakerState previous = null;
+        CircuitBreakerState next;
+        synchronized (this){
+            if (state == CircuitBreakerState.OPEN){
+                return;
+            }
+            record(outcome);
+            if (state == CircuitBreakerState.HALF_OPEN){
+                halfOpenCallsFinished++;
+                if (halfOpenCallsFinished >= config.getHalfOpenCalls()){
+                    previous = transitionTo(exceedsThresholds() ? CircuitBreakerState.OPEN : CircuitBreakerState.CLOSED);
+                }
+            } else if (bufferedCalls >= config.getMinimumNumberOfCalls() && exceedsThresholds()){
+                previous = transitionTo(CircuitBreakerState.OPEN);
+            }
+            next = state;
+        }
+        notify(previous, next);
+    }
+
+    /**
+     * Gives back a permission whose request ended without an outcome worth recording, e.g. because the thread was
+     * interrupted.
+     */
+    public synchronized void release(){
+        if (state == CircuitBreakerState.HALF_OPEN && halfOpenCallsStarted > halfOpenCallsFinished){
+            halfOpenCallsStarted--;
+        }
+    }
+
+    public synchronized CircuitBreakerState getState() {
+        return state;
+    }
+
+    public synchronized CircuitBreakerStats getStats(){
+        return new CircuitBreakerStats(endpointTemplate, state, rate(failedCalls), rate(slowCalls), bufferedCalls, failedCalls, slowCalls,
+                notPermittedCalls, transitions);
+    }
+
+    static boolean isFailure(StarlingBankRequestException failure){
+        if (failure instanceof StarlingBankCircuitOpenException){
+            return false;
+        }
+        return failure.getStatusCode() >= 500 || (failure.getStatusCode() == -1 && failure.getCause() instanceof IOException);
+    }
+
+    private void record(byte outcome){
+        if (bufferedCalls == outcomes.length){
+            byte evicted = outcomes[nextOutcome];
+            failedCalls -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            bufferedCalls++;
+        }
+        outcomes[nextOutcome] = outcome;
+        nextOutcome = (nextOutcome + 1) % outcomes.length;
+        failedCalls += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+    }
+
+    private boolean exceedsThresholds(){
+        return rate(failedCalls) >= config.getFailureRateThreshold() || rate(slowCalls) >= config.getSlowCallRateThreshold();
+    }
+
+    // Percentage of the buffered calls, or -1 while there are none
+    private float rate(int calls){
+        return bufferedCalls == 0 ? -1 : calls * 100f / bufferedCalls;
+    }
+
+    private CircuitBreakerState transitionTo(CircuitBreakerState next){
+        CircuitBreakerState previous = state;
+        state = next;
+        transitions++;
+        nextOutcome = 0;
+        bufferedCalls = 0;
+        failedCalls = 0;
+        slowCalls = 0;
+        halfOpenCallsStarted = 0;
+        halfOpenCallsFinished = 0;
+        if (next == CircuitBreakerState.OPEN){
+            openedAtNanos = System.nanoTime();
+        }
+        return previous;
+    }
+
+    private void notify(CircuitBreakerState previous, CircuitBreakerState next){
+        if (previous == null){
+            return;
+        }
+        for (CircuitBreakerListener listener : listeners){
+            listener.onStateTransition(endpointTemplate, previous, next);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.jarling.services;
+
+/**
+ *
+ * Thresholds and timings shared by the circuit breakers of a {@link CircuitBreakerRegistry}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class CircuitBreakerConfig {
+
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallDurationMillis;
+    private final int slidingWindowSize;
+    private final int minimumNumberOfCalls;
+    private final long openDurationMillis;
+    private final int halfOpenCalls;
+
+    /**
+     * Opens after half of the last 20 requests (at least 10) failed, or 80% of them took longer than 5 seconds,
+     * stays open for 30 seconds and then sends 3 trial requests.
+     */
+    public CircuitBreakerConfig(){
+        this(50, 80, 5000, 20, 10, 30000, 3);
+    }
+
+    /**
+     * @param failureRateThreshold percentage of failed requests in the window at or above which the breaker opens
+     * @param slowCallRateThreshold percentage of slow requests in the window at or above which the breaker opens
+     * @param slowCallDurationMillis duration at or above which a request counts as slow
+     * @param slidingWindowSize the number of most recent requests the rates are computed over
+     * @param minimumNumberOfCalls the number of requests the window must hold before the rates are acted on
+     * @param openDurationMillis how long the breaker rejects requests before letting trial requests through
+     * @param halfOpenCalls the number of trial requests whose outcome decides whether the breaker closes again
+     */
+    public CircuitBreakerConfig(int failureRateThreshold, int slowCallRateThreshold, long slowCallDurationMillis, int slidingWindowSize,
+                                int minimumNumberOfCalls, long openDurationMillis, int halfOpenCalls){
+        if (failureRateThreshold < 1 || failureRateThreshold > 100 || slowCallRateThreshold < 1 || slowCallRateThreshold > 100){
+            throw new IllegalArgumentException("rate thresholds must be percentages between 1 and 100");
+        }
+        if (slidingWindowSize < 1 || minimumNumberOfCalls < 1 || minimumNumberOfCalls > slidingWindowSize || halfOpenCalls < 1){
+            throw new IllegalArgumentException("slidingWindowSize, halfOpenCalls and minimumNumberOfCalls must be at least 1, and minimumNumberOfCalls at most slidingWindowSize");
+        }
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationMillis = slowCallDurationMillis;
+        this.slidingWindowSize = slidingWindowSize;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.openDurationMillis = openDurationMillis;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public int getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public int getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public long getSlowCallDurationMillis() {
+        return slowCallDurationMillis;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public long getOpenDurationMillis() {
+        return openDurationMillis;
+    }
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+}
@@ -0,0 +1,14 @@
+package org.jarling.services;
+
+/**
+ *
+ * Notified when a {@link CircuitBreaker} changes state. Called on the thread whose request caused the change,
+ * so implementations should return quickly.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public interface CircuitBreakerListener {
+
+    void onStateTransition(String endpointTemplate, CircuitBreakerState from, CircuitBreakerState to);
+}
@@ -0,0 +1,68 @@
+package org.jarling.services;
+
+import org.jarling.http.EndpointTemplates;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ *
+ * Holds one {@link CircuitBreaker} per endpoint template, created on first use with a shared
+ * {@link CircuitBreakerConfig}. Share one registry between every {@link ApiService} talking to Starling, so that
+ * requests from all customers contribute to, and are protected by, the same breakers.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class CircuitBreakerRegistry {
+
+    private final CircuitBreakerConfig config;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final List<CircuitBreakerListener> listeners = new CopyOnWriteArrayList<>();
+
+    public CircuitBreakerRegistry(){
+        this(new CircuitBreakerConfig());
+    }
+
+    public CircuitBreakerRegistry(CircuitBreakerConfig config){
+        this.config = config;
+    }
+
+    /**
+     * @param path a request path relative to the API version
+     * @return the circuit breaker of the endpoint the path addresses
+     */
+    public CircuitBreaker forPath(String path){
+        return circuitBreakers.computeIfAbsent(EndpointTemplates.template(path), template -> new CircuitBreaker(template, config, listeners));
+    }
+
+    /**
+     * Registers a listener that is told about every state transition of every breaker in this registry.
+     */
+    public void addListener(CircuitBreakerListener listener){
+        listeners.add(listener);
+    }
+
+    public void removeListener(CircuitBreakerListener listener){
+        listeners.remove(listener);
+    }
+
+    public CircuitBreakerConfig getConfig(){
+        return config;
+    }
+
+    /**
+     * @return a snapshot of every breaker created so far, by endpoint template
+     */
+    public Map<String, CircuitBreakerStats> getStats(){
+        Map<String, CircuitBreakerStats> stats = new TreeMap<>();
+        for (CircuitBreaker circuitBreaker : circuitBreakers.values()){
+            stats.put(circuitBreaker.getEndpointTemplate(), circuitBreaker.getStats());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,18 @@
+package org.jarling.services;
+
+/**
+ *
+ * States of a {@link CircuitBreaker}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public enum CircuitBreakerState {
+
+    /** Requests are sent and their outcomes recorded */
+    CLOSED,
+    /** Requests are rejected without being sent until the open period has passed */
+    OPEN,
+    /** A few trial requests are sent to decide whether to close or open again */
+    HALF_OPEN
+}
@@ -0,0 +1,100 @@
+package org.jarling.services;
+
+/**
+ *
+ * Point in time snapshot of the state and counters of a {@link CircuitBreaker}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class CircuitBreakerStats {
+
+    private final String endpointTemplate;
+    private final CircuitBreakerState state;
+    private final float failureRate;
+    private final float slowCallRate;
+    private final int bufferedCalls;
+    private final int failedCalls;
+    private final int slowCalls;
+    private final long notPermittedCalls;
+    private final long transitions;
+
+    CircuitBreakerStats(String endpointTemplate, CircuitBreakerState state, float failureRate, float slowCallRate, int bufferedCalls,
+                        int failedCalls, int slowCalls, long notPermittedCalls, long transitions) {
+        this.endpointTemplate = endpointTemplate;
+        this.state = state;
+        this.failureRate = failureRate;
+        this.slowCallRate = slowCallRate;
+        this.bufferedCalls = bufferedCalls;
+        this.failedCalls = failedCalls;
+        this.slowCalls = slowCalls;
+        this.notPermittedCalls = notPermittedCalls;
+        this.transitions = transitions;
+    }
+
+    public String getEndpointTemplate() {
+        return endpointTemplate;
+    }
+
+    public CircuitBreakerState getState() {
+        return state;
+    }
+
+    /**
+     * @return percentage of the requests in the current window that failed, or -1 when the window is empty
+     */
+    public float getFailureRate() {
+        return failureRate;
+    }
+
+    /**
+     * @return percentage of the requests in the current window that were slow, or -1 when the window is empty
+     */
+    public float getSlowCallRate() {
+        return slowCallRate;
+    }
+
+    /**
+     * @return requests recorded in the current window, which starts over on every state transition
+     */
+    public int getBufferedCalls() {
+        return bufferedCalls;
+    }
+
+    public int getFailedCalls() {
+        return failedCalls;
+    }
+
+    public int getSlowCalls() {
+        return slowCalls;
+    }
+
+    /**
+     * @return requests rejected without being sent since the breaker was created
+     */
+    public long getNotPermittedCalls() {
+        return notPermittedCalls;
+    }
+
+    /**
+     * @return state transitions since the breaker was created
+     */
+    public long getTransitions() {
+        return transitions;
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreakerStats{" +
+                "endpointTemplate='" + endpointTemplate + '\'' +
+                ", state=" + state +
+                ", failureRate=" + failureRate +
+                ", slowCallRate=" + slowCallRate +
+                ", bufferedCalls=" + bufferedCalls +
+                ", failedCalls=" + failedCalls +
+                ", slowCalls=" + slowCalls +
+                ", notPermittedCalls=" + notPermittedCalls +
+                ", transitions=" + transitions +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+package org.jarling.services;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *
+ * Read-only map of the headers sent with every request of one customer: the shared user agent and the customer's
+ * authorization. Holds nothing but the authorization value, so a service per customer stays small.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+final class DefaultRequestHeaders extends AbstractMap<String, String> {
+
+    private static final Map.Entry<String, String> USER_AGENT =
+            new SimpleImmutableEntry<>("User-Agent", "Jarling/0.1 (Starling Bank Java Client Library)");
+
+    private final String authorization;
+
+    DefaultRequestHeaders(String accessToken){
+        this.authorization = "Bearer " + accessToken;
+    }
+
+    @Override
+    public String get(Object key) {
+        if ("Authorization".equals(key)){
+            return authorization;
+        }
+        return USER_AGENT.getKey().equals(key) ? USER_AGENT.getValue() : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return 2;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<Map.Entry<String, String>>() {
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return Arrays.<Map.Entry<String, String>>asList(USER_AGENT, new SimpleImmutableEntry<>("Authorization", authorization)).iterator();
+            }
+
+            @Override
+            public int size() {
+                return 2;
+            }
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package org.jarling.services;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ *
+ * When a {@link RequestHedger} sends a second copy of a slow GET, and how many extra requests it may send in all.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class HedgingConfig {
+
+    private final int delayPercentile;
+    private final long minDelayMillis;
+    private final int minimumNumberOfCalls;
+    private final int budgetPercent;
+    private final Set<String> endpointTemplates;
+
+    /**
+     * Hedges a GET to any endpoint once it has taken longer than 95% of the last requests to that endpoint (at least
+     * 20 of them, and never sooner than 10ms), sending at most 5% more requests than without hedging.
+     */
+    public HedgingConfig(){
+        this(95, 10, 20, 5, null);
+    }
+
+    /**
+     * @param delayPercentile the percentile of recent latencies of an endpoint after which a GET to it is hedged, or 0
+     *                        to always hedge after {@code minDelayMillis}
+     * @param minDelayMillis the shortest delay before hedging
+     * @param minimumNumberOfCalls the number of latencies an endpoint must have recorded before its GETs are hedged
+     *                             at a percentile
+     * @param budgetPercent hedges allowed per 100 GETs, averaged over time
+     * @param endpointTemplates the endpoints to hedge GETs to, e.g. {@code /transactions/mastercard/{id}}, or null for all
+     */
+    public HedgingConfig(int delayPercentile, long minDelayMillis, int minimumNumberOfCalls, int budgetPercent, Set<String> endpointTemplates){
+        if (delayPercentile < 0 || delayPercentile > 99){
+            throw new IllegalArgumentException("delayPercentile must be between 0 and 99");
+        }
+        if (minDelayMillis < 0 || minimumNumberOfCalls < 1 || budgetPercent < 1 || budgetPercent > 100){
+            throw new IllegalArgumentException("minDelayMillis must not be negative, minimumNumberOfCalls must be at least 1 and budgetPercent between 1 and 100");
+        }
+        this.delayPercentile = delayPercentile;
+        this.minDelayMillis = minDelayMillis;
+        this.minimumNumberOfCalls = minimumNumberOfCalls;
+        this.budgetPercent = budgetPercent;
+        this.endpointTemplates = endpointTemplates == null ? null : Collections.unmodifiableSet(new HashSet<>(endpointTemplates));
+    }
+
+    public int getDelayPercentile() {
+        return delayPercentile;
+    }
+
+    public long getMinDelayMillis() {
+        return minDelayMillis;
+    }
+
+    public int getMinimumNumberOfCalls() {
+        return minimumNumberOfCalls;
+    }
+
+    public int getBudgetPercent() {
+        return budgetPercent;
+    }
+
+    /**
+     * @return the endpoints whose GETs are hedged, or null for all
+     */
+    public Set<String> getEndpointTemplates() {
+        return endpointTemplates;
+    }
+
+    boolean appliesTo(String endpointTemplate){
+        return endpointTemplates == null || endpointTemplates.contains(endpointTemplate);
+    }
+}
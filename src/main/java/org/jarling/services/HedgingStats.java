@@ -0,0 +1,78 @@
+package org.jarling.services;
+
+/**
+ *
+ * Point in time snapshot of the counters kept by a {@link RequestHedger} for one endpoint.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class HedgingStats {
+
+    private final String endpointTemplate;
+    private final long requests;
+    private final long hedged;
+    private final long hedgeWins;
+    private final long budgetExhausted;
+    private final long hedgeDelayMillis;
+
+    HedgingStats(String endpointTemplate, long requests, long hedged, long hedgeWins, long budgetExhausted, long hedgeDelayMillis) {
+        this.endpointTemplate = endpointTemplate;
+        this.requests = requests;
+        this.hedged = hedged;
+        this.hedgeWins = hedgeWins;
+        this.budgetExhausted = budgetExhausted;
+        this.hedgeDelayMillis = hedgeDelayMillis;
+    }
+
+    public String getEndpointTemplate() {
+        return endpointTemplate;
+    }
+
+    /**
+     * @return GETs sent, not counting hedges
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return GETs for which a second copy was sent
+     */
+    public long getHedged() {
+        return hedged;
+    }
+
+    /**
+     * @return hedges that answered before the request they copied
+     */
+    public long getHedgeWins() {
+        return hedgeWins;
+    }
+
+    /**
+     * @return GETs that were due a hedge but were not given one because the budget had run out
+     */
+    public long getBudgetExhausted() {
+        return budgetExhausted;
+    }
+
+    /**
+     * @return how long a GET currently waits before it is hedged, or -1 while too few latencies have been recorded
+     */
+    public long getHedgeDelayMillis() {
+        return hedgeDelayMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "HedgingStats{" +
+                "endpointTemplate='" + endpointTemplate + '\'' +
+                ", requests=" + requests +
+                ", hedged=" + hedged +
+                ", hedgeWins=" + hedgeWins +
+                ", budgetExhausted=" + budgetExhausted +
+                ", hedgeDelayMillis=" + hedgeDelayMillis +
+                '}';
+    }
+}
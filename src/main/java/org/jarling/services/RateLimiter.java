@@ -0,0 +1,121 @@
+package org.jarling.services;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * Token bucket that spaces out requests to Starling. The bucket refills at a steady rate up to its burst size, and
+ * a request that finds it empty waits for the next token instead of being sent and rejected. Share one limiter
+ * between several {@link ApiService}s for a global limit, or give each its own for a per token limit.
+ *
+ * When Starling answers 429 Too Many Requests the limiter is paused for as long as the Retry-After header asks, so
+ * that every request waiting on it is held back, not just the one that was rejected.
+ *
+ * The bucket is kept as a single theoretical arrival time (the generic cell rate algorithm), so taking a token is a
+ * compare and set rather than a lock.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class RateLimiter {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param requestsPerSecond the steady rate at which requests may be sent
+     * @param burst the number of requests that may be sent at once after the limiter has been idle
+     */
+    public RateLimiter(double requestsPerSecond, int burst){
+        if (requestsPerSecond <= 0 || burst < 1){
+            throw new IllegalArgumentException("requestsPerSecond must be positive and burst at least 1");
+        }
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+        this.burstNanos = intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes a token, waiting for one to become available if the bucket is empty.
+     * @throws StarlingBankRequestException if the thread is interrupted while waiting
+     */
+    public void acquire() throws StarlingBankRequestException {
+        long now = System.nanoTime();
+        long previous;
+        long waitNanos;
+        do {
+            previous = theoreticalArrival.get();
+            waitNanos = Math.max(0, previous - burstNanos - now);
+        } while (!theoreticalArrival.compareAndSet(previous, Math.max(previous, now) + intervalNanos));
+        acquired.increment();
+        if (waitNanos > 0){
+            await(waitNanos);
+        }
+    }
+
+    /**
+     * Takes a token only if one is available right away.
+     * @return whether a token was taken
+     */
+    public boolean tryAcquire(){
+        long now = System.nanoTime();
+        long previous;
+        do {
+            previous = theoreticalArrival.get();
+            if (previous - burstNanos - now > 0){
+                return false;
+            }
+        } while (!theoreticalArrival.compareAndSet(previous, Math.max(previous, now) + intervalNanos));
+        acquired.increment();
+        return true;
+    }
+
+    /**
+     * Holds back every request taking a token from this limiter for at least the given delay, e.g. after Starling
+     * answered 429 Too Many Requests with a Retry-After header.
+     */
+    public void pause(long delay, TimeUnit unit){
+        throttled.increment();
+        long resumeAt = System.nanoTime() + unit.toNanos(delay);
+        long previous;
+        do {
+            previous = theoreticalArrival.get();
+            if (previous - burstNanos >= resumeAt){
+                return;
+            }
+        } while (!theoreticalArrival.compareAndSet(previous, resumeAt + burstNanos));
+    }
+
+    private void await(long waitNanos) throws StarlingBankRequestException {
+        delayed.increment();
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulate(waitNanos);
+        waiting.incrementAndGet();
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StarlingBankRequestException("Interrupted", "The thread was interrupted while waiting for the rate limiter", e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    public RateLimiterStats getStats(){
+        return new RateLimiterStats(waiting.get(), acquired.sum(), delayed.sum(), throttled.sum(),
+                TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum()), TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+    }
+}
@@ -0,0 +1,81 @@
+package org.jarling.services;
+
+/**
+ *
+ * Point in time snapshot of the counters kept by a {@link RateLimiter}.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class RateLimiterStats {
+
+    private final int queueDepth;
+    private final long acquired;
+    private final long delayed;
+    private final long throttled;
+    private final long totalWaitMillis;
+    private final long maxWaitMillis;
+
+    RateLimiterStats(int queueDepth, long acquired, long delayed, long throttled, long totalWaitMillis, long maxWaitMillis) {
+        this.queueDepth = queueDepth;
+        this.acquired = acquired;
+        this.delayed = delayed;
+        this.throttled = throttled;
+        this.totalWaitMillis = totalWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    /**
+     * @return requests currently waiting for a token
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * @return tokens handed out since the limiter was created
+     */
+    public long getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * @return requests that had to wait for a token
+     */
+    public long getDelayed() {
+        return delayed;
+    }
+
+    /**
+     * @return times the limiter was paused because Starling answered 429 Too Many Requests
+     */
+    public long getThrottled() {
+        return throttled;
+    }
+
+    /**
+     * @return milliseconds spent waiting for tokens, summed over all requests
+     */
+    public long getTotalWaitMillis() {
+        return totalWaitMillis;
+    }
+
+    /**
+     * @return the longest single wait for a token, in milliseconds
+     */
+    public long getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "RateLimiterStats{" +
+                "queueDepth=" + queueDepth +
+                ", acquired=" + acquired +
+                ", delayed=" + delayed +
+                ", throttled=" + throttled +
+                ", totalWaitMillis=" + totalWaitMillis +
+                ", maxWaitMillis=" + maxWaitMillis +
+                '}';
+    }
+}
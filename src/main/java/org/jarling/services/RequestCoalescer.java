@@ -0,0 +1,137 @@
+package org.jarling.services;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.EndpointTemplates;
+import org.jarling.http.HttpRequest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * Lets concurrent identical GETs share one request to Starling. The first caller sends the request and decodes the
+ * response; callers asking for the same thing while it is in flight wait for, and are handed, the same decoded value
+ * (or the same exception). Nothing is kept once the request completes, so this is not a cache: a call made after the
+ * previous one returned is always sent.
+ *
+ * Requests are identical when their {@link HttpRequest}s are equal, which includes the authorization header and
+ * therefore the access token, and they are decoded to the same type. Share one coalescer between every
+ * {@link ApiService} to count hits per endpoint across all customers.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class RequestCoalescer {
+
+    /**
+     * Loads the value for a request when no identical request is in flight.
+     */
+    public interface Loader<T> {
+        T load() throws StarlingBankRequestException;
+    }
+
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * @param endpointTemplate the endpoint the request addresses, see {@link EndpointTemplates}, for the hit counters
+     * @param httpRequest the request that identifies the value
+     * @param resultType the type the response is decoded to
+     * @param loader sends the request and decodes the response if no identical request is in flight
+     * @return the value loaded by this call or by the identical call already in flight
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String endpointTemplate, HttpRequest httpRequest, Class<?> resultType, Loader<T> loader) throws StarlingBankRequestException {
+        Counters endpointCounters = counters.computeIfAbsent(endpointTemplate, template -> new Counters());
+        endpointCounters.requests.increment();
+        Key key = new Key(httpRequest, resultType);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, mine);
+        if (leader != null){
+            endpointCounters.coalesced.increment();
+            return (T) await(leader);
+        }
+        try {
+            T value = loader.load();
+            mine.complete(value);
+            return value;
+        } catch (StarlingBankRequestException | RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> leader) throws StarlingBankRequestException {
+        try {
+            return leader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StarlingBankRequestException("Interrupted", "The thread was interrupted while waiting for an identical request", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof StarlingBankRequestException){
+                throw (StarlingBankRequestException) cause;
+            }
+            if (cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * @return requests in flight that other callers can currently join
+     */
+    public int getInFlight(){
+        return inFlight.size();
+    }
+
+    /**
+     * @return a snapshot of the counters of every endpoint seen so far, by endpoint template
+     */
+    public Map<String, RequestCoalescerStats> getStats(){
+        Map<String, RequestCoalescerStats> stats = new TreeMap<>();
+        for (Map.Entry<String, Counters> entry : counters.entrySet()){
+            stats.put(entry.getKey(), new RequestCoalescerStats(entry.getKey(), entry.getValue().requests.sum(), entry.getValue().coalesced.sum()));
+        }
+        return stats;
+    }
+
+    private static final class Counters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+    }
+
+    private static final class Key {
+
+        private final HttpRequest httpRequest;
+        private final Class<?> resultType;
+        private final int hashCode;
+
+        Key(HttpRequest httpRequest, Class<?> resultType){
+            this.httpRequest = httpRequest;
+            this.resultType = resultType;
+            this.hashCode = 31 * httpRequest.hashCode() + resultType.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return hashCode == that.hashCode && resultType == that.resultType && httpRequest.equals(that.httpRequest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.jarling.services;
+
+/**
+ *
+ * Point in time snapshot of the counters kept by a {@link RequestCoalescer} for one endpoint.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class RequestCoalescerStats {
+
+    private final String endpointTemplate;
+    private final long requests;
+    private final long coalesced;
+
+    RequestCoalescerStats(String endpointTemplate, long requests, long coalesced) {
+        this.endpointTemplate = endpointTemplate;
+        this.requests = requests;
+        this.coalesced = coalesced;
+    }
+
+    public String getEndpointTemplate() {
+        return endpointTemplate;
+    }
+
+    /**
+     * @return GETs asked for, whether sent or coalesced
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return GETs that joined an identical request already in flight instead of being sent
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * @return the share of GETs that were coalesced, between 0 and 1
+     */
+    public double getHitRate() {
+        return requests == 0 ? 0 : (double) coalesced / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestCoalescerStats{" +
+                "endpointTemplate='" + endpointTemplate + '\'' +
+                ", requests=" + requests +
+                ", coalesced=" + coalesced +
+                ", hitRate=" + getHitRate() +
+                '}';
+    }
+}
@@ -0,0 +1,311 @@
+package org.jarling.services;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.CancellationSignal;
+import org.jarling.http.EndpointTemplates;
+import org.jarling.http.HttpResponse;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ *
+ * Cuts the tail latency of GETs by sending a second copy of a GET that is taking unusually long, and using
+ * whichever copy answers first. The original is sent on the calling thread, so a GET that is answered in time costs
+ * no thread hop; only the hedge is sent from a small pool of threads. The copy that loses is cancelled through its
+ * {@link CancellationSignal}: it is never sent if it has not started yet, its connection is closed if it is still
+ * waiting, and its response is closed unread if it arrives anyway. The losing thread is never interrupted.
+ *
+ * A GET is hedged once it has taken longer than a percentile of the recent latencies of its endpoint. Hedges are
+ * paid for out of a budget that grows by a few percent of a hedge with every GET, so that a slow Starling is not
+ * answered with twice the load. Share one hedger between every {@link ApiService} so they draw on one budget.
+ * The hedger belongs to whoever creates it, who should {@link #close()} it once it is no longer used.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class RequestHedger implements Closeable {
+
+    // The budget is kept in hundredths of a hedge and holds at most this many hedges
+    private static final long MAX_BUDGET = 10 * 100;
+    // A full budget is spent on hedges sent at once, so no more can ever be in flight together
+    private static final int MAX_CONCURRENT_HEDGES = (int) (MAX_BUDGET / 100);
+    private static final int LATENCY_WINDOW_SIZE = 128;
+    private static final int DELAY_REFRESH_INTERVAL = 16;
+    private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    private final HedgingConfig config;
+    private final ScheduledThreadPoolExecutor timer;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final AtomicLong budget = new AtomicLong(MAX_BUDGET);
+    private volatile boolean closed;
+
+    public RequestHedger(){
+        this(new HedgingConfig());
+    }
+
+    public RequestHedger(HedgingConfig config){
+        this.config = config;
+        this.timer = new ScheduledThreadPoolExecutor(1, daemonThreads("jarling-hedge-timer"));
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.timer.setKeepAliveTime(IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        this.timer.allowCoreThreadTimeOut(true);
+        this.executor = new ThreadPoolExecutor(0, MAX_CONCURRENT_HEDGES, IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), daemonThreads("jarling-hedged-request"));
+    }
+
+    private static ThreadFactory daemonThreads(String name){
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Sends the request on the calling thread, and a copy of it from another thread if it is slow and the budget
+     * allows.
+     * @param path the request path relative to the API version
+     * @param call sends the request; called a second time, concurrently, for the hedge
+     * @param hedgePermit asked before a hedge is sent, e.g. to take a token from a rate limiter without waiting
+     */
+    HttpResponse execute(String path, ApiService.Request call, BooleanSupplier hedgePermit) throws StarlingBankRequestException {
+        String endpointTemplate = EndpointTemplates.template(path);
+        if (closed || !config.appliesTo(endpointTemplate)){
+            return call.send();
+        }
+        Endpoint endpoint = endpoints.computeIfAbsent(endpointTemplate, Endpoint::new);
+        endpoint.requests.increment();
+        deposit();
+        Race race = new Race(endpoint);
+        long delayNanos = endpoint.hedgeDelayNanos;
+        ScheduledFuture<?> hedge = null;
+        if (delayNanos >= 0){
+            try {
+                hedge = timer.schedule(() -> race.hedge(call, hedgePermit), delayNanos, TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // closed meanwhile, so the request is simply not hedged
+            }
+        }
+        race.run(call, false);
+        if (hedge != null){
+            hedge.cancel(false);
+        }
+        try {
+            HttpResponse response = race.winner.get();
+            if (response == race.hedgeResponse){
+                endpoint.hedgeWins.increment();
+            }
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            race.abandon();
+            throw new StarlingBankRequestException("Interrupted", "The thread was interrupted while waiting for a response", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof StarlingBankRequestException){
+                throw (StarlingBankRequestException) cause;
+            }
+            if (cause instanceof RuntimeException){
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    private void deposit(){
+        long previous;
+        do {
+            previous = budget.get();
+            if (previous >= MAX_BUDGET){
+                return;
+            }
+        } while (!budget.compareAndSet(previous, Math.min(MAX_BUDGET, previous + config.getBudgetPercent())));
+    }
+
+    private boolean withdraw(){
+        long previous;
+        do {
+            previous = budget.get();
+            if (previous < 100){
+                return false;
+            }
+        } while (!budget.compareAndSet(previous, previous - 100));
+        return true;
+    }
+
+    public HedgingConfig getConfig(){
+        return config;
+    }
+
+    /**
+     * @return a snapshot of the counters of every endpoint seen so far, by endpoint template
+     */
+    public Map<String, HedgingStats> getStats(){
+        Map<String, HedgingStats> stats = new TreeMap<>();
+        for (Endpoint endpoint : endpoints.values()){
+            long delayNanos = endpoint.hedgeDelayNanos;
+            stats.put(endpoint.template, new HedgingStats(endpoint.template, endpoint.requests.sum(), endpoint.hedged.sum(),
+                    endpoint.hedgeWins.sum(), endpoint.budgetExhausted.sum(), delayNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(delayNanos)));
+        }
+        return stats;
+    }
+
+    /**
+     * Stops hedging. GETs sent afterwards are sent once, as without a hedger, and hedges already on their way are
+     * left to finish.
+     */
+    @Override
+    public void close(){
+        closed = true;
+        timer.shutdownNow();
+        executor.shutdown();
+    }
+
+    private final class Endpoint {
+
+        private final String template;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder hedged = new LongAdder();
+        private final LongAdder hedgeWins = new LongAdder();
+        private final LongAdder budgetExhausted = new LongAdder();
+        // The most recent latencies, written round robin without locking
+        private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_WINDOW_SIZE);
+        private final AtomicLong recorded = new AtomicLong();
+        private volatile long hedgeDelayNanos;
+
+        Endpoint(String template){
+            this.template = template;
+            this.hedgeDelayNanos = config.getDelayPercentile() == 0 ? TimeUnit.MILLISECONDS.toNanos(config.getMinDelayMillis()) : -1;
+        }
+
+        void record(long latencyNanos){
+            long count = recorded.incrementAndGet();
+            latencies.set((int) ((count - 1) % LATENCY_WINDOW_SIZE), latencyNanos);
+            if (config.getDelayPercentile() > 0 && count >= config.getMinimumNumberOfCalls()
+                    && (count == config.getMinimumNumberOfCalls() || count % DELAY_REFRESH_INTERVAL == 0)){
+                hedgeDelayNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(config.getMinDelayMillis()), percentile(count));
+            }
+        }
+
+        private long percentile(long count){
+            int size = (int) Math.min(count, LATENCY_WINDOW_SIZE);
+            long[] sorted = new long[size];
+            for (int i = 0; i < size; i++){
+                sorted[i] = latencies.get(i);
+            }
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(config.getDelayPercentile() / 100.0 * size);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+
+    // The original request and its hedge racing for one result
+    private final class Race {
+
+        private final Endpoint endpoint;
+        private final CompletableFuture<HttpResponse> winner = new CompletableFuture<>();
+        private final CancellationSignal original = new CancellationSignal();
+        private final CancellationSignal copy = new CancellationSignal();
+        // Set before the hedge tries to win, so that the caller can tell which copy it was given
+        private volatile HttpResponse hedgeResponse;
+        // Copies started and not yet finished, and the latest failure, guarded by this race
+        private int running = 1;
+        private Throwable failure;
+
+        Race(Endpoint endpoint){
+            this.endpoint = endpoint;
+        }
+
+        // Runs on the timer once the original has taken longer than the hedge delay
+        void hedge(ApiService.Request call, BooleanSupplier hedgePermit){
+            synchronized (this){
+                if (winner.isDone()){
+                    return;
+                }
+                running++;
+            }
+            if (!withdraw()){
+                endpoint.budgetExhausted.increment();
+                finish(null);
+                return;
+            }
+            if (!hedgePermit.getAsBoolean()){
+                budget.addAndGet(100);
+                finish(null);
+                return;
+            }
+            try {
+                executor.execute(() -> run(call, true));
+                endpoint.hedged.increment();
+            } catch (RejectedExecutionException e) {
+                budget.addAndGet(100);
+                finish(null);
+            }
+        }
+
+        void run(ApiService.Request call, boolean hedge){
+            CancellationSignal signal = hedge ? copy : original;
+            long start = System.nanoTime();
+            HttpResponse response = null;
+            Throwable error = null;
+            try (CancellationSignal.Scope ignored = signal.enter()) {
+                response = call.send();
+                endpoint.record(System.nanoTime() - start);
+            } catch (Throwable e) {
+                error = e;
+            }
+            if (response != null){
+                if (hedge){
+                    hedgeResponse = response;
+                }
+                if (winner.complete(response)){
+                    (hedge ? original : copy).cancel();
+                } else {
+                    response.close();
+                }
+            }
+            finish(error);
+        }
+
+        // A failure only decides the race when no other copy is still on its way
+        private void finish(Throwable failure){
+            Throwable last;
+            synchronized (this){
+                if (failure != null){
+                    this.failure = failure;
+                }
+                last = --running == 0 ? this.failure : null;
+            }
+            if (last != null){
+                winner.completeExceptionally(last);
+            }
+        }
+
+        // The caller gave up waiting for the hedge, so neither copy is wanted any more
+        void abandon(){
+            copy.cancel();
+            if (!winner.cancel(false) && !winner.isCompletedExceptionally()){
+                winner.join().close();
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.jarling.services;
+
+/**
+ *
+ * The policies an {@link ApiService} applies to the requests it sends: rate limiting, circuit breakers, coalescing,
+ * hedging and bulkheads. Every policy is optional and off unless set. The limiters, registries, coalescer and hedger
+ * are meant to be shared, so one set of policies can be handed to many clients, and to a
+ * {@link org.jarling.StarlingClientFactory} for all of its views. The per token rate limit is the exception: each
+ * service gets a {@link RateLimiter} of its own with that rate and burst.
+ *
+ * <pre>
+ * RequestPolicies policies = RequestPolicies.builder()
+ *         .globalRateLimiter(new RateLimiter(10, 20))
+ *         .circuitBreakerRegistry(new CircuitBreakerRegistry())
+ *         .build();
+ * </pre>
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public final class RequestPolicies {
+
+    /**
+     * No policies at all: every request is sent as soon as it is made.
+     */
+    public static final RequestPolicies NONE = builder().build();
+
+    private final RateLimiter globalRateLimiter;
+    private final double tokenRequestsPerSecond;
+    private final int tokenBurst;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RequestCoalescer requestCoalescer;
+    private final RequestHedger requestHedger;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    private RequestPolicies(Builder builder){
+        this.globalRateLimiter = builder.globalRateLimiter;
+        this.tokenRequestsPerSecond = builder.tokenRequestsPerSecond;
+        this.tokenBurst = builder.tokenBurst;
+        this.circuitBreakerRegistry = builder.circuitBreakerRegistry;
+        this.requestCoalescer = builder.requestCoalescer;
+        this.requestHedger = builder.requestHedger;
+        this.bulkheadRegistry = builder.bulkheadRegistry;
+    }
+
+    public static Builder builder(){
+        return new Builder();
+    }
+
+    /**
+     * @return a builder holding these policies, to derive a set that differs in a few of them
+     */
+    public Builder toBuilder(){
+        return new Builder()
+                .globalRateLimiter(globalRateLimiter)
+                .tokenRateLimit(tokenRequestsPerSecond, tokenBurst)
+                .circuitBreakerRegistry(circuitBreakerRegistry)
+                .requestCoalescer(requestCoalescer)
+                .requestHedger(requestHedger)
+                .bulkheadRegistry(bulkheadRegistry);
+    }
+
+    public RateLimiter getGlobalRateLimiter(){
+        return globalRateLimiter;
+    }
+
+    public double getTokenRequestsPerSecond(){
+        return tokenRequestsPerSecond;
+    }
+
+    public int getTokenBurst(){
+        return tokenBurst;
+    }
+
+    /**
+     * @return a new limiter with the per token rate and burst, or null if requests are not limited per token
+     */
+    RateLimiter newTokenRateLimiter(){
+        return tokenRequestsPerSecond > 0 ? new RateLimiter(tokenRequestsPerSecond, tokenBurst) : null;
+    }
+
+    public CircuitBreakerRegistry getCircuitBreakerRegistry(){
+        return circuitBreakerRegistry;
+    }
+
+    public RequestCoalescer getRequestCoalescer(){
+        return requestCoalescer;
+    }
+
+    public RequestHedger getRequestHedger(){
+        return requestHedger;
+    }
+
+    public BulkheadRegistry getBulkheadRegistry(){
+        return bulkheadRegistry;
+    }
+
+    public static final class Builder {
+
+        private RateLimiter globalRateLimiter;
+        private double tokenRequestsPerSecond;
+        private int tokenBurst;
+        private CircuitBreakerRegistry circuitBreakerRegistry;
+        private RequestCoalescer requestCoalescer;
+        private RequestHedger requestHedger;
+        private BulkheadRegistry bulkheadRegistry;
+
+        private Builder(){
+        }
+
+        /**
+         * @param globalRateLimiter limiter every request takes a token from, shared by every client given these
+         *                          policies, or null for none. A 429 Too Many Requests response pauses it when there
+         *                          is no per token limit.
+         */
+        public Builder globalRateLimiter(RateLimiter globalRateLimiter){
+            this.globalRateLimiter = globalRateLimiter;
+            return this;
+        }
+
+        /**
+         * @param requestsPerSecond the steady request rate allowed for each access token, or 0 for no limit
+         * @param burst the number of requests each access token may send at once
+         */
+        public Builder tokenRateLimit(double requestsPerSecond, int burst){
+            if (requestsPerSecond < 0){
+                throw new IllegalArgumentException("requestsPerSecond must not be negative");
+            }
+            if (requestsPerSecond > 0 && burst < 1){
+                throw new IllegalArgumentException("burst must be at least 1");
+            }
+            this.tokenRequestsPerSecond = requestsPerSecond;
+            this.tokenBurst = burst;
+            return this;
+        }
+
+        /**
+         * @param circuitBreakerRegistry the circuit breakers guarding each endpoint, or null for none
+         */
+        public Builder circuitBreakerRegistry(CircuitBreakerRegistry circuitBreakerRegistry){
+            this.circuitBreakerRegistry = circuitBreakerRegistry;
+            return this;
+        }
+
+        /**
+         * @param requestCoalescer coalescer for identical GETs, or null to leave it to the client: a
+         *                         {@link org.jarling.Starling} or {@link org.jarling.StarlingClientFactory} then
+         *                         coalesces with one of its own, and a bare {@link ApiService} sends every GET
+         */
+        public Builder requestCoalescer(RequestCoalescer requestCoalescer){
+            this.requestCoalescer = requestCoalescer;
+            return this;
+        }
+
+        /**
+         * @param requestHedger hedger for slow GETs, or null to never hedge. A hedge is only sent if the rate
+         *                      limiters have a token to spare right away.
+         */
+        public Builder requestHedger(RequestHedger requestHedger){
+            this.requestHedger = requestHedger;
+            return this;
+        }
+
+        /**
+         * @param bulkheadRegistry the bulkheads bounding the requests in flight to each resource group, or null for none
+         */
+        public Builder bulkheadRegistry(BulkheadRegistry bulkheadRegistry){
+            this.bulkheadRegistry = bulkheadRegistry;
+            return this;
+        }
+
+        public RequestPolicies build(){
+            return new RequestPolicies(this);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.jarling.services;
+
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.HttpResponse;
+
+/**
+ *
+ * Turns a response into the value a caller asked for, reading and closing the response.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public interface ResponseDecoder<T> {
+
+    T decode(HttpResponse response) throws StarlingBankRequestException;
+}
@@ -0,0 +1,190 @@
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.AdaptiveConcurrencyHttpClient;
+import org.jarling.http.AdaptiveLimitConfig;
+import org.jarling.http.AdaptiveLimitStats;
+import org.jarling.http.CancellationSignal;
+import org.jarling.http.ConnectionPool;
+import org.jarling.http.HttpResponse;
+import org.jarling.http.PooledHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class AdaptiveConcurrencyTests {
+
+    private static final String BALANCE = "/accounts/balance";
+    private static final int CLIENT_THREADS = 32;
+    private static final int NO_LOAD_LATENCY_MILLIS = 40;
+
+    private LocalStarlingServer server;
+    private PooledHttpClient pooledHttpClient;
+    private ExecutorService executor;
+    // The number of requests the simulated server handles at once before further requests queue and slow it down
+    private volatile int capacity;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        server.respond("/accounts/balance", 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+        pooledHttpClient = new PooledHttpClient(null, new ConnectionPool(64, 60000, 30000));
+        executor = Executors.newFixedThreadPool(CLIENT_THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        pooledHttpClient.close();
+        server.close();
+    }
+
+    private String url(){
+        return server.getBaseUrl() + "/api/v1" + BALANCE;
+    }
+
+    // Keeps every client thread sending requests, one after the other, for the given time
+    private void load(AdaptiveConcurrencyHttpClient client, long millis) throws Exception {
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        List<Future<?>> threads = new ArrayList<>();
+        for (int i = 0; i < CLIENT_THREADS; i++){
+            threads.add(executor.submit(() -> {
+                while (System.nanoTime() < end){
+                    try (HttpResponse response = client.get(url())) {
+                        response.asString();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> thread : threads){
+            thread.get();
+        }
+    }
+
+    @Test
+    public void testLimitFollowsServerCapacity() throws Exception {
+        server.latency(concurrency -> NO_LOAD_LATENCY_MILLIS * Math.max(capacity, concurrency) / capacity);
+        AdaptiveConcurrencyHttpClient client = new AdaptiveConcurrencyHttpClient(pooledHttpClient);
+
+        capacity = 8;
+        load(client, 1500);
+        AdaptiveLimitStats healthy = client.getStats().get(BALANCE);
+        assertTrue(healthy.toString(), healthy.getLimit() >= capacity && healthy.getLimit() < 16);
+        assertTrue(healthy.getDecreases() > 0);
+        assertEquals(NO_LOAD_LATENCY_MILLIS, healthy.getNoLoadRttMillis(), 10);
+
+        // An incident leaves the server able to handle far fewer requests at once
+        capacity = 2;
+        load(client, 1500);
+        AdaptiveLimitStats incident = client.getStats().get(BALANCE);
+        assertTrue(incident.toString(), incident.getLimit() < healthy.getLimit() && incident.getLimit() <= 8);
+
+        capacity = 16;
+        load(client, 1500);
+        AdaptiveLimitStats recovered = client.getStats().get(BALANCE);
+        assertTrue(recovered.toString(), recovered.getLimit() >= capacity);
+        assertTrue(recovered.getIncreases() > incident.getIncreases());
+        assertEquals(0, recovered.getInFlight());
+        assertEquals(0, recovered.getRejected());
+    }
+
+    @Test
+    public void testFailuresCutTheLimit() throws Exception {
+        server.respond("/accounts/balance", 503, "{}");
+        AdaptiveConcurrencyHttpClient client = new AdaptiveConcurrencyHttpClient(pooledHttpClient);
+
+        for (int i = 0; i < 5; i++){
+            try {
+                client.get(url());
+                fail("expected the server error to be passed on");
+            } catch (StarlingBankRequestException e) {
+                assertEquals(503, e.getStatusCode());
+            }
+        }
+
+        AdaptiveLimitStats stats = client.getStats().get(BALANCE);
+        assertEquals(5, stats.getDrops());
+        assertEquals(10, stats.getLimit());
+        assertEquals(5, stats.getDecreases());
+    }
+
+    @Test
+    public void testCancelledRequestsLeaveTheLimitAlone() throws Exception {
+        server.delayOnce(BALANCE, 2000);
+        AdaptiveConcurrencyHttpClient client = new AdaptiveConcurrencyHttpClient(pooledHttpClient);
+        CancellationSignal cancellation = new CancellationSignal();
+
+        Future<?> cancelled = executor.submit(() -> {
+            try (CancellationSignal.Scope scope = cancellation.enter()) {
+                client.get(url());
+                fail("expected the cancelled request to fail");
+            } catch (StarlingBankRequestException e) {
+                assertEquals(-1, e.getStatusCode());
+            }
+            return null;
+        });
+        for (int i = 0; i < 200 && server.getRequestCount(BALANCE) == 0; i++){
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        cancellation.cancel();
+        cancelled.get(1, TimeUnit.SECONDS);
+
+        AdaptiveLimitStats stats = client.getStats().get(BALANCE);
+        assertEquals(0, stats.getDrops());
+        assertEquals(0, stats.getDecreases());
+        assertEquals(20, stats.getLimit());
+        assertEquals(0, stats.getInFlight());
+    }
+
+    @Test
+    public void testRequestsOverTheLimitQueue() throws Exception {
+        server.delay("/accounts/balance", 300);
+        AdaptiveConcurrencyHttpClient client = new AdaptiveConcurrencyHttpClient(pooledHttpClient, new AdaptiveLimitConfig(1, 1, 1, 3, 6, 0.9, 2000));
+
+        List<Future<String>> responses = new ArrayList<>();
+        for (int i = 0; i < 2; i++){
+            responses.add(executor.submit(() -> {
+                try (HttpResponse response = client.get(url())) {
+                    return response.asString();
+                }
+            }));
+        }
+        long start = System.nanoTime();
+        for (Future<String> response : responses){
+            assertNotNull(response.get());
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 500);
+
+        AdaptiveConcurrencyHttpClient impatient = new AdaptiveConcurrencyHttpClient(pooledHttpClient, new AdaptiveLimitConfig(1, 1, 1, 3, 6, 0.9, 50));
+        Future<?> inFlight = executor.submit(() -> {
+            impatient.get(url()).close();
+            return null;
+        });
+        for (int i = 0; i < 100 && impatient.getStats().isEmpty(); i++){
+            Thread.sleep(10);
+        }
+        try {
+            impatient.get(url());
+            fail("expected the request to give up waiting");
+        } catch (StarlingBankRequestException e) {
+            assertEquals("Concurrency Limit Exceeded", e.getErrorMessage());
+        }
+        inFlight.get();
+        assertEquals(1, impatient.getStats().get(BALANCE).getRejected());
+    }
+}
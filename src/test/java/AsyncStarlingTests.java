@@ -0,0 +1,225 @@
+import org.jarling.AsyncStarling;
+import org.jarling.Starling;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.ExecutorAsyncHttpClient;
+import org.jarling.http.HttpInterceptor;
+import org.jarling.http.InterceptingHttpClient;
+import org.jarling.http.PooledHttpClient;
+import org.jarling.http.RequestMethod;
+import org.jarling.models.accounts.AccountBalance;
+import org.jarling.models.common.CurrencyAndAmount;
+import org.jarling.models.common.DayOfWeek;
+import org.jarling.models.common.Frequency;
+import org.jarling.models.common.RecurrenceRule;
+import org.jarling.models.common.RecurringTransfer;
+import org.jarling.models.transactions.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class AsyncStarlingTests {
+
+    private LocalStarlingServer server;
+    private ExecutorService decoder;
+    private final AtomicInteger decodeTasks = new AtomicInteger();
+    private AsyncStarling starling;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        decoder = Executors.newSingleThreadExecutor();
+        Executor countingDecoder = runnable -> {
+            decodeTasks.incrementAndGet();
+            decoder.execute(runnable);
+        };
+        starling = new AsyncStarling(StarlingBankEnvironment.SANDBOX, "token", new ExecutorAsyncHttpClient(server.transport()), countingDecoder);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        starling.close();
+        decoder.shutdownNow();
+        server.close();
+    }
+
+    @Test
+    public void testResponsesAreDecodedOnCallerExecutor() throws Exception {
+        server.respond("/accounts/balance", 200, "{\"amount\":12.34,\"currency\":\"GBP\"}");
+
+        AccountBalance balance = starling.getAccountBalance().get();
+
+        assertEquals(new BigDecimal("12.34"), balance.getAmount());
+        assertEquals(1, decodeTasks.get());
+    }
+
+    @Test
+    public void testConcurrentListCalls() throws Exception {
+        server.respond("/transactions", 200, "{\"_embedded\":{\"transactions\":[{\"id\":\"a\",\"amount\":-1.5,\"direction\":\"OUTBOUND\"},{\"id\":\"b\",\"amount\":3,\"direction\":\"INBOUND\"}]}}");
+
+        CompletableFuture<List<Transaction>> first = starling.listTransactions();
+        CompletableFuture<List<Transaction>> second = starling.listTransactions();
+
+        assertEquals(2, first.get().size());
+        assertEquals("b", second.get().get(1).getId());
+        assertEquals(2, server.getRequestCount("/transactions"));
+    }
+
+    @Test
+    public void testFailureCompletesExceptionally() throws InterruptedException {
+        try {
+            starling.getTransaction("missing").get();
+            fail("expected the future to complete exceptionally");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof StarlingBankRequestException);
+            assertEquals(404, ((StarlingBankRequestException) e.getCause()).getStatusCode());
+        }
+    }
+
+    private static int ioThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("jarling-io-") && thread.isAlive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testClosingReleasesTheThreadsAndConnectionsOfTheTransport() throws Exception {
+        server.respond("/accounts/balance", 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+        PooledHttpClient pooledHttpClient = new PooledHttpClient(null);
+        int before = ioThreads();
+        AsyncStarling closeable = new AsyncStarling(StarlingBankEnvironment.SANDBOX, "token",
+                new ExecutorAsyncHttpClient(server.transport(pooledHttpClient)), decoder);
+        // The proxy of the test server hides the pooled client, so the test closes it as the transport would
+        assertNotNull(closeable.getAccountBalance().get());
+        assertTrue(ioThreads() > before);
+
+        closeable.close();
+        pooledHttpClient.close();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ioThreads() > before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(before, ioThreads());
+        try {
+            closeable.getAccountBalance().get();
+            fail("expected the closed transport to refuse the request");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test
+    public void testClosingLeavesACallersExecutorRunning() throws Exception {
+        server.respond("/accounts/balance", 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+        ExecutorService io = Executors.newSingleThreadExecutor();
+        try {
+            ExecutorAsyncHttpClient transport = new ExecutorAsyncHttpClient(server.transport(), io);
+            transport.close();
+            assertFalse(io.isShutdown());
+        } finally {
+            io.shutdownNow();
+        }
+    }
+
+    private void awaitNoLeasedConnections() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getPoolStats().getLeased() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, server.getPoolStats().getLeased());
+    }
+
+    @Test
+    public void testCancellingAPendingCallGivesBackItsConnection() throws Exception {
+        server.respond("/accounts/balance", 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+        server.delayOnce("/accounts/balance", 300);
+
+        CompletableFuture<AccountBalance> balance = starling.getAccountBalance();
+        assertTrue(balance.cancel(false));
+
+        // The response still arrives, and is closed unread rather than left holding its connection
+        long deadline = System.currentTimeMillis() + 5000;
+        while (server.getRequestCount("/accounts/balance") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(400);
+        awaitNoLeasedConnections();
+        assertEquals(0, decodeTasks.get());
+    }
+
+    @Test
+    public void testRejectedDecodeClosesTheResponse() throws Exception {
+        server.respond("/accounts/balance", 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+        try (AsyncStarling rejecting = new AsyncStarling(StarlingBankEnvironment.SANDBOX, "token", new ExecutorAsyncHttpClient(server.transport()),
+                runnable -> { throw new RejectedExecutionException("decoder shut down"); })) {
+            rejecting.getAccountBalance().get();
+            fail("expected the rejected decode to fail the call");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        awaitNoLeasedConnections();
+    }
+
+    @Test
+    public void testRecurringTransferDatesAreSentAsCalendarDates() throws Exception {
+        List<String> bodies = Collections.synchronizedList(new ArrayList<>());
+        HttpInterceptor capture = (httpRequest, chain) -> {
+            if (httpRequest.getRequestMethod() == RequestMethod.PUT){
+                bodies.add(httpRequest.getBody());
+            }
+            return chain.proceed(httpRequest);
+        };
+        InterceptingHttpClient httpClient = new InterceptingHttpClient(server.transport(), Collections.singletonList(capture));
+        Starling syncStarling = new Starling(StarlingBankEnvironment.SANDBOX, "token", httpClient);
+        AsyncStarling asyncStarling = new AsyncStarling(StarlingBankEnvironment.SANDBOX, "token", new ExecutorAsyncHttpClient(httpClient), decoder);
+        Date startDate = Date.from(LocalDate.of(2018, 3, 1).atTime(23, 30).atZone(ZoneId.systemDefault()).toInstant());
+        Date untilDate = Date.from(LocalDate.of(2018, 12, 31).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        RecurrenceRule rule = new RecurrenceRule(startDate, Frequency.MONTHLY, 1, null, untilDate, DayOfWeek.MONDAY, null, 1, null);
+        CurrencyAndAmount amount = new CurrencyAndAmount("GBP", new BigDecimal("10"));
+        String path = "/savings-goals/goal/recurring-transfer";
+        server.respond(path, 200, "{\"success\":true,\"transferUid\":\"t1\"}");
+
+        assertEquals("t1", syncStarling.createSavingsGoalRecurringTransfer("goal", rule, amount));
+        assertEquals("t1", asyncStarling.createSavingsGoalRecurringTransfer("goal", rule, amount).get());
+        asyncStarling.close();
+
+        assertEquals(2, bodies.size());
+        assertEquals(bodies.get(0), bodies.get(1));
+        assertTrue(bodies.get(0), bodies.get(0).contains("\"startDate\":\"2018-03-01\""));
+        assertTrue(bodies.get(0), bodies.get(0).contains("\"untilDate\":\"2018-12-31\""));
+
+        server.respond(path, 200, bodies.get(0));
+        RecurringTransfer readBack = syncStarling.getSavingsGoalRecurringTransfer("goal");
+        assertEquals(Date.from(LocalDate.of(2018, 3, 1).atStartOfDay(ZoneId.systemDefault()).toInstant()), readBack.getRecurrenceRule().getStartDate());
+        assertEquals(untilDate, readBack.getRecurrenceRule().getUntilDate());
+        assertEquals(Frequency.MONTHLY, readBack.getRecurrenceRule().getFrequency());
+        assertEquals(0, new BigDecimal("10").compareTo(readBack.getCurrencyAndAmount().getMinorUnits()));
+    }
+}
@@ -0,0 +1,251 @@
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.StarlingClientFactory;
+import org.jarling.exceptions.StarlingBankBulkheadFullException;
+import org.jarling.exceptions.StarlingBankDeadlineExceededException;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.CallOptions;
+import org.jarling.http.RequestMethod;
+import org.jarling.models.transactions.Transaction;
+import org.jarling.services.Bulkhead;
+import org.jarling.services.BulkheadConfig;
+import org.jarling.services.BulkheadRegistry;
+import org.jarling.services.BulkheadStats;
+import org.jarling.services.RequestPolicies;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class BulkheadTests {
+
+    private LocalStarlingServer server;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        server.respond("/transactions", 200, "{\"_embedded\":{\"transactions\":[]}}");
+        server.respond("/payments/scheduled", 200, "{\"_embedded\":{\"paymentOrders\":[]}}");
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        server.close();
+    }
+
+    private StarlingClientFactory factory(BulkheadRegistry bulkheadRegistry){
+        return new StarlingClientFactory(StarlingBankEnvironment.SANDBOX, server.transport(),
+                RequestPolicies.builder().bulkheadRegistry(bulkheadRegistry).build());
+    }
+
+    private static void awaitConcurrentCalls(BulkheadRegistry bulkheadRegistry, String group, int calls) throws InterruptedException {
+        for (int i = 0; i < 200; i++){
+            BulkheadStats stats = bulkheadRegistry.getStats().get(group);
+            if (stats != null && stats.getConcurrentCalls() == calls){
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail(group + " never had " + calls + " calls in flight");
+    }
+
+    @Test
+    public void testFullGroupDoesNotStarveOthers() throws Exception {
+        Map<String, BulkheadConfig> configs = new HashMap<>();
+        configs.put("transactions", new BulkheadConfig(2, 0, 0));
+        BulkheadRegistry bulkheads = new BulkheadRegistry(new BulkheadConfig(), configs);
+        StarlingClientFactory factory = factory(bulkheads);
+        server.delay("/transactions", 500);
+
+        Future<?> first = executor.submit(() -> factory.forAccessToken("first").listTransactions());
+        Future<?> second = executor.submit(() -> factory.forAccessToken("second").listTransactions());
+        awaitConcurrentCalls(bulkheads, "transactions", 2);
+
+        long start = System.nanoTime();
+        try {
+            factory.forAccessToken("third").listTransactions();
+            fail("expected the transactions bulkhead to be full");
+        } catch (StarlingBankBulkheadFullException e) {
+            assertEquals("transactions", e.getGroup());
+            assertEquals(-1, e.getStatusCode());
+        }
+        assertNotNull(factory.forAccessToken("third").listPayments());
+        assertTrue((System.nanoTime() - start) / 1000000 < 300);
+
+        BulkheadStats stats = bulkheads.getStats().get("transactions");
+        assertEquals(1.0, stats.getOccupancy(), 0);
+        assertEquals(1, stats.getRejected());
+        first.get();
+        second.get();
+        assertEquals(0, bulkheads.getStats().get("transactions").getConcurrentCalls());
+        assertEquals(2, server.getRequestCount("/transactions"));
+    }
+
+    @Test
+    public void testQueuedRequestWaitsForItsTurn() throws Exception {
+        BulkheadRegistry bulkheads = new BulkheadRegistry(new BulkheadConfig(1, 1, 5000), null);
+        StarlingClientFactory factory = factory(bulkheads);
+        server.delay("/transactions", 300);
+
+        Future<?> inFlight = executor.submit(() -> factory.forAccessToken("first").listTransactions());
+        awaitConcurrentCalls(bulkheads, "transactions", 1);
+        Future<?> queued = executor.submit(() -> factory.forAccessToken("second").listTransactions());
+        for (int i = 0; i < 200 && bulkheads.getStats().get("transactions").getQueuedCalls() == 0; i++){
+            Thread.sleep(10);
+        }
+        try {
+            factory.forAccessToken("third").listTransactions();
+            fail("expected the queue to be full");
+        } catch (StarlingBankBulkheadFullException e) {
+            assertEquals("transactions", e.getGroup());
+        }
+        inFlight.get();
+        queued.get();
+
+        BulkheadStats stats = bulkheads.getStats().get("transactions");
+        assertEquals(2, stats.getAccepted());
+        assertEquals(1, stats.getRejected());
+        assertEquals(1, stats.getPeakConcurrentCalls());
+        assertEquals(0, stats.getQueuedCalls());
+    }
+
+    @Test
+    public void testReadsAndWritesCanBeSplit() throws Exception {
+        Map<String, BulkheadConfig> configs = new HashMap<>();
+        configs.put("payments:write", new BulkheadConfig(1, 0, 0));
+        BulkheadRegistry bulkheads = new BulkheadRegistry(new BulkheadConfig(), configs);
+        StarlingBank starling = factory(bulkheads).forAccessToken("token");
+        server.delay("/payments/local", 500);
+
+        server.respondOnce("/payments/local", 202, "{}", "Location", "/api/v1/payments/local/payment");
+        Future<?> payment = executor.submit(() -> starling.makeLocalPayment("contact", "reference", BigDecimal.ONE));
+        awaitConcurrentCalls(bulkheads, "payments:write", 1);
+
+        try {
+            starling.makeLocalPayment("contact", "reference", BigDecimal.ONE);
+            fail("expected the payments:write bulkhead to be full");
+        } catch (StarlingBankBulkheadFullException e) {
+            assertEquals("payments:write", e.getGroup());
+        }
+        assertNotNull(starling.listPayments());
+        payment.get();
+
+        // Our listPayments and the one made by the payment once it was accepted
+        assertEquals(2, bulkheads.getStats().get("payments").getAccepted());
+        assertEquals(1, bulkheads.getStats().get("payments:write").getAccepted());
+    }
+
+    @Test
+    public void testPlaceIsHeldUntilTheResponseIsClosed() throws Exception {
+        BulkheadRegistry bulkheads = new BulkheadRegistry(new BulkheadConfig(),
+                Collections.singletonMap("transactions", new BulkheadConfig(1, 0, 0)));
+        StarlingBank starling = factory(bulkheads).forAccessToken("token");
+
+        try (Stream<Transaction> transactions = starling.streamTransactions(new Date(0), new Date())) {
+            assertEquals(1, bulkheads.getStats().get("transactions").getConcurrentCalls());
+            try {
+                starling.listTransactions();
+                fail("expected the place to be held while the body of the stream is unread");
+            } catch (StarlingBankBulkheadFullException e) {
+                assertEquals("transactions", e.getGroup());
+            }
+        }
+
+        assertEquals(0, bulkheads.getStats().get("transactions").getConcurrentCalls());
+        assertTrue(starling.listTransactions().isEmpty());
+        assertEquals(0, bulkheads.getStats().get("transactions").getConcurrentCalls());
+    }
+
+    @Test
+    public void testPlaceIsGivenBackWhenTheRequestFails() throws Exception {
+        BulkheadRegistry bulkheads = new BulkheadRegistry(new BulkheadConfig(),
+                Collections.singletonMap("transactions", new BulkheadConfig(1, 0, 0)));
+        StarlingBank starling = factory(bulkheads).forAccessToken("token");
+        server.respondOnce("/transactions", 500, "{}");
+
+        try {
+            starling.listTransactions();
+            fail("expected the request to fail");
+        } catch (StarlingBankRequestException e) {
+            assertEquals(500, e.getStatusCode());
+        }
+
+        assertEquals(0, bulkheads.getStats().get("transactions").getConcurrentCalls());
+    }
+
+    @Test
+    public void testNewRequestDoesNotBargeAheadOfQueuedOnes() throws Exception {
+        BulkheadRegistry bulkheads = new BulkheadRegistry(new BulkheadConfig(1, 5, 2000), Collections.emptyMap());
+        Bulkhead bulkhead = bulkheads.forRequest(RequestMethod.GET, "/transactions");
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        bulkhead.acquirePermission("/transactions", null);
+
+        Future<?> queued = executor.submit(() -> {
+            bulkhead.acquirePermission("/transactions", null);
+            order.add("queued");
+            Thread.sleep(100);
+            bulkhead.release();
+            return null;
+        });
+        for (int i = 0; i < 200 && bulkhead.getStats().getQueuedCalls() == 0; i++){
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        bulkhead.release();
+        bulkhead.acquirePermission("/transactions", null);
+        order.add("new");
+        bulkhead.release();
+        queued.get();
+
+        assertEquals(Arrays.asList("queued", "new"), order);
+    }
+
+    @Test
+    public void testPassedDeadlineIsNotReportedAsAFullBulkhead() throws Exception {
+        BulkheadRegistry bulkheads = new BulkheadRegistry(new BulkheadConfig(1, 5, 2000), Collections.emptyMap());
+        Bulkhead bulkhead = bulkheads.forRequest(RequestMethod.GET, "/transactions");
+        bulkhead.acquirePermission("/transactions", null);
+        CallOptions callOptions = new CallOptions(1, TimeUnit.MILLISECONDS);
+        Thread.sleep(5);
+
+        try {
+            bulkhead.acquirePermission("/transactions", callOptions);
+            fail("expected the deadline to have passed");
+        } catch (StarlingBankDeadlineExceededException e) {
+            assertEquals(0, bulkhead.getStats().getRejected());
+        }
+
+        CallOptions shortDeadline = new CallOptions(50, TimeUnit.MILLISECONDS);
+        try {
+            bulkhead.acquirePermission("/transactions", shortDeadline);
+            fail("expected the deadline to pass while waiting");
+        } catch (StarlingBankDeadlineExceededException e) {
+            assertEquals(0, bulkhead.getStats().getQueuedCalls());
+        }
+        bulkhead.release();
+    }
+}
@@ -0,0 +1,228 @@
+import org.jarling.Starling;
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.http.CachingHttpClient;
+import org.jarling.http.HttpClient;
+import org.jarling.http.HttpResponse;
+import org.jarling.http.ResponseCacheStats;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class CachingHttpClientTests {
+
+    private static final String SANDBOX_API = StarlingBankEnvironment.SANDBOX.getPath() + "/api/v1";
+    private static final String ACCOUNT = "{\"id\":\"a1\",\"name\":\"Alex\"}";
+
+    private final Queue<Object[]> responses = new ConcurrentLinkedQueue<>();
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private final List<Map<String, String>> sentHeaders = new CopyOnWriteArrayList<>();
+
+    // Answers each request with the next queued status, body and header name and value pairs
+    @SuppressWarnings("unchecked")
+    private final HttpClient transport = (HttpClient) Proxy.newProxyInstance(HttpClient.class.getClassLoader(), new Class[]{HttpClient.class}, (proxy, method, args) -> {
+        sent.add(method.getName().toUpperCase() + " " + args[0]);
+        sentHeaders.add(args.length > 2 && args[2] != null ? new HashMap<>((Map<String, String>) args[2]) : new HashMap<>());
+        Object[] response = responses.poll();
+        if (response == null) {
+            response = new Object[]{200, "{}", new String[0]};
+        }
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Content-Type", Collections.singletonList("application/json"));
+        String[] pairs = (String[]) response[2];
+        for (int i = 0; i < pairs.length; i += 2) {
+            headers.put(pairs[i], Collections.singletonList(pairs[i + 1]));
+        }
+        return new HttpResponse((Integer) response[0], new URL((String) args[0]), headers,
+                new ByteArrayInputStream(((String) response[1]).getBytes(StandardCharsets.UTF_8)));
+    });
+
+    private void respond(int status, String body, String... headers) {
+        responses.add(new Object[]{status, body, headers});
+    }
+
+    private static String httpDate(ZonedDateTime time) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(time);
+    }
+
+    private static String get(HttpClient httpClient, String path, String token) throws Exception {
+        try (HttpResponse response = httpClient.get(SANDBOX_API + path, null, Collections.singletonMap("Authorization", "Bearer " + token))) {
+            return response.asString().trim();
+        }
+    }
+
+    @Test
+    public void testFreshResponsesAreServedWithoutTheNetwork() throws Exception {
+        respond(200, ACCOUNT, "Cache-Control", "private, max-age=60");
+        CachingHttpClient cache = new CachingHttpClient(transport);
+        StarlingBank starling = new Starling(StarlingBankEnvironment.SANDBOX, "token", cache);
+
+        assertEquals("Alex", starling.getAccount().getName());
+        assertEquals("Alex", starling.getAccount().getName());
+        assertEquals("Alex", starling.getAccount().getName());
+
+        assertEquals(1, sent.size());
+        ResponseCacheStats stats = cache.getStats().get("/accounts");
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(0, stats.getRevalidations());
+        assertEquals(1, cache.getEntryCount());
+    }
+
+    @Test
+    public void testStaleResponsesAreRevalidatedWithTheirETag() throws Exception {
+        respond(200, ACCOUNT, "Cache-Control", "max-age=0", "ETag", "\"v1\"");
+        respond(304, "", "Cache-Control", "max-age=60", "ETag", "\"v1\"");
+        CachingHttpClient cache = new CachingHttpClient(transport);
+
+        assertEquals(ACCOUNT, get(cache, "/accounts", "token"));
+        assertEquals(ACCOUNT, get(cache, "/accounts", "token"));
+        assertEquals(ACCOUNT, get(cache, "/accounts", "token"));
+
+        // The 304 made the response fresh again, so the third GET did not reach the transport
+        assertEquals(2, sent.size());
+        assertNull(sentHeaders.get(0).get("If-None-Match"));
+        assertEquals("\"v1\"", sentHeaders.get(1).get("If-None-Match"));
+        ResponseCacheStats stats = cache.getStats().get("/accounts");
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getRevalidations());
+        assertEquals(1, stats.getNotModified());
+        assertEquals(1, stats.getHits());
+        assertEquals(2.0 / 3, stats.getHitRate(), 0.001);
+    }
+
+    @Test
+    public void testChangedResponsesReplaceTheCachedOne() throws Exception {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        String lastModified = httpDate(now.minusSeconds(30));
+        respond(200, ACCOUNT, "Date", httpDate(now), "Expires", httpDate(now.minusSeconds(1)), "Last-Modified", lastModified);
+        respond(200, "{\"id\":\"a1\",\"name\":\"Sam\"}", "Cache-Control", "max-age=60");
+        CachingHttpClient cache = new CachingHttpClient(transport);
+
+        assertEquals(ACCOUNT, get(cache, "/accounts", "token"));
+        assertTrue(get(cache, "/accounts", "token").contains("Sam"));
+        assertTrue(get(cache, "/accounts", "token").contains("Sam"));
+
+        assertEquals(2, sent.size());
+        assertEquals(lastModified, sentHeaders.get(1).get("If-Modified-Since"));
+        assertEquals(0, cache.getStats().get("/accounts").getNotModified());
+    }
+
+    @Test
+    public void testLastModifiedGivesAHeuristicLifetime() throws Exception {
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        respond(200, ACCOUNT, "Date", httpDate(now), "Last-Modified", httpDate(now.minusDays(1)));
+        CachingHttpClient cache = new CachingHttpClient(transport);
+
+        get(cache, "/accounts", "token");
+        get(cache, "/accounts", "token");
+
+        assertEquals(1, sent.size());
+    }
+
+    @Test
+    public void testResponsesArePrivateToTheirAccessToken() throws Exception {
+        respond(200, ACCOUNT, "Cache-Control", "max-age=60");
+        respond(200, "{\"id\":\"a2\",\"name\":\"Sam\"}", "Cache-Control", "max-age=60");
+        CachingHttpClient cache = new CachingHttpClient(transport);
+
+        assertEquals(ACCOUNT, get(cache, "/accounts", "alex"));
+        assertTrue(get(cache, "/accounts", "sam").contains("Sam"));
+        assertEquals(ACCOUNT, get(cache, "/accounts", "alex"));
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    public void testUncacheableResponsesAreNotKept() throws Exception {
+        respond(200, ACCOUNT, "Cache-Control", "no-store");
+        respond(200, ACCOUNT);
+        respond(200, ACCOUNT, "Cache-Control", "max-age=60", "Vary", "*");
+        respond(200, ACCOUNT, "Cache-Control", "max-age=0");
+        CachingHttpClient cache = new CachingHttpClient(transport);
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(ACCOUNT, get(cache, "/accounts", "token"));
+        }
+        assertEquals(4, sent.size());
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getBytes());
+    }
+
+    @Test
+    public void testChangesDropWhatIsCachedForTheirUrl() throws Exception {
+        respond(200, "{\"uid\":\"g1\"}", "Cache-Control", "max-age=60");
+        respond(200, "{}", "Cache-Control", "max-age=60");
+        respond(204, "");
+        CachingHttpClient cache = new CachingHttpClient(transport);
+
+        get(cache, "/savings-goals/g1", "token");
+        get(cache, "/savings-goals", "token");
+        cache.delete(SANDBOX_API + "/savings-goals/g1").close();
+        get(cache, "/savings-goals/g1", "token");
+        get(cache, "/savings-goals", "token");
+
+        assertEquals(4, sent.size());
+        assertEquals("GET " + SANDBOX_API + "/savings-goals/g1", sent.get(3));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResponsesAreEvicted() throws Exception {
+        String body = new String(new char[1000]).replace('\0', 'x');
+        for (int i = 0; i < 4; i++) {
+            respond(200, body, "Cache-Control", "max-age=60");
+        }
+        CachingHttpClient cache = new CachingHttpClient(transport, 3000);
+
+        get(cache, "/contacts/c1", "token");
+        get(cache, "/contacts/c2", "token");
+        get(cache, "/contacts/c1", "token");
+        get(cache, "/contacts/c3", "token");
+
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.getBytes() <= 3000);
+        List<String> before = new ArrayList<>(sent);
+        get(cache, "/contacts/c1", "token");
+        get(cache, "/contacts/c3", "token");
+        assertEquals(before, sent);
+        get(cache, "/contacts/c2", "token");
+        assertEquals(before.size() + 1, sent.size());
+    }
+
+    @Test
+    public void testRequestsCanAskToSkipTheCache() throws Exception {
+        respond(200, ACCOUNT, "Cache-Control", "max-age=60", "ETag", "\"v1\"");
+        respond(304, "", "ETag", "\"v1\"");
+        CachingHttpClient cache = new CachingHttpClient(transport);
+
+        get(cache, "/accounts", "token");
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Authorization", "Bearer token");
+        headers.put("Cache-Control", "no-cache");
+        cache.get(SANDBOX_API + "/accounts", null, headers).close();
+
+        assertEquals(2, sent.size());
+        assertEquals("\"v1\"", sentHeaders.get(1).get("If-None-Match"));
+    }
+}
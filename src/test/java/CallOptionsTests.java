@@ -0,0 +1,165 @@
+import org.jarling.Starling;
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.exceptions.StarlingBankDeadlineExceededException;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.BasicHttpsClient;
+import org.jarling.http.CallOptions;
+import org.jarling.http.HttpResponse;
+import org.jarling.http.ConnectionPool;
+import org.jarling.http.PooledHttpClient;
+import org.jarling.http.RetryingHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class CallOptionsTests {
+
+    private static final String BALANCE = "/accounts/balance";
+
+    private LocalStarlingServer server;
+    private PooledHttpClient httpClient;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        server.respond(BALANCE, 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+        httpClient = new PooledHttpClient(null, new ConnectionPool(), 1000, 200);
+    }
+
+    @After
+    public void tearDown() {
+        httpClient.close();
+        server.close();
+    }
+
+    private static long millisSince(long start){
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    @Test
+    public void testTransportTimeoutsDefaultToFinite() {
+        BasicHttpsClient basicHttpsClient = new BasicHttpsClient(null);
+        assertEquals(BasicHttpsClient.DEFAULT_CONNECT_TIMEOUT_MILLIS, basicHttpsClient.getConnectTimeoutMillis());
+        assertEquals(BasicHttpsClient.DEFAULT_READ_TIMEOUT_MILLIS, basicHttpsClient.getReadTimeoutMillis());
+        PooledHttpClient pooledHttpClient = new PooledHttpClient(null);
+        assertEquals(BasicHttpsClient.DEFAULT_READ_TIMEOUT_MILLIS, pooledHttpClient.getReadTimeoutMillis());
+        pooledHttpClient.close();
+    }
+
+    @Test
+    public void testReadTimeoutOfTransport() {
+        server.delay(BALANCE, 2000);
+        StarlingBank starling = new Starling(StarlingBankEnvironment.SANDBOX, "token", server.transport(httpClient));
+
+        long start = System.nanoTime();
+        try {
+            starling.getAccountBalance();
+            fail("expected the read to time out");
+        } catch (StarlingBankRequestException e) {
+            assertEquals(-1, e.getStatusCode());
+            assertTrue(e.getCause() instanceof SocketTimeoutException);
+        }
+        assertTrue(millisSince(start) < 1500);
+    }
+
+    @Test
+    public void testReadTimeoutOfCall() throws Exception {
+        server.delay(BALANCE, 100);
+        StarlingBank starling = new Starling(StarlingBankEnvironment.SANDBOX, "token", server.transport(httpClient));
+
+        try {
+            starling.withCallOptions(new CallOptions(0, TimeUnit.MILLISECONDS, 0, 20)).getAccountBalance();
+            fail("expected the read to time out");
+        } catch (StarlingBankRequestException e) {
+            assertTrue(e.getCause() instanceof SocketTimeoutException);
+        }
+        assertNotNull(starling.getAccountBalance());
+    }
+
+    @Test
+    public void testCompositeCallSharesOneDeadline() throws Exception {
+        server.respondOnce("/payments/local", 202, "{}", "Location", "/api/v1/payments/local/payment");
+        server.respond("/payments/scheduled", 200, "{\"_embedded\":{\"paymentOrders\":[]}}");
+        server.delay("/payments/local", 400);
+        server.delay("/payments/scheduled", 400);
+        StarlingBank starling = new Starling(StarlingBankEnvironment.SANDBOX, "token", server.transport(new PooledHttpClient(null, new ConnectionPool(), 0, 0)));
+
+        // Either request fits in the deadline on its own, but not both
+        long start = System.nanoTime();
+        try {
+            starling.withCallOptions(new CallOptions(600, TimeUnit.MILLISECONDS)).makeLocalPayment("contact", "reference", BigDecimal.ONE);
+            fail("expected the second request to run out of time");
+        } catch (StarlingBankDeadlineExceededException e) {
+            assertEquals(0, server.getRequestCount("/payments/scheduled"));
+        } catch (StarlingBankRequestException e) {
+            assertTrue(e.getCause() instanceof SocketTimeoutException);
+            assertEquals(1, server.getRequestCount("/payments/scheduled"));
+        }
+        assertTrue(millisSince(start) < 800);
+        assertEquals(1, server.getRequestCount("/payments/local"));
+    }
+
+    @Test
+    public void testNothingIsSentAfterTheDeadline() throws Exception {
+        StarlingBank starling = new Starling(StarlingBankEnvironment.SANDBOX, "token", server.transport(httpClient));
+        CallOptions callOptions = new CallOptions(1, TimeUnit.MILLISECONDS);
+        Thread.sleep(5);
+
+        try {
+            starling.withCallOptions(callOptions).getAccountBalance();
+            fail("expected the deadline to have passed");
+        } catch (StarlingBankDeadlineExceededException e) {
+            assertEquals(-1, e.getStatusCode());
+        }
+        assertEquals(0, server.getRequestCount(BALANCE));
+    }
+
+    @Test
+    public void testWaitingForAPooledConnectionStopsAtTheDeadline() throws Exception {
+        PooledHttpClient oneConnection = new PooledHttpClient(null, new ConnectionPool(1, 60000, 30000), 1000, 1000);
+        StarlingBank starling = new Starling(StarlingBankEnvironment.SANDBOX, "token", server.transport(oneConnection));
+        HttpResponse unread = server.transport(oneConnection).get(StarlingBankEnvironment.SANDBOX.getPath() + "/api/v1" + BALANCE);
+
+        long start = System.nanoTime();
+        try {
+            starling.withCallOptions(new CallOptions(200, TimeUnit.MILLISECONDS)).getAccountBalance();
+            fail("expected the deadline to pass while waiting for the connection");
+        } catch (StarlingBankDeadlineExceededException e) {
+            assertEquals(-1, e.getStatusCode());
+        }
+        assertTrue(millisSince(start) < 1000);
+        assertEquals(1, oneConnection.getPoolStats().getAcquireTimeouts());
+        unread.close();
+        oneConnection.close();
+    }
+
+    @Test
+    public void testRetryIsNotWaitedForPastTheDeadline() throws Exception {
+        server.respondOnce(BALANCE, 503, "{}");
+        RetryingHttpClient retrying = new RetryingHttpClient(server.transport(httpClient), (requestMethod, attempt, failure) -> attempt < 3 ? 1000 : -1);
+        StarlingBank starling = new Starling(StarlingBankEnvironment.SANDBOX, "token", retrying);
+
+        long start = System.nanoTime();
+        try {
+            starling.withCallOptions(new CallOptions(500, TimeUnit.MILLISECONDS)).getAccountBalance();
+            fail("expected the failure to be passed on");
+        } catch (StarlingBankRequestException e) {
+            assertEquals(503, e.getStatusCode());
+        }
+        assertTrue(millisSince(start) < 500);
+        assertEquals(0, retrying.getRetries());
+    }
+}
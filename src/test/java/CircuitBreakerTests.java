@@ -0,0 +1,130 @@
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.exceptions.StarlingBankCircuitOpenException;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.EndpointTemplates;
+import org.jarling.services.ApiService;
+import org.jarling.services.CircuitBreaker;
+import org.jarling.services.CircuitBreakerConfig;
+import org.jarling.services.CircuitBreakerRegistry;
+import org.jarling.services.CircuitBreakerState;
+import org.jarling.services.CircuitBreakerStats;
+import org.jarling.services.RequestPolicies;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class CircuitBreakerTests {
+
+    private static final String CARD_TRANSACTION = "/transactions/mastercard/8e3d8a0c-61bc-4f55-bf0d-5d0b3ff7d2d1";
+    private static final String OTHER_CARD_TRANSACTION = "/transactions/mastercard/11111111-2222-3333-4444-555555555555";
+
+    private LocalStarlingServer server;
+    private CircuitBreakerRegistry registry;
+    private final List<String> transitions = new CopyOnWriteArrayList<>();
+    private ApiService apiService;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        registry = new CircuitBreakerRegistry(new CircuitBreakerConfig(50, 100, 10000, 4, 4, 200, 1));
+        registry.addListener((template, from, to) -> transitions.add(template + " " + from + "->" + to));
+        apiService = new ApiService(ApiService.endpoint(StarlingBankEnvironment.SANDBOX), "token", server.transport(),
+                RequestPolicies.builder().circuitBreakerRegistry(registry).build());
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testEndpointTemplates() {
+        assertEquals("/transactions/mastercard/{id}", EndpointTemplates.template(CARD_TRANSACTION));
+        assertEquals("/savings-goals/{id}/add-money/{id}", EndpointTemplates.template("/savings-goals/a1b2/add-money/c3d4"));
+        assertEquals("/accounts/balance", EndpointTemplates.template("/accounts/balance"));
+        assertEquals("/transactions", EndpointTemplates.template("/transactions?from=2017-01-01&to=2017-02-01"));
+    }
+
+    @Test
+    public void testOpensAndRejectsWithoutSending() throws Exception {
+        server.respond(CARD_TRANSACTION, 503, "{}");
+        for (int i = 0; i < 4; i++){
+            expectStatus(503, CARD_TRANSACTION);
+        }
+
+        try {
+            apiService.get(OTHER_CARD_TRANSACTION);
+            fail("expected the open breaker to reject the request");
+        } catch (StarlingBankCircuitOpenException e) {
+            assertEquals("/transactions/mastercard/{id}", e.getEndpointTemplate());
+        }
+
+        CircuitBreakerStats stats = registry.getStats().get("/transactions/mastercard/{id}");
+        assertEquals(CircuitBreakerState.OPEN, stats.getState());
+        assertEquals(1, stats.getNotPermittedCalls());
+        assertEquals(4, server.getRequestCount(CARD_TRANSACTION));
+        assertEquals(0, server.getRequestCount(OTHER_CARD_TRANSACTION));
+        assertEquals(Arrays.asList("/transactions/mastercard/{id} CLOSED->OPEN"), transitions);
+    }
+
+    @Test
+    public void testHalfOpenTrialClosesAgain() throws Exception {
+        server.respond(CARD_TRANSACTION, 503, "{}");
+        for (int i = 0; i < 4; i++){
+            expectStatus(503, CARD_TRANSACTION);
+        }
+        server.respond(CARD_TRANSACTION, 200, "{}");
+        TimeUnit.MILLISECONDS.sleep(250);
+
+        apiService.get(CARD_TRANSACTION).close();
+
+        assertEquals(CircuitBreakerState.CLOSED, registry.forPath(CARD_TRANSACTION).getState());
+        assertEquals(Arrays.asList(
+                "/transactions/mastercard/{id} CLOSED->OPEN",
+                "/transactions/mastercard/{id} OPEN->HALF_OPEN",
+                "/transactions/mastercard/{id} HALF_OPEN->CLOSED"), transitions);
+    }
+
+    @Test
+    public void testClientErrorsDoNotOpen() throws Exception {
+        for (int i = 0; i < 8; i++){
+            expectStatus(404, CARD_TRANSACTION);
+        }
+        assertEquals(CircuitBreakerState.CLOSED, registry.forPath(CARD_TRANSACTION).getState());
+        assertEquals(0, registry.forPath(CARD_TRANSACTION).getStats().getFailedCalls());
+    }
+
+    @Test
+    public void testSlowCallsOpen() throws Exception {
+        CircuitBreaker circuitBreaker = new CircuitBreakerRegistry(new CircuitBreakerConfig(50, 50, 10, 2, 2, 1000, 1)).forPath("/accounts");
+
+        circuitBreaker.acquirePermission();
+        circuitBreaker.onResult(TimeUnit.MILLISECONDS.toNanos(20), null);
+        circuitBreaker.acquirePermission();
+        circuitBreaker.onResult(TimeUnit.MILLISECONDS.toNanos(20), null);
+
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+    }
+
+    private void expectStatus(int statusCode, String path){
+        try {
+            apiService.get(path).close();
+            fail("expected " + statusCode);
+        } catch (StarlingBankRequestException e) {
+            assertEquals(statusCode, e.getStatusCode());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.StarlingClientFactory;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.BasicHttpsClient;
+import org.jarling.http.CachingHttpClient;
+import org.jarling.http.ConnectionPool;
+import org.jarling.http.PooledHttpClient;
+import org.jarling.metrics.EndpointMetricsStats;
+import org.jarling.metrics.HistogramMetricsRegistry;
+import org.jarling.models.transactions.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class CompressionTests {
+
+    private static final int TRANSACTION_COUNT = 2000;
+    private static final String TRANSACTIONS = transactions(TRANSACTION_COUNT);
+
+    private LocalStarlingServer server;
+    private HistogramMetricsRegistry metricsRegistry;
+    private PooledHttpClient pooledHttpClient;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        server.respond("/transactions", 200, TRANSACTIONS);
+        server.respond("/accounts/balance", 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+        server.respond("/contacts", 404, "{\"error\":\"not_found\"}");
+        metricsRegistry = new HistogramMetricsRegistry();
+        pooledHttpClient = new PooledHttpClient(null, new ConnectionPool(), BasicHttpsClient.DEFAULT_CONNECT_TIMEOUT_MILLIS,
+                BasicHttpsClient.DEFAULT_READ_TIMEOUT_MILLIS, metricsRegistry);
+    }
+
+    @After
+    public void tearDown() {
+        pooledHttpClient.close();
+        server.close();
+    }
+
+    private static String transactions(int count) {
+        StringBuilder json = new StringBuilder("{\"_embedded\":{\"transactions\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"t").append(i).append("\",\"currency\":\"GBP\",\"amount\":-").append(i % 100).append(".50,")
+                    .append("\"direction\":\"OUTBOUND\",\"narrative\":\"Coffee\",\"source\":\"MASTER_CARD\",\"balance\":").append(1000 - i).append("}");
+        }
+        return json.append("]}}").toString();
+    }
+
+    private StarlingBank starling() {
+        return new StarlingClientFactory(StarlingBankEnvironment.SANDBOX, server.transport(pooledHttpClient)).forAccessToken("token");
+    }
+
+    @Test
+    public void testCompressionIsAskedFor() throws Exception {
+        starling().getAccountBalance();
+        assertEquals("gzip, deflate", server.getAcceptEncoding());
+    }
+
+    @Test
+    public void testGzipBodiesAreDecompressedAsTheyAreRead() throws Exception {
+        server.compress("gzip");
+        StarlingBank starling = starling();
+
+        List<Transaction> transactions = starling.listTransactions();
+        assertEquals(TRANSACTION_COUNT, transactions.size());
+        assertEquals("t1999", transactions.get(TRANSACTION_COUNT - 1).getId());
+        assertEquals(new BigDecimal("-99.50"), transactions.get(99).getAmount());
+        try (Stream<Transaction> stream = starling.streamTransactions(new Date(0), new Date())) {
+            assertEquals(TRANSACTION_COUNT, stream.count());
+        }
+
+        EndpointMetricsStats stats = metricsRegistry.getStats().get("/transactions");
+        assertEquals(2L * TRANSACTIONS.getBytes(StandardCharsets.UTF_8).length, stats.getBytesDecompressed());
+        assertTrue(stats.getBytesReceived() * 5 < stats.getBytesDecompressed());
+        assertEquals(stats.getBytesDecompressed() - stats.getBytesReceived(), stats.getBytesSaved());
+        // Both bodies were read to their end, so the one connection went back to the pool each time
+        assertEquals(1, pooledHttpClient.getPoolStats().getCreated());
+        assertEquals(1, pooledHttpClient.getPoolStats().getReused());
+    }
+
+    @Test
+    public void testDeflateBodiesAreDecompressedWithOrWithoutTheirZlibWrapper() throws Exception {
+        for (String encoding : new String[]{"deflate", "raw-deflate"}) {
+            server.compress(encoding);
+            List<Transaction> transactions = starling().listTransactions();
+            assertEquals(encoding, TRANSACTION_COUNT, transactions.size());
+            assertEquals(encoding, "t0", transactions.get(0).getId());
+        }
+    }
+
+    @Test
+    public void testCompressedErrorBodiesAreDecompressed() throws Exception {
+        server.compress("gzip");
+        try {
+            starling().listContacts();
+            fail("expected the request to fail");
+        } catch (StarlingBankRequestException e) {
+            assertEquals(404, e.getStatusCode());
+            assertEquals("{\"error\":\"not_found\"}", e.getReason().trim());
+        }
+    }
+
+    @Test
+    public void testUncompressedBodiesCountTheSameBothWays() throws Exception {
+        starling().listTransactions();
+        EndpointMetricsStats stats = metricsRegistry.getStats().get("/transactions");
+        assertEquals(stats.getBytesReceived(), stats.getBytesDecompressed());
+        assertEquals(0, stats.getBytesSaved());
+    }
+
+    @Test
+    public void testCallersCanTurnCompressionOff() throws Exception {
+        server.compress("gzip");
+        pooledHttpClient.close();
+        pooledHttpClient = new PooledHttpClient(Collections.singletonMap("Accept-Encoding", "identity"), new ConnectionPool(),
+                BasicHttpsClient.DEFAULT_CONNECT_TIMEOUT_MILLIS, BasicHttpsClient.DEFAULT_READ_TIMEOUT_MILLIS, metricsRegistry);
+
+        assertEquals(TRANSACTION_COUNT, starling().listTransactions().size());
+        assertEquals("identity", server.getAcceptEncoding());
+        EndpointMetricsStats stats = metricsRegistry.getStats().get("/transactions");
+        assertEquals(TRANSACTIONS.getBytes(StandardCharsets.UTF_8).length, stats.getBytesReceived());
+    }
+
+    @Test
+    public void testCachedCompressedBodiesAreServedDecompressed() throws Exception {
+        server.compress("gzip");
+        server.respondOnce("/accounts/balance", 200, "{\"amount\":2,\"currency\":\"GBP\"}", "Cache-Control", "max-age=60");
+        StarlingBank starling = new StarlingClientFactory(StarlingBankEnvironment.SANDBOX,
+                new CachingHttpClient(server.transport(pooledHttpClient))).forAccessToken("token");
+
+        assertEquals(new BigDecimal("2"), starling.getAccountBalance().getAmount());
+        assertEquals(new BigDecimal("2"), starling.getAccountBalance().getAmount());
+        assertEquals(1, server.getRequestCount("/accounts/balance"));
+    }
+}
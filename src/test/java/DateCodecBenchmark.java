@@ -0,0 +1,99 @@
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import org.jarling.models.gson.IsoDateCodec;
+import org.jarling.models.gson.IsoDateTypeAdapter;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ *
+ * Measures date formatting and parsing throughput with several threads sharing one codec: the shared
+ * SimpleDateFormat (which has to be locked) and Gson's default date adapter against {@link IsoDateCodec}.
+ * Not a unit test; run its main method, e.g. {@code java -cp target/classes:target/test-classes:<gson.jar> DateCodecBenchmark}
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class DateCodecBenchmark {
+
+    private static final long MEASURE_MILLIS = 2000;
+    private static final int[] THREADS = {1, 2, 4, 8};
+
+    interface Operation {
+        Object run(long i) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        TypeAdapter<Date> gsonDefault = new Gson().getAdapter(Date.class);
+        TypeAdapter<Date> iso = new IsoDateTypeAdapter();
+        String[] timestamps = new String[1024];
+        for (int i = 0; i < timestamps.length; i++){
+            timestamps[i] = "\"" + IsoDateCodec.formatTimestamp(new Date(1_500_000_000_000L + i * 86_399_999L)) + "\"";
+        }
+
+        for (int threads : THREADS){
+            run("query parameter, locked SimpleDateFormat", threads, i -> {
+                synchronized (simpleDateFormat) {
+                    return simpleDateFormat.format(new Date(1_500_000_000_000L + i * 1000));
+                }
+            });
+            run("query parameter, IsoDateCodec", threads, i -> IsoDateCodec.formatDate(new Date(1_500_000_000_000L + i * 1000)));
+            run("model timestamp, Gson default adapter", threads, i -> parse(gsonDefault, timestamps[(int) (i & 1023)]));
+            run("model timestamp, IsoDateTypeAdapter", threads, i -> parse(iso, timestamps[(int) (i & 1023)]));
+        }
+    }
+
+    private static Date parse(TypeAdapter<Date> adapter, String json) throws IOException {
+        return adapter.fromJson(json);
+    }
+
+    private static void run(String label, int threads, Operation operation) throws InterruptedException {
+        // Warm up on one thread first so every configuration is measured compiled
+        long warmUpEnd = System.nanoTime() + MEASURE_MILLIS * 1_000_000L / 2;
+        for (long i = 0; System.nanoTime() < warmUpEnd; i++){
+            call(operation, i);
+        }
+
+        LongAdder operations = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        long[] end = new long[1];
+        for (int t = 0; t < threads; t++){
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long count = 0;
+                while (System.nanoTime() < end[0]){
+                    call(operation, count++);
+                }
+                operations.add(count);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        end[0] = System.nanoTime() + MEASURE_MILLIS * 1_000_000L;
+        start.countDown();
+        for (Thread worker : workers){
+            worker.join();
+        }
+        System.out.println(String.format("%-42s %d thread(s) %,14.0f ops/s", label, threads, operations.sum() * 1000.0 / MEASURE_MILLIS));
+    }
+
+    private static void call(Operation operation, long i){
+        try {
+            operation.run(i);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
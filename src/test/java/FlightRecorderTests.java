@@ -0,0 +1,121 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.StarlingClientFactory;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.metrics.FlightRecorderEvents;
+import org.jarling.models.accounts.AccountBalance;
+import org.jarling.models.transactions.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class FlightRecorderTests {
+
+    private static final String BALANCE = "{\"amount\":1,\"currency\":\"GBP\"}";
+
+    private LocalStarlingServer server;
+    private StarlingBank starling;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        server.respond("/accounts/balance", 200, BALANCE);
+        server.respond("/transactions", 200, "{\"_embedded\":{\"transactions\":[{\"id\":\"a\"},{\"id\":\"b\"}]}}");
+        server.respond("/contacts", 404, "{}");
+        starling = new StarlingClientFactory(StarlingBankEnvironment.SANDBOX, server.transport()).forAccessToken("token");
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    private List<RecordedEvent> record(Runnable calls) throws IOException {
+        Path file = Files.createTempFile("jarling", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("org.jarling.HttpCall");
+            recording.enable("org.jarling.ModelDecode");
+            recording.start();
+            assertTrue(FlightRecorderEvents.isHttpCallEnabled());
+            assertTrue(FlightRecorderEvents.isModelDecodeEnabled());
+            calls.run();
+            recording.stop();
+            recording.dump(file);
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)){
+                if (event.getEventType().getName().startsWith("org.jarling.")){
+                    events.add(event);
+                }
+            }
+            return events;
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static RecordedEvent find(List<RecordedEvent> events, String name, String field, Object value){
+        for (RecordedEvent event : events){
+            if (event.getEventType().getName().equals(name)){
+                Object actual = event.getValue(field);
+                if (value.equals(actual) || (actual instanceof RecordedClass && value.equals(((RecordedClass) actual).getName()))){
+                    return event;
+                }
+            }
+        }
+        fail("no " + name + " event with " + field + " " + value + " in " + events);
+        return null;
+    }
+
+    @Test
+    public void testEventsAreOnlyEnabledWhileRecording() throws Exception {
+        assertFalse(FlightRecorderEvents.isHttpCallEnabled());
+        record(() -> {});
+        assertFalse(FlightRecorderEvents.isHttpCallEnabled());
+        assertFalse(FlightRecorderEvents.isModelDecodeEnabled());
+    }
+
+    @Test
+    public void testCallsAndDecodesAreRecorded() throws Exception {
+        List<RecordedEvent> events = record(() -> {
+            try {
+                starling.getAccountBalance();
+                assertEquals(2, starling.listTransactions().size());
+                try {
+                    starling.listContacts();
+                    fail("expected the contacts to be missing");
+                } catch (StarlingBankRequestException e) {
+                    assertEquals(404, e.getStatusCode());
+                }
+            } catch (StarlingBankRequestException e) {
+                throw new AssertionError(e);
+            }
+        });
+
+        RecordedEvent balance = find(events, "org.jarling.HttpCall", "endpointTemplate", "/accounts/balance");
+        assertEquals("GET", balance.getString("method"));
+        assertEquals(200, balance.getInt("statusCode"));
+        assertEquals(BALANCE.length(), balance.getLong("bytesReceived"));
+        assertTrue(balance.getDuration().toNanos() >= balance.getLong("serverTime"));
+        assertEquals(404, find(events, "org.jarling.HttpCall", "endpointTemplate", "/contacts").getInt("statusCode"));
+
+        assertEquals(1, find(events, "org.jarling.ModelDecode", "modelType", AccountBalance.class.getName()).getInt("elements"));
+        assertEquals(2, find(events, "org.jarling.ModelDecode", "modelType", Transaction.class.getName()).getInt("elements"));
+    }
+}
@@ -0,0 +1,131 @@
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.StarlingClientFactory;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.HttpInterceptor;
+import org.jarling.http.HttpRequest;
+import org.jarling.http.HttpResponse;
+import org.jarling.http.InterceptingHttpClient;
+import org.jarling.models.accounts.AccountBalance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class InterceptorTests {
+
+    private LocalStarlingServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        server.respond("/accounts/balance", 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    private StarlingBank starling(HttpInterceptor... interceptors){
+        InterceptingHttpClient httpClient = new InterceptingHttpClient(server.transport(), Arrays.asList(interceptors));
+        return new StarlingClientFactory(StarlingBankEnvironment.SANDBOX, httpClient).forAccessToken("token");
+    }
+
+    @Test
+    public void testInterceptorsRunInOrder() throws Exception {
+        List<String> calls = Collections.synchronizedList(new ArrayList<>());
+        HttpInterceptor outer = (httpRequest, chain) -> {
+            calls.add("outer request " + httpRequest.getRequestMethod());
+            HttpResponse response = chain.proceed(httpRequest);
+            calls.add("outer response " + response.getStatusCode());
+            return response;
+        };
+        HttpInterceptor inner = (httpRequest, chain) -> {
+            calls.add("inner request " + httpRequest.getRequestMethod());
+            HttpResponse response = chain.proceed(httpRequest);
+            calls.add("inner response " + response.getStatusCode());
+            return response;
+        };
+
+        assertEquals(new BigDecimal("1"), starling(outer, inner).getAccountBalance().getAmount());
+        assertEquals(Arrays.asList("outer request GET", "inner request GET", "inner response 200", "outer response 200"), calls);
+        assertEquals(1, server.getRequestCount("/accounts/balance"));
+    }
+
+    @Test
+    public void testInterceptorCanAnswerWithoutTheNetwork() throws Exception {
+        HttpInterceptor stub = (httpRequest, chain) -> {
+            if (!httpRequest.getUrl().endsWith("/accounts/balance")){
+                return chain.proceed(httpRequest);
+            }
+            byte[] body = "{\"amount\":42,\"currency\":\"GBP\"}".getBytes(StandardCharsets.UTF_8);
+            try {
+                return new HttpResponse(200, new URL(httpRequest.getUrl()), null, new ByteArrayInputStream(body));
+            } catch (IOException e) {
+                throw new StarlingBankRequestException("Stub", "The stubbed URL could not be parsed", e);
+            }
+        };
+
+        AccountBalance balance = starling(stub).getAccountBalance();
+        assertEquals(new BigDecimal("42"), balance.getAmount());
+        assertEquals(0, server.getRequestCount("/accounts/balance"));
+    }
+
+    @Test
+    public void testInterceptorCanRefreshTheTokenAndSendAgain() throws Exception {
+        server.respondOnce("/accounts/balance", 401, "{}");
+        HttpInterceptor refresh = (httpRequest, chain) -> {
+            try {
+                return chain.proceed(httpRequest);
+            } catch (StarlingBankRequestException e) {
+                if (e.getStatusCode() != 401){
+                    throw e;
+                }
+                Map<String, String> headers = new HashMap<>(httpRequest.getRequestHeaders());
+                headers.put("Authorization", "Bearer refreshed");
+                return chain.proceed(new HttpRequest(httpRequest.getRequestMethod(), httpRequest.getUrl(), httpRequest.getHttpParameters(),
+                        headers, httpRequest.getBody()));
+            }
+        };
+
+        assertEquals(new BigDecimal("1"), starling(refresh).getAccountBalance().getAmount());
+        assertEquals(Arrays.asList("Bearer token", "Bearer refreshed"), server.getAuthorizations("/accounts/balance"));
+    }
+
+    @Test
+    public void testRequestIsHandedOnWithoutACopy() throws Exception {
+        List<HttpRequest> seen = new ArrayList<>();
+        HttpInterceptor record = (httpRequest, chain) -> {
+            seen.add(httpRequest);
+            return chain.proceed(httpRequest);
+        };
+        InterceptingHttpClient inner = new InterceptingHttpClient(server.transport(), Collections.singletonList(record));
+        InterceptingHttpClient empty = new InterceptingHttpClient(inner, Collections.emptyList());
+        InterceptingHttpClient outer = new InterceptingHttpClient(empty, Collections.singletonList(record));
+
+        try (HttpResponse response = outer.get(server.getBaseUrl() + "/api/v1/accounts/balance")) {
+            assertEquals(200, response.getStatusCode());
+        }
+        assertEquals(2, seen.size());
+        assertSame(seen.get(0), seen.get(1));
+    }
+}
@@ -0,0 +1,93 @@
+import org.jarling.models.gson.IsoDateCodec;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class IsoDateCodecTests {
+
+    @Test
+    public void testFormatDateMatchesSimpleDateFormat() {
+        SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        for (long millis = -86_400_000L * 400; millis < 86_400_000L * 20_000; millis += 3_600_000L * 7 + 12_345){
+            Date date = new Date(millis);
+            assertEquals(simpleDateFormat.format(date), IsoDateCodec.formatDate(date));
+        }
+    }
+
+    @Test
+    public void testFormatTimestamp() {
+        assertEquals("2017-05-04T12:01:02.345Z", IsoDateCodec.formatTimestamp(Date.from(Instant.parse("2017-05-04T12:01:02.345Z"))));
+        assertEquals("1969-12-31T23:59:59.999Z", IsoDateCodec.formatTimestamp(new Date(-1)));
+        assertEquals("1970-01-01T00:00:00.000Z", IsoDateCodec.formatTimestamp(new Date(0)));
+    }
+
+    @Test
+    public void testParse() {
+        long expected = Instant.parse("2017-05-04T12:01:02.345Z").toEpochMilli();
+        assertEquals(expected, IsoDateCodec.parse("2017-05-04T12:01:02.345Z").getTime());
+        assertEquals(expected, IsoDateCodec.parse("2017-05-04T12:01:02.345678Z").getTime());
+        assertEquals(expected, IsoDateCodec.parse("2017-05-04T13:01:02.345+01:00").getTime());
+        assertEquals(expected, IsoDateCodec.parse("2017-05-04T07:31:02.345-0430").getTime());
+        assertEquals(expected - 345, IsoDateCodec.parse("2017-05-04T12:01:02Z").getTime());
+        assertEquals(expected - 2345, IsoDateCodec.parse("2017-05-04T12:01Z").getTime());
+        assertEquals(expected - 245, IsoDateCodec.parse("2017-05-04T12:01:02.1Z").getTime());
+        assertEquals(LocalDate.of(2017, 6, 1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                IsoDateCodec.parse("2017-06-01").getTime());
+    }
+
+    @Test
+    public void testParseRejectsMalformedText() {
+        String[] malformed = {"", "2017", "2017-13-01", "2017-02-30", "2017-05-04X12:00Z", "2017-05-04T25:00Z",
+                "2017-05-04T12:01:02.Z", "2017-05-04T12:01:02+1", "2017-05-04T12:01:02Zulu", "May 4, 2017 12:01:02 PM"};
+        for (String text : malformed){
+            try {
+                IsoDateCodec.parse(text);
+                fail("expected " + text + " to be rejected");
+            } catch (DateTimeParseException expected) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++){
+                final long seed = thread;
+                results.add(executor.submit(() -> {
+                    for (long i = 0; i < 20_000; i++){
+                        Date date = new Date(seed * 31_536_000_000L + i * 86_399_999L);
+                        if (!date.equals(IsoDateCodec.parse(IsoDateCodec.formatTimestamp(date)))){
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results){
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
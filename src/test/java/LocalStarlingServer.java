@@ -0,0 +1,219 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.http.ConnectionPoolStats;
+import org.jarling.http.HttpClient;
+import org.jarling.http.PooledHttpClient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ *
+ * Serves canned Starling API responses on localhost so clients can be tested without a sandbox token.
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+class LocalStarlingServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final Map<String, Integer> statuses = new ConcurrentHashMap<>();
+    private final Map<String, String> bodies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+    private final Map<String, Queue<String>> authorizations = new ConcurrentHashMap<>();
+    private final Map<String, Queue<String[]>> onceResponses = new ConcurrentHashMap<>();
+    private final Map<String, Long> delays = new ConcurrentHashMap<>();
+    private final Map<String, Queue<Long>> onceDelays = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile IntUnaryOperator latency;
+    private volatile String contentEncoding;
+    private volatile String acceptEncoding;
+    private final PooledHttpClient pooledHttpClient = new PooledHttpClient(null);
+
+    LocalStarlingServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            int concurrency = inFlight.incrementAndGet();
+            try {
+                handle(exchange, concurrency);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    private void handle(HttpExchange exchange, int concurrency) throws IOException {
+        String path = exchange.getRequestURI().getPath().replace("/api/v1", "");
+        requestCounts.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization != null) {
+            authorizations.computeIfAbsent(path, key -> new ConcurrentLinkedQueue<>()).add(authorization);
+        }
+        acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        Long delay = onceDelays.getOrDefault(path, new ConcurrentLinkedQueue<>()).poll();
+        if (delay == null) {
+            delay = delays.get(path);
+        }
+        IntUnaryOperator latency = this.latency;
+        if (delay == null && latency != null) {
+            delay = (long) latency.applyAsInt(concurrency);
+        }
+        if (delay != null) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String[] once = onceResponses.getOrDefault(path, new ConcurrentLinkedQueue<>()).poll();
+        String body = once != null ? once[1] : bodies.getOrDefault(path, "{}");
+        int status = once != null ? Integer.parseInt(once[0]) : statuses.getOrDefault(path, bodies.containsKey(path) ? 200 : 404);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        String contentEncoding = this.contentEncoding;
+        if (contentEncoding != null && acceptEncoding != null && acceptEncoding.contains(contentEncoding.replace("raw-", ""))) {
+            bytes = compress(bytes, contentEncoding);
+            exchange.getResponseHeaders().add("Content-Encoding", contentEncoding.replace("raw-", ""));
+        }
+        for (int i = 2; once != null && i < once.length; i += 2) {
+            exchange.getResponseHeaders().add(once[i], once[i + 1]);
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] compress(byte[] bytes, String contentEncoding) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = contentEncoding.equals("gzip") ? new GZIPOutputStream(compressed)
+                : new DeflaterOutputStream(compressed, new Deflater(Deflater.DEFAULT_COMPRESSION, contentEncoding.startsWith("raw-")))) {
+            out.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    void respond(String path, int status, String body) {
+        statuses.put(path, status);
+        bodies.put(path, body);
+    }
+
+    /**
+     * Answers the next request to {@code path} with the given status, body and header name and value pairs,
+     * ahead of the response set with {@link #respond(String, int, String)}. Calls queue up in order.
+     */
+    void respondOnce(String path, int status, String body, String... headers) {
+        String[] response = new String[headers.length + 2];
+        response[0] = String.valueOf(status);
+        response[1] = body;
+        System.arraycopy(headers, 0, response, 2, headers.length);
+        onceResponses.computeIfAbsent(path, key -> new ConcurrentLinkedQueue<>()).add(response);
+    }
+
+    /**
+     * Holds every response to {@code path} back for the given time, e.g. to keep concurrent requests in flight together.
+     */
+    void delay(String path, long millis) {
+        delays.put(path, millis);
+    }
+
+    /**
+     * Holds the next response to {@code path} back for the given time, ahead of the delay set with
+     * {@link #delay(String, long)}. Calls queue up in order.
+     */
+    void delayOnce(String path, long millis) {
+        onceDelays.computeIfAbsent(path, key -> new ConcurrentLinkedQueue<>()).add(millis);
+    }
+
+    /**
+     * Holds back responses to paths without a delay of their own for the time, in milliseconds, that {@code latency}
+     * gives for the number of requests the server is handling, e.g. to simulate a server that slows down under load.
+     */
+    void latency(IntUnaryOperator latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Compresses the bodies of responses to requests that accept {@code contentEncoding}, which is {@code gzip},
+     * {@code deflate}, or {@code raw-deflate} for deflate without the zlib wrapper some servers leave out.
+     */
+    void compress(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    /**
+     * @return the Accept-Encoding header of the last request, or null if it had none
+     */
+    String getAcceptEncoding() {
+        return acceptEncoding;
+    }
+
+    int getRequestCount(String path) {
+        AtomicInteger count = requestCounts.get(path);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @return the Authorization header of every request made to {@code path}, in arrival order
+     */
+    List<String> getAuthorizations(String path) {
+        Queue<String> received = authorizations.get(path);
+        return received == null ? new ArrayList<>() : new ArrayList<>(received);
+    }
+
+    ConnectionPoolStats getPoolStats() {
+        return pooledHttpClient.getPoolStats();
+    }
+
+    String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return a transport that sends requests meant for the sandbox environment to this server instead
+     */
+    HttpClient transport() {
+        return transport(pooledHttpClient);
+    }
+
+    /**
+     * @return a transport that sends requests meant for the sandbox environment to this server through {@code httpClient}
+     */
+    HttpClient transport(HttpClient httpClient) {
+        String sandbox = StarlingBankEnvironment.SANDBOX.getPath();
+        return (HttpClient) Proxy.newProxyInstance(HttpClient.class.getClassLoader(), new Class[]{HttpClient.class}, (proxy, method, args) -> {
+            args[0] = ((String) args[0]).replace(sandbox, getBaseUrl());
+            try {
+                return method.invoke(httpClient, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        pooledHttpClient.close();
+        server.stop(0);
+    }
+}
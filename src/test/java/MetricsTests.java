@@ -0,0 +1,162 @@
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.StarlingClientFactory;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.BasicHttpsClient;
+import org.jarling.http.ConnectionPool;
+import org.jarling.http.PooledHttpClient;
+import org.jarling.metrics.EndpointMetricsStats;
+import org.jarling.metrics.HistogramMetricsRegistry;
+import org.jarling.metrics.LatencyHistogram;
+import org.jarling.metrics.LatencyStats;
+import org.jarling.metrics.Timing;
+import org.jarling.models.transactions.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class MetricsTests {
+
+    private static final String BALANCE = "{\"amount\":1,\"currency\":\"GBP\"}";
+    private static final String TRANSACTIONS = "{\"_embedded\":{\"transactions\":[{\"id\":\"a\"},{\"id\":\"b\"}]}}";
+
+    private LocalStarlingServer server;
+    private HistogramMetricsRegistry metricsRegistry;
+    private PooledHttpClient pooledHttpClient;
+    private StarlingBank starling;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        server.respond("/accounts/balance", 200, BALANCE);
+        server.respond("/transactions", 200, TRANSACTIONS);
+        server.respond("/contacts", 404, "{}");
+        server.delay("/accounts/balance", 50);
+        metricsRegistry = new HistogramMetricsRegistry();
+        pooledHttpClient = new PooledHttpClient(null, new ConnectionPool(), BasicHttpsClient.DEFAULT_CONNECT_TIMEOUT_MILLIS,
+                BasicHttpsClient.DEFAULT_READ_TIMEOUT_MILLIS, metricsRegistry);
+        starling = new StarlingClientFactory(StarlingBankEnvironment.SANDBOX, server.transport(pooledHttpClient)).forAccessToken("token");
+    }
+
+    @After
+    public void tearDown() {
+        pooledHttpClient.close();
+        server.close();
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.snapshot().getPercentileMicros(99));
+        for (int millis = 1; millis <= 1000; millis++){
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        LatencyStats stats = histogram.snapshot();
+        assertEquals(1000, stats.getCount());
+        assertEquals(500500, stats.getMeanMicros());
+        assertEquals(1000000, stats.getMaxMicros());
+        assertEquals(1000, stats.getPercentileMicros(0), 1000 * 0.032);
+        assertEquals(500000, stats.getPercentileMicros(50), 500000 * 0.032);
+        assertEquals(990000, stats.getPercentileMicros(99), 990000 * 0.032);
+        assertEquals(1000000, stats.getPercentileMicros(100));
+
+        // Short durations are counted exactly
+        LatencyHistogram exact = new LatencyHistogram();
+        for (int micros = 0; micros < 64; micros++){
+            exact.record(TimeUnit.MICROSECONDS.toNanos(micros));
+        }
+        assertEquals(31, exact.snapshot().getPercentileMicros(50));
+        assertEquals(63, exact.snapshot().getPercentileMicros(100));
+    }
+
+    @Test
+    public void testRequestsAreTimedByEndpoint() throws Exception {
+        for (int i = 0; i < 3; i++){
+            starling.getAccountBalance();
+        }
+        assertEquals(2, starling.listTransactions().size());
+        try (Stream<Transaction> transactions = starling.streamTransactions(new Date(0), new Date())) {
+            assertEquals(2, transactions.count());
+        }
+
+        EndpointMetricsStats balance = metricsRegistry.getStats().get("/accounts/balance");
+        assertEquals(3, balance.getRequests());
+        assertEquals(0, balance.getErrors());
+        assertEquals(Long.valueOf(3), balance.getStatusCodes().get(200));
+        assertEquals(3, balance.getTiming(Timing.SERVER).getCount());
+        assertEquals(3, balance.getTiming(Timing.ROUND_TRIP).getCount());
+        assertEquals(3, balance.getTiming(Timing.BODY_READ).getCount());
+        assertEquals(3, balance.getTiming(Timing.DECODE).getCount());
+        assertTrue(balance.getTiming(Timing.SERVER).getPercentileMicros(50) >= TimeUnit.MILLISECONDS.toMicros(50));
+        // One connection carries every request, and the local server speaks plain HTTP
+        assertEquals(1, balance.getTiming(Timing.CONNECT).getCount());
+        assertNull(balance.getTiming(Timing.TLS_HANDSHAKE));
+        assertEquals(3 * BALANCE.length(), balance.getBytesReceived());
+        assertEquals(0, balance.getBytesSent());
+
+        EndpointMetricsStats transactions = metricsRegistry.getStats().get("/transactions");
+        assertEquals(2, transactions.getRequests());
+        assertEquals(2, transactions.getTiming(Timing.DECODE).getCount());
+        assertEquals(2 * TRANSACTIONS.length(), transactions.getBytesReceived());
+    }
+
+    @Test
+    public void testErrorsAndBytesSentAreCounted() throws Exception {
+        try {
+            starling.listContacts();
+            fail("expected the contacts to be missing");
+        } catch (StarlingBankRequestException e) {
+            assertEquals(404, e.getStatusCode());
+        }
+        EndpointMetricsStats contacts = metricsRegistry.getStats().get("/contacts");
+        assertEquals(1, contacts.getErrors());
+        assertEquals(Long.valueOf(1), contacts.getStatusCodes().get(404));
+        assertNull(contacts.getTiming(Timing.DECODE));
+
+        server.respondOnce("/payments/local", 202, "{}", "Location", "/api/v1/payments/local/payment");
+        server.respond("/payments/scheduled", 200, "{\"_embedded\":{\"paymentOrders\":[]}}");
+        starling.makeLocalPayment("contact", "reference", BigDecimal.ONE);
+        assertTrue(metricsRegistry.getStats().get("/payments/local").getBytesSent() > 0);
+
+        server.close();
+        try {
+            starling.getAccountBalance();
+            fail("expected the server to be gone");
+        } catch (StarlingBankRequestException e) {
+            assertEquals(-1, e.getStatusCode());
+        }
+        assertEquals(Long.valueOf(1), metricsRegistry.getStats().get("/accounts/balance").getStatusCodes().get(-1));
+    }
+
+    @Test
+    public void testStatusCodesAreCountedSeparately() {
+        HistogramMetricsRegistry registry = new HistogramMetricsRegistry();
+        registry.recordStatus("/accounts/balance", 200);
+        registry.recordStatus("/accounts/balance", 200);
+        registry.recordStatus("/accounts/balance", 100);
+        registry.recordStatus("/accounts/balance", 599);
+        registry.recordStatus("/accounts/balance", 999);
+        registry.recordStatus("/accounts/balance", -1);
+
+        Map<Integer, Long> statusCodes = registry.getStats().get("/accounts/balance").getStatusCodes();
+        assertEquals(Arrays.asList(-1, 100, 200, 599, 999), new ArrayList<>(statusCodes.keySet()));
+        assertEquals(Long.valueOf(2), statusCodes.get(200));
+        assertEquals(Long.valueOf(1), statusCodes.get(-1));
+    }
+}
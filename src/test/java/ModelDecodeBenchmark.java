@@ -0,0 +1,79 @@
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import org.jarling.models.gson.ModelGson;
+import org.jarling.models.transactions.MasterCardTransaction;
+import org.jarling.models.transactions.Transaction;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+
+/**
+ *
+ * Compares the decode throughput of Gson's reflective adapters with the generated model adapters.
+ * Not a unit test; run its main method, e.g. {@code java -cp target/classes:target/test-classes:<gson.jar> ModelDecodeBenchmark}
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class ModelDecodeBenchmark {
+
+    private static final int ELEMENTS = 10_000;
+    private static final int WARM_UP_ITERATIONS = 20;
+    private static final int ITERATIONS = 10;
+
+    private static final String TRANSACTION = "{\"id\":\"7d5d0c3a-%1$08d\",\"currency\":\"GBP\",\"amount\":-%1$d.25,\"direction\":\"OUTBOUND\","
+            + "%2$s\"narrative\":\"Coffee %1$d\",\"source\":\"MASTER_CARD\",\"balance\":1%1$d.50}";
+    private static final String MASTER_CARD_TRANSACTION = "{\"id\":\"m-%1$08d\",\"currency\":\"GBP\",\"amount\":-%1$d.25,\"direction\":\"OUTBOUND\","
+            + "%2$s\"narrative\":\"Coffee %1$d\",\"source\":\"MASTER_CARD\",\"mastercardTransactionMethod\":\"CONTACTLESS\",\"status\":\"SETTLED\","
+            + "\"sourceAmount\":%1$d.25,\"sourceCurrency\":\"GBP\",\"merchantId\":\"merchant-%1$d\",\"merchantLocationId\":\"location-%1$d\"}";
+    private static final String CREATED = "\"created\":\"2017-05-04T12:01:02.345Z\",";
+
+    public static void main(String[] args) throws IOException {
+        Gson reflective = new Gson();
+        Gson generated = ModelGson.getInstance();
+        for (String created : new String[]{"", CREATED}){
+            String transactions = payload(TRANSACTION, created);
+            String masterCardTransactions = payload(MASTER_CARD_TRANSACTION, created);
+            String dates = created.isEmpty() ? "without dates" : "with dates";
+            report("Transaction reflective, " + dates, reflective.getAdapter(Transaction.class), transactions);
+            report("Transaction generated, " + dates, generated.getAdapter(Transaction.class), transactions);
+            report("MasterCardTransaction reflective, " + dates, reflective.getAdapter(MasterCardTransaction.class), masterCardTransactions);
+            report("MasterCardTransaction generated, " + dates, generated.getAdapter(MasterCardTransaction.class), masterCardTransactions);
+        }
+    }
+
+    private static String payload(String elementFormat, String created){
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < ELEMENTS; i++){
+            json.append(i == 0 ? "" : ",").append(String.format(elementFormat, i, created));
+        }
+        return json.append("]").toString();
+    }
+
+    // Reports the median elements decoded per second over the measured iterations
+    private static void report(String label, TypeAdapter<?> adapter, String json) throws IOException {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++){
+            decode(adapter, json);
+        }
+        double[] elementsPerSecond = new double[ITERATIONS];
+        for (int i = 0; i < ITERATIONS; i++){
+            long start = System.nanoTime();
+            decode(adapter, json);
+            elementsPerSecond[i] = ELEMENTS / ((System.nanoTime() - start) / 1e9);
+        }
+        Arrays.sort(elementsPerSecond);
+        System.out.println(String.format("%-50s %,12.0f elements/s", label, elementsPerSecond[ITERATIONS / 2]));
+    }
+
+    private static void decode(TypeAdapter<?> adapter, String json) throws IOException {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            reader.beginArray();
+            while (reader.hasNext()){
+                adapter.read(reader);
+            }
+            reader.endArray();
+        }
+    }
+}
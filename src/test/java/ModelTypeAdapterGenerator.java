@@ -0,0 +1,376 @@
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ *
+ * Writes a {@code <Package>TypeAdapterFactory} next to the models of every package under org.jarling.models, with a
+ * field-by-field Gson type adapter for each model class and enum. A model with a hand-written
+ * {@code <Model>TypeAdapter} in its package is served by that adapter instead. The gson support package is skipped.
+ *
+ * Run from the project root after changing a model: {@code java -cp target/classes:target/test-classes:<gson.jar> ModelTypeAdapterGenerator}
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class ModelTypeAdapterGenerator {
+
+    static final String MODELS_PACKAGE = "org.jarling.models";
+    static final Path SOURCE_ROOT = Paths.get("src", "main", "java");
+
+    public static void main(String[] args) throws IOException {
+        Path sourceRoot = args.length > 0 ? Paths.get(args[0]) : SOURCE_ROOT;
+        for (Map.Entry<Path, String> source : generateAll(sourceRoot).entrySet()){
+            Files.write(source.getKey(), source.getValue().getBytes(StandardCharsets.UTF_8));
+            System.out.println("Wrote " + source.getKey());
+        }
+    }
+
+    /**
+     * @return the generated source of every model package, keyed by the file it belongs in
+     */
+    static Map<Path, String> generateAll(Path sourceRoot) throws IOException {
+        Map<Path, String> sources = new LinkedHashMap<>();
+        for (Map.Entry<Path, List<Class<?>>> modelPackage : modelPackages(sourceRoot).entrySet()){
+            String packageName = MODELS_PACKAGE + "." + modelPackage.getKey().getFileName();
+            sources.put(modelPackage.getKey().resolve(factoryName(packageName) + ".java"), generate(packageName, modelPackage.getValue()));
+        }
+        return sources;
+    }
+
+    /**
+     * @return every model class and enum that gets a type adapter
+     */
+    static List<Class<?>> allModels(Path sourceRoot) throws IOException {
+        List<Class<?>> models = new ArrayList<>();
+        modelPackages(sourceRoot).values().forEach(models::addAll);
+        return models;
+    }
+
+    private static Map<Path, List<Class<?>>> modelPackages(Path sourceRoot) throws IOException {
+        Path modelsDirectory = sourceRoot.resolve(MODELS_PACKAGE.replace('.', '/'));
+        Map<Path, List<Class<?>>> modelPackages = new LinkedHashMap<>();
+        try (Stream<Path> packages = Files.list(modelsDirectory)) {
+            for (Path packageDirectory : packages.filter(Files::isDirectory).sorted().collect(Collectors.toList())){
+                if (packageDirectory.getFileName().toString().equals("gson")){
+                    continue;
+                }
+                List<Class<?>> models = models(packageDirectory, MODELS_PACKAGE + "." + packageDirectory.getFileName());
+                if (!models.isEmpty()){
+                    modelPackages.put(packageDirectory, models);
+                }
+            }
+        }
+        return modelPackages;
+    }
+
+    static String factoryName(String packageName){
+        String simpleName = packageName.substring(packageName.lastIndexOf('.') + 1);
+        return Character.toUpperCase(simpleName.charAt(0)) + simpleName.substring(1) + "TypeAdapterFactory";
+    }
+
+    private static List<Class<?>> models(Path packageDirectory, String packageName) throws IOException {
+        List<Class<?>> models = new ArrayList<>();
+        try (Stream<Path> files = Files.list(packageDirectory)) {
+            for (String file : files.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList())){
+                if (!file.endsWith(".java") || file.endsWith("TypeAdapter.java") || file.endsWith("TypeAdapterFactory.java")){
+                    continue;
+                }
+                try {
+                    Class<?> clazz = Class.forName(packageName + "." + file.substring(0, file.length() - ".java".length()));
+                    if (Modifier.isPublic(clazz.getModifiers()) && !clazz.isInterface()){
+                        models.add(clazz);
+                    }
+                } catch (ClassNotFoundException e) {
+                    throw new IllegalStateException("compile the models before generating their adapters", e);
+                }
+            }
+        }
+        return models;
+    }
+
+    private static Class<?> handWrittenAdapter(Class<?> model){
+        try {
+            return Class.forName(model.getName() + "TypeAdapter");
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    static String generate(String packageName, List<Class<?>> models){
+        TreeSet<String> imports = new TreeSet<>();
+        imports.add("com.google.gson.Gson");
+        imports.add("com.google.gson.TypeAdapter");
+        imports.add("com.google.gson.TypeAdapterFactory");
+        imports.add("com.google.gson.reflect.TypeToken");
+
+        StringBuilder adapters = new StringBuilder();
+        StringBuilder create = new StringBuilder();
+        for (Class<?> model : models){
+            Class<?> handWritten = handWrittenAdapter(model);
+            boolean needsGson;
+            if (handWritten != null){
+                needsGson = true;
+            } else if (model.isEnum()){
+                enumAdapter(adapters, model);
+                needsGson = false;
+            } else {
+                needsGson = modelAdapter(adapters, model, packageName, imports);
+            }
+            String adapterName = handWritten != null ? handWritten.getSimpleName() : model.getSimpleName() + "Adapter";
+            create.append("        if (rawType == ").append(model.getSimpleName()).append(".class){\n")
+                    .append("            return (TypeAdapter<T>) new ").append(adapterName)
+                    .append(needsGson ? "(gson)" : "()").append(";\n")
+                    .append("        }\n");
+        }
+
+        if (adapters.length() > 0){
+            imports.add("com.google.gson.stream.JsonReader");
+            imports.add("com.google.gson.stream.JsonToken");
+            imports.add("com.google.gson.stream.JsonWriter");
+            imports.add("java.io.IOException");
+        }
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n");
+        List<String> javaImports = new ArrayList<>();
+        for (String anImport : imports){
+            if (anImport.startsWith("java.")){
+                javaImports.add(anImport);
+            } else {
+                source.append("import ").append(anImport).append(";\n");
+            }
+        }
+        if (!javaImports.isEmpty()){
+            source.append("\n");
+            for (String anImport : javaImports){
+                source.append("import ").append(anImport).append(";\n");
+            }
+        }
+        source.append("\n")
+                .append("/**\n")
+                .append(" *\n")
+                .append(" * Reflection-free Gson type adapters for the models in this package.\n")
+                .append(" * Generated by ModelTypeAdapterGenerator, do not edit by hand.\n")
+                .append(" *\n")
+                .append(" * @author Nav Roudsari (nav@rzari.co.uk)\n")
+                .append(" *\n")
+                .append(" */\n")
+                .append("public final class ").append(factoryName(packageName)).append(" implements TypeAdapterFactory {\n\n")
+                .append("    @Override\n")
+                .append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {\n")
+                .append("        Class<? super T> rawType = type.getRawType();\n")
+                .append(create)
+                .append("        return null;\n")
+                .append("    }\n")
+                .append(adapters)
+                .append("}\n");
+        return source.toString();
+    }
+
+    private static void enumAdapter(StringBuilder out, Class<?> model){
+        String name = model.getSimpleName();
+        out.append("\n")
+                .append("    static final class ").append(name).append("Adapter extends TypeAdapter<").append(name).append("> {\n\n")
+                .append("        @Override\n")
+                .append("        public void write(JsonWriter out, ").append(name).append(" value) throws IOException {\n")
+                .append("            out.value(value == null ? null : value.name());\n")
+                .append("        }\n\n")
+                .append("        @Override\n")
+                .append("        public ").append(name).append(" read(JsonReader in) throws IOException {\n")
+                .append("            if (in.peek() == JsonToken.NULL){\n")
+                .append("                in.nextNull();\n")
+                .append("                return null;\n")
+                .append("            }\n")
+                .append("            switch (in.nextString()){\n");
+        for (Object constant : model.getEnumConstants()){
+            String constantName = ((Enum<?>) constant).name();
+            out.append("                case \"").append(constantName).append("\":\n")
+                    .append("                    return ").append(name).append(".").append(constantName).append(";\n");
+        }
+        out.append("                default:\n")
+                .append("                    return null;\n")
+                .append("            }\n")
+                .append("        }\n")
+                .append("    }\n");
+    }
+
+    // Returns whether the adapter takes the Gson instance to look up the adapters of its non-scalar fields
+    private static boolean modelAdapter(StringBuilder out, Class<?> model, String packageName, TreeSet<String> imports){
+        String name = model.getSimpleName();
+        try {
+            if (Modifier.isPrivate(model.getDeclaredConstructor().getModifiers())){
+                throw new IllegalStateException(name + " needs a package-private no-argument constructor");
+            }
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(name + " needs a package-private no-argument constructor", e);
+        }
+
+        List<Field> fields = new ArrayList<>();
+        for (Field field : model.getDeclaredFields()){
+            int modifiers = field.getModifiers();
+            if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()){
+                continue;
+            }
+            if (Modifier.isPrivate(modifiers) || Modifier.isFinal(modifiers)){
+                throw new IllegalStateException(name + "." + field.getName() + " must be a package-private, non-final field");
+            }
+            fields.add(field);
+        }
+
+        // One delegate adapter per distinct non-scalar type
+        Map<String, String> delegates = new LinkedHashMap<>();
+        for (Field field : fields){
+            Type type = field.getGenericType();
+            addImports(type, packageName, imports);
+            if (scalarRead(type) == null){
+                delegates.putIfAbsent(typeName(type), delegateName(type));
+            }
+        }
+        if (fields.stream().anyMatch(field -> scalarRead(field.getGenericType()) != null)){
+            imports.add("org.jarling.models.gson.JsonValues");
+        }
+
+        out.append("\n")
+                .append("    static final class ").append(name).append("Adapter extends TypeAdapter<").append(name).append("> {\n\n");
+        for (Map.Entry<String, String> delegate : delegates.entrySet()){
+            out.append("        private final TypeAdapter<").append(delegate.getKey()).append("> ").append(delegate.getValue()).append(";\n");
+        }
+        if (!delegates.isEmpty()){
+            out.append("\n")
+                    .append("        ").append(name).append("Adapter(Gson gson){\n");
+            for (Map.Entry<String, String> delegate : delegates.entrySet()){
+                String typeName = delegate.getKey();
+                out.append("            this.").append(delegate.getValue()).append(" = gson.getAdapter(")
+                        .append(typeName.contains("<") ? "new TypeToken<" + typeName + ">(){}" : typeName + ".class")
+                        .append(");\n");
+            }
+            out.append("        }\n\n");
+        }
+        out.append("        @Override\n")
+                .append("        public void write(JsonWriter out, ").append(name).append(" value) throws IOException {\n")
+                .append("            if (value == null){\n")
+                .append("                out.nullValue();\n")
+                .append("                return;\n")
+                .append("            }\n")
+                .append("            out.beginObject();\n");
+        for (Field field : fields){
+            Type type = field.getGenericType();
+            out.append("            out.name(\"").append(field.getName()).append("\");\n");
+            if (scalarRead(type) != null){
+                out.append("            out.value(value.").append(field.getName()).append(");\n");
+            } else {
+                out.append("            ").append(delegates.get(typeName(type))).append(".write(out, value.").append(field.getName()).append(");\n");
+            }
+        }
+        out.append("            out.endObject();\n")
+                .append("        }\n\n")
+                .append("        @Override\n")
+                .append("        public ").append(name).append(" read(JsonReader in) throws IOException {\n")
+                .append("            if (in.peek() == JsonToken.NULL){\n")
+                .append("                in.nextNull();\n")
+                .append("                return null;\n")
+                .append("            }\n")
+                .append("            ").append(name).append(" value = new ").append(name).append("();\n")
+                .append("            in.beginObject();\n")
+                .append("            while (in.hasNext()){\n")
+                .append("                switch (in.nextName()){\n");
+        for (Field field : fields){
+            Type type = field.getGenericType();
+            String scalarRead = scalarRead(type);
+            out.append("                    case \"").append(field.getName()).append("\":\n")
+                    .append("                        value.").append(field.getName()).append(" = ")
+                    .append(scalarRead != null ? "JsonValues." + scalarRead + "(in)" : delegates.get(typeName(type)) + ".read(in)")
+                    .append(";\n")
+                    .append("                        break;\n");
+        }
+        out.append("                    default:\n")
+                .append("                        in.skipValue();\n")
+                .append("                }\n")
+                .append("            }\n")
+                .append("            in.endObject();\n")
+                .append("            return value;\n")
+                .append("        }\n")
+                .append("    }\n");
+        return !delegates.isEmpty();
+    }
+
+    private static String scalarRead(Type type){
+        if (type == String.class){
+            return "readString";
+        } else if (type == Integer.class){
+            return "readInteger";
+        } else if (type == Boolean.class){
+            return "readBoolean";
+        } else if (type == BigDecimal.class){
+            return "readBigDecimal";
+        }
+        return null;
+    }
+
+    private static String typeName(Type type){
+        if (type instanceof Class){
+            Class<?> clazz = (Class<?>) type;
+            if (clazz.isPrimitive()){
+                throw new IllegalStateException("primitive model fields are not supported: " + clazz);
+            }
+            return clazz.isArray() ? typeName(clazz.getComponentType()) + "[]" : clazz.getSimpleName();
+        } else if (type instanceof ParameterizedType){
+            ParameterizedType parameterized = (ParameterizedType) type;
+            StringBuilder name = new StringBuilder(typeName(parameterized.getRawType())).append("<");
+            Type[] arguments = parameterized.getActualTypeArguments();
+            for (int i = 0; i < arguments.length; i++){
+                name.append(i == 0 ? "" : ", ").append(typeName(arguments[i]));
+            }
+            return name.append(">").toString();
+        } else if (type instanceof GenericArrayType){
+            return typeName(((GenericArrayType) type).getGenericComponentType()) + "[]";
+        }
+        throw new IllegalStateException("unsupported model field type: " + type);
+    }
+
+    // Date -> dateAdapter, List<DayOfWeek> -> dayOfWeekListAdapter, String[] -> stringArrayAdapter
+    private static String delegateName(Type type){
+        String name = typeName(type).replace("[]", "Array").replace(", ", "");
+        int generic = name.indexOf('<');
+        if (generic >= 0){
+            name = name.substring(generic + 1, name.length() - 1) + name.substring(0, generic);
+        }
+        return Character.toLowerCase(name.charAt(0)) + name.substring(1) + "Adapter";
+    }
+
+    private static void addImports(Type type, String packageName, TreeSet<String> imports){
+        if (type instanceof Class){
+            Class<?> clazz = (Class<?>) type;
+            while (clazz.isArray()){
+                clazz = clazz.getComponentType();
+            }
+            if (!clazz.isPrimitive() && !clazz.getPackage().getName().equals("java.lang") && !clazz.getPackage().getName().equals(packageName)){
+                imports.add(clazz.getName());
+            }
+        } else if (type instanceof ParameterizedType){
+            addImports(((ParameterizedType) type).getRawType(), packageName, imports);
+            for (Type argument : ((ParameterizedType) type).getActualTypeArguments()){
+                addImports(argument, packageName, imports);
+            }
+        } else if (type instanceof GenericArrayType){
+            addImports(((GenericArrayType) type).getGenericComponentType(), packageName, imports);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import org.jarling.models.budgeting.SavingsGoal;
+import org.jarling.models.cards.Card;
+import org.jarling.models.common.Addresses;
+import org.jarling.models.contacts.ContactAccount;
+import org.jarling.models.contacts.ContactAccountType;
+import org.jarling.models.customers.WhoAmI;
+import org.jarling.models.gson.ModelGson;
+import org.jarling.models.payments.Payment;
+import org.jarling.models.transactions.MasterCardTransaction;
+import org.jarling.models.transactions.Transaction;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class ModelTypeAdapterTests {
+
+    private final Gson reflectiveGson = new Gson();
+    private final Gson gson = ModelGson.getInstance();
+
+    @Test
+    public void testGeneratedAdaptersAreUpToDate() throws Exception {
+        for (Map.Entry<Path, String> source : ModelTypeAdapterGenerator.generateAll(ModelTypeAdapterGenerator.SOURCE_ROOT).entrySet()){
+            String checkedIn = new String(Files.readAllBytes(source.getKey()), StandardCharsets.UTF_8);
+            assertEquals("run ModelTypeAdapterGenerator to regenerate " + source.getKey(), source.getValue(), checkedIn);
+        }
+    }
+
+    @Test
+    public void testNoModelIsDecodedByReflection() throws Exception {
+        for (Class<?> model : ModelTypeAdapterGenerator.allModels(ModelTypeAdapterGenerator.SOURCE_ROOT)){
+            TypeAdapter<?> adapter = gson.getAdapter(model);
+            assertTrue(model + " uses " + adapter.getClass(), adapter.getClass().getName().startsWith(model.getPackage().getName()));
+        }
+    }
+
+    @Test
+    public void testTransactionsDecodeLikeReflectiveGson() {
+        assertDecodesLikeReflectiveGson(Transaction.class, "{\"id\":\"7d5d0c3a\",\"currency\":\"GBP\",\"amount\":-12.5,\"direction\":\"OUTBOUND\","
+                + "\"created\":\"2017-05-04T12:01:02.345Z\",\"narrative\":\"Coffee\",\"source\":\"MASTER_CARD\",\"balance\":120.25,"
+                + "\"_links\":{\"detail\":{\"href\":\"api/v1/transactions/mastercard/7d5d0c3a\",\"templated\":false}}}");
+        assertDecodesLikeReflectiveGson(MasterCardTransaction.class, "{\"id\":\"m1\",\"amount\":\"3.10\",\"direction\":\"NOT_A_DIRECTION\","
+                + "\"mastercardTransactionMethod\":\"CONTACTLESS\",\"status\":\"SETTLED\",\"sourceAmount\":3.1,\"sourceCurrency\":\"EUR\","
+                + "\"merchantId\":null,\"merchantLocationId\":\"l1\"}");
+    }
+
+    @Test
+    public void testNestedModelsDecodeLikeReflectiveGson() {
+        assertDecodesLikeReflectiveGson(Payment.class, "{\"amount\":10,\"currency\":\"GBP\",\"paymentOrderId\":\"p1\",\"paymentType\":\"STANDING_ORDER\","
+                + "\"immediate\":\"true\",\"nextDate\":\"2017-06-01T00:00:00.000Z\",\"recurrenceRule\":{\"frequency\":\"WEEKLY\",\"interval\":1,"
+                + "\"days\":[\"MONDAY\",\"FRIDAY\"],\"weekStart\":\"MONDAY\",\"startDate\":\"2017-06-01T00:00:00.000Z\"}}");
+        assertDecodesLikeReflectiveGson(WhoAmI.class, "{\"customerUid\":\"c1\",\"expiresInSeconds\":300,\"scopes\":[\"balance:read\",\"transaction:read\"],\"authenticated\":true}");
+        assertDecodesLikeReflectiveGson(Card.class, "{\"id\":\"card\",\"activated\":true,\"type\":\"CONTACTLESS_DEBIT_MASTERCARD\"}");
+    }
+
+    @Test
+    public void testHandWrittenAdaptersDecodeLikeLegacyDeserializers() {
+        assertDecodesLikeReflectiveGson(SavingsGoal.class, "{\"totalSaved\":{\"currency\":\"GBP\",\"minorUnits\":1500},"
+                + "\"_links\":{\"photo\":{\"href\":\"api/v1/savings-goals/2f1b/photo\"}}}");
+        assertDecodesLikeReflectiveGson(SavingsGoal.class, "{\"uid\":\"u1\",\"name\":\"Holiday\",\"savedPercentage\":10,"
+                + "\"target\":{\"currency\":\"GBP\",\"minorUnits\":50000},\"_links\":{\"photo\":{\"href\":\"api/v1/savings-goals/u1/photo\"}}}");
+        assertDecodesLikeReflectiveGson(Addresses.class, "{\"current\":{\"city\":\"London\",\"postcode\":\"EC1\"},"
+                + "\"previous\":[{\"city\":\"Leeds\"},{\"city\":\"York\"}]}");
+        assertDecodesLikeReflectiveGson(Addresses.class, "{\"current\":{\"city\":\"London\"},\"previous\":[]}");
+    }
+
+    @Test
+    public void testEncodesLikeReflectiveGson() {
+        ContactAccount contactAccount = new ContactAccount("Alice", "608371", "12345678", ContactAccountType.UK_ACCOUNT_AND_SORT_CODE);
+        assertEquals(reflectiveGson.toJson(contactAccount), gson.toJson(contactAccount));
+    }
+
+    private <T> void assertDecodesLikeReflectiveGson(Class<T> clazz, String json){
+        T expected = reflectiveGson.fromJson(json, clazz);
+        T actual = gson.fromJson(json, clazz);
+        assertEquals(expected, actual);
+        assertEquals(expected.toString(), actual.toString());
+    }
+}
@@ -0,0 +1,198 @@
+import com.sun.net.httpserver.HttpServer;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.ConnectionPool;
+import org.jarling.http.ConnectionPoolStats;
+import org.jarling.http.HttpResponse;
+import org.jarling.http.PooledHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class PooledHttpClientTests {
+
+    private HttpServer server;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/fixed", exchange -> {
+            byte[] body = "{\"name\":\"fixed\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/chunked", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 100; i++) {
+                    out.write(("line " + i + "\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            }
+        });
+        server.createContext("/missing", exchange -> {
+            byte[] body = "{\"error\":\"missing\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(404, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testConnectionIsReusedOnceBodyIsRead() throws StarlingBankRequestException {
+        try (PooledHttpClient client = new PooledHttpClient(null)) {
+            assertEquals("{\"name\":\"fixed\"}\n", client.get(baseUrl + "/fixed").asString());
+            assertEquals("{\"name\":\"fixed\"}\n", client.get(baseUrl + "/fixed").asString());
+
+            ConnectionPoolStats stats = client.getPoolStats();
+            assertEquals(1, stats.getCreated());
+            assertEquals(1, stats.getReused());
+            assertEquals(0, stats.getLeased());
+            assertEquals(1, stats.getIdle());
+        }
+    }
+
+    @Test
+    public void testChunkedBodyIsDecoded() throws StarlingBankRequestException {
+        try (PooledHttpClient client = new PooledHttpClient(null)) {
+            String body = client.get(baseUrl + "/chunked").asString();
+            assertTrue(body.startsWith("line 0\nline 1\n"));
+            assertTrue(body.endsWith("line 99\n"));
+            client.get(baseUrl + "/fixed").close();
+            assertEquals(1, client.getPoolStats().getCreated());
+        }
+    }
+
+    @Test
+    public void testErrorResponseReleasesConnection() {
+        try (PooledHttpClient client = new PooledHttpClient(null)) {
+            try {
+                client.get(baseUrl + "/missing");
+                fail("expected a StarlingBankRequestException");
+            } catch (StarlingBankRequestException e) {
+                assertEquals(404, e.getStatusCode());
+                assertEquals("Not Found", e.getErrorMessage());
+            }
+            assertEquals(0, client.getPoolStats().getLeased());
+            assertEquals(1, client.getPoolStats().getIdle());
+        }
+    }
+
+    @Test
+    public void testPoolIsBoundedPerHost() throws StarlingBankRequestException {
+        try (PooledHttpClient client = new PooledHttpClient(null, new ConnectionPool(1, 60000, 100))) {
+            HttpResponse unread = client.get(baseUrl + "/fixed");
+            try {
+                client.get(baseUrl + "/fixed");
+                fail("expected a StarlingBankRequestException");
+            } catch (StarlingBankRequestException e) {
+                assertEquals(-1, e.getStatusCode());
+                assertEquals(1, client.getPoolStats().getAcquireTimeouts());
+            }
+            unread.close();
+            client.get(baseUrl + "/fixed").close();
+            assertEquals(1, client.getPoolStats().getCreated());
+        }
+    }
+
+    @Test
+    public void testMalformedContentLengthDiscardsTheConnection() throws Exception {
+        String[] contentLengths = {"Content-Length: twelve", "Content-Length: 5\r\nContent-Length: 6", "Content-Length: -1"};
+        try (ServerSocket raw = new ServerSocket(0)) {
+            Thread serving = new Thread(() -> {
+                for (String contentLength : contentLengths) {
+                    try (Socket socket = raw.accept()) {
+                        socket.getInputStream().read(new byte[8192]);
+                        socket.getOutputStream().write(("HTTP/1.1 200 OK\r\n" + contentLength + "\r\n\r\n{}").getBytes(StandardCharsets.US_ASCII));
+                        socket.getOutputStream().flush();
+                        socket.getInputStream().read();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            serving.start();
+            try (PooledHttpClient client = new PooledHttpClient(null, new ConnectionPool(1, 60000, 1000))) {
+                for (int i = 0; i < contentLengths.length; i++) {
+                    try {
+                        client.get("http://localhost:" + raw.getLocalPort() + "/fixed");
+                        fail("expected a StarlingBankRequestException");
+                    } catch (StarlingBankRequestException e) {
+                        assertEquals(-1, e.getStatusCode());
+                    }
+                    // With one connection allowed, the next request would time out had this one not been given back
+                    assertEquals(0, client.getPoolStats().getLeased());
+                    assertEquals(0, client.getPoolStats().getIdle());
+                }
+                assertEquals(contentLengths.length, client.getPoolStats().getCreated());
+            }
+            serving.join(5000);
+        }
+    }
+
+    @Test
+    public void testMalformedChunkSizeDiscardsTheConnection() throws Exception {
+        String[] chunkSizes = {"zz", "-1", ""};
+        try (ServerSocket raw = new ServerSocket(0)) {
+            Thread serving = new Thread(() -> {
+                for (String chunkSize : chunkSizes) {
+                    try (Socket socket = raw.accept()) {
+                        socket.getInputStream().read(new byte[8192]);
+                        socket.getOutputStream().write(("HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n" + chunkSize + "\r\n{}\r\n0\r\n\r\n")
+                                .getBytes(StandardCharsets.US_ASCII));
+                        socket.getOutputStream().flush();
+                        socket.getInputStream().read();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            serving.start();
+            try (PooledHttpClient client = new PooledHttpClient(null, new ConnectionPool(1, 60000, 1000))) {
+                for (int i = 0; i < chunkSizes.length; i++) {
+                    HttpResponse response = client.get("http://localhost:" + raw.getLocalPort() + "/chunked");
+                    try {
+                        response.getInputStream().read();
+                        fail("expected the chunk size to be rejected");
+                    } catch (ProtocolException e) {
+                        assertTrue(e.getMessage().startsWith("Malformed chunk size"));
+                    }
+                    response.close();
+                    // With one connection allowed, the next request would time out had this one not been given back
+                    assertEquals(0, client.getPoolStats().getLeased());
+                    assertEquals(0, client.getPoolStats().getIdle());
+                }
+                assertEquals(chunkSizes.length, client.getPoolStats().getCreated());
+            }
+            serving.join(5000);
+        }
+    }
+}
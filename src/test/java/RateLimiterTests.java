@@ -0,0 +1,105 @@
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.exceptions.StarlingBankRateLimitException;
+import org.jarling.services.ApiService;
+import org.jarling.services.RateLimiter;
+import org.jarling.services.RateLimiterStats;
+import org.jarling.services.RequestPolicies;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class RateLimiterTests {
+
+    private static final String BALANCE = "{\"amount\":1,\"currency\":\"GBP\"}";
+
+    private LocalStarlingServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        server.respond("/accounts/balance", 200, BALANCE);
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    private ApiService apiService(RequestPolicies policies){
+        return new ApiService(ApiService.endpoint(StarlingBankEnvironment.SANDBOX), "token", server.transport(), policies);
+    }
+
+    @Test
+    public void testBurstThenSteadyRate() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(20, 2);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 5; i++){
+            rateLimiter.acquire();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        RateLimiterStats stats = rateLimiter.getStats();
+        assertTrue("three requests should wait 50ms each, took " + elapsedMillis + "ms", elapsedMillis >= 140);
+        assertEquals(5, stats.getAcquired());
+        assertEquals(3, stats.getDelayed());
+        assertTrue(stats.getMaxWaitMillis() >= 40);
+        assertEquals(0, stats.getQueueDepth());
+    }
+
+    @Test
+    public void testGlobalAndTokenLimitersBothApply() throws Exception {
+        RateLimiter global = new RateLimiter(1000, 100);
+        ApiService apiService = apiService(RequestPolicies.builder().globalRateLimiter(global).tokenRateLimit(1000, 100).build());
+        RateLimiter token = apiService.getTokenRateLimiter();
+
+        apiService.get("/accounts/balance").close();
+        apiService.get("/accounts/balance").close();
+
+        assertEquals(2, global.getStats().getAcquired());
+        assertEquals(2, token.getStats().getAcquired());
+    }
+
+    @Test
+    public void testTooManyRequestsWaitsForRetryAfter() throws Exception {
+        server.respondOnce("/accounts/balance", 429, "{}", "Retry-After", "1");
+        ApiService apiService = apiService(RequestPolicies.builder().tokenRateLimit(1000, 100).build());
+        RateLimiter token = apiService.getTokenRateLimiter();
+
+        long start = System.nanoTime();
+        String balance = apiService.get("/accounts/balance").asString();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(balance.contains("GBP"));
+        assertTrue("the retry should wait for Retry-After, took " + elapsedMillis + "ms", elapsedMillis >= 950);
+        assertEquals(2, server.getRequestCount("/accounts/balance"));
+        assertEquals(1, token.getStats().getThrottled());
+        assertEquals(1, token.getStats().getDelayed());
+    }
+
+    @Test
+    public void testTooManyRequestsGivesUpOnLongRetryAfter() throws Exception {
+        server.respondOnce("/accounts/balance", 429, "{}", "Retry-After", "3600");
+        ApiService apiService = apiService(RequestPolicies.NONE);
+
+        try {
+            apiService.get("/accounts/balance");
+            fail("expected the rate limit to be reported");
+        } catch (StarlingBankRateLimitException e) {
+            assertEquals(429, e.getStatusCode());
+            assertEquals("Too Many Requests", e.getErrorMessage());
+            assertEquals(3600000, e.getRetryAfterMillis());
+        }
+        assertEquals(1, server.getRequestCount("/accounts/balance"));
+    }
+}
@@ -0,0 +1,210 @@
+import org.jarling.Starling;
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.exceptions.StarlingBankRateLimitException;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.HttpClient;
+import org.jarling.http.RecordedExchange;
+import org.jarling.http.RecordingHttpClient;
+import org.jarling.http.ReplayingHttpClient;
+import org.jarling.http.RequestMethod;
+import org.jarling.models.common.Amount;
+import org.jarling.models.common.CurrencyAndAmount;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class RecordReplayTests {
+
+    private static final String BALANCE_URL = StarlingBankEnvironment.SANDBOX.getPath() + "/api/v1/accounts/balance";
+
+    private LocalStarlingServer server;
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        server.respond("/accounts/balance", 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+        server.respond("/accounts", 200, "{\"id\":\"a1\",\"name\":\"Alex\"}");
+        file = Files.createTempFile("jarling", ".recording");
+        Files.delete(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+        Files.deleteIfExists(file);
+    }
+
+    private static StarlingBank starling(HttpClient httpClient){
+        return new Starling(StarlingBankEnvironment.SANDBOX, "token", httpClient);
+    }
+
+    @Test
+    public void testRecordedCallsAreAnsweredAgainWithoutTheNetwork() throws Exception {
+        server.respondOnce("/accounts/balance", 429, "{\"error\":\"slow down\"}", "Retry-After", "2");
+        try (RecordingHttpClient recording = new RecordingHttpClient(server.transport(), file)) {
+            try {
+                recording.get(BALANCE_URL);
+                fail("expected the recorded call to be rate limited");
+            } catch (StarlingBankRateLimitException e) {
+                assertEquals(2000, e.getRetryAfterMillis());
+            }
+            StarlingBank starling = starling(recording);
+            assertEquals(new BigDecimal("1"), starling.getAccountBalance().getAmount());
+            assertEquals("Alex", starling.getAccount().getName());
+            assertEquals(3, recording.getRecorded());
+        }
+
+        List<RecordedExchange> exchanges = RecordedExchange.readAll(file);
+        assertEquals(3, exchanges.size());
+        assertEquals(RequestMethod.GET, exchanges.get(0).getRequestMethod());
+        assertEquals("/accounts/balance", exchanges.get(0).getTemplate());
+        assertEquals(429, exchanges.get(0).getStatusCode());
+        assertEquals(200, exchanges.get(1).getStatusCode());
+        assertFalse(exchanges.get(1).getStartMillis() < exchanges.get(0).getStartMillis());
+
+        ReplayingHttpClient replaying = new ReplayingHttpClient(file, ReplayingHttpClient.Timing.AS_FAST_AS_POSSIBLE);
+        try {
+            replaying.get(BALANCE_URL);
+            fail("expected the replayed call to be rate limited");
+        } catch (StarlingBankRateLimitException e) {
+            assertEquals(2000, e.getRetryAfterMillis());
+        }
+        StarlingBank starling = starling(replaying);
+        assertEquals(new BigDecimal("1"), starling.getAccountBalance().getAmount());
+        assertEquals("Alex", starling.getAccount().getName());
+        assertEquals(1, server.getRequestCount("/accounts"));
+        assertEquals(2, server.getRequestCount("/accounts/balance"));
+        assertEquals(3, replaying.getReplayed());
+
+        try {
+            starling.getCustomer();
+            fail("expected an endpoint that was never recorded to fail");
+        } catch (StarlingBankRequestException e) {
+            assertEquals(404, e.getStatusCode());
+            assertEquals(1, replaying.getUnmatched());
+        }
+    }
+
+    @Test
+    public void testRequestsWithNewIdsAreAnsweredFromTheirEndpoint() throws Exception {
+        server.respond("/savings-goals/g1/add-money/t1", 200, "{\"transferUid\":\"t1\",\"success\":true}");
+        CurrencyAndAmount tenPounds = new CurrencyAndAmount("GBP", new BigDecimal(1000));
+        try (RecordingHttpClient recording = new RecordingHttpClient(server.transport(), file)) {
+            recording.put(StarlingBankEnvironment.SANDBOX.getPath() + "/api/v1/savings-goals/g1/add-money/t1").close();
+        }
+
+        // A top up sends a fresh transfer id, so it can only match the recording by endpoint
+        ReplayingHttpClient replaying = new ReplayingHttpClient(file, ReplayingHttpClient.Timing.AS_FAST_AS_POSSIBLE);
+        assertEquals("t1", starling(replaying).addMoneyToSavingsGoal("g2", new Amount(tenPounds)));
+        assertEquals(0, replaying.getUnmatched());
+    }
+
+    @Test
+    public void testOriginalTimingKeepsConcurrentRequestsConcurrent() throws Exception {
+        server.delay("/accounts/balance", 200);
+        try (RecordingHttpClient recording = new RecordingHttpClient(server.transport(), file)) {
+            starling(recording).getAccountBalance();
+        }
+        assertTrue(RecordedExchange.readAll(file).get(0).getDurationNanos() >= 200_000_000);
+
+        ReplayingHttpClient replaying = new ReplayingHttpClient(file, ReplayingHttpClient.Timing.ORIGINAL);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                calls.add(executor.submit(() -> {
+                    replaying.get(BALANCE_URL).close();
+                    return null;
+                }));
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            assertTrue(elapsedMillis >= 200);
+            assertTrue("8 concurrent replays took " + elapsedMillis + "ms", elapsedMillis < 800);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(8, replaying.getReplayed());
+        assertEquals(1, server.getRequestCount("/accounts/balance"));
+    }
+
+    @Test
+    public void testConcurrentRecordingKeepsEveryExchangeWhole() throws Exception {
+        int threads = 8;
+        int callsPerThread = 50;
+        try (RecordingHttpClient recording = new RecordingHttpClient(server.transport(), file)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> calls = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    calls.add(executor.submit(() -> {
+                        for (int j = 0; j < callsPerThread; j++) {
+                            recording.get(BALANCE_URL).close();
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> call : calls) {
+                    call.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+        List<RecordedExchange> exchanges = RecordedExchange.readAll(file);
+        assertEquals(threads * callsPerThread, exchanges.size());
+        for (RecordedExchange exchange : exchanges) {
+            assertEquals("{\"amount\":1,\"currency\":\"GBP\"}", new String(exchange.getResponseBody(), "UTF-8"));
+        }
+    }
+
+    @Test
+    public void testRecordingsAreAppendedToAndSurviveACutShortExchange() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            try (RecordingHttpClient recording = new RecordingHttpClient(server.transport(), file)) {
+                starling(recording).getAccountBalance();
+            }
+        }
+        assertEquals(2, RecordedExchange.readAll(file).size());
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+        assertEquals(1, RecordedExchange.readAll(file).size());
+
+        Path other = Files.createTempFile("jarling", ".json");
+        try {
+            Files.write(other, "{\"not\":\"a recording\"}".getBytes("UTF-8"));
+            new RecordingHttpClient(server.transport(), other);
+            fail("expected a file that is not a recording to be refused");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("not a recording"));
+        } finally {
+            Files.delete(other);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+import org.jarling.Starling;
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.StarlingClientFactory;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.models.accounts.AccountBalance;
+import org.jarling.models.payments.Payment;
+import org.jarling.models.transactions.Transaction;
+import org.jarling.services.RequestCoalescerStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class RequestCoalescerTests {
+
+    private static final int CALLERS = 50;
+
+    private LocalStarlingServer server;
+    private StarlingClientFactory factory;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        server.respond("/accounts/balance", 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+        server.respond("/transactions", 200, "{\"_embedded\":{\"transactions\":[{\"id\":\"a\"},{\"id\":\"b\"}]}}");
+        server.delay("/accounts/balance", 500);
+        server.delay("/transactions", 500);
+        factory = new StarlingClientFactory(StarlingBankEnvironment.SANDBOX, server.transport());
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        server.close();
+    }
+
+    private <T> List<Future<T>> callTogether(Callable<T> call){
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++){
+            results.add(executor.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+    @Test
+    public void testConcurrentIdenticalGetsShareOneRequest() throws Exception {
+        StarlingBank starling = factory.forAccessToken("token");
+
+        List<Future<AccountBalance>> balances = callTogether(starling::getAccountBalance);
+
+        AccountBalance first = balances.get(0).get();
+        for (Future<AccountBalance> balance : balances){
+            assertSame(first, balance.get());
+        }
+        assertEquals(1, server.getRequestCount("/accounts/balance"));
+        RequestCoalescerStats stats = factory.getRequestCoalescer().getStats().get("/accounts/balance");
+        assertEquals(CALLERS, stats.getRequests());
+        assertEquals(CALLERS - 1, stats.getCoalesced());
+        assertEquals(0, factory.getRequestCoalescer().getInFlight());
+    }
+
+    @Test
+    public void testListsAreCopiedForEachCaller() throws Exception {
+        StarlingBank starling = factory.forAccessToken("token");
+
+        List<Future<List<Transaction>>> lists = callTogether(starling::listTransactions);
+
+        List<Transaction> first = lists.get(0).get();
+        List<Transaction> second = lists.get(1).get();
+        assertNotSame(first, second);
+        assertSame(first.get(0), second.get(0));
+        assertEquals(1, server.getRequestCount("/transactions"));
+    }
+
+    @Test
+    public void testDifferentTokensAreNotCoalesced() throws Exception {
+        StarlingBank first = factory.forAccessToken("first");
+        StarlingBank second = factory.forAccessToken("second");
+
+        Future<AccountBalance> firstBalance = executor.submit(first::getAccountBalance);
+        Future<AccountBalance> secondBalance = executor.submit(second::getAccountBalance);
+        firstBalance.get();
+        secondBalance.get();
+
+        assertEquals(2, server.getRequestCount("/accounts/balance"));
+    }
+
+    @Test
+    public void testFailureIsSharedButNotRemembered() throws Exception {
+        server.respond("/accounts/balance", 503, "{}");
+        StarlingBank starling = factory.forAccessToken("token");
+
+        for (Future<AccountBalance> balance : callTogether(starling::getAccountBalance)){
+            try {
+                balance.get();
+                fail("expected every caller to see the failure");
+            } catch (ExecutionException e) {
+                assertEquals(503, ((StarlingBankRequestException) e.getCause()).getStatusCode());
+            }
+        }
+        assertEquals(1, server.getRequestCount("/accounts/balance"));
+
+        server.respond("/accounts/balance", 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+        assertNotNull(starling.getAccountBalance());
+        assertEquals(2, server.getRequestCount("/accounts/balance"));
+    }
+
+    @Test
+    public void testStandaloneClientCoalesces() throws Exception {
+        Starling starling = new Starling(StarlingBankEnvironment.SANDBOX, "token", server.transport());
+
+        for (Future<AccountBalance> balance : callTogether(starling::getAccountBalance)){
+            assertNotNull(balance.get());
+        }
+
+        assertEquals(1, server.getRequestCount("/accounts/balance"));
+    }
+
+    @Test
+    public void testPaymentIsReadBackWithoutJoiningAListAlreadyInFlight() throws Exception {
+        server.respond("/payments/scheduled", 200, "{\"_embedded\":{\"paymentOrders\":[]}}");
+        server.delayOnce("/payments/scheduled", 500);
+        server.respondOnce("/payments/scheduled", 200, "{\"_embedded\":{\"paymentOrders\":[{\"paymentOrderId\":\"p1\"}]}}");
+        server.respondOnce("/payments/local", 202, "{}", "Location", "/api/v1/payments/local/p1");
+        StarlingBank starling = factory.forAccessToken("token");
+
+        Future<List<Payment>> listedBeforeThePayment = executor.submit(starling::listPayments);
+        for (int i = 0; i < 200 && server.getRequestCount("/payments/scheduled") == 0; i++){
+            Thread.sleep(10);
+        }
+        Payment payment = starling.makeLocalPayment("destination", "reference", BigDecimal.ONE);
+
+        assertNotNull(payment);
+        assertEquals("p1", payment.getPaymentOrderId());
+        assertTrue(listedBeforeThePayment.get().isEmpty());
+        assertEquals(2, server.getRequestCount("/payments/scheduled"));
+    }
+}
@@ -0,0 +1,156 @@
+import org.jarling.Starling;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.HttpInterceptor;
+import org.jarling.http.InterceptingHttpClient;
+import org.jarling.services.HedgingConfig;
+import org.jarling.services.HedgingStats;
+import org.jarling.services.RequestHedger;
+import org.jarling.services.RequestPolicies;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class RequestHedgerTests {
+
+    private static final String BALANCE = "/accounts/balance";
+
+    private LocalStarlingServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        server.respond(BALANCE, 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    private Starling starling(RequestHedger requestHedger){
+        return new Starling(StarlingBankEnvironment.SANDBOX, "token", server.transport(),
+                RequestPolicies.builder().requestHedger(requestHedger).build());
+    }
+
+    @Test
+    public void testSlowRequestIsHedged() throws Exception {
+        RequestHedger hedger = new RequestHedger(new HedgingConfig(0, 50, 1, 5, null));
+        server.delayOnce(BALANCE, 3000);
+
+        long start = System.nanoTime();
+        assertNotNull(starling(hedger).getAccountBalance());
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        assertTrue("took " + elapsedMillis + "ms", elapsedMillis < 2000);
+        // The original was given up by closing its connection rather than by interrupting the calling thread
+        assertFalse(Thread.currentThread().isInterrupted());
+        assertEquals(2, server.getRequestCount(BALANCE));
+        HedgingStats stats = hedger.getStats().get(BALANCE);
+        assertEquals(1, stats.getRequests());
+        assertEquals(1, stats.getHedged());
+        assertEquals(1, stats.getHedgeWins());
+    }
+
+    @Test
+    public void testFastRequestsAreNotHedgedAndSetTheDelay() throws Exception {
+        RequestHedger hedger = new RequestHedger(new HedgingConfig(95, 200, 20, 5, null));
+        Starling starling = starling(hedger);
+
+        starling.getAccountBalance();
+        assertEquals(-1, hedger.getStats().get(BALANCE).getHedgeDelayMillis());
+        for (int i = 1; i < 20; i++){
+            starling.getAccountBalance();
+        }
+
+        assertEquals(20, server.getRequestCount(BALANCE));
+        HedgingStats stats = hedger.getStats().get(BALANCE);
+        assertEquals(0, stats.getHedged());
+        assertEquals(200, stats.getHedgeDelayMillis());
+    }
+
+    @Test
+    public void testBudgetCapsHedges() throws Exception {
+        RequestHedger hedger = new RequestHedger(new HedgingConfig(0, 5, 1, 1, null));
+        server.delay(BALANCE, 40);
+        Starling starling = starling(hedger);
+
+        for (int i = 0; i < 25; i++){
+            starling.getAccountBalance();
+        }
+
+        HedgingStats stats = hedger.getStats().get(BALANCE);
+        assertEquals(10, stats.getHedged());
+        assertEquals(15, stats.getBudgetExhausted());
+    }
+
+    @Test
+    public void testOnlyListedEndpointsAreHedged() throws Exception {
+        RequestHedger hedger = new RequestHedger(new HedgingConfig(0, 10, 1, 5, Collections.singleton("/transactions/mastercard/{id}")));
+        server.delayOnce(BALANCE, 200);
+
+        starling(hedger).getAccountBalance();
+
+        assertEquals(1, server.getRequestCount(BALANCE));
+        assertTrue(hedger.getStats().isEmpty());
+    }
+
+    @Test
+    public void testFailureIsNotHedged() throws Exception {
+        RequestHedger hedger = new RequestHedger(new HedgingConfig(0, 200, 1, 5, null));
+        server.respondOnce(BALANCE, 503, "{}");
+
+        try {
+            starling(hedger).getAccountBalance();
+            fail("expected the failure of the only request sent");
+        } catch (StarlingBankRequestException e) {
+            assertEquals(503, e.getStatusCode());
+        }
+        assertEquals(1, server.getRequestCount(BALANCE));
+        assertEquals(0, hedger.getStats().get(BALANCE).getHedged());
+    }
+
+    @Test
+    public void testOriginalIsSentOnTheCallingThread() throws Exception {
+        RequestHedger hedger = new RequestHedger(new HedgingConfig(0, 1000, 1, 5, null));
+        List<Thread> senders = new CopyOnWriteArrayList<>();
+        HttpInterceptor recordSender = (httpRequest, chain) -> {
+            senders.add(Thread.currentThread());
+            return chain.proceed(httpRequest);
+        };
+        Starling starling = new Starling(StarlingBankEnvironment.SANDBOX, "token",
+                new InterceptingHttpClient(server.transport(), Collections.singletonList(recordSender)),
+                RequestPolicies.builder().requestHedger(hedger).build());
+
+        starling.getAccountBalance();
+        starling.getAccountBalance();
+
+        assertEquals(Collections.nCopies(2, Thread.currentThread()), senders);
+        assertEquals(0, hedger.getStats().get(BALANCE).getHedged());
+        hedger.close();
+    }
+
+    @Test
+    public void testClosedHedgerSendsEachRequestOnce() throws Exception {
+        RequestHedger hedger = new RequestHedger(new HedgingConfig(0, 50, 1, 5, null));
+        hedger.close();
+        server.delayOnce(BALANCE, 300);
+
+        assertNotNull(starling(hedger).getAccountBalance());
+
+        assertEquals(1, server.getRequestCount(BALANCE));
+        assertTrue(hedger.getStats().isEmpty());
+    }
+}
@@ -0,0 +1,132 @@
+import org.jarling.Starling;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.exceptions.StarlingBankRequestException;
+import org.jarling.http.ExponentialBackoffRetryPolicy;
+import org.jarling.http.HttpClient;
+import org.jarling.http.RequestMethod;
+import org.jarling.http.RetryPolicy;
+import org.jarling.http.RetryingHttpClient;
+import org.jarling.models.common.Amount;
+import org.jarling.models.common.CurrencyAndAmount;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.MalformedURLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class RetryingHttpClientTests {
+
+    private static final String SANDBOX_API = StarlingBankEnvironment.SANDBOX.getPath() + "/api/v1";
+    private static final RetryPolicy FAST_RETRIES = new ExponentialBackoffRetryPolicy(3, 1, 5);
+
+    private LocalStarlingServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testGetRetriedAfterServiceUnavailable() throws Exception {
+        server.respondOnce("/accounts/balance", 503, "{}");
+        server.respond("/accounts/balance", 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+        RetryingHttpClient retryingHttpClient = new RetryingHttpClient(server.transport(), FAST_RETRIES);
+
+        String balance = retryingHttpClient.get(SANDBOX_API + "/accounts/balance").asString();
+
+        assertTrue(balance.contains("GBP"));
+        assertEquals(2, server.getRequestCount("/accounts/balance"));
+        assertEquals(1, retryingHttpClient.getRetries());
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        server.respond("/accounts/balance", 503, "{}");
+        RetryingHttpClient retryingHttpClient = new RetryingHttpClient(server.transport(), FAST_RETRIES);
+
+        try {
+            retryingHttpClient.get(SANDBOX_API + "/accounts/balance");
+            fail("expected the last failure to be passed on");
+        } catch (StarlingBankRequestException e) {
+            assertEquals(503, e.getStatusCode());
+        }
+        assertEquals(3, server.getRequestCount("/accounts/balance"));
+    }
+
+    @Test
+    public void testPostNeverRetried() {
+        server.respond("/contacts", 503, "{}");
+        RetryingHttpClient retryingHttpClient = new RetryingHttpClient(server.transport(), FAST_RETRIES);
+
+        try {
+            retryingHttpClient.post(SANDBOX_API + "/contacts", null, null, "{}");
+            fail("expected the failure to be passed on");
+        } catch (StarlingBankRequestException e) {
+            assertEquals(503, e.getStatusCode());
+        }
+        assertEquals(1, server.getRequestCount("/contacts"));
+    }
+
+    @Test
+    public void testSavingsGoalTopUpRetriedWithSameTransferUid() throws Exception {
+        server.respond("/savings-goals/goal/add-money/transfer", 200, "{\"success\":true,\"transferUid\":\"transfer\"}");
+        List<String> urls = new CopyOnWriteArrayList<>();
+        HttpClient transport = server.transport();
+        // Records every PUT, fails the first with 503 and answers the rest from one canned path
+        HttpClient flaky = (HttpClient) Proxy.newProxyInstance(HttpClient.class.getClassLoader(), new Class[]{HttpClient.class}, (proxy, method, args) -> {
+            urls.add((String) args[0]);
+            if (urls.size() == 1) {
+                throw new StarlingBankRequestException(503, "", "Service Unavailable", "");
+            }
+            args[0] = SANDBOX_API + "/savings-goals/goal/add-money/transfer";
+            try {
+                return method.invoke(transport, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+        Starling starling = new Starling(StarlingBankEnvironment.SANDBOX, "token", new RetryingHttpClient(flaky, FAST_RETRIES));
+
+        String transferUid = starling.addMoneyToSavingsGoal("goal", new Amount(new CurrencyAndAmount("GBP", new BigDecimal("1.00"))));
+
+        assertEquals("transfer", transferUid);
+        assertEquals(2, urls.size());
+        assertTrue(urls.get(0).contains("/savings-goals/goal/add-money/"));
+        assertEquals(urls.get(0), urls.get(1));
+    }
+
+    @Test
+    public void testPolicyRetriesOnlyTransientFailuresOfIdempotentMethods() {
+        RetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy(5, 100, 250);
+        StarlingBankRequestException connectionError = new StarlingBankRequestException("Connection Error", "", new IOException("reset"));
+
+        for (int attempt = 1; attempt < 5; attempt++) {
+            long delayMillis = retryPolicy.retryDelayMillis(RequestMethod.GET, attempt, connectionError);
+            assertTrue(delayMillis >= 0 && delayMillis <= Math.min(250, 100 << (attempt - 1)));
+        }
+        assertTrue(retryPolicy.retryDelayMillis(RequestMethod.GET, 5, connectionError) < 0);
+        assertTrue(retryPolicy.retryDelayMillis(RequestMethod.PUT, 1, new StarlingBankRequestException(500, "", "", "")) >= 0);
+        assertTrue(retryPolicy.retryDelayMillis(RequestMethod.POST, 1, connectionError) < 0);
+        assertTrue(retryPolicy.retryDelayMillis(RequestMethod.DELETE, 1, connectionError) < 0);
+        assertTrue(retryPolicy.retryDelayMillis(RequestMethod.GET, 1, new StarlingBankRequestException(404, "", "", "")) < 0);
+        assertTrue(retryPolicy.retryDelayMillis(RequestMethod.GET, 1, new StarlingBankRequestException("Malformed URL", "", new MalformedURLException("bad"))) < 0);
+    }
+}
@@ -0,0 +1,62 @@
+import org.jarling.Starling;
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.StarlingClientFactory;
+import org.jarling.http.BasicHttpsClient;
+
+import java.util.function.IntFunction;
+
+/**
+ *
+ * Measures the time and retained heap of creating 100k per-token clients, with a new {@link Starling} per token
+ * and with views handed out by one {@link StarlingClientFactory}. No requests are sent.
+ * Not a unit test; run its main method, e.g. {@code java -cp target/classes:target/test-classes:<gson.jar> StarlingClientFactoryBenchmark}
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class StarlingClientFactoryBenchmark {
+
+    private static final int VIEWS = 100_000;
+    private static final int WARM_UP_ITERATIONS = 5;
+
+    public static void main(String[] args) throws Exception {
+        String[] tokens = new String[VIEWS];
+        for (int i = 0; i < VIEWS; i++){
+            tokens[i] = String.format("%064x", i);
+        }
+        try (StarlingClientFactory factory = new StarlingClientFactory(StarlingBankEnvironment.SANDBOX, new BasicHttpsClient(null))) {
+            report("new Starling per token", i -> new Starling(StarlingBankEnvironment.SANDBOX, tokens[i]));
+            report("StarlingClientFactory views", i -> factory.forAccessToken(tokens[i]));
+        }
+    }
+
+    private static void report(String label, IntFunction<StarlingBank> create){
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++){
+            create(create);
+        }
+        long before = usedHeap();
+        long start = System.nanoTime();
+        StarlingBank[] views = create(create);
+        long elapsed = System.nanoTime() - start;
+        long retained = usedHeap() - before;
+        System.out.println(String.format("%-30s %,8.0f ns/view %,8d bytes/view (%d views)",
+                label, (double) elapsed / VIEWS, retained / VIEWS, views.length));
+    }
+
+    private static StarlingBank[] create(IntFunction<StarlingBank> create){
+        StarlingBank[] views = new StarlingBank[VIEWS];
+        for (int i = 0; i < VIEWS; i++){
+            views[i] = create.apply(i);
+        }
+        return views;
+    }
+
+    private static long usedHeap(){
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++){
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
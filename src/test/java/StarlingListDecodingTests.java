@@ -0,0 +1,93 @@
+import org.jarling.Starling;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.models.contacts.Contact;
+import org.jarling.models.transactions.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class StarlingListDecodingTests {
+
+    private LocalStarlingServer server;
+    private Starling starling;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        starling = new Starling(StarlingBankEnvironment.SANDBOX, "token", server.transport());
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testEmbeddedMemberAfterOtherFields() throws Exception {
+        server.respond("/transactions", 200, "{\"_links\":{\"self\":{\"href\":\"/api/v1/transactions\",\"templated\":false}},"
+                + "\"_embedded\":{\"other\":[{\"id\":\"x\"}],\"transactions\":[{\"id\":\"a\",\"amount\":-1.5,\"direction\":\"OUTBOUND\"},"
+                + "{\"id\":\"b\",\"amount\":3,\"direction\":\"INBOUND\"}]}}");
+
+        List<Transaction> transactions = starling.listTransactions();
+
+        assertEquals(2, transactions.size());
+        assertEquals("a", transactions.get(0).getId());
+        assertEquals("b", transactions.get(1).getId());
+    }
+
+    @Test
+    public void testTopLevelMember() throws Exception {
+        server.respond("/contacts", 200, "{\"contacts\":[{\"id\":\"c1\",\"name\":\"Alice\"}]}");
+
+        List<Contact> contacts = starling.listContacts();
+
+        assertEquals(1, contacts.size());
+        assertEquals("Alice", contacts.get(0).getName());
+    }
+
+    @Test
+    public void testMissingMemberIsEmpty() throws Exception {
+        server.respond("/contacts", 200, "{\"_embedded\":{\"contacts\":null}}");
+        assertTrue(starling.listContacts().isEmpty());
+
+        server.respond("/contacts", 200, "{\"_links\":{}}");
+        assertTrue(starling.listContacts().isEmpty());
+    }
+
+    @Test
+    public void testStreamReleasesConnectionWhenExhausted() throws Exception {
+        server.respond("/transactions", 200, "{\"_embedded\":{\"transactions\":[{\"id\":\"a\"},{\"id\":\"b\"},{\"id\":\"c\"}]},\"_links\":{}}");
+
+        try (Stream<Transaction> transactions = starling.streamTransactions(new Date(0), new Date())) {
+            assertEquals("a,b,c", transactions.map(Transaction::getId).collect(Collectors.joining(",")));
+            assertEquals(0, server.getPoolStats().getLeased());
+        }
+        assertEquals(1, server.getPoolStats().getIdle());
+    }
+
+    @Test
+    public void testStreamReleasesConnectionWhenClosedEarly() throws Exception {
+        server.respond("/transactions", 200, "{\"_embedded\":{\"transactions\":[{\"id\":\"a\"},{\"id\":\"b\"},{\"id\":\"c\"}]}}");
+
+        try (Stream<Transaction> transactions = starling.streamTransactions(new Date(0), new Date())) {
+            Iterator<Transaction> iterator = transactions.iterator();
+            assertEquals("a", iterator.next().getId());
+            assertEquals(1, server.getPoolStats().getLeased());
+        }
+        assertEquals(0, server.getPoolStats().getLeased());
+    }
+}
@@ -0,0 +1,133 @@
+import org.jarling.Starling;
+import org.jarling.StarlingBank;
+import org.jarling.StarlingBankEnvironment;
+import org.jarling.StarlingClientFactory;
+import org.jarling.http.BasicHttpsClient;
+import org.jarling.http.HttpClient;
+import org.jarling.models.accounts.AccountBalance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ *
+ * Several tenants sharing one transport must never see each other's credentials
+ *
+ * @author Nav Roudsari (nav@rzari.co.uk)
+ *
+ */
+public class StarlingMultiTenantTests {
+
+    private static final int TENANTS = 4;
+    private static final int CALLS_PER_TENANT = 25;
+
+    private LocalStarlingServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new LocalStarlingServer();
+        server.respond("/accounts/balance", 200, "{\"amount\":1,\"currency\":\"GBP\"}");
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void testInstancesKeepTheirOwnToken() throws Exception {
+        HttpClient transport = server.transport();
+        Starling first = new Starling(StarlingBankEnvironment.SANDBOX, "first", transport);
+        new Starling(StarlingBankEnvironment.SANDBOX, "second", transport);
+
+        first.getAccountBalance();
+
+        assertEquals(Collections.singletonList("Bearer first"), server.getAuthorizations("/accounts/balance"));
+    }
+
+    @Test
+    public void testConcurrentTenantsOnSharedTransport() throws Exception {
+        HttpClient transport = server.transport();
+        ExecutorService executor = Executors.newFixedThreadPool(TENANTS);
+        try {
+            List<Future<Void>> calls = new ArrayList<>();
+            for (int tenant = 0; tenant < TENANTS; tenant++){
+                Starling starling = new Starling(StarlingBankEnvironment.SANDBOX, "tenant-" + tenant, transport);
+                for (int call = 0; call < CALLS_PER_TENANT; call++){
+                    calls.add(executor.submit((Callable<Void>) () -> {
+                        AccountBalance balance = starling.getAccountBalance();
+                        assertNotNull(balance);
+                        return null;
+                    }));
+                }
+            }
+            for (Future<Void> call : calls){
+                call.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Integer> callsByToken = new HashMap<>();
+        for (String authorization : server.getAuthorizations("/accounts/balance")){
+            callsByToken.merge(authorization, 1, Integer::sum);
+        }
+        assertEquals(TENANTS, callsByToken.size());
+        // Concurrent identical calls of one tenant may share a request, but never one of another tenant
+        for (int tenant = 0; tenant < TENANTS; tenant++){
+            Integer tenantCalls = callsByToken.get("Bearer tenant-" + tenant);
+            assertNotNull(tenantCalls);
+            assertTrue(tenantCalls <= CALLS_PER_TENANT);
+        }
+    }
+
+    @Test
+    public void testClientDoesNotShareCallerHeaders() {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("User-Agent", "test");
+        BasicHttpsClient client = new BasicHttpsClient(headers);
+        headers.put("Authorization", "Bearer leaked");
+
+        assertFalse(client.getDefaultRequestHeaders().containsKey("Authorization"));
+        try {
+            client.getDefaultRequestHeaders().put("Authorization", "Bearer leaked");
+            fail("expected the default headers to be read-only");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    @Test
+    public void testFactoryViewsShareTransport() throws Exception {
+        try (StarlingClientFactory factory = new StarlingClientFactory(StarlingBankEnvironment.SANDBOX, server.transport())) {
+            StarlingBank first = factory.forAccessToken("first");
+            StarlingBank second = factory.forAccessToken("second");
+
+            second.getAccountBalance();
+            first.getAccountBalance();
+        }
+
+        assertEquals(Arrays.asList("Bearer second", "Bearer first"), server.getAuthorizations("/accounts/balance"));
+        assertEquals(1, server.getPoolStats().getCreated());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFactoryRejectsBlankToken() throws IOException {
+        try (StarlingClientFactory factory = new StarlingClientFactory(StarlingBankEnvironment.SANDBOX, server.transport())) {
+            factory.forAccessToken("");
+        }
+    }
+}